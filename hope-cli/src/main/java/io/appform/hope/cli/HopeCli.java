@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.cli;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.exceptions.errorstrategy.DefaultErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.lang.HopeLangEngine;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line tool to evaluate a rule file against a newline delimited json file, see {@link NdjsonFilter}.
+ * Matching lines or per rule counts are written to the output, a throughput report is printed to stderr.
+ */
+public class HopeCli {
+    private static final String USAGE = String.join(
+            System.lineSeparator(),
+            "Usage: hope-cli --rules <file> --input <file> [options]",
+            "  --rules <file>       Rules, one per line",
+            "  --input <file>       Newline delimited json documents",
+            "  --output <file>      Output file, stdout by default",
+            "  --counts             Write the number of documents matched by every rule instead of matching lines",
+            "  --threads <n>        Chunks evaluated in parallel, number of processors by default",
+            "  --chunk-size <mb>    Size of chunks in megabytes, 32 by default",
+            "  --strict             Fail on lines that cannot be read or evaluated instead of skipping them",
+            "  --inject-defaults    Evaluate documents with missing or mistyped values using default values instead",
+            "                       of treating them as errors");
+
+    private Path rules;
+    private Path input;
+    private Path output;
+    private boolean counts;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long chunkSize = 32L * 1024 * 1024;
+    private boolean strict;
+    private boolean injectDefaults;
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return Exit code of the tool
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        final HopeCli cli = new HopeCli();
+        try {
+            cli.parseArguments(args);
+        }
+        catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        try {
+            cli.execute(out, err);
+            return 0;
+        }
+        catch (Exception e) {
+            err.println("Error: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private void parseArguments(String[] args) {
+        for (int index = 0; index < args.length; index++) {
+            switch (args[index]) {
+                case "--rules" -> rules = Paths.get(value(args, ++index));
+                case "--input" -> input = Paths.get(value(args, ++index));
+                case "--output" -> output = Paths.get(value(args, ++index));
+                case "--counts" -> counts = true;
+                case "--threads" -> threads = positive(args, ++index);
+                case "--chunk-size" -> chunkSize = positive(args, ++index) * 1024L * 1024L;
+                case "--strict" -> strict = true;
+                case "--inject-defaults" -> injectDefaults = true;
+                default -> throw new IllegalArgumentException("Unknown option " + args[index]);
+            }
+        }
+        if (null == rules || null == input) {
+            throw new IllegalArgumentException("Both --rules and --input are required");
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    private static int positive(String[] args, int index) {
+        final String value = value(args, index);
+        try {
+            final int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        }
+        catch (NumberFormatException e) {
+            //Reported below
+        }
+        throw new IllegalArgumentException("Expected a positive number for " + args[index - 1] + ", got " + value);
+    }
+
+    private void execute(PrintStream out, PrintStream err) throws IOException {
+        final HopeLangEngine engine = HopeLangEngine.builder()
+                .errorHandlingStrategy(injectDefaults
+                                       ? new InjectValueErrorHandlingStrategy()
+                                       : new DefaultErrorHandlingStrategy())
+                .build();
+        final List<String> ruleLines = Files.readAllLines(rules)
+                .stream()
+                .filter(line -> !line.isBlank())
+                .toList();
+        final List<Evaluatable> parsed = ruleLines.stream()
+                .map(engine::parse)
+                .toList();
+        final NdjsonFilter filter = new NdjsonFilter(engine, engine.compile(parsed), threads, chunkSize, strict);
+        final Summary summary;
+        if (counts) {
+            summary = filter.run(input, null);
+            try (PrintStream target = null == output
+                                      ? null
+                                      : new PrintStream(Files.newOutputStream(output), false, StandardCharsets.UTF_8)) {
+                final PrintStream printer = null == target ? out : target;
+                for (int rule = 0; rule < ruleLines.size(); rule++) {
+                    printer.println(summary.getRuleCounts()[rule] + "\t" + ruleLines.get(rule));
+                }
+                printer.flush();
+            }
+        }
+        else if (null == output) {
+            final WritableByteChannel channel = Channels.newChannel(out);
+            summary = filter.run(input, channel);
+            out.flush();
+        }
+        else {
+            try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                summary = filter.run(input, channel);
+            }
+        }
+        err.printf(Locale.ROOT, "Documents: %d, matched: %d, errors: %d%n",
+                   summary.getDocuments(), summary.getMatched(), summary.getErrors());
+        err.printf(Locale.ROOT, "Read %.1f MB in %.3f s: %.0f docs/sec, %.1f MB/sec%n",
+                   summary.getBytes() / (1024.0 * 1024.0), summary.getElapsedSeconds(),
+                   summary.getDocumentsPerSecond(), summary.getMegabytesPerSecond());
+    }
+}
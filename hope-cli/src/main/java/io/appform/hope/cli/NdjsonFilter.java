@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.cli;
+
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.lang.DocumentFormat;
+import io.appform.hope.lang.HopeLangEngine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Evaluates rules against every line of a newline delimited json file. The file is memory mapped and split into
+ * chunks that end at line boundaries, chunks are evaluated in parallel. Lines are evaluated in place from the mapped
+ * chunk, and matching lines are written to the output as slices of the mapped chunk, in input order.
+ */
+@Slf4j
+public class NdjsonFilter {
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final ByteBuffer LINE_SEPARATOR = ByteBuffer.wrap(new byte[]{NEWLINE}).asReadOnlyBuffer();
+    //Chunks kept in flight per thread, so that threads do not wait for the chunk being written
+    private static final int CHUNKS_PER_THREAD = 2;
+
+    private final HopeLangEngine engine;
+    private final CompiledRuleList rules;
+    private final int threads;
+    private final long chunkSize;
+    private final boolean strict;
+
+    /**
+     * @param engine    Engine the rules were compiled with
+     * @param rules     Compiled rules
+     * @param threads   Number of chunks evaluated in parallel
+     * @param chunkSize Approximate size of a chunk in bytes, chunks are extended to the end of their last line
+     * @param strict    If true, the run fails on the first line that cannot be read or evaluated. Otherwise such
+     *                  lines are counted as errors and skipped.
+     */
+    public NdjsonFilter(HopeLangEngine engine, CompiledRuleList rules, int threads, long chunkSize, boolean strict) {
+        this.engine = engine;
+        this.rules = rules;
+        this.threads = threads;
+        this.chunkSize = Math.min(chunkSize, Integer.MAX_VALUE / 2);
+        this.strict = strict;
+    }
+
+    /**
+     * Evaluates the rules against every line of the input.
+     *
+     * @param input  Newline delimited json file
+     * @param output Receives every matching line, null to only count matches
+     * @return Totals for the run
+     * @throws IOException if the input cannot be read or the output cannot be written
+     */
+    public Summary run(Path input, WritableByteChannel output) throws IOException {
+        final long start = System.nanoTime();
+        final long[] ruleCounts = new long[rules.size()];
+        long documents = 0;
+        long matched = 0;
+        long errors = 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            final Queue<CompletableFuture<ChunkResult>> pending = new ArrayDeque<>();
+            long position = 0;
+            while (position < size || !pending.isEmpty()) {
+                while (position < size && pending.size() < threads * CHUNKS_PER_THREAD) {
+                    final long from = position;
+                    final long to = lineBoundary(channel, Math.min(size, from + chunkSize), size);
+                    final boolean collectLines = null != output;
+                    pending.add(CompletableFuture.supplyAsync(() -> evaluate(channel, from, to, collectLines),
+                                                              executor));
+                    position = to;
+                }
+                final ChunkResult result = join(pending.poll());
+                documents += result.documents;
+                matched += result.matched;
+                errors += result.errors;
+                for (int rule = 0; rule < ruleCounts.length; rule++) {
+                    ruleCounts[rule] += result.ruleCounts[rule];
+                }
+                if (null != output) {
+                    result.write(output);
+                }
+            }
+            return new Summary(documents, matched, errors, size, System.nanoTime() - start, ruleCounts);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Position just after the first newline at or after the position, size if there is none
+     */
+    private static long lineBoundary(FileChannel channel, long position, long size) throws IOException {
+        if (position >= size) {
+            return size;
+        }
+        final ByteBuffer probe = ByteBuffer.allocate(8192);
+        long current = position - 1;
+        while (current < size) {
+            probe.clear();
+            final int read = channel.read(probe, current);
+            if (read <= 0) {
+                return size;
+            }
+            for (int index = 0; index < read; index++) {
+                if (NEWLINE == probe.get(index)) {
+                    return current + index + 1;
+                }
+            }
+            current += read;
+        }
+        return size;
+    }
+
+    private ChunkResult evaluate(FileChannel channel, long from, long to, boolean collectLines) {
+        final long length = to - from;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Line at offset " + from + " is too long to be mapped");
+        }
+        final MappedByteBuffer chunk;
+        try {
+            chunk = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final ChunkResult result = new ChunkResult(chunk, rules.size(), collectLines);
+        final int limit = chunk.limit();
+        int lineStart = 0;
+        for (int index = 0; index < limit; index++) {
+            if (NEWLINE == chunk.get(index)) {
+                evaluateLine(result, from, lineStart, index);
+                lineStart = index + 1;
+            }
+        }
+        if (lineStart < limit) {
+            evaluateLine(result, from, lineStart, limit);
+        }
+        return result;
+    }
+
+    private void evaluateLine(ChunkResult result, long chunkOffset, int from, int to) {
+        final ByteBuffer chunk = result.chunk;
+        int end = to;
+        if (end > from && CARRIAGE_RETURN == chunk.get(end - 1)) {
+            end--;
+        }
+        if (isBlank(chunk, from, end)) {
+            return;
+        }
+        final List<Boolean> results;
+        try {
+            results = engine.evaluate(rules, chunk.slice(from, end - from), DocumentFormat.JSON);
+        }
+        catch (IOException | RuntimeException e) {
+            if (strict) {
+                throw new IllegalStateException("Error evaluating line at offset " + (chunkOffset + from) + ": "
+                                                        + e.getMessage(), e);
+            }
+            log.debug("Skipping line at offset {}: {}", chunkOffset + from, e.getMessage());
+            result.errors++;
+            return;
+        }
+        result.documents++;
+        boolean any = false;
+        for (int rule = 0; rule < results.size(); rule++) {
+            if (Boolean.TRUE.equals(results.get(rule))) {
+                result.ruleCounts[rule]++;
+                any = true;
+            }
+        }
+        if (any) {
+            result.matched++;
+            result.addLine(from, end);
+        }
+    }
+
+    private static boolean isBlank(ByteBuffer chunk, int from, int to) {
+        for (int index = from; index < to; index++) {
+            if (!Character.isWhitespace(chunk.get(index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ChunkResult join(CompletableFuture<ChunkResult> future) throws IOException {
+        try {
+            return future.join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Counts for a chunk, and the bounds of matching lines within the chunk if lines are written
+     */
+    private static final class ChunkResult {
+        private final ByteBuffer chunk;
+        private final long[] ruleCounts;
+        private final boolean collectLines;
+        private long documents;
+        private long matched;
+        private long errors;
+        private int[] lines = new int[64];
+        private int lineCount;
+
+        private ChunkResult(ByteBuffer chunk, int ruleCount, boolean collectLines) {
+            this.chunk = chunk;
+            this.ruleCounts = new long[ruleCount];
+            this.collectLines = collectLines;
+        }
+
+        private void addLine(int from, int to) {
+            if (!collectLines) {
+                return;
+            }
+            if (lines.length < 2 * (lineCount + 1)) {
+                lines = Arrays.copyOf(lines, lines.length * 2);
+            }
+            lines[2 * lineCount] = from;
+            lines[2 * lineCount + 1] = to;
+            lineCount++;
+        }
+
+        private void write(WritableByteChannel output) throws IOException {
+            final List<ByteBuffer> buffers = new ArrayList<>(2 * lineCount);
+            for (int line = 0; line < lineCount; line++) {
+                final int from = lines[2 * line];
+                buffers.add(chunk.slice(from, lines[2 * line + 1] - from));
+                buffers.add(LINE_SEPARATOR.duplicate());
+            }
+            if (output instanceof GatheringByteChannel gatheringChannel) {
+                final ByteBuffer[] array = buffers.toArray(ByteBuffer[]::new);
+                long remaining = 0;
+                for (final ByteBuffer buffer : array) {
+                    remaining += buffer.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= gatheringChannel.write(array);
+                }
+                return;
+            }
+            for (final ByteBuffer buffer : buffers) {
+                while (buffer.hasRemaining()) {
+                    output.write(buffer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.cli;
+
+import lombok.Value;
+
+/**
+ * Totals for a run of {@link NdjsonFilter}
+ */
+@Value
+public class Summary {
+    long documents;
+    long matched;
+    long errors;
+    long bytes;
+    long elapsedNanos;
+    /**
+     * Number of documents matched by every rule, in order of rules
+     */
+    long[] ruleCounts;
+
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public double getDocumentsPerSecond() {
+        return 0 == elapsedNanos ? 0 : documents / getElapsedSeconds();
+    }
+
+    public double getMegabytesPerSecond() {
+        return 0 == elapsedNanos ? 0 : bytes / (1024.0 * 1024.0) / getElapsedSeconds();
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.lang.HopeLangEngine;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for filtering newline delimited json files
+ */
+class HopeCliTest {
+    private static final List<String> RULES = List.of(
+            "'/type' == 'A' && '/amount' > 50",
+            "'/nested/flag' == true",
+            "\"$.amount\" < 5");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @SneakyThrows
+    void testMatchingLinesInOrder() {
+        val lines = lines(3000);
+        val input = write(String.join("\n", lines) + "\n");
+        val engine = HopeLangEngine.builder()
+                .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+                .build();
+        val parsed = RULES.stream().map(engine::parse).toList();
+        val expected = new StringBuilder();
+        val counts = new long[RULES.size()];
+        int matched = 0;
+        for (final String line : lines) {
+            if (line.isBlank() || line.startsWith("{ broken")) {
+                continue;
+            }
+            val results = engine.evaluate(parsed, mapper.readTree(line));
+            IntStream.range(0, results.size()).filter(results::get).forEach(rule -> counts[rule]++);
+            if (results.contains(true)) {
+                expected.append(line.stripTrailing()).append('\n');
+                matched++;
+            }
+        }
+        for (final int chunkSize : new int[]{1, 100, 4096, 1 << 20}) {
+            val output = new ByteArrayOutputStream();
+            val summary = new NdjsonFilter(engine, engine.compile(parsed), 4, chunkSize, false)
+                    .run(input, Channels.newChannel(output));
+            assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+            assertEquals(matched, summary.getMatched());
+            assertEquals(30, summary.getErrors());
+            assertEquals(3000 - 30 - 60, summary.getDocuments());
+            assertArrayEquals(counts, summary.getRuleCounts());
+            assertEquals(Files.size(input), summary.getBytes());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testCommandLine() {
+        val input = write("{ \"type\" : \"A\", \"amount\" : 60, \"nested\" : { \"flag\" : false } }\r\n"
+                                  + "{ \"type\" : \"B\", \"amount\" : 1, \"nested\" : { \"flag\" : false } }\n"
+                                  + "{ \"type\" : \"A\", \"amount\" : 6, \"nested\" : { \"flag\" : false } }");
+        val rules = directory.resolve("rules.txt");
+        Files.write(rules, RULES);
+
+        val out = new ByteArrayOutputStream();
+        val err = new ByteArrayOutputStream();
+        assertEquals(0, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", input.toString()},
+                                    new PrintStream(out), new PrintStream(err)));
+        assertEquals("{ \"type\" : \"A\", \"amount\" : 60, \"nested\" : { \"flag\" : false } }\n"
+                             + "{ \"type\" : \"B\", \"amount\" : 1, \"nested\" : { \"flag\" : false } }\n",
+                     out.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Documents: 3, matched: 2, errors: 0"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("docs/sec"));
+
+        val countsFile = directory.resolve("counts.txt");
+        assertEquals(0, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", input.toString(),
+                                            "--counts", "--threads", "2", "--output", countsFile.toString()},
+                                    new PrintStream(out), new PrintStream(err)));
+        assertEquals(List.of("1\t" + RULES.get(0), "0\t" + RULES.get(1), "1\t" + RULES.get(2)),
+                     Files.readAllLines(countsFile));
+
+        assertEquals(2, HopeCli.run(new String[]{"--rules", rules.toString()},
+                                    new PrintStream(out), new PrintStream(err)));
+        assertEquals(2, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", input.toString(),
+                                            "--threads", "0"},
+                                    new PrintStream(out), new PrintStream(err)));
+        val broken = write("{ \"type\" : \"A\", \"amount\" : 60 }\n{ broken\n");
+        assertEquals(1, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", broken.toString(),
+                                            "--strict"},
+                                    new PrintStream(out), new PrintStream(err)));
+    }
+
+    @Test
+    @SneakyThrows
+    void testMissingValues() {
+        val input = write("{}\n{ \"amount\" : 10 }\n{ \"amount\" : 200 }\n");
+        val rules = directory.resolve("rules.txt");
+        Files.write(rules, List.of("'/amount' < 100"));
+
+        val out = new ByteArrayOutputStream();
+        val err = new ByteArrayOutputStream();
+        assertEquals(0, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", input.toString()},
+                                    new PrintStream(out), new PrintStream(err)));
+        assertEquals("{ \"amount\" : 10 }\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Documents: 2, matched: 1, errors: 1"));
+
+        out.reset();
+        err.reset();
+        assertEquals(0, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", input.toString(),
+                                            "--inject-defaults"},
+                                    new PrintStream(out), new PrintStream(err)));
+        assertEquals("{}\n{ \"amount\" : 10 }\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Documents: 3, matched: 2, errors: 0"));
+
+        assertEquals(1, HopeCli.run(new String[]{"--rules", rules.toString(), "--input", input.toString(),
+                                            "--strict"},
+                                    new PrintStream(out), new PrintStream(err)));
+    }
+
+    private List<String> lines(int count) {
+        val lines = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            if (i % 100 == 7) {
+                lines.add("{ broken " + i);
+            }
+            else if (i % 50 == 3) {
+                lines.add(i % 100 == 3 ? "" : "   ");
+            }
+            else {
+                val line = "{ \"type\" : \"" + (i % 3 == 0 ? "A" : "B") + "\", \"amount\" : " + i % 97
+                        + ", \"nested\" : { \"flag\" : " + (i % 11 == 0) + " } }";
+                lines.add(i % 13 == 0 ? line + "\r" : line);
+            }
+        }
+        return lines;
+    }
+
+    @SneakyThrows
+    private Path write(String content) {
+        val file = Files.createTempFile(directory, "input", ".ndjson");
+        Files.writeString(file, content);
+        return file;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.accessors;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Reads values from documents of a type, so that rules can be evaluated against documents that are not a
+ * {@link JsonNode} without converting them to a tree first. Pointers are resolved directly on the document. A tree
+ * for the whole document is only built for rules that need one, such as rules with json paths. Implementations
+ * must be thread safe.
+ *
+ * @param <T> Type of documents
+ */
+public interface DocumentAccessor<T> {
+
+    /**
+     * Resolves a pointer against a document. Results must be the same as resolving the pointer against the tree
+     * returned by {@link #toTree(Object)}.
+     *
+     * @param document Document to read from
+     * @param pointer  Pointer to resolve
+     * @return Node for the value at the pointer, {@link com.fasterxml.jackson.databind.node.MissingNode} if there is
+     * none
+     */
+    JsonNode at(T document, JsonPointer pointer);
+
+    /**
+     * @param document Document to convert
+     * @return Tree for the whole document
+     */
+    JsonNode toTree(T document);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.accessors;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Accessor for documents that already are a tree
+ */
+public final class JsonNodeAccessor implements DocumentAccessor<JsonNode> {
+    public static final JsonNodeAccessor INSTANCE = new JsonNodeAccessor();
+
+    private JsonNodeAccessor() {
+    }
+
+    @Override
+    public JsonNode at(JsonNode document, JsonPointer pointer) {
+        return document.at(pointer);
+    }
+
+    @Override
+    public JsonNode toTree(JsonNode document) {
+        return document;
+    }
+}
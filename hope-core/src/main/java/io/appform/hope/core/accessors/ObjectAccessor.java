@@ -0,0 +1,324 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.accessors;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIdentityReference;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.node.BigIntegerNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.FloatNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accessor for plain java objects: {@link Map}s, {@link Collection}s, arrays, beans and records, nested in any way.
+ * Pointers are resolved by walking the objects. Properties of beans and records are read through
+ * {@link MethodHandle}s for the getters and fields the {@link ObjectMapper} serializes, cached per class. Only the
+ * value at the pointer is converted to a {@link JsonNode}. Objects the mapper serializes in a way that cannot be
+ * followed directly (custom serializers, type information, unwrapped or any-getter properties and so on) are
+ * converted with {@link ObjectMapper#valueToTree(Object)} and the rest of the pointer is resolved on the tree, so
+ * results are always the same as resolving the pointer against the tree of the whole document.
+ */
+public final class ObjectAccessor implements DocumentAccessor<Object> {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final List<Class<? extends Annotation>> UNSUPPORTED_ANNOTATIONS = List.of(
+            JsonSerialize.class,
+            JsonFormat.class,
+            JsonRawValue.class,
+            JsonUnwrapped.class,
+            JsonTypeInfo.class,
+            JsonIdentityInfo.class,
+            JsonIdentityReference.class);
+
+    private final ObjectMapper mapper;
+    private final boolean plainMaps;
+    private final ClassValue<Properties> properties = new ClassValue<>() {
+        @Override
+        protected Properties computeValue(Class<?> type) {
+            return introspect(type);
+        }
+    };
+
+    /**
+     * @param mapper Mapper that defines how objects are turned into trees
+     */
+    public ObjectAccessor(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.plainMaps = keepsValues(mapper.getSerializationConfig()
+                                             .getDefaultPropertyInclusion(Map.class)
+                                             .getContentInclusion());
+    }
+
+    @Override
+    public JsonNode at(Object document, JsonPointer pointer) {
+        Object current = document;
+        JsonPointer remaining = pointer;
+        while (!remaining.matches()) {
+            if (null == current || current instanceof String || current instanceof Number || current instanceof Boolean) {
+                return MissingNode.getInstance();
+            }
+            if (current instanceof JsonNode node) {
+                return node.at(remaining);
+            }
+            if (current instanceof Map<?, ?> map && plainMaps) {
+                final String name = remaining.getMatchingProperty();
+                final Object next = map.get(name);
+                if (null == next && !map.containsKey(name)) {
+                    return hasOnlyStringKeys(map)
+                           ? MissingNode.getInstance()
+                           : toTree(map).at(remaining);
+                }
+                current = next;
+            }
+            else if (current instanceof Map<?, ?> map) {
+                return toTree(map).at(remaining);
+            }
+            else if (current instanceof List<?> list) {
+                final int index = remaining.getMatchingIndex();
+                if (index < 0 || index >= list.size()) {
+                    return MissingNode.getInstance();
+                }
+                current = list.get(index);
+            }
+            else if (current instanceof Collection<?> collection) {
+                final int index = remaining.getMatchingIndex();
+                if (index < 0 || index >= collection.size()) {
+                    return MissingNode.getInstance();
+                }
+                final Iterator<?> iterator = collection.iterator();
+                for (int skipped = 0; skipped < index; skipped++) {
+                    iterator.next();
+                }
+                current = iterator.next();
+            }
+            else if (current.getClass().isArray() && !(current instanceof byte[]) && !(current instanceof char[])) {
+                final int index = remaining.getMatchingIndex();
+                if (index < 0 || index >= Array.getLength(current)) {
+                    return MissingNode.getInstance();
+                }
+                current = Array.get(current, index);
+            }
+            else {
+                final Properties beanProperties = properties.get(current.getClass());
+                if (null == beanProperties.getters) {
+                    return toTree(current).at(remaining);
+                }
+                final MethodHandle getter = beanProperties.getters.get(remaining.getMatchingProperty());
+                if (null == getter) {
+                    return MissingNode.getInstance();
+                }
+                current = read(getter, current);
+            }
+            remaining = remaining.tail();
+        }
+        return node(current);
+    }
+
+    @Override
+    public JsonNode toTree(Object document) {
+        final JsonNode node = mapper.valueToTree(document);
+        return null == node
+               ? NullNode.getInstance()
+               : node;
+    }
+
+    private JsonNode node(Object value) {
+        if (null == value) {
+            return NullNode.getInstance();
+        }
+        if (value instanceof JsonNode node) {
+            return node;
+        }
+        if (value instanceof String string) {
+            return TextNode.valueOf(string);
+        }
+        if (value instanceof Boolean bool) {
+            return BooleanNode.valueOf(bool);
+        }
+        if (value instanceof Integer number) {
+            return IntNode.valueOf(number);
+        }
+        if (value instanceof Long number) {
+            return LongNode.valueOf(number);
+        }
+        if (value instanceof Double number) {
+            return DoubleNode.valueOf(number);
+        }
+        if (value instanceof Float number) {
+            return FloatNode.valueOf(number);
+        }
+        if (value instanceof BigDecimal number) {
+            return DecimalNode.valueOf(number);
+        }
+        if (value instanceof BigInteger number) {
+            return BigIntegerNode.valueOf(number);
+        }
+        return toTree(value);
+    }
+
+    private static Object read(MethodHandle getter, Object bean) {
+        try {
+            return (Object) getter.invokeExact(bean);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable t) {
+            throw new IllegalArgumentException("Could not read property of " + bean.getClass().getName(), t);
+        }
+    }
+
+    private static boolean hasOnlyStringKeys(Map<?, ?> map) {
+        for (final Object key : map.keySet()) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the getters for the properties the mapper serializes for a class. Returns {@link Properties#NONE} if the
+     * mapper does not serialize the class as a plain bean.
+     */
+    private Properties introspect(Class<?> type) {
+        try {
+            final SerializationConfig config = mapper.getSerializationConfig();
+            final JavaType javaType = config.constructType(type);
+            final BeanDescription description = config.introspect(javaType);
+            final JsonSerializer<Object> serializer = mapper.getSerializerProviderInstance().findValueSerializer(type);
+            if (serializer.getClass() != BeanSerializer.class
+                    || serializer.usesObjectId()
+                    || null != description.findAnyGetter()
+                    || null != description.findJsonValueAccessor()
+                    || null != mapper.getSerializerFactory().createTypeSerializer(config, javaType)) {
+                return Properties.NONE;
+            }
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final Map<String, BeanPropertyDefinition> definitions = new HashMap<>();
+            for (final BeanPropertyDefinition definition : description.findProperties()) {
+                definitions.put(definition.getName(), definition);
+            }
+            final Map<String, MethodHandle> getters = new HashMap<>();
+            final Iterator<PropertyWriter> writers = serializer.properties();
+            while (writers.hasNext()) {
+                final PropertyWriter writer = writers.next();
+                if (writer.getClass() != BeanPropertyWriter.class) {
+                    return Properties.NONE;
+                }
+                final BeanPropertyWriter propertyWriter = (BeanPropertyWriter) writer;
+                final AnnotatedMember member = propertyWriter.getMember();
+                if (null != propertyWriter.getTypeSerializer()
+                        || null != propertyWriter.getViews()
+                        || UNSUPPORTED_ANNOTATIONS.stream().anyMatch(member::hasAnnotation)
+                        || !keepsValues(inclusion(config, description, definitions.get(propertyWriter.getName()),
+                                                  propertyWriter))) {
+                    return Properties.NONE;
+                }
+                final Member accessor = member.getMember();
+                final MethodHandle getter;
+                if (accessor instanceof Method method) {
+                    getter = lookup.unreflect(method);
+                }
+                else if (accessor instanceof Field field) {
+                    getter = lookup.unreflectGetter(field);
+                }
+                else {
+                    return Properties.NONE;
+                }
+                getters.put(propertyWriter.getName(), getter.asType(GETTER_TYPE));
+            }
+            return new Properties(Map.copyOf(getters));
+        }
+        catch (JsonMappingException | IllegalAccessException | RuntimeException e) {
+            return Properties.NONE;
+        }
+    }
+
+    private static JsonInclude.Include inclusion(
+            SerializationConfig config,
+            BeanDescription description,
+            BeanPropertyDefinition definition,
+            BeanPropertyWriter propertyWriter) {
+        JsonInclude.Value inclusion = description.findPropertyInclusion(
+                config.getDefaultInclusion(description.getBeanClass(), propertyWriter.getType().getRawClass()));
+        if (null != definition) {
+            inclusion = inclusion.withOverrides(definition.findInclusion());
+        }
+        return inclusion.getValueInclusion();
+    }
+
+    /**
+     * Values that are left out by an inclusion other than these would be read as present but are missing in the tree.
+     * Nulls are handled the same way as missing values during evaluation.
+     */
+    private static boolean keepsValues(JsonInclude.Include inclusion) {
+        return inclusion == JsonInclude.Include.ALWAYS
+                || inclusion == JsonInclude.Include.USE_DEFAULTS
+                || inclusion == JsonInclude.Include.NON_NULL
+                || inclusion == JsonInclude.Include.NON_ABSENT;
+    }
+
+    private static final class Properties {
+        private static final Properties NONE = new Properties(null);
+
+        private final Map<String, MethodHandle> getters;
+
+        private Properties(Map<String, MethodHandle> getters) {
+            this.getters = getters;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import io.appform.hope.core.BinaryOperator;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates rules against a batch of documents one node at a time instead of one document at a time. Every pointer
+ * compared by the rules is resolved once per document of the batch into a column of primitive values. Every rule is
+ * then evaluated across the whole batch, carrying a selection vector of the rows still being evaluated:
+ * <ul>
+ *     <li>{@link AndCombiner} passes only the rows for which the previous expressions held to the next expression</li>
+ *     <li>{@link OrCombiner} passes only the rows for which no previous expression held to the next expression</li>
+ *     <li>Comparisons between pointers and literals run in a loop over the selected rows of the columns</li>
+ * </ul>
+ * Everything else, and rows where a compared value is missing or not a number, string or boolean, is evaluated by
+ * {@link Evaluator.LogicEvaluator} against the document of the row. Every row is evaluated exactly as far as it
+ * would be when evaluating the rules against the document on its own, so results, defaults and errors are the same.
+ * Not thread safe, create one per batch.
+ */
+public final class BatchEvaluator {
+    private static final byte OTHER = 0;
+    private static final byte NUMBER = 1;
+    private static final byte TEXT = 2;
+    private static final byte BOOLEAN = 3;
+
+    private final List<JsonNode> documents;
+    private final int size;
+    private final Evaluator.EvaluationContext rowContext;
+    private final Evaluator.LogicEvaluator logicEvaluator;
+    private final Map<String, Column> columns = new HashMap<>();
+    private int contextRow = -1;
+
+    /**
+     * @param rowContext Context owned by the caller, used to evaluate nodes against single documents
+     * @param documents  Documents of the batch
+     */
+    public BatchEvaluator(Evaluator.EvaluationContext rowContext, List<JsonNode> documents) {
+        for (final JsonNode document : documents) {
+            Preconditions.checkArgument(null != document, "json can not be null");
+        }
+        this.documents = documents;
+        this.size = documents.size();
+        this.rowContext = rowContext;
+        this.logicEvaluator = new Evaluator.LogicEvaluator(rowContext);
+    }
+
+    /**
+     * @param rules Rules to be evaluated
+     * @return Result of every rule for every document, in order of documents and rules
+     */
+    public List<List<Boolean>> evaluate(List<Evaluatable> rules) {
+        final Boolean[][] results = new Boolean[size][rules.size()];
+        final int[] all = new int[size];
+        Arrays.setAll(all, row -> row);
+        final int[] matches = new int[size];
+        for (int rule = 0; rule < rules.size(); rule++) {
+            final int count = filter(rules.get(rule), all, size, matches);
+            for (int row = 0; row < size; row++) {
+                results[row][rule] = Boolean.FALSE;
+            }
+            for (int i = 0; i < count; i++) {
+                results[matches[i]][rule] = Boolean.TRUE;
+            }
+        }
+        final List<List<Boolean>> list = new ArrayList<>(size);
+        for (final Boolean[] row : results) {
+            list.add(Arrays.asList(row));
+        }
+        return list;
+    }
+
+    /**
+     * Evaluates an expression for the selected rows.
+     *
+     * @param evaluatable Expression to evaluate
+     * @param rows        Selected rows, in ascending order
+     * @param count       Number of selected rows
+     * @param matches     Receives the selected rows for which the expression holds, in ascending order
+     * @return Number of rows for which the expression holds
+     */
+    private int filter(Evaluatable evaluatable, int[] rows, int count, int[] matches) {
+        if (evaluatable instanceof AndCombiner andCombiner) {
+            return and(andCombiner.getExpressions(), rows, count, matches);
+        }
+        if (evaluatable instanceof OrCombiner orCombiner) {
+            return or(orCombiner.getExpressions(), rows, count, matches);
+        }
+        if (evaluatable instanceof Equals equals) {
+            return equality(equals, true, rows, count, matches);
+        }
+        if (evaluatable instanceof NotEquals notEquals) {
+            return equality(notEquals, false, rows, count, matches);
+        }
+        if (evaluatable instanceof Greater greater) {
+            return range(greater, false, true, rows, count, matches);
+        }
+        if (evaluatable instanceof GreaterEquals greaterEquals) {
+            return range(greaterEquals, true, true, rows, count, matches);
+        }
+        if (evaluatable instanceof Lesser lesser) {
+            return range(lesser, false, false, rows, count, matches);
+        }
+        if (evaluatable instanceof LesserEquals lesserEquals) {
+            return range(lesserEquals, true, false, rows, count, matches);
+        }
+        return filterRows(evaluatable, rows, count, matches);
+    }
+
+    private int and(List<Evaluatable> expressions, int[] rows, int count, int[] matches) {
+        int[] selected = rows;
+        int selectedCount = count;
+        for (final Evaluatable expression : expressions) {
+            if (0 == selectedCount) {
+                break;
+            }
+            final int[] next = new int[selectedCount];
+            selectedCount = filter(expression, selected, selectedCount, next);
+            selected = next;
+        }
+        System.arraycopy(selected, 0, matches, 0, selectedCount);
+        return selectedCount;
+    }
+
+    private int or(List<Evaluatable> expressions, int[] rows, int count, int[] matches) {
+        final boolean[] matched = new boolean[size];
+        int[] remaining = Arrays.copyOf(rows, count);
+        int remainingCount = count;
+        final int[] held = new int[count];
+        for (final Evaluatable expression : expressions) {
+            if (0 == remainingCount) {
+                break;
+            }
+            final int heldCount = filter(expression, remaining, remainingCount, held);
+            for (int i = 0; i < heldCount; i++) {
+                matched[held[i]] = true;
+            }
+            int kept = 0;
+            for (int i = 0; i < remainingCount; i++) {
+                if (!matched[remaining[i]]) {
+                    remaining[kept++] = remaining[i];
+                }
+            }
+            remainingCount = kept;
+        }
+        int matchCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (matched[rows[i]]) {
+                matches[matchCount++] = rows[i];
+            }
+        }
+        return matchCount;
+    }
+
+    /**
+     * Evaluates {@code ==} and {@code !=} for the selected rows. Mirrors
+     * {@link io.appform.hope.core.utils.Converters#objectValue} for pointers and literals.
+     */
+    private int equality(BinaryOperator<?> comparison, boolean equal, int[] rows, int count, int[] matches) {
+        final Operand lhs = scalarOperand(comparison.getLhs());
+        final Operand rhs = scalarOperand(comparison.getRhs());
+        if (null == lhs || null == rhs || (null == lhs.column && null == rhs.column)) {
+            return filterRows(comparison, rows, count, matches);
+        }
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            final int row = rows[i];
+            final byte lhsKind = lhs.kind(row);
+            final byte rhsKind = rhs.kind(row);
+            final boolean holds;
+            if (OTHER == lhsKind || OTHER == rhsKind) {
+                holds = evaluateRow(comparison, row);
+            }
+            else {
+                holds = equal == (lhsKind == rhsKind
+                        && (TEXT == lhsKind
+                            ? lhs.text(row).equals(rhs.text(row))
+                            : Double.doubleToLongBits(lhs.number(row)) == Double.doubleToLongBits(rhs.number(row))));
+            }
+            if (holds) {
+                matches[matched++] = row;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Evaluates numeric comparisons for the selected rows. Mirrors
+     * {@link io.appform.hope.core.utils.Converters#doubleValue} for pointers and literals.
+     *
+     * @param inclusive true if the comparison holds for equal values
+     * @param greater   true if the comparison holds when lhs is greater
+     */
+    private int range(
+            BinaryOperator<?> comparison,
+            boolean inclusive,
+            boolean greater,
+            int[] rows,
+            int count,
+            int[] matches) {
+        final Operand lhs = numericOperand(comparison.getLhs());
+        final Operand rhs = numericOperand(comparison.getRhs());
+        if (null == lhs || null == rhs || (null == lhs.column && null == rhs.column)) {
+            return filterRows(comparison, rows, count, matches);
+        }
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            final int row = rows[i];
+            final boolean holds;
+            if (NUMBER != lhs.kind(row) || NUMBER != rhs.kind(row)) {
+                holds = evaluateRow(comparison, row);
+            }
+            else {
+                final double lhsValue = lhs.number(row);
+                final double rhsValue = rhs.number(row);
+                holds = greater
+                        ? (inclusive ? lhsValue >= rhsValue : lhsValue > rhsValue)
+                        : (inclusive ? lhsValue <= rhsValue : lhsValue < rhsValue);
+            }
+            if (holds) {
+                matches[matched++] = row;
+            }
+        }
+        return matched;
+    }
+
+    private int filterRows(Evaluatable evaluatable, int[] rows, int count, int[] matches) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            final int row = rows[i];
+            if (evaluateRow(evaluatable, row)) {
+                matches[matched++] = row;
+            }
+        }
+        return matched;
+    }
+
+    private boolean evaluateRow(Evaluatable evaluatable, int row) {
+        if (contextRow != row) {
+            rowContext.reset(documents.get(row));
+            contextRow = row;
+        }
+        return evaluatable.accept(logicEvaluator);
+    }
+
+    /**
+     * @return Operand for a value compared with {@code ==}, null if the value is not a pointer or a literal
+     */
+    private Operand scalarOperand(Value value) {
+        if (value instanceof JsonPointerValue pointerValue && null != pointerValue.getPointer()) {
+            return new Operand(column(pointerValue), false);
+        }
+        if (value instanceof NumericValue numericValue && null != pointerOf(numericValue)) {
+            return new Operand(column(pointerOf(numericValue)), true);
+        }
+        if ((value instanceof StringValue || value instanceof NumericValue || value instanceof BooleanValue)
+                && isLiteral((EvaluatableValue<?>) value)) {
+            return Operand.literal(((EvaluatableValue<?>) value).getValue());
+        }
+        return null;
+    }
+
+    /**
+     * @return Operand for a value compared with {@code >} and the like, null if the value is not a pointer or a
+     * number literal
+     */
+    private Operand numericOperand(Value value) {
+        if (value instanceof JsonPointerValue pointerValue && null != pointerValue.getPointer()) {
+            return new Operand(column(pointerValue), true);
+        }
+        if (value instanceof NumericValue numericValue) {
+            if (null != pointerOf(numericValue)) {
+                return new Operand(column(pointerOf(numericValue)), true);
+            }
+            if (isLiteral(numericValue)) {
+                return Operand.literal(numericValue.getValue());
+            }
+        }
+        return null;
+    }
+
+    private static JsonPointerValue pointerOf(NumericValue numericValue) {
+        final JsonPointerValue pointerValue = numericValue.getPointerValue();
+        return null == numericValue.getValue()
+                && null == numericValue.getFunction()
+                && null != pointerValue
+                && null != pointerValue.getPointer()
+               ? pointerValue
+               : null;
+    }
+
+    private static boolean isLiteral(EvaluatableValue<?> value) {
+        return null != value.getValue() && null == value.getFunction();
+    }
+
+    private Column column(JsonPointerValue pointerValue) {
+        return columns.computeIfAbsent(pointerValue.getPointer(), pointer -> new Column(documents, pointerValue));
+    }
+
+    /**
+     * Values at a pointer for every document of the batch. Values other than numbers, strings and booleans are
+     * marked as {@link #OTHER}.
+     */
+    private static final class Column {
+        private final byte[] kinds;
+        private final double[] numbers;
+        private final String[] texts;
+
+        private Column(List<JsonNode> documents, JsonPointerValue pointerValue) {
+            final int size = documents.size();
+            this.kinds = new byte[size];
+            this.numbers = new double[size];
+            this.texts = new String[size];
+            for (int row = 0; row < size; row++) {
+                final JsonNode node = documents.get(row).at(pointerValue.getJsonPointer());
+                if (node.isNumber()) {
+                    kinds[row] = NUMBER;
+                    numbers[row] = node.asDouble();
+                }
+                else if (node.isTextual()) {
+                    kinds[row] = TEXT;
+                    texts[row] = node.asText();
+                }
+                else if (node.isBoolean()) {
+                    kinds[row] = BOOLEAN;
+                    numbers[row] = node.asBoolean() ? 1 : 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * A side of a comparison. Either a column or a literal.
+     */
+    private static final class Operand {
+        private final Column column;
+        private final boolean numeric;
+        private final byte literalKind;
+        private final double literalNumber;
+        private final String literalText;
+
+        /**
+         * @param numeric true if only numbers are read from the column, other values are evaluated per row
+         */
+        private Operand(Column column, boolean numeric) {
+            this(column, numeric, OTHER, 0, null);
+        }
+
+        private Operand(Column column, boolean numeric, byte literalKind, double literalNumber, String literalText) {
+            this.column = column;
+            this.numeric = numeric;
+            this.literalKind = literalKind;
+            this.literalNumber = literalNumber;
+            this.literalText = literalText;
+        }
+
+        private static Operand literal(Object value) {
+            if (value instanceof Number number) {
+                return new Operand(null, true, NUMBER, number.doubleValue(), null);
+            }
+            if (value instanceof Boolean bool) {
+                return new Operand(null, false, BOOLEAN, Boolean.TRUE.equals(bool) ? 1 : 0, null);
+            }
+            return new Operand(null, false, TEXT, 0, value.toString());
+        }
+
+        private byte kind(int row) {
+            if (null == column) {
+                return literalKind;
+            }
+            final byte kind = column.kinds[row];
+            return numeric && NUMBER != kind ? OTHER : kind;
+        }
+
+        private double number(int row) {
+            return null == column ? literalNumber : column.numbers[row];
+        }
+
+        private String text(int row) {
+            return null == column ? literalText : column.texts[row];
+        }
+    }
+}
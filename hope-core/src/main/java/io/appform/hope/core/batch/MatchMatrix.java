@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.batch;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Results of evaluating a list of rules against a list of documents, stored as one bit per rule and document. Every
+ * document gets a row of whole words, so that rows can be written concurrently.
+ */
+public final class MatchMatrix {
+    private final int documentCount;
+    private final int ruleCount;
+    private final int stride;
+    private final long[] words;
+
+    /**
+     * @param documentCount Number of documents
+     * @param ruleCount     Number of rules
+     */
+    public MatchMatrix(int documentCount, int ruleCount) {
+        this.documentCount = documentCount;
+        this.ruleCount = ruleCount;
+        this.stride = (ruleCount + Long.SIZE - 1) / Long.SIZE;
+        this.words = new long[Math.multiplyExact(documentCount, stride)];
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * @param document Index of the document
+     * @param rule     Index of the rule
+     * @return true if the rule matched the document
+     */
+    public boolean matches(int document, int rule) {
+        final int offset = offset(document);
+        if (rule < 0 || rule >= ruleCount) {
+            throw new IndexOutOfBoundsException("Rule " + rule + " out of bounds for " + ruleCount);
+        }
+        return (words[offset + rule / Long.SIZE] & (1L << rule)) != 0;
+    }
+
+    /**
+     * @param document Index of the document
+     * @return Set with the bits of the rules that matched the document
+     */
+    public BitSet matches(int document) {
+        final int offset = offset(document);
+        final BitSet matches = new BitSet(ruleCount);
+        for (int word = 0; word < stride; word++) {
+            long bits = words[offset + word];
+            while (0 != bits) {
+                matches.set(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @param document Index of the document
+     * @param consumer Called with the index of every rule that matched the document, in order
+     */
+    public void forEachMatch(int document, IntConsumer consumer) {
+        final int offset = offset(document);
+        for (int word = 0; word < stride; word++) {
+            long bits = words[offset + word];
+            while (0 != bits) {
+                consumer.accept(word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    /**
+     * @param document Index of the document
+     * @return Number of rules that matched the document
+     */
+    public int countMatches(int document) {
+        final int offset = offset(document);
+        int count = 0;
+        for (int word = 0; word < stride; word++) {
+            count += Long.bitCount(words[offset + word]);
+        }
+        return count;
+    }
+
+    /**
+     * @param document Index of the document
+     * @return Result of every rule for the document, in order
+     */
+    public List<Boolean> results(int document) {
+        final List<Boolean> results = new ArrayList<>(ruleCount);
+        for (int rule = 0; rule < ruleCount; rule++) {
+            results.add(matches(document, rule));
+        }
+        return results;
+    }
+
+    /**
+     * @param document Index of the document
+     * @return Consumer that marks rules as matched for the document
+     */
+    IntConsumer setter(int document) {
+        final int offset = offset(document);
+        return rule -> words[offset + rule / Long.SIZE] |= 1L << rule;
+    }
+
+    private int offset(int document) {
+        if (document < 0 || document >= documentCount) {
+            throw new IndexOutOfBoundsException("Document " + document + " out of bounds for " + documentCount);
+        }
+        return document * stride;
+    }
+}
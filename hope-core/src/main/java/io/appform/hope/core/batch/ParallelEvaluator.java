@@ -0,0 +1,168 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Evaluates rules against a list of documents in parallel. Documents are split into chunks that are evaluated on an
+ * {@link Executor}:
+ * <ul>
+ *     <li>On a {@link ForkJoinPool}, the list is split in halves recursively until chunks are small enough, so that
+ *     idle workers steal the remaining halves</li>
+ *     <li>On any other executor, one task is submitted per chunk</li>
+ * </ul>
+ * Workers reuse the evaluation context kept per thread by {@link io.appform.hope.core.visitors.Evaluator}, so no
+ * state is allocated per document. Results are stored in a {@link MatchMatrix} in input order.
+ */
+public final class ParallelEvaluator {
+    private static final int MIN_CHUNK_SIZE = 16;
+    private static final int MAX_CHUNK_SIZE = 1024;
+    //Chunks per worker, so that workers finishing early can pick up work from slower ones
+    private static final int CHUNKS_PER_WORKER = 8;
+
+    /**
+     * Evaluates rules against a single document
+     */
+    @FunctionalInterface
+    public interface DocumentEvaluator {
+        /**
+         * @param node     Document to evaluate the rules against
+         * @param consumer To be called with the index of every matching rule
+         */
+        void forEachMatch(JsonNode node, IntConsumer consumer);
+    }
+
+    private final Executor executor;
+
+    /**
+     * @param executor Executor to evaluate chunks of documents on
+     */
+    public ParallelEvaluator(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Evaluates rules against all documents. If evaluation fails for a document, remaining chunks are skipped and the
+     * error is thrown.
+     *
+     * @param ruleCount         Number of rules
+     * @param nodes             Documents, must support fast random access
+     * @param documentEvaluator Evaluates the rules against a document
+     * @return Results in order of documents and rules
+     */
+    public MatchMatrix evaluate(int ruleCount, List<JsonNode> nodes, DocumentEvaluator documentEvaluator) {
+        final MatchMatrix matrix = new MatchMatrix(nodes.size(), ruleCount);
+        final int size = nodes.size();
+        if (0 == size) {
+            return matrix;
+        }
+        final int parallelism = executor instanceof ForkJoinPool pool
+                                ? pool.getParallelism()
+                                : Runtime.getRuntime().availableProcessors();
+        final int chunkSize = Math.max(MIN_CHUNK_SIZE,
+                                       Math.min(MAX_CHUNK_SIZE, size / (parallelism * CHUNKS_PER_WORKER) + 1));
+        final Chunks chunks = new Chunks(nodes, matrix, documentEvaluator);
+        if (executor instanceof ForkJoinPool pool) {
+            pool.invoke(new ChunkAction(chunks, 0, size, chunkSize));
+            return matrix;
+        }
+        final int chunkCount = (size + chunkSize - 1) / chunkSize;
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkCount];
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final int from = chunk * chunkSize;
+            final int to = Math.min(size, from + chunkSize);
+            futures[chunk] = CompletableFuture.runAsync(() -> chunks.evaluate(from, to), executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return matrix;
+    }
+
+    /**
+     * Documents and results shared by all chunks
+     */
+    private static final class Chunks {
+        private final List<JsonNode> nodes;
+        private final MatchMatrix matrix;
+        private final DocumentEvaluator documentEvaluator;
+        private volatile boolean failed;
+
+        private Chunks(List<JsonNode> nodes, MatchMatrix matrix, DocumentEvaluator documentEvaluator) {
+            this.nodes = nodes;
+            this.matrix = matrix;
+            this.documentEvaluator = documentEvaluator;
+        }
+
+        private void evaluate(int from, int to) {
+            if (failed) {
+                return;
+            }
+            try {
+                for (int document = from; document < to; document++) {
+                    documentEvaluator.forEachMatch(nodes.get(document), matrix.setter(document));
+                }
+            }
+            catch (RuntimeException | Error e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    private static final class ChunkAction extends RecursiveAction {
+        private final transient Chunks chunks;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        private ChunkAction(Chunks chunks, int from, int to, int chunkSize) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                chunks.evaluate(from, to);
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(chunks, from, middle, chunkSize),
+                      new ChunkAction(chunks, middle, to, chunkSize));
+        }
+    }
+}
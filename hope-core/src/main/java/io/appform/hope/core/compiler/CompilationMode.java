@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+/**
+ * Mechanism used to translate parsed rules to {@link CompiledRule}s
+ */
+public enum CompilationMode {
+    /**
+     * Rules are evaluated by walking the parse tree using {@link io.appform.hope.core.visitors.Evaluator}
+     */
+    INTERPRETED,
+    /**
+     * Rules are translated to JVM bytecode and loaded as hidden classes
+     */
+    BYTECODE,
+    /**
+     * Rules are translated to a tree of pre-resolved closures
+     */
+    CLOSURE,
+    /**
+     * Rules are translated to closures and children of combiners are reordered at runtime to run cheap and selective
+     * checks first. No child is moved ahead of a child that can fail, so that the same errors are raised as with
+     * {@link #INTERPRETED}. Reading the document does not fail only with
+     * {@link io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy}, so children reading the
+     * document are only reordered with that strategy.
+     */
+    ADAPTIVE,
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.visitors.Evaluator;
+
+/**
+ * A hope rule that has been translated to an executable form. Instances are immutable and can be evaluated
+ * concurrently.
+ */
+public interface CompiledRule {
+
+    /**
+     * @return The parsed rule this was compiled from
+     */
+    Evaluatable getRule();
+
+    /**
+     * Evaluate the compiled rule
+     *
+     * @param evaluationContext Context for the payload being evaluated
+     * @return true in case of match
+     */
+    boolean evaluate(Evaluator.EvaluationContext evaluationContext);
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.streaming.DocumentReferences;
+import io.appform.hope.core.utils.SlotRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A list of rules compiled together using {@link RuleCompiler#compileAll(List)}. Compilers may share work across the
+ * rules of a list, so rules of a list should be evaluated against a document using the same
+ * {@link io.appform.hope.core.visitors.Evaluator.EvaluationContext}. Paths and pointers of the rules get cache slots
+ * assigned across the list (see {@link SlotRegistry}), so a value read by one rule is reused by the others. Immutable
+ * and can be shared across threads.
+ */
+@Getter
+public class CompiledRuleList {
+    private final List<CompiledRule> rules;
+    @Getter(AccessLevel.NONE)
+    private volatile DocumentReferences documentReferences;
+
+    public CompiledRuleList(List<CompiledRule> rules) {
+        this.rules = List.copyOf(rules);
+        SlotRegistry.assign(getParsedRules());
+    }
+
+    /**
+     * @return Number of rules in the list
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * @param index Index of the rule in the list
+     * @return Compiled rule at the index
+     */
+    public CompiledRule get(int index) {
+        return rules.get(index);
+    }
+
+    /**
+     * @return Parsed rules in the list, in order
+     */
+    public List<Evaluatable> getParsedRules() {
+        return rules.stream()
+                .map(CompiledRule::getRule)
+                .toList();
+    }
+
+    /**
+     * @return Parts of the document read by the rules of the list, computed on first use
+     */
+    public DocumentReferences getDocumentReferences() {
+        DocumentReferences references = documentReferences;
+        if (null == references) {
+            references = DocumentReferences.of(getParsedRules());
+            documentReferences = references;
+        }
+        return references;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Value;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Helpers shared by the rule compilers
+ */
+public class CompilerUtils {
+
+    private CompilerUtils() {
+    }
+
+    /**
+     * Resolves the operand that will actually be read when a value is evaluated as the expected type. A value of the
+     * expected type that wraps a path, pointer or function is evaluated exactly like the wrapped operand, so the
+     * wrapped operand is returned. All other values are returned as is.
+     *
+     * @param value        Value to be resolved
+     * @param expectedType Type of value the operand is being evaluated as, null if any
+     * @return The wrapped path, pointer or function if present, the value itself otherwise
+     */
+    public static Value resolveOperand(Value value, Class<? extends EvaluatableValue<?>> expectedType) {
+        if (null == expectedType || !expectedType.isInstance(value)) {
+            return value;
+        }
+        final EvaluatableValue<?> evaluatableValue = (EvaluatableValue<?>) value;
+        if (null != evaluatableValue.getValue()) {
+            return value;
+        }
+        if (null != evaluatableValue.getPathValue()) {
+            return evaluatableValue.getPathValue();
+        }
+        if (null != evaluatableValue.getPointerValue()) {
+            return evaluatableValue.getPointerValue();
+        }
+        if (null != evaluatableValue.getFunction()) {
+            return evaluatableValue.getFunction();
+        }
+        return value;
+    }
+
+    /**
+     * Checks if the function selected for a call is marked {@link FunctionImplementation#deterministic()}.
+     *
+     * @param functionValue Function call
+     * @return true if the function result depends only on its parameters
+     */
+    public static boolean isDeterministic(FunctionValue functionValue) {
+        final FunctionRegistry.ConstructorMeta selectedConstructor = functionValue.getSelectedConstructor();
+        if (null == selectedConstructor || null == selectedConstructor.getConstructor()) {
+            return false;
+        }
+        final FunctionImplementation annotation = selectedConstructor.getConstructor()
+                .getDeclaringClass()
+                .getAnnotation(FunctionImplementation.class);
+        return null != annotation && annotation.deterministic();
+    }
+
+    /**
+     * Checks if a call can fail by itself, irrespective of the error handling strategy. Calls bound at parse time are
+     * checked using {@link StatelessHopeFunction#isInfallible()}, other calls using
+     * {@link FunctionImplementation#infallible()}. Errors raised while reading the parameters are not considered.
+     *
+     * @param functionValue Function call
+     * @return true if the call never fails by itself
+     */
+    public static boolean isInfallible(FunctionValue functionValue) {
+        final HopeFunction<?> boundFunction = functionValue.getBoundFunction();
+        if (boundFunction instanceof StatelessHopeFunction<?> statelessFunction) {
+            return statelessFunction.isInfallible();
+        }
+        final FunctionRegistry.ConstructorMeta selectedConstructor = functionValue.getSelectedConstructor();
+        if (null == selectedConstructor || null == selectedConstructor.getConstructor()) {
+            return false;
+        }
+        final Class<?> functionClass = selectedConstructor.getConstructor().getDeclaringClass();
+        //Stateless functions that could not be bound fail when evaluated
+        if (StatelessHopeFunction.class.isAssignableFrom(functionClass)) {
+            return false;
+        }
+        final FunctionImplementation annotation = functionClass.getAnnotation(FunctionImplementation.class);
+        return null != annotation && annotation.infallible();
+    }
+
+    /**
+     * Creates a factory for instances of the function selected for a call. Constructor arguments are prepared once,
+     * so creating an instance does not copy the parameter list every time like {@link Converters#function(FunctionValue)}.
+     * Calls bound to a single instance at parse time return that instance instead.
+     *
+     * @param functionValue Function call
+     * @return A factory that returns a function instance with the parameters of the call
+     */
+    @SuppressWarnings({"java:S3740", "rawtypes"})
+    public static Supplier<HopeFunction> functionFactory(FunctionValue functionValue) {
+        final HopeFunction<?> boundFunction = functionValue.getBoundFunction();
+        if (null != boundFunction) {
+            return () -> boundFunction;
+        }
+        final FunctionRegistry.ConstructorMeta selectedConstructor = functionValue.getSelectedConstructor();
+        if (null == selectedConstructor || null == selectedConstructor.getConstructor()) {
+            return () -> Converters.function(functionValue);
+        }
+        final Constructor<? extends HopeFunction> constructor = selectedConstructor.getConstructor();
+        final List<Value> parameters = functionValue.getParameters();
+        final Object[] arguments = selectedConstructor.isHasVariableArgs()
+                                   ? new Object[]{parameters.toArray(new Value[0])}
+                                   : parameters.toArray(new Object[0]);
+        final String name = functionValue.getName();
+        return () -> {
+            try {
+                return constructor.newInstance(arguments);
+            }
+            catch (Exception e) {
+                throw new IllegalArgumentException("Could not create instance of function: '" + name + "'", e);
+            }
+        };
+    }
+}
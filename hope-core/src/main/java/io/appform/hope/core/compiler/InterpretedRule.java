@@ -0,0 +1,33 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.Data;
+
+/**
+ * A {@link CompiledRule} that walks the parse tree. This is the reference implementation for all compilers and is
+ * used as fallback when a rule cannot be compiled.
+ */
+@Data
+public class InterpretedRule implements CompiledRule {
+    private final Evaluatable rule;
+
+    @Override
+    public boolean evaluate(Evaluator.EvaluationContext evaluationContext) {
+        return new Evaluator.LogicEvaluator(evaluationContext).evaluate(rule);
+    }
+}
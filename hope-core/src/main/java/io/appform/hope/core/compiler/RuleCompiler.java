@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Evaluatable;
+
+import java.util.List;
+
+/**
+ * Translates a parsed {@link Evaluatable} to a {@link CompiledRule}
+ */
+@FunctionalInterface
+public interface RuleCompiler {
+
+    /**
+     * Compile a rule. Implementations should fall back to {@link InterpretedRule} for rules they cannot handle.
+     *
+     * @param rule Parsed rule
+     * @return Compiled rule
+     */
+    CompiledRule compile(Evaluatable rule);
+
+    /**
+     * Compile a list of rules that will be evaluated together against the same documents. Implementations may share
+     * work across the rules of the list. By default, every rule is compiled on its own.
+     *
+     * @param rules Parsed rules
+     * @return Compiled rules in the same order
+     */
+    default CompiledRuleList compileAll(List<Evaluatable> rules) {
+        return new CompiledRuleList(rules.stream()
+                                            .map(this::compile)
+                                            .toList());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.ObjectValue;
+import io.appform.hope.core.values.StringValue;
+
+/**
+ * Infers types of values in a parsed rule. Typed values produced by the grammar carry their type. Function calls
+ * are typed using the return type declared by the selected {@link HopeFunction} implementation.
+ */
+public class TypeInference {
+
+    private TypeInference() {
+    }
+
+    /**
+     * Infers the type a value evaluates to.
+     *
+     * @param value Value to be typed
+     * @return Inferred type or {@link ValueType#ANY} if type can be known only at evaluation time
+     */
+    public static ValueType typeOf(Value value) {
+        return value.accept(new VisitorAdapter<>(() -> ValueType.ANY) {
+            @Override
+            public ValueType visit(NumericValue numericValue) {
+                return ValueType.NUMBER;
+            }
+
+            @Override
+            public ValueType visit(StringValue stringValue) {
+                return ValueType.STRING;
+            }
+
+            @Override
+            public ValueType visit(BooleanValue booleanValue) {
+                return ValueType.BOOLEAN;
+            }
+
+            @Override
+            public ValueType visit(ArrayValue arrayValue) {
+                return ValueType.ARRAY;
+            }
+
+            @Override
+            public ValueType visit(ObjectValue objectValue) {
+                return ValueType.OBJECT;
+            }
+
+            @Override
+            public ValueType visit(FunctionValue functionValue) {
+                return returnType(functionValue);
+            }
+        });
+    }
+
+    /**
+     * Infers the type of value returned by a function call.
+     *
+     * @param functionValue Function call
+     * @return Type of the value returned by the selected function implementation
+     */
+    public static ValueType returnType(FunctionValue functionValue) {
+        final FunctionRegistry.ConstructorMeta selectedConstructor = functionValue.getSelectedConstructor();
+        if (null == selectedConstructor || null == selectedConstructor.getConstructor()) {
+            return ValueType.ANY;
+        }
+        final Class<?> returnType = HopeFunction.returnType(selectedConstructor.getConstructor().getDeclaringClass())
+                .getRawType();
+        if (NumericValue.class.isAssignableFrom(returnType)) {
+            return ValueType.NUMBER;
+        }
+        if (StringValue.class.isAssignableFrom(returnType)) {
+            return ValueType.STRING;
+        }
+        if (BooleanValue.class.isAssignableFrom(returnType)) {
+            return ValueType.BOOLEAN;
+        }
+        if (ArrayValue.class.isAssignableFrom(returnType)) {
+            return ValueType.ARRAY;
+        }
+        if (ObjectValue.class.isAssignableFrom(returnType)) {
+            return ValueType.OBJECT;
+        }
+        return ValueType.ANY;
+    }
+}
@@ -0,0 +1,600 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.bytecode;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.CompilerUtils;
+import io.appform.hope.core.compiler.InterpretedRule;
+import io.appform.hope.core.compiler.RuleCompiler;
+import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.operators.And;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.Not;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.extern.slf4j.Slf4j;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compiles a rule into a hidden class that evaluates the rule with straight line bytecode. Operands are specialised
+ * at compile time, so no visitors are allocated or dispatched during evaluation. Constant operands are held in final
+ * instance fields which the JIT treats as constants for hidden classes.
+ * <p>
+ * Large combiners are split across private methods to keep every method below the size limit the JIT is willing to
+ * compile. If a rule cannot be compiled for any reason, an {@link InterpretedRule} is returned instead.
+ */
+@Slf4j
+public class BytecodeCompiler implements RuleCompiler {
+    private static final int INLINE_WEIGHT = 32;
+
+    private static final String GENERATED_CLASS = Type.getInternalName(BytecodeRule.class)
+            .replace("BytecodeRule", "GeneratedRule");
+    private static final String BASE_CLASS = Type.getInternalName(BytecodeRule.class);
+    private static final String SUPPORT_CLASS = Type.getInternalName(BytecodeSupport.class);
+    private static final String CONTEXT_DESC = Type.getDescriptor(Evaluator.EvaluationContext.class);
+    private static final String VALUE_DESC = Type.getDescriptor(Value.class);
+    private static final String FUNCTION_DESC = Type.getDescriptor(HopeFunction.class);
+    private static final String BOOL_METHOD_DESC = "(" + CONTEXT_DESC + ")Z";
+    private static final String CONSTRUCTOR_DESC = "(" + Type.getDescriptor(Evaluatable.class) + "[Ljava/lang/Object;)V";
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    @Override
+    public CompiledRule compile(Evaluatable rule) {
+        try {
+            final Generator generator = new Generator();
+            final byte[] bytes = generator.generate(rule);
+            final Class<?> ruleClass = lookup.defineHiddenClass(bytes, true).lookupClass();
+            return (CompiledRule) ruleClass.getDeclaredConstructor(Evaluatable.class, Object[].class)
+                    .newInstance(rule, generator.constants.toArray());
+        }
+        catch (Exception | LinkageError e) {
+            log.warn("Could not compile rule to bytecode, falling back to interpreter: {}", e.getMessage());
+            return new InterpretedRule(rule);
+        }
+    }
+
+    private static int weight(Evaluatable evaluatable) {
+        if (evaluatable instanceof AndCombiner andCombiner) {
+            return 1 + weight(andCombiner.getExpressions());
+        }
+        if (evaluatable instanceof OrCombiner orCombiner) {
+            return 1 + weight(orCombiner.getExpressions());
+        }
+        return 1;
+    }
+
+    private static int weight(List<Evaluatable> evaluatables) {
+        int weight = 0;
+        for (final Evaluatable evaluatable : evaluatables) {
+            weight += weight(evaluatable);
+        }
+        return weight;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers()) || type.isHidden() || type.isAnonymousClass()
+                || type.isLocalClass()) {
+            return false;
+        }
+        if (type.isMemberClass() && (!Modifier.isStatic(type.getModifiers()) || !isVisible(type.getEnclosingClass()))) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, BytecodeRule.class.getClassLoader()) == type;
+        }
+        catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Generates a single class. Not thread safe, a new generator is used for every rule.
+     */
+    private static final class Generator {
+        private final ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+        private final List<Object> constants = new ArrayList<>();
+        private final List<String> constantDescriptors = new ArrayList<>();
+        private final Deque<Consumer<MethodVisitor>> pendingMethods = new ArrayDeque<>();
+        private final List<String> pendingMethodNames = new ArrayList<>();
+        private int methodCounter = 0;
+
+        byte[] generate(Evaluatable rule) {
+            classWriter.visit(Opcodes.V17,
+                              Opcodes.ACC_FINAL | Opcodes.ACC_SUPER,
+                              GENERATED_CLASS,
+                              null,
+                              BASE_CLASS,
+                              null);
+            final MethodVisitor evaluate = classWriter.visitMethod(Opcodes.ACC_PUBLIC,
+                                                                   "evaluate",
+                                                                   BOOL_METHOD_DESC,
+                                                                   null,
+                                                                   null);
+            evaluate.visitCode();
+            emitEvaluatable(evaluate, rule);
+            evaluate.visitInsn(Opcodes.IRETURN);
+            evaluate.visitMaxs(0, 0);
+            evaluate.visitEnd();
+            int pending = 0;
+            while (!pendingMethods.isEmpty()) {
+                final MethodVisitor method = classWriter.visitMethod(Opcodes.ACC_PRIVATE,
+                                                                     pendingMethodNames.get(pending++),
+                                                                     BOOL_METHOD_DESC,
+                                                                     null,
+                                                                     null);
+                method.visitCode();
+                pendingMethods.removeFirst().accept(method);
+                method.visitInsn(Opcodes.IRETURN);
+                method.visitMaxs(0, 0);
+                method.visitEnd();
+            }
+            generateConstructor();
+            classWriter.visitEnd();
+            return classWriter.toByteArray();
+        }
+
+        private void generateConstructor() {
+            final MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC,
+                                                                      "<init>",
+                                                                      CONSTRUCTOR_DESC,
+                                                                      null,
+                                                                      null);
+            constructor.visitCode();
+            constructor.visitVarInsn(Opcodes.ALOAD, 0);
+            constructor.visitVarInsn(Opcodes.ALOAD, 1);
+            constructor.visitMethodInsn(Opcodes.INVOKESPECIAL,
+                                        BASE_CLASS,
+                                        "<init>",
+                                        "(" + Type.getDescriptor(Evaluatable.class) + ")V",
+                                        false);
+            for (int i = 0; i < constants.size(); i++) {
+                final String descriptor = constantDescriptors.get(i);
+                classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, "c" + i, descriptor, null, null)
+                        .visitEnd();
+                constructor.visitVarInsn(Opcodes.ALOAD, 0);
+                constructor.visitVarInsn(Opcodes.ALOAD, 2);
+                constructor.visitLdcInsn(i);
+                constructor.visitInsn(Opcodes.AALOAD);
+                constructor.visitTypeInsn(Opcodes.CHECKCAST, Type.getType(descriptor).getInternalName());
+                constructor.visitFieldInsn(Opcodes.PUTFIELD, GENERATED_CLASS, "c" + i, descriptor);
+            }
+            constructor.visitInsn(Opcodes.RETURN);
+            constructor.visitMaxs(0, 0);
+            constructor.visitEnd();
+        }
+
+        private void emitEvaluatable(MethodVisitor mv, Evaluatable evaluatable) {
+            evaluatable.accept(new VisitorAdapter<Void>(() -> {
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                loadConstant(mv, evaluatable, Evaluatable.class);
+                invokeSupport(mv, "interpret", "(" + CONTEXT_DESC + Type.getDescriptor(Evaluatable.class) + ")Z");
+                return null;
+            }) {
+                @Override
+                public Void visit(AndCombiner andCombiner) {
+                    emitJunction(mv, andCombiner.getExpressions(), true);
+                    return null;
+                }
+
+                @Override
+                public Void visit(OrCombiner orCombiner) {
+                    emitJunction(mv, orCombiner.getExpressions(), false);
+                    return null;
+                }
+
+                @Override
+                public Void visit(Equals equals) {
+                    emitObject(mv, equals.getLhs());
+                    emitObject(mv, equals.getRhs());
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC,
+                                       "java/util/Objects",
+                                       "equals",
+                                       "(Ljava/lang/Object;Ljava/lang/Object;)Z",
+                                       false);
+                    return null;
+                }
+
+                @Override
+                public Void visit(NotEquals notEquals) {
+                    emitObject(mv, notEquals.getLhs());
+                    emitObject(mv, notEquals.getRhs());
+                    mv.visitMethodInsn(Opcodes.INVOKESTATIC,
+                                       "java/util/Objects",
+                                       "equals",
+                                       "(Ljava/lang/Object;Ljava/lang/Object;)Z",
+                                       false);
+                    mv.visitInsn(Opcodes.ICONST_1);
+                    mv.visitInsn(Opcodes.IXOR);
+                    return null;
+                }
+
+                @Override
+                public Void visit(Greater greater) {
+                    emitComparison(mv, greater.getLhs(), greater.getRhs(), Opcodes.DCMPL, Opcodes.IFLE);
+                    return null;
+                }
+
+                @Override
+                public Void visit(GreaterEquals greaterEquals) {
+                    emitComparison(mv, greaterEquals.getLhs(), greaterEquals.getRhs(), Opcodes.DCMPL, Opcodes.IFLT);
+                    return null;
+                }
+
+                @Override
+                public Void visit(Lesser lesser) {
+                    emitComparison(mv, lesser.getLhs(), lesser.getRhs(), Opcodes.DCMPG, Opcodes.IFGE);
+                    return null;
+                }
+
+                @Override
+                public Void visit(LesserEquals lesserEquals) {
+                    emitComparison(mv, lesserEquals.getLhs(), lesserEquals.getRhs(), Opcodes.DCMPG, Opcodes.IFGT);
+                    return null;
+                }
+
+                @Override
+                public Void visit(And and) {
+                    emitBoolean(mv, and.getLhs());
+                    emitBoolean(mv, and.getRhs());
+                    mv.visitInsn(Opcodes.IAND);
+                    return null;
+                }
+
+                @Override
+                public Void visit(Or or) {
+                    emitBoolean(mv, or.getLhs());
+                    emitBoolean(mv, or.getRhs());
+                    mv.visitInsn(Opcodes.IOR);
+                    return null;
+                }
+
+                @Override
+                public Void visit(Not not) {
+                    emitBoolean(mv, not.getOperand());
+                    mv.visitInsn(Opcodes.ICONST_1);
+                    mv.visitInsn(Opcodes.IXOR);
+                    return null;
+                }
+            });
+        }
+
+        /**
+         * Emits a short-circuiting and/or over the expressions. Expressions that are too heavy to be inlined are
+         * grouped into private methods.
+         */
+        private void emitJunction(MethodVisitor mv, List<Evaluatable> expressions, boolean and) {
+            final int totalWeight = weight(expressions);
+            if (totalWeight <= INLINE_WEIGHT || expressions.size() == 1) {
+                final Label shortCircuit = new Label();
+                final Label end = new Label();
+                for (final Evaluatable expression : expressions) {
+                    emitEvaluatable(mv, expression);
+                    mv.visitJumpInsn(and ? Opcodes.IFEQ : Opcodes.IFNE, shortCircuit);
+                }
+                emitJunctionTail(mv, and, shortCircuit, end);
+                return;
+            }
+            final int groupWeight = Math.max(INLINE_WEIGHT, (totalWeight + INLINE_WEIGHT - 1) / INLINE_WEIGHT);
+            final List<List<Evaluatable>> groups = new ArrayList<>();
+            List<Evaluatable> current = new ArrayList<>();
+            int currentWeight = 0;
+            for (final Evaluatable expression : expressions) {
+                final int expressionWeight = weight(expression);
+                if (!current.isEmpty() && currentWeight + expressionWeight > groupWeight) {
+                    groups.add(current);
+                    current = new ArrayList<>();
+                    currentWeight = 0;
+                }
+                current.add(expression);
+                currentWeight += expressionWeight;
+            }
+            groups.add(current);
+            final Label shortCircuit = new Label();
+            final Label end = new Label();
+            for (final List<Evaluatable> group : groups) {
+                final String name = "j" + methodCounter++;
+                pendingMethodNames.add(name);
+                pendingMethods.addLast(method -> emitJunction(method, group, and));
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL, GENERATED_CLASS, name, BOOL_METHOD_DESC, false);
+                mv.visitJumpInsn(and ? Opcodes.IFEQ : Opcodes.IFNE, shortCircuit);
+            }
+            emitJunctionTail(mv, and, shortCircuit, end);
+        }
+
+        private void emitJunctionTail(MethodVisitor mv, boolean and, Label shortCircuit, Label end) {
+            mv.visitInsn(and ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(shortCircuit);
+            mv.visitInsn(and ? Opcodes.ICONST_0 : Opcodes.ICONST_1);
+            mv.visitLabel(end);
+        }
+
+        private void emitComparison(MethodVisitor mv, Value lhs, Value rhs, int compareOpcode, int failOpcode) {
+            emitNumeric(mv, lhs);
+            emitNumeric(mv, rhs);
+            mv.visitInsn(compareOpcode);
+            final Label fail = new Label();
+            final Label end = new Label();
+            mv.visitJumpInsn(failOpcode, fail);
+            mv.visitInsn(Opcodes.ICONST_1);
+            mv.visitJumpInsn(Opcodes.GOTO, end);
+            mv.visitLabel(fail);
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitLabel(end);
+        }
+
+        /**
+         * Leaves a double on the stack. Mirrors {@code Converters.numericValue(ctx, value, 0).doubleValue()}.
+         */
+        private void emitNumeric(MethodVisitor mv, Value value) {
+            if (value instanceof NumericValue numericValue && null != numericValue.getValue()) {
+                mv.visitLdcInsn(numericValue.getValue().doubleValue());
+                return;
+            }
+            emitTyped(mv, value, NumericValue.class, "numeric", "D");
+        }
+
+        /**
+         * Leaves an int (boolean) on the stack. Mirrors {@code Converters.booleanValue(ctx, value, false)}.
+         */
+        private void emitBoolean(MethodVisitor mv, Value value) {
+            if (value instanceof BooleanValue booleanValue && null != booleanValue.getValue()) {
+                mv.visitInsn(Boolean.TRUE.equals(booleanValue.getValue()) ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+                return;
+            }
+            emitTyped(mv, value, BooleanValue.class, "bool", "Z");
+        }
+
+        /**
+         * Leaves an Object on the stack. Mirrors {@code Converters.objectValue(ctx, value, null)}.
+         */
+        private void emitObject(MethodVisitor mv, Value value) {
+            if (value instanceof NumericValue numericValue && null != numericValue.getValue()) {
+                mv.visitLdcInsn(numericValue.getValue().doubleValue());
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Double", "valueOf", "(D)Ljava/lang/Double;", false);
+                return;
+            }
+            if (value instanceof StringValue stringValue && null != stringValue.getValue()) {
+                mv.visitLdcInsn(stringValue.getValue());
+                return;
+            }
+            if (value instanceof BooleanValue booleanValue && null != booleanValue.getValue()) {
+                mv.visitFieldInsn(Opcodes.GETSTATIC,
+                                  "java/lang/Boolean",
+                                  Boolean.TRUE.equals(booleanValue.getValue()) ? "TRUE" : "FALSE",
+                                  "Ljava/lang/Boolean;");
+                return;
+            }
+            if (value instanceof NumericValue) {
+                emitTyped(mv, value, NumericValue.class, "numberObject", "Ljava/lang/Object;");
+            }
+            else if (value instanceof StringValue) {
+                emitTyped(mv, value, StringValue.class, "stringObject", "Ljava/lang/Object;");
+            }
+            else if (value instanceof BooleanValue) {
+                emitTyped(mv, value, BooleanValue.class, "booleanObject", "Ljava/lang/Object;");
+            }
+            else {
+                emitTyped(mv, value, null, "object", "Ljava/lang/Object;");
+            }
+        }
+
+        /**
+         * Emits a call to the support helper best suited to the operand. Path and pointer operands (bare, or wrapped
+         * in a value of the expected type) use dedicated overloads and function calls are applied in place.
+         * Everything else goes through the generic converters.
+         */
+        private void emitTyped(
+                MethodVisitor mv,
+                Value value,
+                Class<? extends EvaluatableValue<?>> expectedType,
+                String helper,
+                String returnDescriptor) {
+            final Value operand = CompilerUtils.resolveOperand(value, expectedType);
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            final String operandDescriptor;
+            if (operand instanceof JsonPathValue) {
+                loadConstant(mv, operand, JsonPathValue.class);
+                operandDescriptor = Type.getDescriptor(JsonPathValue.class);
+            }
+            else if (operand instanceof JsonPointerValue) {
+                loadConstant(mv, operand, JsonPointerValue.class);
+                operandDescriptor = Type.getDescriptor(JsonPointerValue.class);
+            }
+            else if (operand instanceof FunctionValue functionValue) {
+                emitFunctionCall(mv, functionValue);
+                operandDescriptor = VALUE_DESC;
+            }
+            else {
+                loadConstant(mv, operand, Value.class);
+                operandDescriptor = VALUE_DESC;
+            }
+            invokeSupport(mv, helper, "(" + CONTEXT_DESC + operandDescriptor + ")" + returnDescriptor);
+        }
+
+        /**
+         * Leaves the {@link Value} returned by the function on the stack. Expects the context to be already present.
+         * Calls bound to a single instance at parse time use it as a constant, other calls create a new instance.
+         */
+        private void emitFunctionCall(MethodVisitor mv, FunctionValue functionValue) {
+            final HopeFunction<?> boundFunction = functionValue.getBoundFunction();
+            if (null != boundFunction) {
+                loadConstant(mv, boundFunction, HopeFunction.class);
+            }
+            else {
+                final String name = "f" + methodCounter++;
+                generateFunctionFactory(name, functionValue);
+                mv.visitVarInsn(Opcodes.ALOAD, 0);
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL, GENERATED_CLASS, name, "()" + FUNCTION_DESC, false);
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL,
+                               Type.getInternalName(HopeFunction.class),
+                               "apply",
+                               "(" + CONTEXT_DESC + ")" + VALUE_DESC,
+                               false);
+        }
+
+        private void generateFunctionFactory(String name, FunctionValue functionValue) {
+            final MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_PRIVATE, name, "()" + FUNCTION_DESC, null, null);
+            mv.visitCode();
+            final Constructor<?> constructor = directlyInvocable(functionValue);
+            if (null == constructor) {
+                loadConstant(mv, functionValue, FunctionValue.class);
+                invokeSupport(mv,
+                              "function",
+                              "(" + Type.getDescriptor(FunctionValue.class) + ")" + FUNCTION_DESC);
+                mv.visitInsn(Opcodes.ARETURN);
+            }
+            else {
+                final Label start = new Label();
+                final Label end = new Label();
+                final Label handler = new Label();
+                mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+                mv.visitLabel(start);
+                final String owner = Type.getInternalName(constructor.getDeclaringClass());
+                mv.visitTypeInsn(Opcodes.NEW, owner);
+                mv.visitInsn(Opcodes.DUP);
+                final List<Value> parameters = functionValue.getParameters();
+                if (functionValue.getSelectedConstructor().isHasVariableArgs()) {
+                    mv.visitLdcInsn(parameters.size());
+                    mv.visitTypeInsn(Opcodes.ANEWARRAY, Type.getInternalName(Value.class));
+                    for (int i = 0; i < parameters.size(); i++) {
+                        mv.visitInsn(Opcodes.DUP);
+                        mv.visitLdcInsn(i);
+                        loadConstant(mv, parameters.get(i), Value.class);
+                        mv.visitInsn(Opcodes.AASTORE);
+                    }
+                }
+                else {
+                    final Class<?>[] parameterTypes = constructor.getParameterTypes();
+                    for (int i = 0; i < parameters.size(); i++) {
+                        loadConstant(mv, parameters.get(i), parameterTypes[i]);
+                    }
+                }
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL,
+                                   owner,
+                                   "<init>",
+                                   Type.getConstructorDescriptor(constructor),
+                                   false);
+                mv.visitLabel(end);
+                mv.visitInsn(Opcodes.ARETURN);
+                mv.visitLabel(handler);
+                mv.visitVarInsn(Opcodes.ASTORE, 1);
+                mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+                mv.visitInsn(Opcodes.DUP);
+                mv.visitLdcInsn("Could not create instance of function: '" + functionValue.getName() + "'");
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+                mv.visitMethodInsn(Opcodes.INVOKESPECIAL,
+                                   "java/lang/IllegalArgumentException",
+                                   "<init>",
+                                   "(Ljava/lang/String;Ljava/lang/Throwable;)V",
+                                   false);
+                mv.visitInsn(Opcodes.ATHROW);
+            }
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        /**
+         * Returns the constructor of the function if it can be invoked directly from generated code with exactly the
+         * same outcome as the reflective invocation done by the interpreter, null otherwise.
+         */
+        private static Constructor<?> directlyInvocable(FunctionValue functionValue) {
+            final FunctionRegistry.ConstructorMeta selectedConstructor = functionValue.getSelectedConstructor();
+            if (null == selectedConstructor || null == selectedConstructor.getConstructor()) {
+                return null;
+            }
+            final Constructor<?> constructor = selectedConstructor.getConstructor();
+            final Class<?> declaringClass = constructor.getDeclaringClass();
+            if (!Modifier.isPublic(constructor.getModifiers())
+                    || Modifier.isAbstract(declaringClass.getModifiers())
+                    || !isVisible(declaringClass)) {
+                return null;
+            }
+            final Class<?>[] parameterTypes = constructor.getParameterTypes();
+            final List<Value> parameters = functionValue.getParameters();
+            if (selectedConstructor.isHasVariableArgs()) {
+                return parameterTypes.length == 1
+                        && parameterTypes[0].isArray()
+                        && parameterTypes[0].getComponentType().isAssignableFrom(Value.class)
+                       ? constructor
+                       : null;
+            }
+            if (parameterTypes.length != parameters.size()) {
+                return null;
+            }
+            for (int i = 0; i < parameterTypes.length; i++) {
+                final Value parameter = parameters.get(i);
+                if (!isVisible(parameterTypes[i])
+                        || (null != parameter && !parameterTypes[i].isInstance(parameter))) {
+                    return null;
+                }
+            }
+            return constructor;
+        }
+
+        private void loadConstant(MethodVisitor mv, Object value, Class<?> type) {
+            final int index = constants.size();
+            constants.add(value);
+            constantDescriptors.add(Type.getDescriptor(type));
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, GENERATED_CLASS, "c" + index, Type.getDescriptor(type));
+        }
+
+        private static void invokeSupport(MethodVisitor mv, String name, String descriptor) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, SUPPORT_CLASS, name, descriptor, false);
+        }
+    }
+}
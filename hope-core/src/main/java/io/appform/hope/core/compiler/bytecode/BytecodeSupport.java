@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.bytecode;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.visitors.Evaluator;
+
+/**
+ * Runtime helpers invoked from generated rule classes. Every helper mirrors the semantics of the corresponding
+ * {@link Converters} visitor for a single, already known, operand type.
+ */
+@SuppressWarnings("unused")
+final class BytecodeSupport {
+
+    private BytecodeSupport() {
+    }
+
+    static double numeric(Evaluator.EvaluationContext evaluationContext, JsonPathValue pathValue) {
+        return Converters.extractDouble(pathValue, evaluationContext, 0);
+    }
+
+    static double numeric(Evaluator.EvaluationContext evaluationContext, JsonPointerValue pointerValue) {
+        return Converters.extractDouble(pointerValue, evaluationContext, 0);
+    }
+
+    static double numeric(Evaluator.EvaluationContext evaluationContext, Value value) {
+        return Converters.doubleValue(evaluationContext, value, 0);
+    }
+
+    static boolean bool(Evaluator.EvaluationContext evaluationContext, JsonPathValue pathValue) {
+        return Converters.extractBoolean(pathValue, evaluationContext, false);
+    }
+
+    static boolean bool(Evaluator.EvaluationContext evaluationContext, JsonPointerValue pointerValue) {
+        return Converters.extractBoolean(pointerValue, evaluationContext, false);
+    }
+
+    static boolean bool(Evaluator.EvaluationContext evaluationContext, Value value) {
+        return Converters.boolValue(evaluationContext, value, false);
+    }
+
+    static Object object(Evaluator.EvaluationContext evaluationContext, JsonPathValue pathValue) {
+        return Converters.scalarValue(evaluationContext,
+                                      Converters.nodeForJsonPath(pathValue, evaluationContext),
+                                      pathValue.getPath(),
+                                      null);
+    }
+
+    static Object object(Evaluator.EvaluationContext evaluationContext, JsonPointerValue pointerValue) {
+        return Converters.scalarValue(evaluationContext,
+                                      Converters.nodeForJsonPointer(pointerValue, evaluationContext),
+                                      pointerValue.getPointer(),
+                                      null);
+    }
+
+    static Object object(Evaluator.EvaluationContext evaluationContext, Value value) {
+        return Converters.objectValue(evaluationContext, value, null);
+    }
+
+    static Object numberObject(Evaluator.EvaluationContext evaluationContext, JsonPathValue pathValue) {
+        return Converters.extractNodeValue(pathValue, evaluationContext, JsonNodeType.NUMBER, JsonNode::asDouble,
+                                           (Number) 0);
+    }
+
+    static Object numberObject(Evaluator.EvaluationContext evaluationContext, JsonPointerValue pointerValue) {
+        return Converters.extractNodeValue(pointerValue, evaluationContext, JsonNodeType.NUMBER, JsonNode::asDouble,
+                                           (Number) 0);
+    }
+
+    static Object numberObject(Evaluator.EvaluationContext evaluationContext, Value value) {
+        return Converters.numericValue(evaluationContext, value, 0);
+    }
+
+    static Object stringObject(Evaluator.EvaluationContext evaluationContext, JsonPathValue pathValue) {
+        return Converters.extractNodeValue(pathValue, evaluationContext, JsonNodeType.STRING, JsonNode::asText, "");
+    }
+
+    static Object stringObject(Evaluator.EvaluationContext evaluationContext, JsonPointerValue pointerValue) {
+        return Converters.extractNodeValue(pointerValue, evaluationContext, JsonNodeType.STRING, JsonNode::asText, "");
+    }
+
+    static Object stringObject(Evaluator.EvaluationContext evaluationContext, Value value) {
+        return Converters.stringValue(evaluationContext, value, "");
+    }
+
+    static Object booleanObject(Evaluator.EvaluationContext evaluationContext, JsonPathValue pathValue) {
+        return Converters.extractNodeValue(pathValue, evaluationContext, JsonNodeType.BOOLEAN, JsonNode::asBoolean,
+                                           false);
+    }
+
+    static Object booleanObject(Evaluator.EvaluationContext evaluationContext, JsonPointerValue pointerValue) {
+        return Converters.extractNodeValue(pointerValue, evaluationContext, JsonNodeType.BOOLEAN, JsonNode::asBoolean,
+                                           false);
+    }
+
+    static Object booleanObject(Evaluator.EvaluationContext evaluationContext, Value value) {
+        return Converters.booleanValue(evaluationContext, value, false);
+    }
+
+    @SuppressWarnings("java:S3740")
+    static HopeFunction function(FunctionValue functionValue) {
+        return Converters.function(functionValue);
+    }
+
+    static boolean interpret(Evaluator.EvaluationContext evaluationContext, Evaluatable evaluatable) {
+        return new Evaluator.LogicEvaluator(evaluationContext).evaluate(evaluatable);
+    }
+}
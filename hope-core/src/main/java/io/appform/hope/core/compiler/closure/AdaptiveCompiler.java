@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.Combiner;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.InterpretedRule;
+import io.appform.hope.core.compiler.RuleCompiler;
+import io.appform.hope.core.exceptions.errorstrategy.ErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a rule to closures like {@link ClosureCompiler}, but children of every {@link AndCombiner} and
+ * {@link io.appform.hope.core.combiners.OrCombiner} are reordered at runtime based on the cost and pass rate observed
+ * for them. See {@link AdaptiveJunction}. The learned order can be inspected using
+ * {@link AdaptiveRule#getLearnedRule()}.
+ * <p>
+ * Running a child first could skip an error raised by a child before it in source order, so no child is moved ahead of a
+ * child that can fail, see {@link FailurePoints}. With {@link InjectValueErrorHandlingStrategy} only calls to functions
+ * that are not infallible can fail. With other strategies every read from the document can fail as well, so only
+ * children that do not read the document are reordered. Combiners whose children can not be reordered at all are
+ * evaluated in source order like {@link ClosureCompiler}, without sampling.
+ */
+@Slf4j
+public class AdaptiveCompiler implements RuleCompiler {
+    private final boolean injectsValues;
+    private final FailurePoints failurePoints;
+
+    /**
+     * @param errorHandlingStrategy Error handling strategy of the engine the compiled rules are evaluated with
+     */
+    public AdaptiveCompiler(ErrorHandlingStrategy errorHandlingStrategy) {
+        this.injectsValues = errorHandlingStrategy instanceof InjectValueErrorHandlingStrategy;
+        this.failurePoints = injectsValues ? FailurePoints.LENIENT : FailurePoints.STRICT;
+    }
+
+    @Override
+    public CompiledRule compile(Evaluatable rule) {
+        final Map<Combiner, AdaptiveJunction> junctions = new IdentityHashMap<>();
+        final ClosureCompiler compiler = new ClosureCompiler(SharedExpressions.NONE, (combiner, children) -> {
+            if (children.length < 2) {
+                return ClosureCompiler.IN_ORDER.junction(combiner, children);
+            }
+            final List<Evaluatable> expressions = combiner.getExpressions();
+            final boolean[] mayFail = new boolean[children.length];
+            boolean reorderable = false;
+            for (int i = 0; i < mayFail.length; i++) {
+                mayFail[i] = failurePoints.present(expressions.get(i));
+                //A child can only run ahead of children before it that cannot fail
+                reorderable |= i < mayFail.length - 1 && !mayFail[i];
+            }
+            if (!reorderable) {
+                return ClosureCompiler.IN_ORDER.junction(combiner, children);
+            }
+            final AdaptiveJunction junction = new AdaptiveJunction(combiner instanceof AndCombiner,
+                                                                   children,
+                                                                   mayFail,
+                                                                   injectsValues);
+            junctions.put(combiner, junction);
+            return junction;
+        });
+        try {
+            return new AdaptiveRule(rule, compiler.booleanNode(rule), junctions);
+        }
+        catch (Exception e) {
+            log.warn("Could not compile rule to closures, falling back to interpreter: {}", e.getMessage());
+            return new InterpretedRule(rule);
+        }
+    }
+}
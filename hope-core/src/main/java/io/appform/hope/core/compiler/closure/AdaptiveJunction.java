@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Short-circuiting and/or over the children of a combiner that learns the order to evaluate the children in.
+ * <p>
+ * One in {@link #SAMPLE_INTERVAL} evaluations is sampled: all children are evaluated in source order and the time taken
+ * and result of every child is recorded. Every {@link #REORDER_INTERVAL} samples, children are ranked by average cost
+ * divided by the probability of short-circuiting the junction (failing for and, passing for or), so that cheap and
+ * selective children run first.
+ * <p>
+ * Children of a parsed rule have no side effects, but running a child first may skip an error that a child before it in
+ * source order would have raised. So no child is moved ahead of a child that can fail, as found by
+ * {@link FailurePoints}. Junctions that assume values are injected for errors while reading the document are evaluated
+ * in source order if the engine uses any other strategy than {@link InjectValueErrorHandlingStrategy}. If a child fails
+ * while evaluating in learned order, the junction is evaluated again in source order to raise the same error, or
+ * produce the same result, as the source order would have.
+ */
+final class AdaptiveJunction implements BooleanNode {
+    static final int SAMPLE_INTERVAL = 64;
+    static final int REORDER_INTERVAL = 32;
+    private static final int DECAY_THRESHOLD = 1024;
+
+    private final boolean and;
+    private final BooleanNode[] children;
+    private final boolean[] mayFail;
+    private final boolean injectsValues;
+    private final long[] costs;
+    private final long[] shortCircuits;
+    private int samples;
+
+    private volatile int[] order;
+    private volatile BooleanNode[] ordered;
+
+    //Not synchronized on purpose. Lost updates only shift the sampling a bit.
+    private int ticks;
+
+    /**
+     * @param and           true for and, false for or
+     * @param children      Children in source order
+     * @param mayFail       Children that can fail, see {@link FailurePoints}
+     * @param injectsValues true if reading the document was assumed not to fail
+     */
+    AdaptiveJunction(boolean and, BooleanNode[] children, boolean[] mayFail, boolean injectsValues) {
+        this.and = and;
+        this.children = children;
+        this.mayFail = mayFail;
+        this.injectsValues = injectsValues;
+        this.costs = new long[children.length];
+        this.shortCircuits = new long[children.length];
+        this.order = IntStream.range(0, children.length).toArray();
+        this.ordered = children;
+    }
+
+    @Override
+    public boolean evalBoolean(Evaluator.EvaluationContext evaluationContext) {
+        if ((++ticks & (SAMPLE_INTERVAL - 1)) == 0) {
+            return sample(evaluationContext);
+        }
+        final BooleanNode[] nodes = ordered;
+        if (nodes == children || (injectsValues && !(evaluationContext.getEvaluator()
+                .getErrorHandlingStrategy() instanceof InjectValueErrorHandlingStrategy))) {
+            return evaluate(children, evaluationContext);
+        }
+        try {
+            return evaluate(nodes, evaluationContext);
+        }
+        catch (RuntimeException e) {
+            return evaluate(children, evaluationContext);
+        }
+    }
+
+    /**
+     * @return Indices of the children in the order they are currently evaluated in
+     */
+    int[] order() {
+        return order.clone();
+    }
+
+    private boolean evaluate(BooleanNode[] nodes, Evaluator.EvaluationContext evaluationContext) {
+        for (final BooleanNode node : nodes) {
+            if (node.evalBoolean(evaluationContext) != and) {
+                return !and;
+            }
+        }
+        return and;
+    }
+
+    private boolean sample(Evaluator.EvaluationContext evaluationContext) {
+        final long[] elapsed = new long[children.length];
+        final boolean[] results = new boolean[children.length];
+        try {
+            for (int i = 0; i < children.length; i++) {
+                final long start = System.nanoTime();
+                results[i] = children[i].evalBoolean(evaluationContext);
+                elapsed[i] = System.nanoTime() - start;
+            }
+        }
+        catch (RuntimeException e) {
+            return evaluate(children, evaluationContext);
+        }
+        record(elapsed, results);
+        for (final boolean result : results) {
+            if (result != and) {
+                return !and;
+            }
+        }
+        return and;
+    }
+
+    private synchronized void record(long[] elapsed, boolean[] results) {
+        for (int i = 0; i < children.length; i++) {
+            costs[i] += elapsed[i];
+            if (results[i] != and) {
+                shortCircuits[i]++;
+            }
+        }
+        samples++;
+        if (samples % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        if (samples >= DECAY_THRESHOLD) {
+            for (int i = 0; i < children.length; i++) {
+                costs[i] /= 2;
+                shortCircuits[i] /= 2;
+            }
+            samples /= 2;
+        }
+    }
+
+    private void reorder() {
+        final double[] ranks = new double[children.length];
+        for (int i = 0; i < children.length; i++) {
+            final double shortCircuitProbability = (shortCircuits[i] + 1.0) / (samples + 2.0);
+            ranks[i] = ((double) costs[i] / samples) / shortCircuitProbability;
+        }
+        final int[] learned = learnedOrder(ranks);
+        if (Arrays.equals(learned, order)) {
+            return;
+        }
+        final BooleanNode[] nodes = new BooleanNode[children.length];
+        boolean inSourceOrder = true;
+        for (int i = 0; i < learned.length; i++) {
+            nodes[i] = children[learned[i]];
+            inSourceOrder &= learned[i] == i;
+        }
+        order = learned;
+        ordered = inSourceOrder ? children : nodes;
+    }
+
+    /**
+     * Picks the cheapest child that may run next, until all are placed. A child may only run once every child that can
+     * fail before it in source order has run.
+     */
+    private int[] learnedOrder(double[] ranks) {
+        final int[] learned = new int[children.length];
+        final boolean[] placed = new boolean[children.length];
+        for (int position = 0; position < learned.length; position++) {
+            int next = -1;
+            for (int i = 0; i < children.length; i++) {
+                if (placed[i]) {
+                    continue;
+                }
+                if (next < 0 || ranks[i] < ranks[next]) {
+                    next = i;
+                }
+                if (mayFail[i]) {
+                    break;
+                }
+            }
+            placed[next] = true;
+            learned[position] = next;
+        }
+        return learned;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.Combiner;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rule compiled by {@link AdaptiveCompiler}. Children of combiners are evaluated in the order learned so far.
+ */
+public class AdaptiveRule implements CompiledRule {
+    private final Evaluatable rule;
+    private final BooleanNode root;
+    private final Map<Combiner, AdaptiveJunction> junctions;
+
+    AdaptiveRule(Evaluatable rule, BooleanNode root, Map<Combiner, AdaptiveJunction> junctions) {
+        this.rule = rule;
+        this.root = root;
+        this.junctions = junctions;
+    }
+
+    @Override
+    public Evaluatable getRule() {
+        return rule;
+    }
+
+    @Override
+    public boolean evaluate(Evaluator.EvaluationContext evaluationContext) {
+        return root.evalBoolean(evaluationContext);
+    }
+
+    /**
+     * Returns the rule with the children of every combiner in the order they are currently evaluated in.
+     *
+     * @return Reordered copy of the rule
+     */
+    public Evaluatable getLearnedRule() {
+        return learned(rule);
+    }
+
+    private Evaluatable learned(Evaluatable evaluatable) {
+        if (!(evaluatable instanceof Combiner combiner)) {
+            return evaluatable;
+        }
+        final List<Evaluatable> expressions = combiner.getExpressions();
+        final AdaptiveJunction junction = junctions.get(combiner);
+        final List<Evaluatable> reordered = new ArrayList<>(expressions.size());
+        if (null == junction) {
+            expressions.forEach(expression -> reordered.add(learned(expression)));
+        }
+        else {
+            for (final int index : junction.order()) {
+                reordered.add(learned(expressions.get(index)));
+            }
+        }
+        return combiner instanceof AndCombiner
+               ? new AndCombiner(reordered)
+               : new OrCombiner(reordered);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveRule(" + rule + ")";
+    }
+}
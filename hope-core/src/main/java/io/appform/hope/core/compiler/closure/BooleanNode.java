@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.visitors.Evaluator;
+
+/**
+ * A pre-resolved closure for a boolean node of the parse tree
+ */
+@FunctionalInterface
+public interface BooleanNode {
+    /**
+     * Evaluates the node to a boolean.
+     *
+     * @param evaluationContext Current eval context
+     * @return Evaluated value
+     */
+    boolean evalBoolean(Evaluator.EvaluationContext evaluationContext);
+}
@@ -0,0 +1,534 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import io.appform.hope.core.Combiner;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.core.compiler.CompilerUtils;
+import io.appform.hope.core.compiler.InterpretedRule;
+import io.appform.hope.core.compiler.RuleCompiler;
+import io.appform.hope.core.compiler.TypeInference;
+import io.appform.hope.core.compiler.ValueType;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.operators.And;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.Not;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.ObjectValue;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Translates a rule once into a tree of pre-resolved closures. Operand types are resolved at compile time, so
+ * evaluation does not allocate visitors and every call site only ever sees closures of a single node type.
+ */
+@Slf4j
+public class ClosureCompiler implements RuleCompiler {
+    /**
+     * Evaluates children of a combiner in source order
+     */
+    static final JunctionFactory IN_ORDER = (combiner, children) -> combiner instanceof AndCombiner
+                                                                     ? and(children)
+                                                                     : or(children);
+
+    private final SharedExpressions sharedExpressions;
+    private final JunctionFactory junctionFactory;
+
+    public ClosureCompiler() {
+        this(SharedExpressions.NONE, IN_ORDER);
+    }
+
+    ClosureCompiler(SharedExpressions sharedExpressions, JunctionFactory junctionFactory) {
+        this.sharedExpressions = sharedExpressions;
+        this.junctionFactory = junctionFactory;
+    }
+
+    /**
+     * Compiles the rules so that sub-expressions and function calls repeated across rules are evaluated at most once
+     * per document. See {@link SharedExpressions}.
+     */
+    @Override
+    public CompiledRuleList compileAll(List<Evaluatable> rules) {
+        final SharedExpressions shared;
+        try {
+            shared = SharedExpressions.detect(rules);
+        }
+        catch (Exception e) {
+            log.warn("Could not detect shared expressions, compiling rules separately: {}", e.getMessage());
+            return RuleCompiler.super.compileAll(rules);
+        }
+        final ClosureCompiler compiler = new ClosureCompiler(shared, junctionFactory);
+        return new CompiledRuleList(rules.stream()
+                                            .map(compiler::compile)
+                                            .toList());
+    }
+
+    @Override
+    public CompiledRule compile(Evaluatable rule) {
+        try {
+            return new ClosureRule(rule, booleanNode(rule));
+        }
+        catch (Exception e) {
+            log.warn("Could not compile rule to closures, falling back to interpreter: {}", e.getMessage());
+            return new InterpretedRule(rule);
+        }
+    }
+
+    /**
+     * Translates an {@link Evaluatable}. Mirrors {@link Evaluator.LogicEvaluator}.
+     */
+    BooleanNode booleanNode(Evaluatable evaluatable) {
+        return sharedExpressions.share(evaluatable, translate(evaluatable));
+    }
+
+    private BooleanNode translate(Evaluatable evaluatable) {
+        return evaluatable.accept(new VisitorAdapter<BooleanNode>(
+                () -> context -> new Evaluator.LogicEvaluator(context).evaluate(evaluatable)) {
+            @Override
+            public BooleanNode visit(AndCombiner andCombiner) {
+                return junctionFactory.junction(andCombiner, booleanNodes(andCombiner.getExpressions()));
+            }
+
+            @Override
+            public BooleanNode visit(OrCombiner orCombiner) {
+                return junctionFactory.junction(orCombiner, booleanNodes(orCombiner.getExpressions()));
+            }
+
+            @Override
+            public BooleanNode visit(Equals equals) {
+                return equalsNode(equals.getLhs(), equals.getRhs());
+            }
+
+            @Override
+            public BooleanNode visit(NotEquals notEquals) {
+                final BooleanNode equalsNode = equalsNode(notEquals.getLhs(), notEquals.getRhs());
+                return context -> !equalsNode.evalBoolean(context);
+            }
+
+            @Override
+            public BooleanNode visit(Greater greater) {
+                final DoubleNode lhs = doubleNode(greater.getLhs());
+                final DoubleNode rhs = doubleNode(greater.getRhs());
+                return context -> lhs.evalDouble(context) > rhs.evalDouble(context);
+            }
+
+            @Override
+            public BooleanNode visit(GreaterEquals greaterEquals) {
+                final DoubleNode lhs = doubleNode(greaterEquals.getLhs());
+                final DoubleNode rhs = doubleNode(greaterEquals.getRhs());
+                return context -> lhs.evalDouble(context) >= rhs.evalDouble(context);
+            }
+
+            @Override
+            public BooleanNode visit(Lesser lesser) {
+                final DoubleNode lhs = doubleNode(lesser.getLhs());
+                final DoubleNode rhs = doubleNode(lesser.getRhs());
+                return context -> lhs.evalDouble(context) < rhs.evalDouble(context);
+            }
+
+            @Override
+            public BooleanNode visit(LesserEquals lesserEquals) {
+                final DoubleNode lhs = doubleNode(lesserEquals.getLhs());
+                final DoubleNode rhs = doubleNode(lesserEquals.getRhs());
+                return context -> lhs.evalDouble(context) <= rhs.evalDouble(context);
+            }
+
+            @Override
+            public BooleanNode visit(And and) {
+                final BooleanNode lhs = booleanOperand(and.getLhs());
+                final BooleanNode rhs = booleanOperand(and.getRhs());
+                return context -> {
+                    final boolean lhsValue = lhs.evalBoolean(context);
+                    final boolean rhsValue = rhs.evalBoolean(context);
+                    return lhsValue && rhsValue;
+                };
+            }
+
+            @Override
+            public BooleanNode visit(Or or) {
+                final BooleanNode lhs = booleanOperand(or.getLhs());
+                final BooleanNode rhs = booleanOperand(or.getRhs());
+                return context -> {
+                    final boolean lhsValue = lhs.evalBoolean(context);
+                    final boolean rhsValue = rhs.evalBoolean(context);
+                    return lhsValue || rhsValue;
+                };
+            }
+
+            @Override
+            public BooleanNode visit(Not not) {
+                final BooleanNode operand = booleanOperand(not.getOperand());
+                return context -> !operand.evalBoolean(context);
+            }
+        });
+    }
+
+    private BooleanNode[] booleanNodes(List<Evaluatable> expressions) {
+        final BooleanNode[] nodes = new BooleanNode[expressions.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = booleanNode(expressions.get(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * Creates the closure that combines the translated children of an {@link AndCombiner} or {@link OrCombiner}
+     */
+    @FunctionalInterface
+    interface JunctionFactory {
+        BooleanNode junction(Combiner combiner, BooleanNode[] children);
+    }
+
+    /**
+     * Translates a function call. Calls bound to a single instance at parse time apply it directly, a new instance of
+     * the function is created for every evaluation of other calls.
+     */
+    ValueNode functionNode(FunctionValue functionValue) {
+        final HopeFunction<?> boundFunction = functionValue.getBoundFunction();
+        if (null != boundFunction) {
+            return sharedExpressions.share(functionValue, boundFunction::apply);
+        }
+        final Supplier<HopeFunction> function = CompilerUtils.functionFactory(functionValue);
+        return sharedExpressions.share(functionValue, context -> function.get().apply(context));
+    }
+
+    static BooleanNode and(BooleanNode[] nodes) {
+        switch (nodes.length) {
+            case 0:
+                return context -> true;
+            case 1:
+                return nodes[0];
+            case 2: {
+                final BooleanNode first = nodes[0];
+                final BooleanNode second = nodes[1];
+                return context -> first.evalBoolean(context) && second.evalBoolean(context);
+            }
+            default:
+                return context -> {
+                    for (final BooleanNode node : nodes) {
+                        if (!node.evalBoolean(context)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+        }
+    }
+
+    static BooleanNode or(BooleanNode[] nodes) {
+        switch (nodes.length) {
+            case 0:
+                return context -> false;
+            case 1:
+                return nodes[0];
+            case 2: {
+                final BooleanNode first = nodes[0];
+                final BooleanNode second = nodes[1];
+                return context -> first.evalBoolean(context) || second.evalBoolean(context);
+            }
+            default:
+                return context -> {
+                    for (final BooleanNode node : nodes) {
+                        if (node.evalBoolean(context)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+        }
+    }
+
+    /**
+     * Translates an equality check. Comparisons of a numeric literal against a path or pointer are done on primitive
+     * doubles. Everything else mirrors {@code Objects.equals(objectValue(lhs), objectValue(rhs))}.
+     */
+    BooleanNode equalsNode(Value lhs, Value rhs) {
+        if (isLiteral(rhs) && rhs instanceof NumericValue numericValue) {
+            final BooleanNode node = numberEquals(lhs, numericValue.getValue().doubleValue());
+            if (null != node) {
+                return node;
+            }
+        }
+        if (isLiteral(lhs) && lhs instanceof NumericValue numericValue) {
+            final BooleanNode node = numberEquals(rhs, numericValue.getValue().doubleValue());
+            if (null != node) {
+                return node;
+            }
+        }
+        final ObjectNode lhsNode = objectNode(lhs);
+        final ObjectNode rhsNode = objectNode(rhs);
+        return context -> Objects.equals(lhsNode.evalObject(context), rhsNode.evalObject(context));
+    }
+
+    private static BooleanNode numberEquals(Value operand, double constant) {
+        final Double boxedConstant = constant;
+        if (operand instanceof JsonPathValue pathValue) {
+            return context -> scalarEquals(context,
+                                           Converters.nodeForJsonPath(pathValue, context),
+                                           pathValue.getPath(),
+                                           constant,
+                                           boxedConstant);
+        }
+        if (operand instanceof JsonPointerValue pointerValue) {
+            return context -> scalarEquals(context,
+                                           Converters.nodeForJsonPointer(pointerValue, context),
+                                           pointerValue.getPointer(),
+                                           constant,
+                                           boxedConstant);
+        }
+        if (!(operand instanceof NumericValue)) {
+            return null;
+        }
+        final Value resolved = CompilerUtils.resolveOperand(operand, NumericValue.class);
+        if (resolved instanceof JsonPathValue pathValue) {
+            return context -> {
+                final JsonNode node = Converters.nodeForJsonPath(pathValue, context);
+                if (null != node && node.getNodeType() == JsonNodeType.NUMBER) {
+                    return Double.compare(node.asDouble(), constant) == 0;
+                }
+                return boxedConstant.equals(Converters.extractNodeValue(pathValue, context, JsonNodeType.NUMBER,
+                                                                        JsonNode::asDouble, (Number) 0));
+            };
+        }
+        if (resolved instanceof JsonPointerValue pointerValue) {
+            return context -> {
+                final JsonNode node = Converters.nodeForJsonPointer(pointerValue, context);
+                if (null != node && node.getNodeType() == JsonNodeType.NUMBER) {
+                    return Double.compare(node.asDouble(), constant) == 0;
+                }
+                return boxedConstant.equals(Converters.extractNodeValue(pointerValue, context, JsonNodeType.NUMBER,
+                                                                        JsonNode::asDouble, (Number) 0));
+            };
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors {@code Objects.equals(Converters.scalarValue(ctx, node, path, null), boxedConstant)} without boxing
+     * numbers read from the node.
+     */
+    private static boolean scalarEquals(
+            Evaluator.EvaluationContext evaluationContext,
+            JsonNode node,
+            String path,
+            double constant,
+            Double boxedConstant) {
+        if (null != node && !node.isNull() && !node.isMissingNode()) {
+            if (node.isNumber()) {
+                return Double.compare(node.asDouble(), constant) == 0;
+            }
+            if (node.isTextual() || node.isBoolean()) {
+                return false;
+            }
+        }
+        return boxedConstant.equals(evaluationContext.getEvaluator()
+                                            .getErrorHandlingStrategy()
+                                            .handleMissingValue(path, null));
+    }
+
+    private static boolean isLiteral(Value value) {
+        return value instanceof EvaluatableValue<?> evaluatableValue
+                && !(value instanceof ArrayValue)
+                && null != evaluatableValue.getValue();
+    }
+
+    /**
+     * Translates an operand read as a number. Mirrors {@code Converters.numericValue(ctx, value, 0).doubleValue()}.
+     */
+    DoubleNode doubleNode(Value value) {
+        if (value instanceof NumericValue numericValue && null != numericValue.getValue()) {
+            final double constant = numericValue.getValue().doubleValue();
+            return context -> constant;
+        }
+        final Value operand = CompilerUtils.resolveOperand(value, NumericValue.class);
+        if (operand instanceof JsonPathValue pathValue) {
+            return context -> Converters.extractDouble(pathValue, context, 0);
+        }
+        if (operand instanceof JsonPointerValue pointerValue) {
+            return context -> Converters.extractDouble(pointerValue, context, 0);
+        }
+        if (operand instanceof FunctionValue functionValue) {
+            final ValueNode function = functionNode(functionValue);
+            if (TypeInference.returnType(functionValue) == ValueType.NUMBER) {
+                return context -> {
+                    final Value result = function.evalValue(context);
+                    if (result instanceof NumericValue numericResult && null != numericResult.getValue()) {
+                        return numericResult.getValue().doubleValue();
+                    }
+                    return Converters.doubleValue(context, result, 0);
+                };
+            }
+            return context -> Converters.doubleValue(context, function.evalValue(context), 0);
+        }
+        return context -> Converters.doubleValue(context, operand, 0);
+    }
+
+    /**
+     * Translates an operand read as a boolean. Mirrors {@code Converters.booleanValue(ctx, value, false)}.
+     */
+    BooleanNode booleanOperand(Value value) {
+        if (value instanceof BooleanValue booleanValue && null != booleanValue.getValue()) {
+            final boolean constant = booleanValue.getValue();
+            return context -> constant;
+        }
+        final Value operand = CompilerUtils.resolveOperand(value, BooleanValue.class);
+        if (operand instanceof JsonPathValue pathValue) {
+            return context -> Converters.extractBoolean(pathValue, context, false);
+        }
+        if (operand instanceof JsonPointerValue pointerValue) {
+            return context -> Converters.extractBoolean(pointerValue, context, false);
+        }
+        if (operand instanceof FunctionValue functionValue) {
+            final ValueNode function = functionNode(functionValue);
+            if (TypeInference.returnType(functionValue) == ValueType.BOOLEAN) {
+                return context -> {
+                    final Value result = function.evalValue(context);
+                    if (result instanceof BooleanValue booleanResult && null != booleanResult.getValue()) {
+                        return booleanResult.getValue();
+                    }
+                    return Converters.boolValue(context, result, false);
+                };
+            }
+            return context -> Converters.boolValue(context, function.evalValue(context), false);
+        }
+        return context -> Converters.boolValue(context, operand, false);
+    }
+
+    /**
+     * Translates an operand read as an object. Mirrors {@code Converters.objectValue(ctx, value, null)}.
+     */
+    ObjectNode objectNode(Value value) {
+        if (isLiteral(value) && !(value instanceof ObjectValue)) {
+            final Object constant = ((EvaluatableValue<?>) value).getValue();
+            return context -> constant;
+        }
+        if (value instanceof NumericValue) {
+            final Value operand = CompilerUtils.resolveOperand(value, NumericValue.class);
+            if (operand instanceof JsonPathValue pathValue) {
+                return context -> Converters.extractNodeValue(pathValue, context, JsonNodeType.NUMBER,
+                                                              JsonNode::asDouble, (Number) 0);
+            }
+            if (operand instanceof JsonPointerValue pointerValue) {
+                return context -> Converters.extractNodeValue(pointerValue, context, JsonNodeType.NUMBER,
+                                                              JsonNode::asDouble, (Number) 0);
+            }
+            if (operand instanceof FunctionValue functionValue) {
+                final ValueNode function = functionNode(functionValue);
+                return context -> {
+                    final Value result = function.evalValue(context);
+                    if (result instanceof NumericValue numericResult && null != numericResult.getValue()) {
+                        return numericResult.getValue();
+                    }
+                    return Converters.numericValue(context, result, 0);
+                };
+            }
+        }
+        if (value instanceof StringValue) {
+            final Value operand = CompilerUtils.resolveOperand(value, StringValue.class);
+            if (operand instanceof JsonPathValue pathValue) {
+                return context -> Converters.extractNodeValue(pathValue, context, JsonNodeType.STRING,
+                                                              JsonNode::asText, "");
+            }
+            if (operand instanceof JsonPointerValue pointerValue) {
+                return context -> Converters.extractNodeValue(pointerValue, context, JsonNodeType.STRING,
+                                                              JsonNode::asText, "");
+            }
+            if (operand instanceof FunctionValue functionValue) {
+                final ValueNode function = functionNode(functionValue);
+                return context -> {
+                    final Value result = function.evalValue(context);
+                    if (result instanceof StringValue stringResult && null != stringResult.getValue()) {
+                        return stringResult.getValue();
+                    }
+                    return Converters.stringValue(context, result, "");
+                };
+            }
+        }
+        if (value instanceof BooleanValue) {
+            final Value operand = CompilerUtils.resolveOperand(value, BooleanValue.class);
+            if (operand instanceof JsonPathValue pathValue) {
+                return context -> Converters.extractNodeValue(pathValue, context, JsonNodeType.BOOLEAN,
+                                                              JsonNode::asBoolean, false);
+            }
+            if (operand instanceof JsonPointerValue pointerValue) {
+                return context -> Converters.extractNodeValue(pointerValue, context, JsonNodeType.BOOLEAN,
+                                                              JsonNode::asBoolean, false);
+            }
+            if (operand instanceof FunctionValue functionValue) {
+                final ValueNode function = functionNode(functionValue);
+                return context -> {
+                    final Value result = function.evalValue(context);
+                    if (result instanceof BooleanValue booleanResult && null != booleanResult.getValue()) {
+                        return booleanResult.getValue();
+                    }
+                    return Converters.booleanValue(context, result, false);
+                };
+            }
+        }
+        if (value instanceof JsonPathValue pathValue) {
+            return context -> Converters.scalarValue(context,
+                                                     Converters.nodeForJsonPath(pathValue, context),
+                                                     pathValue.getPath(),
+                                                     null);
+        }
+        if (value instanceof JsonPointerValue pointerValue) {
+            return context -> Converters.scalarValue(context,
+                                                     Converters.nodeForJsonPointer(pointerValue, context),
+                                                     pointerValue.getPointer(),
+                                                     null);
+        }
+        if (value instanceof FunctionValue functionValue) {
+            final ValueNode function = functionNode(functionValue);
+            final ValueType returnType = TypeInference.returnType(functionValue);
+            if (returnType == ValueType.NUMBER || returnType == ValueType.STRING || returnType == ValueType.BOOLEAN) {
+                return context -> {
+                    final Value result = function.evalValue(context);
+                    if (isLiteral(result)) {
+                        return ((EvaluatableValue<?>) result).getValue();
+                    }
+                    return Converters.objectValue(context, result, null);
+                };
+            }
+            return context -> Converters.objectValue(context, function.evalValue(context), null);
+        }
+        return context -> Converters.objectValue(context, value, null);
+    }
+}
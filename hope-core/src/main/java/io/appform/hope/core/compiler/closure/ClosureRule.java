@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.visitors.Evaluator;
+
+/**
+ * A {@link CompiledRule} backed by a tree of closures generated by {@link ClosureCompiler}
+ */
+public class ClosureRule implements CompiledRule {
+    private final Evaluatable rule;
+    private final BooleanNode root;
+
+    ClosureRule(Evaluatable rule, BooleanNode root) {
+        this.rule = rule;
+        this.root = root;
+    }
+
+    @Override
+    public Evaluatable getRule() {
+        return rule;
+    }
+
+    @Override
+    public boolean evaluate(Evaluator.EvaluationContext evaluationContext) {
+        return root.evalBoolean(evaluationContext);
+    }
+
+    @Override
+    public String toString() {
+        return "ClosureRule(" + rule + ")";
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.TreeNode;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.compiler.CompilerUtils;
+import io.appform.hope.core.operators.And;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.Not;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.ObjectValue;
+import io.appform.hope.core.values.StringValue;
+
+/**
+ * Finds out if evaluating an expression can fail. {@link AdaptiveJunction} never runs a child ahead of a child that can
+ * fail, as that could skip the error.
+ * <p>
+ * Calls can fail irrespective of the error handling strategy unless they are marked infallible, see
+ * {@link CompilerUtils#isInfallible(FunctionValue)}. Reading the document fails on missing values and type mismatches
+ * unless values are injected for errors. Dynamic paths and pointers fail if the computed path cannot be compiled.
+ */
+final class FailurePoints extends VisitorAdapter<Boolean> {
+    /**
+     * For engines using {@link io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy}
+     */
+    static final FailurePoints LENIENT = new FailurePoints(false);
+    /**
+     * For engines using any other error handling strategy
+     */
+    static final FailurePoints STRICT = new FailurePoints(true);
+
+    private final boolean documentReadsFail;
+
+    private FailurePoints(boolean documentReadsFail) {
+        super(() -> false);
+        this.documentReadsFail = documentReadsFail;
+    }
+
+    /**
+     * @param node Expression to be checked
+     * @return true if evaluating the expression may fail
+     */
+    boolean present(TreeNode node) {
+        return null != node && node.accept(this);
+    }
+
+    @Override
+    public Boolean visit(AndCombiner andCombiner) {
+        return andCombiner.getExpressions().stream().anyMatch(this::present);
+    }
+
+    @Override
+    public Boolean visit(OrCombiner orCombiner) {
+        return orCombiner.getExpressions().stream().anyMatch(this::present);
+    }
+
+    @Override
+    public Boolean visit(And and) {
+        return operands(and.getLhs(), and.getRhs());
+    }
+
+    @Override
+    public Boolean visit(Equals equals) {
+        return operands(equals.getLhs(), equals.getRhs());
+    }
+
+    @Override
+    public Boolean visit(Greater greater) {
+        return operands(greater.getLhs(), greater.getRhs());
+    }
+
+    @Override
+    public Boolean visit(GreaterEquals greaterEquals) {
+        return operands(greaterEquals.getLhs(), greaterEquals.getRhs());
+    }
+
+    @Override
+    public Boolean visit(Lesser lesser) {
+        return operands(lesser.getLhs(), lesser.getRhs());
+    }
+
+    @Override
+    public Boolean visit(LesserEquals lesserEquals) {
+        return operands(lesserEquals.getLhs(), lesserEquals.getRhs());
+    }
+
+    @Override
+    public Boolean visit(NotEquals notEquals) {
+        return operands(notEquals.getLhs(), notEquals.getRhs());
+    }
+
+    @Override
+    public Boolean visit(Or or) {
+        return operands(or.getLhs(), or.getRhs());
+    }
+
+    @Override
+    public Boolean visit(Not not) {
+        return present(not.getOperand());
+    }
+
+    @Override
+    public Boolean visit(JsonPathValue jsonPathValue) {
+        return documentReadsFail || null != jsonPathValue.getFunction();
+    }
+
+    @Override
+    public Boolean visit(JsonPointerValue jsonPointerValue) {
+        return documentReadsFail || null != jsonPointerValue.getFunction();
+    }
+
+    @Override
+    public Boolean visit(ObjectValue objectValue) {
+        return evaluatable(objectValue);
+    }
+
+    @Override
+    public Boolean visit(NumericValue numericValue) {
+        return evaluatable(numericValue);
+    }
+
+    @Override
+    public Boolean visit(StringValue stringValue) {
+        return evaluatable(stringValue);
+    }
+
+    @Override
+    public Boolean visit(BooleanValue booleanValue) {
+        return evaluatable(booleanValue);
+    }
+
+    @Override
+    public Boolean visit(ArrayValue arrayValue) {
+        return (null != arrayValue.getValue() && arrayValue.getValue().stream().anyMatch(this::present))
+                || evaluatable(arrayValue);
+    }
+
+    @Override
+    public Boolean visit(FunctionValue functionValue) {
+        if (!CompilerUtils.isInfallible(functionValue)) {
+            return true;
+        }
+        //Parameters of an infallible call are still converted using the error handling strategy
+        return null != functionValue.getParameters()
+                && functionValue.getParameters()
+                        .stream()
+                        .anyMatch(parameter -> documentReadsFail || present(parameter));
+    }
+
+    private boolean operands(Value lhs, Value rhs) {
+        return present(lhs) || present(rhs);
+    }
+
+    private boolean evaluatable(EvaluatableValue<?> value) {
+        return present(value.getPathValue())
+                || present(value.getPointerValue())
+                || present(value.getFunction());
+    }
+}
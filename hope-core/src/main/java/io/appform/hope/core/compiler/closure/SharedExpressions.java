@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler.closure;
+
+import io.appform.hope.core.BinaryOperator;
+import io.appform.hope.core.Combiner;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.TreeNode;
+import io.appform.hope.core.UnaryOperator;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.compiler.CompilerUtils;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionEvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sub-expressions that occur more than once across a list of rules. Structurally identical sub-expressions and
+ * function calls get a slot in {@link Evaluator.SharedResults}, so that they are evaluated at most once per document.
+ * Only sub-expressions that always evaluate to the same result for a document are shared, i.e. ones where every
+ * function called is deterministic and every path is a literal.
+ */
+final class SharedExpressions {
+    static final SharedExpressions NONE = new SharedExpressions(Collections.emptyMap());
+
+    private static final Object NULL_RESULT = new Object();
+
+    private final Map<TreeNode, Integer> slots;
+
+    private SharedExpressions(Map<TreeNode, Integer> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Finds sub-expressions that occur more than once across the rules.
+     *
+     * @param rules Parsed rules
+     * @return Shared sub-expressions with slots assigned
+     */
+    static SharedExpressions detect(List<Evaluatable> rules) {
+        final Map<TreeNode, Integer> occurrences = new HashMap<>();
+        for (final Evaluatable rule : rules) {
+            countExpression(rule, occurrences);
+        }
+        final Map<TreeNode, Integer> slots = new HashMap<>();
+        occurrences.forEach((expression, count) -> {
+            if (count > 1) {
+                slots.put(expression, slots.size());
+            }
+        });
+        return slots.isEmpty()
+               ? NONE
+               : new SharedExpressions(slots);
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * Wraps the closure for an expression to evaluate it at most once per document if the expression is shared.
+     */
+    BooleanNode share(Evaluatable expression, BooleanNode node) {
+        final Integer slot = slots.get(expression);
+        if (null == slot) {
+            return node;
+        }
+        final int index = slot;
+        return context -> {
+            final Object[] results = results(context);
+            final Object cached = results[index];
+            if (null != cached) {
+                return (Boolean) cached;
+            }
+            final boolean result = node.evalBoolean(context);
+            results[index] = result;
+            return result;
+        };
+    }
+
+    /**
+     * Wraps the closure for a function call to call the function at most once per document if the call is shared.
+     */
+    ValueNode share(FunctionValue functionValue, ValueNode node) {
+        final Integer slot = slots.get(functionValue);
+        if (null == slot) {
+            return node;
+        }
+        final int index = slot;
+        return context -> {
+            final Object[] results = results(context);
+            final Object cached = results[index];
+            if (null != cached) {
+                return cached == NULL_RESULT ? null : (Value) cached;
+            }
+            final Value result = node.evalValue(context);
+            results[index] = null == result ? NULL_RESULT : result;
+            return result;
+        };
+    }
+
+    private Object[] results(Evaluator.EvaluationContext context) {
+        return context.getSharedResults().slots(this, slots.size());
+    }
+
+    private static void countExpression(Evaluatable expression, Map<TreeNode, Integer> occurrences) {
+        if (expression instanceof Combiner combiner) {
+            if (!combiner.getExpressions().isEmpty() && isShareable(combiner)) {
+                occurrences.merge(combiner, 1, Integer::sum);
+            }
+            for (final Evaluatable child : combiner.getExpressions()) {
+                countExpression(child, occurrences);
+            }
+            return;
+        }
+        if (isShareable(expression)) {
+            occurrences.merge(expression, 1, Integer::sum);
+        }
+        if (expression instanceof BinaryOperator<?> binaryOperator) {
+            countOperand(binaryOperator.getLhs(), occurrences);
+            countOperand(binaryOperator.getRhs(), occurrences);
+        }
+        else if (expression instanceof UnaryOperator<?> unaryOperator) {
+            countOperand(unaryOperator.getOperand(), occurrences);
+        }
+    }
+
+    private static void countOperand(Value operand, Map<TreeNode, Integer> occurrences) {
+        final FunctionValue functionValue = operand instanceof EvaluatableValue<?> evaluatableValue
+                                            ? evaluatableValue.getFunction()
+                                            : operand instanceof FunctionValue function ? function : null;
+        if (null != functionValue && isShareable(functionValue)) {
+            occurrences.merge(functionValue, 1, Integer::sum);
+        }
+    }
+
+    private static boolean isShareable(TreeNode node) {
+        if (node instanceof Combiner combiner) {
+            return combiner.getExpressions().stream().allMatch(SharedExpressions::isShareable);
+        }
+        if (node instanceof BinaryOperator<?> binaryOperator) {
+            return isShareable(binaryOperator.getLhs()) && isShareable(binaryOperator.getRhs());
+        }
+        if (node instanceof UnaryOperator<?> unaryOperator) {
+            return isShareable(unaryOperator.getOperand());
+        }
+        if (node instanceof FunctionValue functionValue) {
+            return CompilerUtils.isDeterministic(functionValue)
+                    && functionValue.getParameters().stream().allMatch(SharedExpressions::isShareable);
+        }
+        if (node instanceof JsonPathValue pathValue) {
+            return null != pathValue.getPath();
+        }
+        if (node instanceof JsonPointerValue pointerValue) {
+            return null != pointerValue.getPointer();
+        }
+        if (node instanceof EvaluatableValue<?> evaluatableValue) {
+            if (evaluatableValue.getValue() instanceof List<?> values
+                    && !values.stream().allMatch(value -> value instanceof TreeNode child && isShareable(child))) {
+                return false;
+            }
+            return (null == evaluatableValue.getPathValue() || isShareable(evaluatableValue.getPathValue()))
+                    && (null == evaluatableValue.getPointerValue() || isShareable(evaluatableValue.getPointerValue()))
+                    && (null == evaluatableValue.getFunction() || isShareable(evaluatableValue.getFunction()));
+        }
+        return !(node instanceof FunctionEvaluatableValue functionEvaluatableValue)
+                || null == functionEvaluatableValue.getFunction()
+                || isShareable(functionEvaluatableValue.getFunction());
+    }
+}
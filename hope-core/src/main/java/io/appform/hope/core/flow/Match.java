@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Value;
+
+/**
+ * A document that matched at least one rule, emitted by {@link RuleProcessor}
+ */
+@Value
+public class Match {
+    /**
+     * Position of the document in the upstream sequence, starting at 0. Counts documents that did not match too.
+     */
+    long sequence;
+    /**
+     * The matched document
+     */
+    JsonNode document;
+    /**
+     * Indices of the rules that matched the document, in ascending order
+     */
+    int[] rules;
+}
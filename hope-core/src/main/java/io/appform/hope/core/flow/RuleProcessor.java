@@ -0,0 +1,294 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.flow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Preconditions;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Processor} that evaluates a list of rules against every document it receives and emits a
+ * {@link Match} for every document that matches at least one rule. Documents that match no rule are dropped.
+ * <p>
+ * All evaluation and all signals to the subscriber happen on the executor, the upstream publisher only pays for
+ * queueing documents. Documents are evaluated in batches of up to the configured size with
+ * {@link Evaluator#evaluateBatch(List, List)}. Documents are only requested from upstream while the subscriber has
+ * outstanding demand, and at most one batch is requested ahead, so slow subscribers slow down the upstream publisher.
+ * <p>
+ * Supports a single subscriber, later subscribers are rejected with an {@link IllegalStateException}. If evaluation
+ * fails, the upstream subscription is cancelled and the error is passed to the subscriber.
+ */
+public class RuleProcessor implements Flow.Processor<JsonNode, Match> {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final Evaluator evaluator;
+    private final List<Evaluatable> rules;
+    private final Executor executor;
+    private final int batchSize;
+
+    private final Queue<JsonNode> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super Match> downstream;
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamError;
+    private volatile Throwable downstreamError;
+    private volatile boolean cancelled;
+
+    //Only accessed by the drain loop
+    private final Queue<Match> outbox = new ArrayDeque<>();
+    private boolean downstreamSubscribed;
+    private boolean terminated;
+    private long upstreamOutstanding;
+    private long sequence;
+
+    /**
+     * @param evaluator Evaluator for the rules
+     * @param rules     Rules to be evaluated
+     * @param executor  Executor to evaluate documents and signal the subscriber on
+     * @param batchSize Maximum number of documents evaluated together
+     */
+    public RuleProcessor(Evaluator evaluator, List<Evaluatable> rules, Executor executor, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "batch size must be positive");
+        this.evaluator = Objects.requireNonNull(evaluator);
+        this.rules = List.copyOf(rules);
+        this.executor = Objects.requireNonNull(executor);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        if (null != upstream || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        schedule();
+    }
+
+    @Override
+    public void onNext(JsonNode item) {
+        inbox.add(Objects.requireNonNull(item));
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        upstreamError = Objects.requireNonNull(throwable);
+        upstreamDone = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        schedule();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Match> subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (subscribers.getAndIncrement() > 0) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    //Nothing to deliver
+                }
+
+                @Override
+                public void cancel() {
+                    //Nothing to cancel
+                }
+            });
+            subscriber.onError(new IllegalStateException("RuleProcessor supports a single subscriber"));
+            return;
+        }
+        downstream = subscriber;
+        schedule();
+    }
+
+    private void schedule() {
+        if (0 == wip.getAndIncrement()) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (!terminated) {
+                drainOnce();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (0 != missed);
+    }
+
+    private void drainOnce() {
+        final Flow.Subscriber<? super Match> subscriber = downstream;
+        if (null == subscriber) {
+            return;
+        }
+        if (!downstreamSubscribed) {
+            downstreamSubscribed = true;
+            subscriber.onSubscribe(new DownstreamSubscription());
+        }
+        while (!terminated) {
+            if (cancelled) {
+                terminate();
+                return;
+            }
+            final Throwable error = downstreamError;
+            if (null != error) {
+                terminate();
+                subscriber.onError(error);
+                return;
+            }
+            if (requested.get() > 0 && !outbox.isEmpty()) {
+                requested.decrementAndGet();
+                subscriber.onNext(outbox.poll());
+                continue;
+            }
+            if (outbox.isEmpty() && !inbox.isEmpty()) {
+                if (!evaluateBatch(subscriber)) {
+                    return;
+                }
+                continue;
+            }
+            if (outbox.isEmpty() && upstreamDone && inbox.isEmpty()) {
+                terminate();
+                if (null != upstreamError) {
+                    subscriber.onError(upstreamError);
+                }
+                else {
+                    subscriber.onComplete();
+                }
+                return;
+            }
+            requestUpstream();
+            return;
+        }
+    }
+
+    /**
+     * Requests a batch from upstream when the subscriber has demand and no documents are pending
+     */
+    private void requestUpstream() {
+        final Flow.Subscription subscription = upstream;
+        if (null == subscription || upstreamDone || requested.get() <= 0 || upstreamOutstanding > 0) {
+            return;
+        }
+        upstreamOutstanding = batchSize;
+        subscription.request(batchSize);
+    }
+
+    /**
+     * @return false if evaluation failed and the processor was terminated
+     */
+    private boolean evaluateBatch(Flow.Subscriber<? super Match> subscriber) {
+        final List<JsonNode> batch = new ArrayList<>(batchSize);
+        JsonNode node;
+        while (batch.size() < batchSize && null != (node = inbox.poll())) {
+            batch.add(node);
+        }
+        upstreamOutstanding = Math.max(0, upstreamOutstanding - batch.size());
+        final List<List<Boolean>> results;
+        try {
+            results = evaluator.evaluateBatch(rules, batch);
+        }
+        catch (RuntimeException e) {
+            terminate();
+            final Flow.Subscription subscription = upstream;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+            subscriber.onError(e);
+            return false;
+        }
+        for (int row = 0; row < batch.size(); row++) {
+            final List<Boolean> result = results.get(row);
+            int count = 0;
+            for (final Boolean matched : result) {
+                if (Boolean.TRUE.equals(matched)) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                final int[] matchedRules = new int[count];
+                int index = 0;
+                for (int rule = 0; rule < result.size(); rule++) {
+                    if (Boolean.TRUE.equals(result.get(rule))) {
+                        matchedRules[index++] = rule;
+                    }
+                }
+                outbox.add(new Match(sequence, batch.get(row), matchedRules));
+            }
+            sequence++;
+        }
+        return true;
+    }
+
+    private void terminate() {
+        terminated = true;
+        outbox.clear();
+        inbox.clear();
+    }
+
+    private final class DownstreamSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                downstreamError = new IllegalArgumentException("Requested " + n + " items, must be positive");
+                cancelUpstream();
+            }
+            else {
+                requested.accumulateAndGet(n, (current, added) -> {
+                    final long total = current + added;
+                    return total < 0 ? Long.MAX_VALUE : total;
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelUpstream();
+            schedule();
+        }
+
+        private void cancelUpstream() {
+            final Flow.Subscription subscription = upstream;
+            if (null != subscription) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -26,4 +26,19 @@ import java.lang.annotation.Target;
 @Target(ElementType.TYPE)
 public @interface FunctionImplementation {
     String value();
+
+    /**
+     * Marks a function whose result depends only on its parameters. Calls to deterministic functions with literal
+     * parameters get folded into constants by the {@link io.appform.hope.core.optimizer.Optimizer}.
+     * Must not be set for functions that depend on time, environment or the document being evaluated.
+     */
+    boolean deterministic() default false;
+
+    /**
+     * Marks a function that never fails by itself. Errors can still be raised by the error handling strategy while
+     * reading its parameters. Children of combiners that only call infallible functions can be reordered by
+     * {@link io.appform.hope.core.compiler.closure.AdaptiveCompiler}.
+     * Must not be set for functions that validate their parameters or can throw for some inputs.
+     */
+    boolean infallible() default false;
 }
@@ -17,16 +17,34 @@ package io.appform.hope.core.functions;
 import com.google.common.reflect.TypeToken;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.visitors.Evaluator;
-import lombok.Getter;
 
 /**
  * An abstraction for a function that takes a variable number (zero or more) of parameters that evaluate to {@link Value}
  * and returns a result {@link Value}.
  */
 public abstract class HopeFunction<T extends Value> {
+    private static final ClassValue<TypeToken<?>> RETURN_TYPES = new ClassValue<>() {
+        @Override
+        protected TypeToken<?> computeValue(Class<?> type) {
+            return TypeToken.of(type).resolveType(HopeFunction.class.getTypeParameters()[0]);
+        }
+    };
 
-    @Getter
-    private final TypeToken<T> returnType = new TypeToken<T>(getClass()) { };
+    @SuppressWarnings("unchecked")
+    public TypeToken<T> getReturnType() {
+        return (TypeToken<T>) RETURN_TYPES.get(getClass());
+    }
+
+    /**
+     * Resolves the return type of a function implementation without creating an instance. Resolved types are cached
+     * per class.
+     *
+     * @param functionClass Function implementation class
+     * @return Resolved return type
+     */
+    public static TypeToken<?> returnType(Class<? extends HopeFunction> functionClass) {
+        return RETURN_TYPES.get(functionClass);
+    }
 
     public abstract T apply(Evaluator.EvaluationContext evaluationContext);
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.functions;
+
+import io.appform.hope.core.Value;
+
+/**
+ * A {@link HopeFunction} that is instantiated only once per call site, when the rule is parsed. Parameters are bound
+ * in the constructor and the same instance is used for every evaluation of the call, from any thread, so no function
+ * object gets created per call.
+ * Implementations must not change any state in {@link #apply(io.appform.hope.core.visitors.Evaluator.EvaluationContext)}.
+ * Work that depends only on the parameters (for example, converting a literal parameter) can be done once in the
+ * constructor. Implementations still need to be annotated with {@link FunctionImplementation} to be discovered.
+ */
+public abstract class StatelessHopeFunction<T extends Value> extends HopeFunction<T> {
+
+    /**
+     * Checks if this call can fail by itself. Defaults to {@link FunctionImplementation#infallible()}, implementations
+     * can override this when failures depend on the bound parameters.
+     *
+     * @return true if the call never fails by itself
+     */
+    public boolean isInfallible() {
+        final FunctionImplementation annotation = getClass().getAnnotation(FunctionImplementation.class);
+        return null != annotation && annotation.infallible();
+    }
+}
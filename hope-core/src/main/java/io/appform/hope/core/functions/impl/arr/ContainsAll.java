@@ -17,32 +17,60 @@ package io.appform.hope.core.functions.impl.arr;
 import com.google.common.collect.Sets;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.utils.LiteralSet;
+import io.appform.hope.core.utils.PayloadArray;
 import io.appform.hope.core.values.BooleanValue;
 import io.appform.hope.core.visitors.Evaluator;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * Checks if (evaluated) lhs array contains all values from (evaluated) rhs array. Returns {@link BooleanValue}.
+ * A literal array on either side is converted to a {@link LiteralSet} when the rule is parsed. Arrays from the payload
+ * are compared as {@link PayloadArray}s.
  */
-@FunctionImplementation("arr.contains_all")
-public class ContainsAll extends HopeFunction<BooleanValue> {
+@FunctionImplementation(value = "arr.contains_all", deterministic = true, infallible = true)
+public class ContainsAll extends StatelessHopeFunction<BooleanValue> {
     private final Value lhs;
     private final Value rhs;
+    private final LiteralSet lhsSet;
+    private final LiteralSet rhsSet;
 
     public ContainsAll(Value lhs, Value rhs) {
         this.lhs = lhs;
         this.rhs = rhs;
+        this.lhsSet = LiteralSet.of(lhs);
+        this.rhsSet = LiteralSet.of(rhs);
     }
 
     @Override
     public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
-        final Set<Object> lhsValues = new TreeSet<>(
+        if (null != rhsSet) {
+            final PayloadArray lhsArray = PayloadArray.resolve(evaluationContext, lhs);
+            return new BooleanValue(
+                    null != lhsArray
+                    ? lhsArray.containsAll(rhsSet)
+                    : containsAllMembers(Converters.flattenArray(evaluationContext, lhs, Collections.emptyList()), rhsSet));
+        }
+        if (null != lhsSet) {
+            final PayloadArray rhsArray = PayloadArray.resolve(evaluationContext, rhs);
+            return new BooleanValue(
+                    null != rhsArray
+                    ? rhsArray.isSubsetOf(lhsSet)
+                    : allMembers(Converters.flattenArray(evaluationContext, rhs, Collections.emptyList()), lhsSet));
+        }
+        final PayloadArray lhsArray = PayloadArray.resolve(evaluationContext, lhs);
+        final PayloadArray rhsArray = null != lhsArray ? PayloadArray.resolve(evaluationContext, rhs) : null;
+        if (null != rhsArray) {
+            return new BooleanValue(lhsArray.containsAll(rhsArray));
+        }
+        final Set<Object> lhsValues = new HashSet<>(
                 Converters.flattenArray(evaluationContext, lhs, Collections.emptyList()));
         final Set<Object> rhsValues = new HashSet<>(
                 Converters.flattenArray(evaluationContext, rhs, Collections.emptyList()));
@@ -50,4 +78,38 @@ public class ContainsAll extends HopeFunction<BooleanValue> {
                 lhsValues.size() >= rhsValues.size()
                         && Sets.intersection(lhsValues, rhsValues).size() == rhsValues.size());
     }
+
+    /**
+     * Checks that every member of the literal set is present in the values.
+     */
+    private static boolean containsAllMembers(List<Object> values, LiteralSet literalSet) {
+        final int size = literalSet.size();
+        if (0 == size) {
+            return true;
+        }
+        final BitSet seen = new BitSet(size);
+        int found = 0;
+        for (final Object value : values) {
+            final int index = literalSet.indexOf(value);
+            if (index >= 0 && !seen.get(index)) {
+                seen.set(index);
+                if (++found == size) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks that every value is a member of the literal set.
+     */
+    private static boolean allMembers(List<Object> values, LiteralSet literalSet) {
+        for (final Object value : values) {
+            if (!literalSet.contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -17,8 +17,10 @@ package io.appform.hope.core.functions.impl.arr;
 import com.google.common.collect.Sets;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.utils.LiteralSet;
+import io.appform.hope.core.utils.PayloadArray;
 import io.appform.hope.core.values.BooleanValue;
 import io.appform.hope.core.visitors.Evaluator;
 import lombok.extern.slf4j.Slf4j;
@@ -26,28 +28,60 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.TreeSet;
 
 /**
  * Checks if (evaluated) lhs array contains any value from (evaluated) rhs array. Returns {@link BooleanValue}.
+ * A literal array on either side is converted to a {@link LiteralSet} when the rule is parsed. Arrays from the payload
+ * are compared as {@link PayloadArray}s.
  */
 @Slf4j
-@FunctionImplementation("arr.contains_any")
-public class ContainsAny extends HopeFunction<BooleanValue> {
+@FunctionImplementation(value = "arr.contains_any", deterministic = true, infallible = true)
+public class ContainsAny extends StatelessHopeFunction<BooleanValue> {
     private final Value lhs;
     private final Value rhs;
+    private final LiteralSet lhsSet;
+    private final LiteralSet rhsSet;
 
     public ContainsAny(Value lhs, Value rhs) {
         this.lhs = lhs;
         this.rhs = rhs;
+        this.lhsSet = LiteralSet.of(lhs);
+        this.rhsSet = LiteralSet.of(rhs);
     }
 
     @Override
     public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
-        Set<Object> lhsValues = new TreeSet<>(Converters.flattenArray(evaluationContext, lhs, Collections.emptyList()));
+        if (null != rhsSet) {
+            return new BooleanValue(containsAny(evaluationContext, lhs, rhsSet));
+        }
+        if (null != lhsSet) {
+            return new BooleanValue(containsAny(evaluationContext, rhs, lhsSet));
+        }
+        final PayloadArray lhsArray = PayloadArray.resolve(evaluationContext, lhs);
+        final PayloadArray rhsArray = null != lhsArray ? PayloadArray.resolve(evaluationContext, rhs) : null;
+        if (null != rhsArray) {
+            return new BooleanValue(lhsArray.containsAny(rhsArray));
+        }
+        Set<Object> lhsValues = new HashSet<>(Converters.flattenArray(evaluationContext, lhs, Collections.emptyList()));
         Set<Object> rhsValues = new HashSet<>(Converters.flattenArray(evaluationContext, rhs, Collections.emptyList()));
         log.debug("LHS: {}", lhsValues);
         log.debug("RHS: {}", rhsValues);
         return new BooleanValue(!Sets.intersection(lhsValues, rhsValues).isEmpty());
     }
+
+    private static boolean containsAny(
+            Evaluator.EvaluationContext evaluationContext,
+            Value value,
+            LiteralSet literalSet) {
+        final PayloadArray payloadArray = PayloadArray.resolve(evaluationContext, value);
+        if (null != payloadArray) {
+            return payloadArray.containsAny(literalSet);
+        }
+        for (final Object element : Converters.flattenArray(evaluationContext, value, Collections.emptyList())) {
+            if (literalSet.contains(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.arr;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.BooleanValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -27,8 +27,8 @@ import java.util.List;
 /**
  * Checks if array is empty
  */
-@FunctionImplementation("arr.is_empty")
-public class IsEmpty extends HopeFunction<BooleanValue> {
+@FunctionImplementation(value = "arr.is_empty", deterministic = true, infallible = true)
+public class IsEmpty extends StatelessHopeFunction<BooleanValue> {
 
     private final Value arr;
 
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.arr;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -27,8 +27,8 @@ import java.util.List;
 /**
  * Returns length of array
  */
-@FunctionImplementation("arr.len")
-public class Length extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "arr.len", deterministic = true, infallible = true)
+public class Length extends StatelessHopeFunction<NumericValue> {
 
     private final Value arr;
 
@@ -16,8 +16,10 @@ package io.appform.hope.core.functions.impl.arr;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.utils.LiteralSet;
+import io.appform.hope.core.utils.PayloadArray;
 import io.appform.hope.core.values.BooleanValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -26,20 +28,31 @@ import java.util.HashSet;
 
 /**
  * Checks if (evaluated) lhs value is not present in (evaluated) rhs array. Returns {@link BooleanValue}.
+ * A literal rhs array is converted to a {@link LiteralSet} when the rule is parsed. An rhs array from the payload is
+ * looked up as a {@link PayloadArray}.
  */
-@FunctionImplementation("arr.not_in")
-public class NotIn extends HopeFunction<BooleanValue> {
+@FunctionImplementation(value = "arr.not_in", deterministic = true, infallible = true)
+public class NotIn extends StatelessHopeFunction<BooleanValue> {
     private final Value lhs;
     private final Value rhs;
+    private final LiteralSet rhsSet;
 
     public NotIn(Value lhs, Value rhs) {
         this.lhs = lhs;
         this.rhs = rhs;
+        this.rhsSet = LiteralSet.of(rhs);
     }
 
     @Override
     public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
         final Object lhsValue = Converters.objectValue(evaluationContext, lhs, null);
+        if (null != rhsSet) {
+            return new BooleanValue(null == lhsValue || !rhsSet.contains(lhsValue));
+        }
+        final PayloadArray rhsArray = null != lhsValue ? PayloadArray.resolve(evaluationContext, rhs) : null;
+        if (null != rhsArray) {
+            return new BooleanValue(!rhsArray.contains(lhsValue));
+        }
         return new BooleanValue(
                 null == lhsValue
                         || !new HashSet<>(
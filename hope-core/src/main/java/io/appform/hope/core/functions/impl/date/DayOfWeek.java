@@ -15,7 +15,7 @@
 package io.appform.hope.core.functions.impl.date;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -24,8 +24,8 @@ import java.time.LocalDateTime;
 /**
  * returns the current day of the week as a NumericValue.
  */
-@FunctionImplementation("date.day_of_week")
-public class DayOfWeek extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "date.day_of_week", infallible = true)
+public class DayOfWeek extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(LocalDateTime.now().getDayOfWeek().getValue());
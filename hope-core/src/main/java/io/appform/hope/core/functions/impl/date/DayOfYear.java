@@ -15,7 +15,7 @@
 package io.appform.hope.core.functions.impl.date;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -24,8 +24,8 @@ import java.time.LocalDateTime;
 /**
  * returns the current day of the year as a NumericValue.
  */
-@FunctionImplementation("date.day_of_year")
-public class DayOfYear extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "date.day_of_year", infallible = true)
+public class DayOfYear extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(LocalDateTime.now().getDayOfYear());
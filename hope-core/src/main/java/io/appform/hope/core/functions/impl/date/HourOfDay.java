@@ -15,7 +15,7 @@
 package io.appform.hope.core.functions.impl.date;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -24,8 +24,8 @@ import java.time.LocalDateTime;
 /**
  * Returns the current hour of the day as a NumericValue.
  */
-@FunctionImplementation("date.hour_of_day")
-public class HourOfDay extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "date.hour_of_day", infallible = true)
+public class HourOfDay extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(LocalDateTime.now().getHour());
@@ -15,7 +15,7 @@
 package io.appform.hope.core.functions.impl.date;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -24,8 +24,8 @@ import java.time.LocalDateTime;
 /**
  * Returns the current minute of the hour as a NumericValue.
  */
-@FunctionImplementation("date.minute_of_hour")
-public class MinuteOfHour extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "date.minute_of_hour", infallible = true)
+public class MinuteOfHour extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(LocalDateTime.now().getMinute());
@@ -15,7 +15,7 @@
 package io.appform.hope.core.functions.impl.date;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -26,8 +26,8 @@ import java.util.Locale;
 /**
  * returns the current month of the year as a NumericValue.
  */
-@FunctionImplementation("date.month_of_year")
-public class MonthOfYear extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "date.month_of_year", infallible = true)
+public class MonthOfYear extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(LocalDateTime.now().getMonth().getValue());
@@ -15,7 +15,7 @@
 package io.appform.hope.core.functions.impl.date;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
@@ -26,8 +26,8 @@ import java.util.Locale;
 /**
  * returns the current week of the year as a NumericValue.
  */
-@FunctionImplementation("date.week_of_year")
-public class WeekOfYear extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "date.week_of_year", infallible = true)
+public class WeekOfYear extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(LocalDateTime.now().get(WeekFields.of(Locale.getDefault()).weekOfYear()));
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.math;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -26,8 +26,8 @@ import java.util.Arrays;
 /**
  * Returns {@link NumericValue} sum for N provided evaluated {@link NumericValue} parameters.
  */
-@FunctionImplementation("math.add")
-public class Add extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "math.add", deterministic = true, infallible = true)
+public class Add extends StatelessHopeFunction<NumericValue> {
 
     private final Value[] values;
 
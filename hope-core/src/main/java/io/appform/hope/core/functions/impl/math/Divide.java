@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.math;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.utils.FunctionHelpers;
 import io.appform.hope.core.values.NumericValue;
@@ -25,8 +25,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns quotient {@link NumericValue} for division of evaluated {@link NumericValue} numerator by evaluated {@link NumericValue} denominator.
  */
-@FunctionImplementation("math.div")
-public class Divide extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "math.div", deterministic = true)
+public class Divide extends StatelessHopeFunction<NumericValue> {
     private final Value num;
     private final Value den;
 
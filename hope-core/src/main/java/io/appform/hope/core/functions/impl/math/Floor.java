@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.math;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -24,8 +24,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns floor {@link NumericValue} for evaluated {@link NumericValue} parameter.
  */
-@FunctionImplementation("math.floor")
-public class Floor extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "math.floor", deterministic = true, infallible = true)
+public class Floor extends StatelessHopeFunction<NumericValue> {
 
     private final Value param;
 
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.math;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -24,8 +24,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns negative {@link NumericValue} of evaluated {@link NumericValue} parameter.
  */
-@FunctionImplementation("math.negate")
-public class Negate extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "math.negate", deterministic = true, infallible = true)
+public class Negate extends StatelessHopeFunction<NumericValue> {
 
     private final Value param;
 
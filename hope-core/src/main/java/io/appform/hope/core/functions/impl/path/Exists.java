@@ -18,7 +18,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.BooleanValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -27,7 +27,7 @@ import io.appform.hope.core.visitors.Evaluator;
  * Returns true {@link BooleanValue} if a json node/value exists at provided path.
  */
 @FunctionImplementation("path.exists")
-public class Exists extends HopeFunction<BooleanValue> {
+public class Exists extends StatelessHopeFunction<BooleanValue> {
 
     private final Value path;
 
@@ -14,20 +14,22 @@
 
 package io.appform.hope.core.functions.impl.pointer;
 
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Strings;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.JsonPointerValue;
 import io.appform.hope.core.visitors.Evaluator;
 
 /**
  * Returns true {@link BooleanValue} if a json node/value exists at provided pointer.
  */
 @FunctionImplementation("pointer.exists")
-public class Exists extends HopeFunction<BooleanValue> {
+public class Exists extends StatelessHopeFunction<BooleanValue> {
 
     private final Value pointer;
 
@@ -41,7 +43,10 @@ public class Exists extends HopeFunction<BooleanValue> {
         if(Strings.isNullOrEmpty(pathValue)) {
             return new BooleanValue(false);
         }
-        final JsonNode node = evaluationContext.getRootNode().at(pathValue);
+        //Pointers from the rule are read through the cache of the context
+        final JsonNode node = pointer instanceof JsonPointerValue jsonPointerValue && null != jsonPointerValue.getPointer()
+                              ? Converters.nodeForJsonPointer(jsonPointerValue, evaluationContext)
+                              : evaluationContext.at(JsonPointer.compile(pathValue));
         if(null == node || node.isNull() || node.isMissingNode()) {
             return new BooleanValue(false);
         }
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.str;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.values.StringValue;
@@ -25,8 +25,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns {@link NumericValue} length of provided evaluated {@link StringValue} parameter.
  */
-@FunctionImplementation("str.len")
-public class Length extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "str.len", deterministic = true, infallible = true)
+public class Length extends StatelessHopeFunction<NumericValue> {
     private final Value arg;
 
     public Length(Value arg) {
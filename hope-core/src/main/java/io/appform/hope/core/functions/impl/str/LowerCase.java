@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.str;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.StringValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -24,8 +24,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns lower case {@link StringValue} of provided {@link StringValue} parameter.
  */
-@FunctionImplementation("str.lower")
-public class LowerCase extends HopeFunction<StringValue> {
+@FunctionImplementation(value = "str.lower", deterministic = true, infallible = true)
+public class LowerCase extends StatelessHopeFunction<StringValue> {
     private final Value arg;
 
     public LowerCase(Value arg) {
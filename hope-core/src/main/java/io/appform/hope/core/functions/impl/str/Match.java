@@ -12,35 +12,74 @@
  * under the License.
  */
 
+
 package io.appform.hope.core.functions.impl.str;
 
 import com.google.common.base.Strings;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.utils.FunctionHelpers;
 import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.StringValue;
 import io.appform.hope.core.visitors.Evaluator;
 
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 /**
- * Matches a string against a regex
+ * Matches a string against a regex. A literal regex is compiled once when the rule is parsed, other regexes are
+ * compiled using the {@link io.appform.hope.core.utils.PatternCache} of the evaluator.
  */
-@FunctionImplementation("str.match")
-public class Match extends HopeFunction<BooleanValue> {
+@FunctionImplementation(value = "str.match", deterministic = true)
+public class Match extends StatelessHopeFunction<BooleanValue> {
     private final Value regex;
     private final Value str;
+    private final Pattern pattern;
 
     public Match(Value regex, Value str) {
         this.regex = regex;
         this.str = str;
+        this.pattern = literalPattern(regex);
     }
 
     @Override
     public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
+        if (null != pattern) {
+            final String target = Converters.stringValue(evaluationContext, str, "");
+            return new BooleanValue(pattern.matcher(target).matches());
+        }
         final String regexValue = Converters.stringValue(evaluationContext, regex, "");
         final String target = Converters.stringValue(evaluationContext, str, "");
         FunctionHelpers.checkArgument(evaluationContext, !Strings.isNullOrEmpty(regexValue), "Regex is empty");
-        return new BooleanValue(target.matches(regexValue));
+        return new BooleanValue(evaluationContext.getEvaluator()
+                                        .getPatternCache()
+                                        .get(regexValue)
+                                        .matcher(target)
+                                        .matches());
+    }
+
+    /**
+     * A literal regex that compiled when the rule was parsed is never empty or invalid during evaluation.
+     */
+    @Override
+    public boolean isInfallible() {
+        return null != pattern;
+    }
+
+    /**
+     * Compiles a literal regex. Returns null for other regexes and for literals that need to fail during evaluation.
+     */
+    private static Pattern literalPattern(Value regex) {
+        if (!(regex instanceof StringValue stringValue) || Strings.isNullOrEmpty(stringValue.getValue())) {
+            return null;
+        }
+        try {
+            return Pattern.compile(stringValue.getValue());
+        }
+        catch (PatternSyntaxException e) {
+            return null;
+        }
     }
 }
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.str;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.StringValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -26,8 +26,8 @@ import io.appform.hope.core.visitors.Evaluator;
  * from {@link io.appform.hope.core.values.NumericValue} start
  * to {@link io.appform.hope.core.values.NumericValue} end (exclusive).
  */
-@FunctionImplementation("str.substr")
-public class SubStr extends HopeFunction<StringValue> {
+@FunctionImplementation(value = "str.substr", deterministic = true)
+public class SubStr extends StatelessHopeFunction<StringValue> {
     private final Value arg;
     private final Value start;
     private final Value end;
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.str;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.StringValue;
 import io.appform.hope.core.visitors.Evaluator;
@@ -24,8 +24,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns upper case {@link StringValue} of provided {@link StringValue} parameter.
  */
-@FunctionImplementation("str.upper")
-public class UpperCase extends HopeFunction<StringValue> {
+@FunctionImplementation(value = "str.upper", deterministic = true, infallible = true)
+public class UpperCase extends StatelessHopeFunction<StringValue> {
     private final Value arg;
 
     public UpperCase(Value arg) {
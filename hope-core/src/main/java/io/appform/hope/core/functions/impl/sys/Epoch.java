@@ -15,15 +15,15 @@
 package io.appform.hope.core.functions.impl.sys;
 
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.visitors.Evaluator;
 
 /**
  * Returns current UNIX epoch time {@link NumericValue} in milliseconds.
  */
-@FunctionImplementation("sys.epoch")
-public class Epoch extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "sys.epoch", infallible = true)
+public class Epoch extends StatelessHopeFunction<NumericValue> {
     @Override
     public NumericValue apply(Evaluator.EvaluationContext evaluationContext) {
         return new NumericValue(System.currentTimeMillis());
@@ -16,7 +16,7 @@ package io.appform.hope.core.functions.impl.utils;
 
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.values.NumericValue;
 import io.appform.hope.core.values.StringValue;
@@ -25,8 +25,8 @@ import io.appform.hope.core.visitors.Evaluator;
 /**
  * Returns {@link NumericValue} java Object.hashCode() hash of provided evaluated {@link StringValue} parameter.
  */
-@FunctionImplementation("utils.hash_j")
-public class HashJ extends HopeFunction<NumericValue> {
+@FunctionImplementation(value = "utils.hash_j", deterministic = true, infallible = true)
+public class HashJ extends StatelessHopeFunction<NumericValue> {
     private final Value arg;
 
     public HashJ(Value arg) {
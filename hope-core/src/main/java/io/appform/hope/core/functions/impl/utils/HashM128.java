@@ -18,7 +18,7 @@ import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.functions.FunctionImplementation;
-import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
 import io.appform.hope.core.utils.Converters;
 import io.appform.hope.core.utils.RawTypeHandler;
 import io.appform.hope.core.values.NumericValue;
@@ -31,9 +31,9 @@ import java.nio.charset.Charset;
 /**
  * Returns {@link NumericValue} Murmur3 128 hash of provided evaluated {@link StringValue} parameter.
  */
-@FunctionImplementation("utils.hash_m128")
+@FunctionImplementation(value = "utils.hash_m128", deterministic = true, infallible = true)
 @SuppressWarnings("UnstableApiUsage")
-public class HashM128 extends HopeFunction<NumericValue> {
+public class HashM128 extends StatelessHopeFunction<NumericValue> {
     private final Value arg;
 
     public HashM128(Value arg) {
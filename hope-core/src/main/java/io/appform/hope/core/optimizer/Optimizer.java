@@ -0,0 +1,428 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.optimizer;
+
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.compiler.CompilerUtils;
+import io.appform.hope.core.exceptions.errorstrategy.ErrorHandlingStrategy;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.operators.And;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.Not;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.ObjectValue;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Simplifies a parsed rule without changing the result of evaluating it.
+ * <ul>
+ *     <li>Calls to deterministic functions (see {@link FunctionImplementation#deterministic()}) with literal
+ *     parameters are replaced by their results</li>
+ *     <li>Operators with literal operands are replaced by constants</li>
+ *     <li>Boolean identities like {@code true & x} are simplified</li>
+ *     <li>Nested combiners of the same type are flattened and constants are pruned from combiners</li>
+ * </ul>
+ * Constant true is represented as an empty {@link AndCombiner} and constant false as an empty {@link OrCombiner}.
+ * Sub-expressions that can raise errors during evaluation are never dropped. The optimizer is stateless and can be
+ * shared across threads.
+ */
+@Slf4j
+public class Optimizer {
+    private final Evaluator foldingEvaluator = new Evaluator(new FoldingErrorHandlingStrategy());
+
+    /**
+     * Optimizes a rule.
+     *
+     * @param rule Parsed rule
+     * @return Simplified rule that evaluates to same result as the original for all documents
+     */
+    public Evaluatable optimize(Evaluatable rule) {
+        return rule.accept(new VisitorAdapter<Evaluatable>(() -> rule) {
+            @Override
+            public Evaluatable visit(AndCombiner andCombiner) {
+                return and(andCombiner.getExpressions());
+            }
+
+            @Override
+            public Evaluatable visit(OrCombiner orCombiner) {
+                return or(orCombiner.getExpressions());
+            }
+
+            @Override
+            public Evaluatable visit(Equals equals) {
+                return equality(equals.getLhs(), equals.getRhs(), true);
+            }
+
+            @Override
+            public Evaluatable visit(NotEquals notEquals) {
+                return equality(notEquals.getLhs(), notEquals.getRhs(), false);
+            }
+
+            @Override
+            public Evaluatable visit(Greater greater) {
+                return comparison(greater.getLhs(), greater.getRhs(), (lhs, rhs) -> lhs > rhs, Greater::new);
+            }
+
+            @Override
+            public Evaluatable visit(GreaterEquals greaterEquals) {
+                return comparison(greaterEquals.getLhs(), greaterEquals.getRhs(), (lhs, rhs) -> lhs >= rhs,
+                                  GreaterEquals::new);
+            }
+
+            @Override
+            public Evaluatable visit(Lesser lesser) {
+                return comparison(lesser.getLhs(), lesser.getRhs(), (lhs, rhs) -> lhs < rhs, Lesser::new);
+            }
+
+            @Override
+            public Evaluatable visit(LesserEquals lesserEquals) {
+                return comparison(lesserEquals.getLhs(), lesserEquals.getRhs(), (lhs, rhs) -> lhs <= rhs,
+                                  LesserEquals::new);
+            }
+
+            @Override
+            public Evaluatable visit(And and) {
+                final BooleanValue lhs = (BooleanValue) fold(and.getLhs());
+                final BooleanValue rhs = (BooleanValue) fold(and.getRhs());
+                if (isLiteral(lhs) && isLiteral(rhs)) {
+                    return constant(lhs.getValue() && rhs.getValue());
+                }
+                //true & x -> x == true. Both sides of & are always evaluated, so false & x is left alone
+                if (isLiteral(lhs) && lhs.getValue()) {
+                    return new Equals(rhs, new BooleanValue(true));
+                }
+                if (isLiteral(rhs) && rhs.getValue()) {
+                    return new Equals(lhs, new BooleanValue(true));
+                }
+                return new And(lhs, rhs);
+            }
+
+            @Override
+            public Evaluatable visit(Or or) {
+                final BooleanValue lhs = (BooleanValue) fold(or.getLhs());
+                final BooleanValue rhs = (BooleanValue) fold(or.getRhs());
+                if (isLiteral(lhs) && isLiteral(rhs)) {
+                    return constant(lhs.getValue() || rhs.getValue());
+                }
+                //false | x -> x == true. Both sides of | are always evaluated, so true | x is left alone
+                if (isLiteral(lhs) && !lhs.getValue()) {
+                    return new Equals(rhs, new BooleanValue(true));
+                }
+                if (isLiteral(rhs) && !rhs.getValue()) {
+                    return new Equals(lhs, new BooleanValue(true));
+                }
+                return new Or(lhs, rhs);
+            }
+
+            @Override
+            public Evaluatable visit(Not not) {
+                final BooleanValue operand = (BooleanValue) fold(not.getOperand());
+                if (isLiteral(operand)) {
+                    return constant(!operand.getValue());
+                }
+                return new Not(operand);
+            }
+        });
+    }
+
+    /**
+     * Folds deterministic function calls with literal parameters in a value.
+     *
+     * @param value Value to be folded
+     * @return The folded value if something could be folded, the value itself otherwise
+     */
+    public Value fold(Value value) {
+        if (value instanceof FunctionValue functionValue) {
+            return foldFunction(functionValue);
+        }
+        if (value instanceof ArrayValue arrayValue && null != arrayValue.getValue()) {
+            final List<Value> elements = foldAll(arrayValue.getValue());
+            return elements == arrayValue.getValue()
+                   ? value
+                   : new ArrayValue(elements);
+        }
+        if (value instanceof EvaluatableValue<?> evaluatableValue && null != evaluatableValue.getFunction()) {
+            final Value folded = foldFunction(evaluatableValue.getFunction());
+            if (folded == evaluatableValue.getFunction()) {
+                return value;
+            }
+            if (value.getClass().isInstance(folded)) {
+                return folded;
+            }
+            if (folded instanceof FunctionValue foldedFunction) {
+                return rewrap(value, foldedFunction);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Checks if an evaluatable is one of the constants generated by the optimizer.
+     *
+     * @param evaluatable Evaluatable to be checked
+     * @return true for constant true and constant false
+     */
+    public static boolean isConstant(Evaluatable evaluatable) {
+        return isConstantTrue(evaluatable) || isConstantFalse(evaluatable);
+    }
+
+    /**
+     * Checks if an evaluatable is the constant true generated by the optimizer.
+     *
+     * @param evaluatable Evaluatable to be checked
+     * @return true if it is an empty {@link AndCombiner}
+     */
+    public static boolean isConstantTrue(Evaluatable evaluatable) {
+        return evaluatable instanceof AndCombiner andCombiner && andCombiner.getExpressions().isEmpty();
+    }
+
+    /**
+     * Checks if an evaluatable is the constant false generated by the optimizer.
+     *
+     * @param evaluatable Evaluatable to be checked
+     * @return true if it is an empty {@link OrCombiner}
+     */
+    public static boolean isConstantFalse(Evaluatable evaluatable) {
+        return evaluatable instanceof OrCombiner orCombiner && orCombiner.getExpressions().isEmpty();
+    }
+
+    /**
+     * Creates a constant evaluatable.
+     *
+     * @param value Value of the constant
+     * @return Empty {@link AndCombiner} for true and empty {@link OrCombiner} for false
+     */
+    public static Evaluatable constant(boolean value) {
+        return value
+               ? new AndCombiner(Collections.emptyList())
+               : new OrCombiner(Collections.emptyList());
+    }
+
+    private Evaluatable and(List<Evaluatable> expressions) {
+        final List<Evaluatable> simplified = new ArrayList<>(expressions.size());
+        for (final Evaluatable expression : expressions) {
+            final Evaluatable optimized = optimize(expression);
+            if (optimized instanceof AndCombiner andCombiner) {
+                simplified.addAll(andCombiner.getExpressions());
+            }
+            else {
+                simplified.add(optimized);
+            }
+            //Nothing after a constant false is ever evaluated
+            if (!simplified.isEmpty() && isConstantFalse(simplified.get(simplified.size() - 1))) {
+                break;
+            }
+        }
+        if (simplified.size() == 1) {
+            return simplified.get(0);
+        }
+        return new AndCombiner(simplified);
+    }
+
+    private Evaluatable or(List<Evaluatable> expressions) {
+        final List<Evaluatable> simplified = new ArrayList<>(expressions.size());
+        for (final Evaluatable expression : expressions) {
+            final Evaluatable optimized = optimize(expression);
+            if (optimized instanceof OrCombiner orCombiner) {
+                simplified.addAll(orCombiner.getExpressions());
+            }
+            else {
+                simplified.add(optimized);
+            }
+            //Nothing after a constant true is ever evaluated
+            if (!simplified.isEmpty() && isConstantTrue(simplified.get(simplified.size() - 1))) {
+                break;
+            }
+        }
+        if (simplified.size() == 1) {
+            return simplified.get(0);
+        }
+        return new OrCombiner(simplified);
+    }
+
+    private Evaluatable equality(Value lhs, Value rhs, boolean equals) {
+        final Value foldedLhs = fold(lhs);
+        final Value foldedRhs = fold(rhs);
+        if (isLiteral(foldedLhs) && isLiteral(foldedRhs)) {
+            final boolean result = Objects.equals(((EvaluatableValue<?>) foldedLhs).getValue(),
+                                                  ((EvaluatableValue<?>) foldedRhs).getValue());
+            return constant(equals == result);
+        }
+        return equals
+               ? new Equals(foldedLhs, foldedRhs)
+               : new NotEquals(foldedLhs, foldedRhs);
+    }
+
+    private Evaluatable comparison(
+            NumericValue lhs,
+            NumericValue rhs,
+            BiPredicate<Double, Double> operation,
+            BiFunction<NumericValue, NumericValue, Evaluatable> creator) {
+        final NumericValue foldedLhs = (NumericValue) fold(lhs);
+        final NumericValue foldedRhs = (NumericValue) fold(rhs);
+        if (isLiteral(foldedLhs) && isLiteral(foldedRhs)) {
+            return constant(operation.test(foldedLhs.getValue().doubleValue(),
+                                           foldedRhs.getValue().doubleValue()));
+        }
+        return creator.apply(foldedLhs, foldedRhs);
+    }
+
+    private List<Value> foldAll(List<Value> values) {
+        List<Value> folded = null;
+        for (int i = 0; i < values.size(); i++) {
+            final Value value = values.get(i);
+            final Value foldedValue = fold(value);
+            if (foldedValue != value && null == folded) {
+                folded = new ArrayList<>(values);
+            }
+            if (null != folded) {
+                folded.set(i, foldedValue);
+            }
+        }
+        return null == folded
+               ? values
+               : folded;
+    }
+
+    private Value foldFunction(FunctionValue functionValue) {
+        final FunctionRegistry.ConstructorMeta selectedConstructor = functionValue.getSelectedConstructor();
+        if (null == selectedConstructor || null == selectedConstructor.getConstructor()) {
+            return functionValue;
+        }
+        final List<Value> parameters = foldAll(functionValue.getParameters());
+        final FunctionValue folded = parameters == functionValue.getParameters()
+                                     || !acceptsParameters(selectedConstructor, parameters)
+                                     ? functionValue
+                                     : new FunctionValue(functionValue.getName(), parameters, selectedConstructor);
+        if (!CompilerUtils.isDeterministic(folded)
+                || !folded.getParameters().stream().allMatch(Optimizer::isFoldableParameter)) {
+            return folded;
+        }
+        try {
+            final Value result = Converters.function(folded)
+                    .apply(Evaluator.EvaluationContext.builder()
+                                   .rootNode(MissingNode.getInstance())
+                                   .evaluator(foldingEvaluator)
+                                   .build());
+            if (isLiteral(result) && !(result instanceof ObjectValue)) {
+                return result;
+            }
+        }
+        catch (RuntimeException e) {
+            log.debug("Function {} was not folded: {}", functionValue.getName(), e.getMessage());
+        }
+        return folded;
+    }
+
+    private static boolean acceptsParameters(FunctionRegistry.ConstructorMeta constructorMeta, List<Value> parameters) {
+        final Class<?>[] parameterTypes = constructorMeta.getConstructor().getParameterTypes();
+        if (constructorMeta.isHasVariableArgs()) {
+            return true;
+        }
+        for (int i = 0; i < parameterTypes.length && i < parameters.size(); i++) {
+            if (!parameterTypes[i].isInstance(parameters.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Value rewrap(Value wrapper, FunctionValue function) {
+        final Function<FunctionValue, Value> creator;
+        if (wrapper instanceof NumericValue) {
+            creator = NumericValue::new;
+        }
+        else if (wrapper instanceof StringValue) {
+            creator = StringValue::new;
+        }
+        else if (wrapper instanceof BooleanValue) {
+            creator = BooleanValue::new;
+        }
+        else if (wrapper instanceof ArrayValue) {
+            creator = ArrayValue::new;
+        }
+        else {
+            return wrapper;
+        }
+        return creator.apply(function);
+    }
+
+    private static boolean isFoldableParameter(Value value) {
+        if (value instanceof ArrayValue arrayValue) {
+            return null != arrayValue.getValue()
+                    && arrayValue.getValue().stream().allMatch(Optimizer::isFoldableParameter);
+        }
+        return isLiteral(value) && !(value instanceof ObjectValue);
+    }
+
+    private static boolean isLiteral(Value value) {
+        return value instanceof EvaluatableValue<?> evaluatableValue
+                && !(value instanceof ArrayValue)
+                && null != evaluatableValue.getValue();
+    }
+
+    /**
+     * Aborts folding whenever a function runs into an error. Such calls are left to be evaluated at runtime
+     * so that errors get handled as configured on the engine.
+     */
+    private static final class FoldingErrorHandlingStrategy implements ErrorHandlingStrategy {
+        @Override
+        public <T> T handleMissingValue(String path, T defaultValue) {
+            throw new IllegalStateException("Missing value at: " + path);
+        }
+
+        @Override
+        public <T> T handleTypeMismatch(String path, String expected, String actual, T defaultValue) {
+            throw new IllegalStateException("Type mismatch at: " + path);
+        }
+
+        @Override
+        public void paramValidationFailure(String checkFailureMessage) {
+            throw new IllegalStateException(checkFailureMessage);
+        }
+
+        @Override
+        public <T> T handleIllegalEval(String message, T defaultValue) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
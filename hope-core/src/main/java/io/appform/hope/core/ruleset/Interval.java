@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.ruleset;
+
+import lombok.Value;
+
+/**
+ * A range of doubles with open or closed ends. Infinite ends are used for unbounded ranges.
+ */
+@Value
+class Interval {
+    static final Interval ALL = new Interval(Double.NEGATIVE_INFINITY, false, Double.POSITIVE_INFINITY, false);
+
+    double lower;
+    boolean lowerInclusive;
+    double upper;
+    boolean upperInclusive;
+
+    static Interval greaterThan(double bound, boolean inclusive) {
+        return new Interval(bound, inclusive, Double.POSITIVE_INFINITY, false);
+    }
+
+    static Interval lesserThan(double bound, boolean inclusive) {
+        return new Interval(Double.NEGATIVE_INFINITY, false, bound, inclusive);
+    }
+
+    boolean contains(double point) {
+        return aboveLower(point) && belowUpper(point);
+    }
+
+    boolean aboveLower(double point) {
+        return lowerInclusive ? point >= lower : point > lower;
+    }
+
+    boolean belowUpper(double point) {
+        return upperInclusive ? point <= upper : point < upper;
+    }
+
+    boolean isEmpty() {
+        return lower > upper || (lower == upper && !(lowerInclusive && upperInclusive));
+    }
+
+    /**
+     * @return Range of points contained in both intervals
+     */
+    Interval intersect(Interval other) {
+        final boolean otherLower = other.lower > lower || (other.lower == lower && !other.lowerInclusive);
+        final boolean otherUpper = other.upper < upper || (other.upper == upper && !other.upperInclusive);
+        return new Interval(otherLower ? other.lower : lower,
+                            otherLower ? other.lowerInclusive : lowerInclusive,
+                            otherUpper ? other.upper : upper,
+                            otherUpper ? other.upperInclusive : upperInclusive);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.ruleset;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable centered interval tree. Finds all intervals containing a point in O(log n + k).
+ *
+ * @param <T> Type of value stored with every interval
+ */
+final class IntervalTree<T> {
+    private final double center;
+    private final List<Entry<T>> byLower;
+    private final List<Entry<T>> byUpper;
+    private final IntervalTree<T> left;
+    private final IntervalTree<T> right;
+
+    private IntervalTree(
+            double center,
+            List<Entry<T>> byLower,
+            List<Entry<T>> byUpper,
+            IntervalTree<T> left,
+            IntervalTree<T> right) {
+        this.center = center;
+        this.byLower = byLower;
+        this.byUpper = byUpper;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * Builds a tree. Intervals that do not contain any double are dropped.
+     *
+     * @param entries Intervals and the values stored with them
+     * @return Tree or null if there are no non-empty intervals
+     */
+    static <T> IntervalTree<T> build(List<Entry<T>> entries) {
+        final List<Entry<T>> nonEmpty = entries.stream()
+                .filter(entry -> !entry.interval.isEmpty() && entry.interval.contains(pointInside(entry.interval)))
+                .toList();
+        if (nonEmpty.isEmpty()) {
+            return null;
+        }
+        final double center = center(nonEmpty);
+        final List<Entry<T>> here = new ArrayList<>();
+        final List<Entry<T>> below = new ArrayList<>();
+        final List<Entry<T>> above = new ArrayList<>();
+        for (final Entry<T> entry : nonEmpty) {
+            final Interval interval = entry.interval;
+            if (interval.contains(center)) {
+                here.add(entry);
+            }
+            else if (interval.belowUpper(center)) {
+                above.add(entry);
+            }
+            else {
+                below.add(entry);
+            }
+        }
+        final List<Entry<T>> byLower = new ArrayList<>(here);
+        byLower.sort(Comparator.comparingDouble(entry -> entry.interval.getLower()));
+        final List<Entry<T>> byUpper = new ArrayList<>(here);
+        byUpper.sort(Comparator.<Entry<T>>comparingDouble(entry -> entry.interval.getUpper()).reversed());
+        return new IntervalTree<>(center, byLower, byUpper, build(below), build(above));
+    }
+
+    /**
+     * Calls the consumer with the value of every interval containing the point.
+     */
+    void stab(double point, Consumer<T> consumer) {
+        if (point < center) {
+            for (final Entry<T> entry : byLower) {
+                if (entry.interval.getLower() > point) {
+                    break;
+                }
+                if (entry.interval.aboveLower(point)) {
+                    consumer.accept(entry.value);
+                }
+            }
+            if (null != left) {
+                left.stab(point, consumer);
+            }
+        }
+        else if (point > center) {
+            for (final Entry<T> entry : byUpper) {
+                if (entry.interval.getUpper() < point) {
+                    break;
+                }
+                if (entry.interval.belowUpper(point)) {
+                    consumer.accept(entry.value);
+                }
+            }
+            if (null != right) {
+                right.stab(point, consumer);
+            }
+        }
+        else {
+            byLower.forEach(entry -> consumer.accept(entry.value));
+        }
+    }
+
+    /**
+     * Median of a point inside every interval. The interval the median is taken from contains the center, so every
+     * level of the tree holds at least one interval.
+     */
+    private static <T> double center(List<Entry<T>> entries) {
+        final double[] points = entries.stream()
+                .mapToDouble(entry -> pointInside(entry.interval))
+                .sorted()
+                .toArray();
+        return points[points.length / 2];
+    }
+
+    private static double pointInside(Interval interval) {
+        final double lower = interval.getLower();
+        final double upper = interval.getUpper();
+        if (Double.isFinite(lower) && Double.isFinite(upper)) {
+            final double middle = lower + (upper - lower) / 2;
+            return interval.contains(middle) ? middle : lower;
+        }
+        if (Double.isFinite(lower)) {
+            return interval.isLowerInclusive() ? lower : Math.nextUp(lower);
+        }
+        if (Double.isFinite(upper)) {
+            return interval.isUpperInclusive() ? upper : Math.nextDown(upper);
+        }
+        return 0;
+    }
+
+    static final class Entry<T> {
+        private final Interval interval;
+        private final T value;
+
+        Entry(Interval interval, T value) {
+            this.interval = interval;
+            this.value = value;
+        }
+    }
+}
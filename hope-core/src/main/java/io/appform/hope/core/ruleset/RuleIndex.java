@@ -0,0 +1,389 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.ruleset;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import io.appform.hope.core.BinaryOperator;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over the checks that rules start with. For every rule, the leading conjuncts that compare a path or pointer
+ * to a literal are extracted:
+ * <ul>
+ *     <li>Equality checks ({@code path == literal}) are looked up in hash maps keyed on the literal</li>
+ *     <li>Numeric comparisons ({@code path > 10}, {@code 10 >= path} etc.) are looked up in an {@link IntervalTree}.
+ *     Consecutive comparisons on the same path are merged into a single interval</li>
+ * </ul>
+ * The rule is added to a trie with one level per check. For a document, only rules along the trie nodes matching the
+ * values in the document are candidates.
+ * <p>
+ * Rules that are not candidates are guaranteed to evaluate to false without raising errors: all conjuncts before the
+ * one excluding the rule have evaluated to true on the same values, and the excluding conjunct compares a value
+ * present in the document to a literal it does not match. When a path does not resolve to a value of the type the
+ * check reads, all rules below that point of the trie are candidates, so that errors are raised exactly like they
+ * would be by a linear scan.
+ */
+final class RuleIndex {
+    private final Node root;
+    private final int indexedRules;
+
+    private RuleIndex(Node root, int indexedRules) {
+        this.root = root;
+        this.indexedRules = indexedRules;
+    }
+
+    /**
+     * Builds the index for a list of rules.
+     *
+     * @param rules Parsed rules
+     * @return Index over the rules
+     */
+    static RuleIndex build(List<Evaluatable> rules) {
+        final NodeBuilder root = new NodeBuilder();
+        int indexedRules = 0;
+        for (int index = 0; index < rules.size(); index++) {
+            final List<Check> checks = new ArrayList<>();
+            leadingChecks(rules.get(index), checks);
+            NodeBuilder node = root;
+            for (final Check check : checks) {
+                node = node.child(check);
+                node.all.add(index);
+            }
+            node.terminal.add(index);
+            if (!checks.isEmpty()) {
+                indexedRules++;
+            }
+        }
+        return new RuleIndex(root.build(), indexedRules);
+    }
+
+    /**
+     * @return Number of rules that have at least one indexed check
+     */
+    int indexedRules() {
+        return indexedRules;
+    }
+
+    /**
+     * Marks the indices of rules that can match a document.
+     *
+     * @param evaluationContext Context for the document
+     * @param candidates        Set to mark candidate rules in
+     */
+    void candidates(Evaluator.EvaluationContext evaluationContext, BitSet candidates) {
+        root.collect(evaluationContext, candidates);
+    }
+
+    /**
+     * Collects the checks a rule starts with, in evaluation order.
+     *
+     * @return true if all of the expression consists of indexable checks
+     */
+    private static boolean leadingChecks(Evaluatable evaluatable, List<Check> checks) {
+        if (evaluatable instanceof AndCombiner andCombiner) {
+            for (final Evaluatable expression : andCombiner.getExpressions()) {
+                if (!leadingChecks(expression, checks)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        final Check check = check(evaluatable);
+        if (null == check) {
+            return false;
+        }
+        final Check previous = checks.isEmpty() ? null : checks.get(checks.size() - 1);
+        if (null != check.interval
+                && null != previous
+                && null != previous.interval
+                && previous.operand.equals(check.operand)) {
+            checks.set(checks.size() - 1,
+                       new Check(check.operand, null, previous.interval.intersect(check.interval)));
+        }
+        else {
+            checks.add(check);
+        }
+        return true;
+    }
+
+    private static Check check(Evaluatable evaluatable) {
+        if (evaluatable instanceof Equals equals) {
+            if (isPathOrPointer(equals.getLhs()) && null != literal(equals.getRhs())) {
+                return new Check(equals.getLhs(), literal(equals.getRhs()), null);
+            }
+            if (isPathOrPointer(equals.getRhs()) && null != literal(equals.getLhs())) {
+                return new Check(equals.getRhs(), literal(equals.getLhs()), null);
+            }
+            return null;
+        }
+        if (evaluatable instanceof Greater greater) {
+            return rangeCheck(greater, false, true);
+        }
+        if (evaluatable instanceof GreaterEquals greaterEquals) {
+            return rangeCheck(greaterEquals, true, true);
+        }
+        if (evaluatable instanceof Lesser lesser) {
+            return rangeCheck(lesser, false, false);
+        }
+        if (evaluatable instanceof LesserEquals lesserEquals) {
+            return rangeCheck(lesserEquals, true, false);
+        }
+        return null;
+    }
+
+    /**
+     * Translates {@code lhs > rhs} style comparisons to the interval of values of the path the comparison holds for.
+     *
+     * @param inclusive true if the comparison holds for equal values
+     * @param greater   true if the comparison holds when lhs is greater
+     */
+    private static Check rangeCheck(BinaryOperator<?> comparison, boolean inclusive, boolean greater) {
+        final Value lhsOperand = numericOperand(comparison.getLhs());
+        final Value rhsOperand = numericOperand(comparison.getRhs());
+        if (null != lhsOperand && comparison.getRhs() instanceof NumericValue bound && isLiteral(bound)) {
+            final double value = bound.getValue().doubleValue();
+            return new Check(lhsOperand, null, greater
+                                               ? Interval.greaterThan(value, inclusive)
+                                               : Interval.lesserThan(value, inclusive));
+        }
+        if (null != rhsOperand && comparison.getLhs() instanceof NumericValue bound && isLiteral(bound)) {
+            final double value = bound.getValue().doubleValue();
+            return new Check(rhsOperand, null, greater
+                                               ? Interval.lesserThan(value, inclusive)
+                                               : Interval.greaterThan(value, inclusive));
+        }
+        return null;
+    }
+
+    /**
+     * @return The path or pointer read by a numeric value, null if it reads anything else
+     */
+    private static Value numericOperand(Value value) {
+        if (!(value instanceof NumericValue numericValue)
+                || null != numericValue.getValue()
+                || null != numericValue.getFunction()) {
+            return null;
+        }
+        if (isPathOrPointer(numericValue.getPathValue())) {
+            return numericValue.getPathValue();
+        }
+        return isPathOrPointer(numericValue.getPointerValue()) ? numericValue.getPointerValue() : null;
+    }
+
+    private static Object literal(Value value) {
+        if ((value instanceof StringValue || value instanceof NumericValue || value instanceof BooleanValue)
+                && isLiteral((EvaluatableValue<?>) value)) {
+            return ((EvaluatableValue<?>) value).getValue();
+        }
+        return null;
+    }
+
+    private static boolean isLiteral(EvaluatableValue<?> value) {
+        return null != value.getValue() && null == value.getFunction();
+    }
+
+    private static boolean isPathOrPointer(Value value) {
+        return (value instanceof JsonPathValue pathValue && null != pathValue.getPath())
+                || (value instanceof JsonPointerValue pointerValue && null != pointerValue.getPointer());
+    }
+
+    private static JsonNode node(Value operand, Evaluator.EvaluationContext evaluationContext) {
+        return operand instanceof JsonPointerValue pointerValue
+               ? Converters.nodeForJsonPointer(pointerValue, evaluationContext)
+               : Converters.nodeForJsonPath((JsonPathValue) operand, evaluationContext);
+    }
+
+    /**
+     * Reads the value compared by an indexed equality check. Mirrors
+     * {@link Converters#scalarValue(Evaluator.EvaluationContext, JsonNode, String, Object)}.
+     *
+     * @return Scalar value present in the document, null if there is no scalar at the path
+     */
+    private static Object scalarKey(Value operand, Evaluator.EvaluationContext evaluationContext) {
+        final JsonNode node = node(operand, evaluationContext);
+        if (null == node) {
+            return null;
+        }
+        if (node.isTextual()) {
+            return node.asText();
+        }
+        if (node.isBoolean()) {
+            return node.asBoolean();
+        }
+        if (node.isNumber()) {
+            return node.asDouble();
+        }
+        return null;
+    }
+
+    /**
+     * An indexed check. Compares the value at the operand to the literal for equality checks and to the interval for
+     * numeric comparisons.
+     */
+    private static final class Check {
+        private final Value operand;
+        private final Object literal;
+        private final Interval interval;
+
+        private Check(Value operand, Object literal, Interval interval) {
+            this.operand = operand;
+            this.literal = literal;
+            this.interval = interval;
+        }
+    }
+
+    private static final class Node {
+        private final int[] terminal;
+        private final EqualityBranch[] equalityBranches;
+        private final RangeBranch[] rangeBranches;
+
+        private Node(int[] terminal, EqualityBranch[] equalityBranches, RangeBranch[] rangeBranches) {
+            this.terminal = terminal;
+            this.equalityBranches = equalityBranches;
+            this.rangeBranches = rangeBranches;
+        }
+
+        private void collect(Evaluator.EvaluationContext evaluationContext, BitSet candidates) {
+            for (final int index : terminal) {
+                candidates.set(index);
+            }
+            for (final EqualityBranch branch : equalityBranches) {
+                final Object key = scalarKey(branch.operand, evaluationContext);
+                if (null == key) {
+                    setAll(branch.all, candidates);
+                    continue;
+                }
+                final Node child = branch.children.get(key);
+                if (null != child) {
+                    child.collect(evaluationContext, candidates);
+                }
+            }
+            for (final RangeBranch branch : rangeBranches) {
+                //Mirrors Converters.extractDouble(), anything but a number is read through the error handling strategy
+                final JsonNode node = node(branch.operand, evaluationContext);
+                if (null == node || node.getNodeType() != JsonNodeType.NUMBER) {
+                    setAll(branch.all, candidates);
+                    continue;
+                }
+                final double value = node.asDouble();
+                //No comparison holds for NaN
+                if (null != branch.children && !Double.isNaN(value)) {
+                    branch.children.stab(value, child -> child.collect(evaluationContext, candidates));
+                }
+            }
+        }
+
+        private static void setAll(int[] indices, BitSet candidates) {
+            for (final int index : indices) {
+                candidates.set(index);
+            }
+        }
+    }
+
+    private static final class EqualityBranch {
+        private final Value operand;
+        private final Map<Object, Node> children;
+        private final int[] all;
+
+        private EqualityBranch(Value operand, Map<Object, Node> children, int[] all) {
+            this.operand = operand;
+            this.children = children;
+            this.all = all;
+        }
+    }
+
+    private static final class RangeBranch {
+        private final Value operand;
+        private final IntervalTree<Node> children;
+        private final int[] all;
+
+        private RangeBranch(Value operand, IntervalTree<Node> children, int[] all) {
+            this.operand = operand;
+            this.children = children;
+            this.all = all;
+        }
+    }
+
+    private static final class NodeBuilder {
+        private final List<Integer> terminal = new ArrayList<>();
+        private final List<Integer> all = new ArrayList<>();
+        private final Map<Value, Map<Object, NodeBuilder>> equalityBranches = new LinkedHashMap<>();
+        private final Map<Value, Map<Interval, NodeBuilder>> rangeBranches = new LinkedHashMap<>();
+
+        private NodeBuilder child(Check check) {
+            if (null != check.interval) {
+                return rangeBranches.computeIfAbsent(check.operand, operand -> new LinkedHashMap<>())
+                        .computeIfAbsent(check.interval, interval -> new NodeBuilder());
+            }
+            return equalityBranches.computeIfAbsent(check.operand, operand -> new LinkedHashMap<>())
+                    .computeIfAbsent(check.literal, literal -> new NodeBuilder());
+        }
+
+        private Node build() {
+            final List<EqualityBranch> builtEqualityBranches = new ArrayList<>();
+            equalityBranches.forEach((operand, literals) -> {
+                final Map<Object, Node> children = new HashMap<>(literals.size() * 2);
+                final List<Integer> all = new ArrayList<>();
+                literals.forEach((literal, child) -> {
+                    children.put(literal, child.build());
+                    all.addAll(child.all);
+                });
+                builtEqualityBranches.add(new EqualityBranch(operand, children, toArray(all)));
+            });
+            final List<RangeBranch> builtRangeBranches = new ArrayList<>();
+            rangeBranches.forEach((operand, intervals) -> {
+                final List<IntervalTree.Entry<Node>> children = new ArrayList<>(intervals.size());
+                final List<Integer> all = new ArrayList<>();
+                intervals.forEach((interval, child) -> {
+                    children.add(new IntervalTree.Entry<>(interval, child.build()));
+                    all.addAll(child.all);
+                });
+                builtRangeBranches.add(new RangeBranch(operand, IntervalTree.build(children), toArray(all)));
+            });
+            return new Node(toArray(terminal),
+                            builtEqualityBranches.toArray(new EqualityBranch[0]),
+                            builtRangeBranches.toArray(new RangeBranch[0]));
+        }
+
+        private static int[] toArray(List<Integer> indices) {
+            return indices.stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.ruleset;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.core.compiler.InterpretedRule;
+import io.appform.hope.core.compiler.RuleCompiler;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.IntConsumer;
+
+/**
+ * A list of rules evaluated together against documents. Rules are pre-filtered using an index over the equality
+ * checks and numeric range checks they start with (see {@link RuleIndex}), so only rules that can match a document
+ * get evaluated. Results are the same as evaluating every rule of the list in order. Immutable and can be shared
+ * across threads.
+ */
+public class RuleSet {
+    private final CompiledRuleList rules;
+    private final RuleIndex ruleIndex;
+
+    /**
+     * @param rules Parsed rules. Rules are interpreted.
+     */
+    public RuleSet(List<Evaluatable> rules) {
+        this(rules, InterpretedRule::new);
+    }
+
+    /**
+     * @param rules        Parsed rules
+     * @param ruleCompiler Compiler to compile the rules with
+     */
+    public RuleSet(List<Evaluatable> rules, RuleCompiler ruleCompiler) {
+        this.rules = ruleCompiler.compileAll(rules);
+        this.ruleIndex = RuleIndex.build(rules);
+    }
+
+    /**
+     * @return Number of rules in the set
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * @return Parsed rules in the set, in order
+     */
+    public List<Evaluatable> getRules() {
+        return rules.getParsedRules();
+    }
+
+    /**
+     * @return Number of rules that can be skipped using the index
+     */
+    public int getIndexedRuleCount() {
+        return ruleIndex.indexedRules();
+    }
+
+    /**
+     * Evaluates all rules against the document of the context.
+     *
+     * @param evaluationContext Context for the document
+     * @return Result of every rule, in order
+     */
+    public List<Boolean> evaluate(Evaluator.EvaluationContext evaluationContext) {
+        final int size = rules.size();
+        final List<Boolean> results = new ArrayList<>(size);
+        final BitSet candidates = candidates(evaluationContext);
+        for (int index = 0; index < size; index++) {
+            results.add(candidates.get(index) && rules.get(index).evaluate(evaluationContext));
+        }
+        return results;
+    }
+
+    /**
+     * Finds the first rule in list order that matches the document of the context.
+     *
+     * @param evaluationContext Context for the document
+     * @return Lowest index of a matching rule, empty if none match
+     */
+    public OptionalInt evaluateFirst(Evaluator.EvaluationContext evaluationContext) {
+        final BitSet candidates = candidates(evaluationContext);
+        for (int index = candidates.nextSetBit(0); index >= 0; index = candidates.nextSetBit(index + 1)) {
+            if (rules.get(index).evaluate(evaluationContext)) {
+                return OptionalInt.of(index);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Evaluates all rules against the document of the context and calls the consumer with the index of every matching
+     * rule, in order.
+     *
+     * @param evaluationContext Context for the document
+     * @param consumer          Called with the index of every matching rule
+     */
+    public void forEachMatch(Evaluator.EvaluationContext evaluationContext, IntConsumer consumer) {
+        final BitSet candidates = candidates(evaluationContext);
+        for (int index = candidates.nextSetBit(0); index >= 0; index = candidates.nextSetBit(index + 1)) {
+            if (rules.get(index).evaluate(evaluationContext)) {
+                consumer.accept(index);
+            }
+        }
+    }
+
+    /**
+     * Evaluates all rules against the document of the context and counts the matching ones.
+     *
+     * @param evaluationContext Context for the document
+     * @return Number of matching rules
+     */
+    public int countMatches(Evaluator.EvaluationContext evaluationContext) {
+        final BitSet candidates = candidates(evaluationContext);
+        int count = 0;
+        for (int index = candidates.nextSetBit(0); index >= 0; index = candidates.nextSetBit(index + 1)) {
+            if (rules.get(index).evaluate(evaluationContext)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private BitSet candidates(Evaluator.EvaluationContext evaluationContext) {
+        final BitSet candidates = new BitSet(rules.size());
+        ruleIndex.candidates(evaluationContext, candidates);
+        return candidates;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a tree that only contains the parts of a document under a set of prefixes. Everything under a prefix is kept
+ * as is, the rest of the document is skipped by a {@link FilteringParserDelegate} while parsing. Elements of arrays
+ * before a kept element are replaced by empty placeholders, so that indices do not change. Pointers and paths that
+ * start with one of the prefixes resolve to the same values as in the tree of the whole document. Immutable and can
+ * be shared across threads.
+ */
+public final class DocumentProjection {
+    private final TokenFilter filter;
+
+    /**
+     * @param prefixes Prefixes of the parts of the document to keep
+     */
+    public DocumentProjection(List<JsonPointer> prefixes) {
+        final Step root = new Step(-1);
+        for (final JsonPointer prefix : prefixes) {
+            root.add(prefix);
+        }
+        this.filter = root.filter(false);
+    }
+
+    /**
+     * @return true if the projection keeps the whole document
+     */
+    public boolean isWholeDocument() {
+        return filter == TokenFilter.INCLUDE_ALL;
+    }
+
+    /**
+     * Reads the projected tree of the document. The parser needs a codec to build the tree.
+     *
+     * @param parser Parser positioned before the document
+     * @return Tree with the kept parts of the document, {@link MissingNode} if there is no document
+     * @throws IOException if the document cannot be read
+     */
+    public JsonNode read(JsonParser parser) throws IOException {
+        final JsonParser source = isWholeDocument()
+                                  ? parser
+                                  : new FilteringParserDelegate(parser,
+                                                                filter,
+                                                                TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH,
+                                                                true);
+        final JsonNode node = null == source.nextToken()
+                              ? null
+                              : source.readValueAsTree();
+        return null == node
+               ? MissingNode.getInstance()
+               : node;
+    }
+
+    /**
+     * Finds the part of the document a json path can read: the fields and indices the path starts with, up to the
+     * first wildcard, filter, slice or search.
+     *
+     * @param path Json path
+     * @return Pointer to the part of the document read by the path, null if the path may read any part of it
+     */
+    public static JsonPointer prefixOf(String path) {
+        final String normalized;
+        try {
+            normalized = JsonPath.compile(path).getPath();
+        }
+        catch (InvalidPathException | IllegalArgumentException e) {
+            return null;
+        }
+        //Filters can refer to the root of the document
+        if (path.indexOf('$') != path.lastIndexOf('$') || !normalized.startsWith("$")) {
+            return null;
+        }
+        JsonPointer prefix = JsonPointer.empty();
+        int position = 1;
+        while (position < normalized.length() && normalized.charAt(position) == '[') {
+            if (normalized.startsWith("['", position)) {
+                final int end = normalized.indexOf("']", position);
+                final String name = end < 0 ? null : normalized.substring(position + 2, end);
+                if (null == name || name.indexOf('\'') >= 0 || name.indexOf('\\') >= 0) {
+                    break;
+                }
+                prefix = prefix.appendProperty(name);
+                position = end + 2;
+            }
+            else {
+                final int end = normalized.indexOf(']', position);
+                final String index = end < 0 ? "" : normalized.substring(position + 1, end);
+                if (index.isEmpty() || !index.chars().allMatch(Character::isDigit) || index.length() > 9) {
+                    break;
+                }
+                prefix = prefix.appendIndex(Integer.parseInt(index));
+                position = end + 1;
+            }
+        }
+        return prefix.matches()
+               ? null
+               : prefix;
+    }
+
+    /**
+     * A step of one or more prefixes. Like {@link JsonNode#at(JsonPointer)}, a step matches the field of an object
+     * with the same name and, if it is a valid index, the element of an array at that index.
+     */
+    private static final class Step {
+        private final Map<String, Step> fields = new HashMap<>();
+        private final int index;
+        private boolean kept;
+
+        private Step(int index) {
+            this.index = index;
+        }
+
+        private void add(JsonPointer prefix) {
+            if (kept) {
+                return;
+            }
+            if (prefix.matches()) {
+                kept = true;
+                fields.clear();
+                return;
+            }
+            fields.computeIfAbsent(prefix.getMatchingProperty(), name -> new Step(prefix.getMatchingIndex()))
+                    .add(prefix.tail());
+        }
+
+        /**
+         * @param element true if the step is matched against array elements, in which case it is kept even if
+         *                nothing in it is kept, to keep the positions of the elements after it
+         */
+        private TokenFilter filter(boolean element) {
+            if (kept) {
+                return TokenFilter.INCLUDE_ALL;
+            }
+            final Map<String, TokenFilter> fieldFilters = new HashMap<>();
+            final Map<Integer, TokenFilter> elementFilters = new HashMap<>();
+            int elementCount = 0;
+            for (final Map.Entry<String, Step> entry : fields.entrySet()) {
+                final Step step = entry.getValue();
+                fieldFilters.put(entry.getKey(), step.filter(false));
+                if (step.index >= 0) {
+                    elementFilters.put(step.index, step.filter(true));
+                    elementCount = Math.max(elementCount, step.index + 1);
+                }
+            }
+            return new StepFilter(fieldFilters, elementFilters, elementCount, element);
+        }
+    }
+
+    private static final class StepFilter extends TokenFilter {
+        private final Map<String, TokenFilter> fields;
+        private final Map<Integer, TokenFilter> elements;
+        private final int elementCount;
+        private final boolean keepEmpty;
+
+        private StepFilter(
+                Map<String, TokenFilter> fields,
+                Map<Integer, TokenFilter> elements,
+                int elementCount,
+                boolean keepEmpty) {
+            this.fields = fields;
+            this.elements = elements;
+            this.elementCount = elementCount;
+            this.keepEmpty = keepEmpty;
+        }
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            return fields.get(name);
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return index < elementCount
+                   ? elements.getOrDefault(index, PlaceholderFilter.INSTANCE)
+                   : null;
+        }
+
+        @Override
+        public boolean includeEmptyObject(boolean contentsFiltered) {
+            return keepEmpty;
+        }
+
+        @Override
+        public boolean includeEmptyArray(boolean contentsFiltered) {
+            return keepEmpty;
+        }
+    }
+
+    /**
+     * Keeps the position of an array element that is not read, as an empty container or as the original scalar
+     */
+    private static final class PlaceholderFilter extends TokenFilter {
+        private static final PlaceholderFilter INSTANCE = new PlaceholderFilter();
+
+        @Override
+        public TokenFilter includeProperty(String name) {
+            return null;
+        }
+
+        @Override
+        public TokenFilter includeElement(int index) {
+            return null;
+        }
+
+        @Override
+        public boolean includeEmptyObject(boolean contentsFiltered) {
+            return true;
+        }
+
+        @Override
+        public boolean includeEmptyArray(boolean contentsFiltered) {
+            return true;
+        }
+    }
+}
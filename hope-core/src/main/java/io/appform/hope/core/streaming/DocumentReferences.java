@@ -0,0 +1,312 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.streaming;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.TreeNode;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.operators.And;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.Not;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionEvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.ObjectValue;
+import io.appform.hope.core.values.StringValue;
+import lombok.Getter;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parts of a document read by a list of rules. Rules that only read the document through json pointers can be
+ * evaluated against values extracted from the document by a {@link PointerExtractor}. Other rules need a tree for
+ * the document, which only has to contain the parts read by the rules (see {@link DocumentProjection}) unless the
+ * rules use pointers or paths computed by functions, paths that search the whole document or functions from outside
+ * the standard library.
+ */
+@Getter
+public final class DocumentReferences {
+    private static final String LIBRARY_PACKAGE = HopeFunction.class.getPackageName() + ".impl";
+
+    /**
+     * Distinct pointers read by the rules, in the order they were found
+     */
+    private final List<JsonPointerValue> pointers;
+    /**
+     * True if the rules need the whole document as a tree
+     */
+    private final boolean treeRequired;
+    /**
+     * Extractor for the pointers, null if the rules need the whole document as a tree
+     */
+    private final PointerExtractor extractor;
+    /**
+     * Projection of the document to the parts read by the rules, null if the rules may read any part of it
+     */
+    private final DocumentProjection projection;
+
+    private DocumentReferences(Collector collector) {
+        this.pointers = List.copyOf(collector.pointers.values());
+        this.treeRequired = collector.treeRequired;
+        this.extractor = treeRequired
+                         ? null
+                         : new PointerExtractor(pointers);
+        this.projection = collector.wholeDocument
+                          ? null
+                          : new DocumentProjection(collector.prefixes);
+    }
+
+    /**
+     * @param rules Parsed rules
+     * @return Parts of the document read by the rules
+     */
+    public static DocumentReferences of(List<Evaluatable> rules) {
+        final Collector collector = new Collector();
+        for (final Evaluatable rule : rules) {
+            collector.collect(rule);
+        }
+        return new DocumentReferences(collector);
+    }
+
+    private static final class Collector extends VisitorAdapter<Void> {
+        private final Map<String, JsonPointerValue> pointers = new LinkedHashMap<>();
+        private final List<JsonPointer> prefixes = new ArrayList<>();
+        private boolean treeRequired;
+        private boolean wholeDocument;
+
+        private Collector() {
+            super(() -> null);
+        }
+
+        private void collect(TreeNode node) {
+            if (null != node) {
+                node.accept(this);
+            }
+        }
+
+        @Override
+        public Void visit(AndCombiner andCombiner) {
+            andCombiner.getExpressions().forEach(this::collect);
+            return null;
+        }
+
+        @Override
+        public Void visit(OrCombiner orCombiner) {
+            orCombiner.getExpressions().forEach(this::collect);
+            return null;
+        }
+
+        @Override
+        public Void visit(And and) {
+            return operands(and.getLhs(), and.getRhs());
+        }
+
+        @Override
+        public Void visit(Equals equals) {
+            return operands(equals.getLhs(), equals.getRhs());
+        }
+
+        @Override
+        public Void visit(Greater greater) {
+            return operands(greater.getLhs(), greater.getRhs());
+        }
+
+        @Override
+        public Void visit(GreaterEquals greaterEquals) {
+            return operands(greaterEquals.getLhs(), greaterEquals.getRhs());
+        }
+
+        @Override
+        public Void visit(Lesser lesser) {
+            return operands(lesser.getLhs(), lesser.getRhs());
+        }
+
+        @Override
+        public Void visit(LesserEquals lesserEquals) {
+            return operands(lesserEquals.getLhs(), lesserEquals.getRhs());
+        }
+
+        @Override
+        public Void visit(NotEquals notEquals) {
+            return operands(notEquals.getLhs(), notEquals.getRhs());
+        }
+
+        @Override
+        public Void visit(Or or) {
+            return operands(or.getLhs(), or.getRhs());
+        }
+
+        @Override
+        public Void visit(Not not) {
+            collect(not.getOperand());
+            return null;
+        }
+
+        @Override
+        public Void visit(JsonPathValue jsonPathValue) {
+            treeRequired = true;
+            if (null == jsonPathValue.getPath()) {
+                wholeDocument = true;
+                return function(jsonPathValue);
+            }
+            path(jsonPathValue.getPath());
+            return null;
+        }
+
+        @Override
+        public Void visit(JsonPointerValue jsonPointerValue) {
+            if (null == jsonPointerValue.getPointer()) {
+                treeRequired = true;
+                wholeDocument = true;
+                return function(jsonPointerValue);
+            }
+            if (null == pointers.putIfAbsent(jsonPointerValue.getPointer(), jsonPointerValue)) {
+                prefixes.add(jsonPointerValue.getJsonPointer());
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(ObjectValue objectValue) {
+            return evaluatable(objectValue);
+        }
+
+        @Override
+        public Void visit(NumericValue numericValue) {
+            return evaluatable(numericValue);
+        }
+
+        @Override
+        public Void visit(StringValue stringValue) {
+            return evaluatable(stringValue);
+        }
+
+        @Override
+        public Void visit(BooleanValue booleanValue) {
+            return evaluatable(booleanValue);
+        }
+
+        @Override
+        public Void visit(ArrayValue arrayValue) {
+            if (null != arrayValue.getValue()) {
+                arrayValue.getValue().forEach(this::collect);
+            }
+            return evaluatable(arrayValue);
+        }
+
+        @Override
+        public Void visit(FunctionValue functionValue) {
+            final Constructor<?> constructor = null == functionValue.getSelectedConstructor()
+                                               ? null
+                                               : functionValue.getSelectedConstructor().getConstructor();
+            final Class<?> implementation = null == constructor
+                                            ? null
+                                            : constructor.getDeclaringClass();
+            final List<Value> parameters = functionValue.getParameters();
+            if (null == implementation || !implementation.getPackageName().startsWith(LIBRARY_PACKAGE)) {
+                //Functions outside the library may read the document on their own
+                treeRequired = true;
+                wholeDocument = true;
+            }
+            else if (implementation == io.appform.hope.core.functions.impl.path.Exists.class) {
+                treeRequired = true;
+                final String literal = literal(parameters);
+                if (null != literal) {
+                    path(literal);
+                }
+                else if (parameters.isEmpty() || !(parameters.get(0) instanceof JsonPathValue)) {
+                    wholeDocument = true;
+                }
+            }
+            else if (implementation == io.appform.hope.core.functions.impl.pointer.Exists.class
+                    && !(parameters.size() == 1 && parameters.get(0) instanceof JsonPointerValue)) {
+                //Checks a pointer that is not read through the cache of the context
+                treeRequired = true;
+                final String literal = literal(parameters);
+                if (null != literal) {
+                    pointer(literal);
+                }
+                else {
+                    wholeDocument = true;
+                }
+            }
+            parameters.forEach(this::collect);
+            return null;
+        }
+
+        private void path(String path) {
+            final JsonPointer prefix = DocumentProjection.prefixOf(path);
+            if (null == prefix) {
+                wholeDocument = true;
+            }
+            else {
+                prefixes.add(prefix);
+            }
+        }
+
+        private void pointer(String pointer) {
+            try {
+                prefixes.add(JsonPointer.compile(pointer));
+            }
+            catch (IllegalArgumentException e) {
+                wholeDocument = true;
+            }
+        }
+
+        private static String literal(List<Value> parameters) {
+            return parameters.size() == 1 && parameters.get(0) instanceof StringValue stringValue
+                   ? stringValue.getValue()
+                   : null;
+        }
+
+        private Void operands(Value lhs, Value rhs) {
+            collect(lhs);
+            collect(rhs);
+            return null;
+        }
+
+        private Void evaluatable(EvaluatableValue<?> value) {
+            collect(value.getPathValue());
+            collect(value.getPointerValue());
+            return function(value);
+        }
+
+        private Void function(FunctionEvaluatableValue value) {
+            collect(value.getFunction());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.streaming;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.appform.hope.core.accessors.DocumentAccessor;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the values at a fixed set of json pointers from a document in a single pass over a {@link JsonParser}. Only
+ * the values at the pointers are turned into {@link JsonNode}s, everything else is skipped. The context is reset to
+ * the extracted values and the values are stored in the pointer cache of the
+ * {@link Evaluator.EvaluationContext}, so rules that only read these pointers can be evaluated without a tree for the
+ * document. Results are the same as resolving the pointers against the tree of the document. Immutable and can be
+ * shared across threads.
+ */
+public final class PointerExtractor {
+    private final Segment root = new Segment();
+    private final int[] slots;
+    private final String[] keys;
+    private final Map<JsonPointer, Integer> indices = new HashMap<>();
+    private final DocumentAccessor<JsonNode[]> accessor = new DocumentAccessor<>() {
+        @Override
+        public JsonNode at(JsonNode[] document, JsonPointer pointer) {
+            final Integer index = indices.get(pointer);
+            return null == index
+                   ? MissingNode.getInstance()
+                   : document[index];
+        }
+
+        @Override
+        public JsonNode toTree(JsonNode[] document) {
+            return MissingNode.getInstance();
+        }
+    };
+
+    /**
+     * @param pointers Pointers to extract, none may be computed by a function
+     */
+    public PointerExtractor(List<JsonPointerValue> pointers) {
+        this.slots = new int[pointers.size()];
+        this.keys = new String[pointers.size()];
+        for (int index = 0; index < slots.length; index++) {
+            final JsonPointerValue pointer = pointers.get(index);
+            if (null == pointer.getPointer()) {
+                throw new IllegalArgumentException("Pointer computed by a function cannot be extracted");
+            }
+            slots[index] = pointer.getSlot();
+            keys[index] = pointer.getPointer();
+            indices.putIfAbsent(pointer.getJsonPointer(), index);
+            root.add(pointer.getJsonPointer(), index);
+        }
+        root.seal();
+    }
+
+    /**
+     * @return Number of pointers extracted from every document
+     */
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * Reads the document from the parser and resets the context to the values at the pointers. The document itself is
+     * not kept, so the context can only be used to read the extracted pointers. Values are also stored in the slots of
+     * the pointers, so that rules read them without a lookup.
+     *
+     * @param parser            Parser positioned before the document
+     * @param evaluationContext Context to store the values in
+     * @throws IOException if the document cannot be read
+     */
+    public void extract(JsonParser parser, Evaluator.EvaluationContext evaluationContext) throws IOException {
+        final JsonNode[] values = new JsonNode[slots.length];
+        if (null != parser.nextToken()) {
+            read(root, parser, values);
+        }
+        for (int index = 0; index < values.length; index++) {
+            if (null == values[index]) {
+                values[index] = MissingNode.getInstance();
+            }
+        }
+        evaluationContext.reset(values, accessor);
+        final Evaluator.NodeCache pointerCache = evaluationContext.getJsonPointerNodes();
+        for (int index = 0; index < values.length; index++) {
+            if (slots[index] >= 0) {
+                pointerCache.put(slots[index], keys[index], values[index]);
+            }
+        }
+    }
+
+    private static void read(Segment segment, JsonParser parser, JsonNode[] values) throws IOException {
+        if (segment.pointer >= 0) {
+            final JsonNode node = parser.readValueAsTree();
+            values[segment.pointer] = node;
+            for (int index = 0; index < segment.nested.length; index++) {
+                values[segment.nested[index]] = node.at(segment.nestedPointers[index]);
+            }
+            return;
+        }
+        final JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final Segment child = segment.fields.get(parser.currentName());
+                parser.nextToken();
+                if (null == child) {
+                    parser.skipChildren();
+                }
+                else {
+                    //With repeated keys the last value wins, like in a tree
+                    child.clear(values);
+                    read(child, parser, values);
+                }
+            }
+        }
+        else if (token == JsonToken.START_ARRAY) {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                final Segment child = segment.elements.get(index++);
+                if (null == child) {
+                    parser.skipChildren();
+                }
+                else {
+                    read(child, parser, values);
+                }
+            }
+        }
+    }
+
+    /**
+     * A step of one or more pointers. Like {@link JsonNode#at(JsonPointer)}, a step matches the field of an object
+     * with the same name and, if it is a valid index, the element of an array at that index.
+     */
+    private static final class Segment {
+        private final Map<String, Segment> fields = new HashMap<>();
+        private final Map<Integer, Segment> elements = new HashMap<>();
+        private final List<Integer> subtree = new ArrayList<>();
+        private final List<JsonPointer> below = new ArrayList<>();
+        private final List<Integer> belowIndices = new ArrayList<>();
+        private int pointer = -1;
+        private int[] all;
+        private int[] nested;
+        private JsonPointer[] nestedPointers;
+
+        private void add(JsonPointer jsonPointer, int index) {
+            subtree.add(index);
+            if (jsonPointer.matches()) {
+                if (pointer >= 0) {
+                    //Another spelling of the same pointer
+                    below.add(jsonPointer);
+                    belowIndices.add(index);
+                }
+                else {
+                    pointer = index;
+                }
+                return;
+            }
+            final Segment child = fields.computeIfAbsent(jsonPointer.getMatchingProperty(), name -> new Segment());
+            if (jsonPointer.getMatchingIndex() >= 0) {
+                elements.putIfAbsent(jsonPointer.getMatchingIndex(), child);
+            }
+            child.add(jsonPointer.tail(), index);
+        }
+
+        private void seal() {
+            all = subtree.stream().mapToInt(Integer::intValue).toArray();
+            fields.values().forEach(Segment::seal);
+            if (pointer >= 0) {
+                collectBelow(JsonPointer.empty(), this);
+            }
+            nested = belowIndices.stream().mapToInt(Integer::intValue).toArray();
+            nestedPointers = below.toArray(JsonPointer[]::new);
+        }
+
+        private void collectBelow(JsonPointer prefix, Segment segment) {
+            if (segment != this && segment.pointer >= 0) {
+                below.add(prefix);
+                belowIndices.add(segment.pointer);
+            }
+            segment.fields.forEach((name, child) -> collectBelow(prefix.appendProperty(name), child));
+        }
+
+        private void clear(JsonNode[] values) {
+            for (final int index : all) {
+                values[index] = null;
+            }
+        }
+    }
+}
@@ -41,11 +41,9 @@ import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.function.Function;
-import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
 
 /**
@@ -183,6 +181,93 @@ public class Converters {
         });
     }
 
+    /**
+     * Evaluates a {@link TreeNode} to find eventual numeric value as a primitive double. Literals, paths and pointers
+     * are read without boxing or allocating a visitor. Semantics are same as
+     * {@code numericValue(evaluationContext, node, defaultValue).doubleValue()}.
+     *
+     * @param evaluationContext Current eval context
+     * @param node              Node to be evaluated
+     * @param defaultValue      Default value if eval fails
+     * @return Evaluated value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static double doubleValue(
+            Evaluator.EvaluationContext evaluationContext,
+            TreeNode node,
+            Number defaultValue) {
+        if (node instanceof NumericValue numericValue) {
+            final Number value = numericValue.getValue();
+            if (null != value) {
+                return value.doubleValue();
+            }
+            if (null != numericValue.getPathValue()) {
+                return extractDouble(numericValue.getPathValue(), evaluationContext, defaultValue);
+            }
+            if (null != numericValue.getPointerValue()) {
+                return extractDouble(numericValue.getPointerValue(), evaluationContext, defaultValue);
+            }
+            if (null != numericValue.getFunction()) {
+                return doubleValue(evaluationContext,
+                                   function(numericValue.getFunction()).apply(evaluationContext),
+                                   defaultValue);
+            }
+        }
+        else if (node instanceof JsonPathValue jsonPathValue) {
+            return extractDouble(jsonPathValue, evaluationContext, defaultValue);
+        }
+        else if (node instanceof JsonPointerValue jsonPointerValue) {
+            return extractDouble(jsonPointerValue, evaluationContext, defaultValue);
+        }
+        else if (node instanceof FunctionValue functionValue) {
+            return doubleValue(evaluationContext, function(functionValue).apply(evaluationContext), defaultValue);
+        }
+        return numericValue(evaluationContext, node, defaultValue).doubleValue();
+    }
+
+    /**
+     * Evaluates a {@link TreeNode} to find eventual boolean value as a primitive. Literals, paths and pointers
+     * are read without allocating a visitor. Semantics are same as
+     * {@code booleanValue(evaluationContext, node, defaultValue)}.
+     *
+     * @param evaluationContext Current eval context
+     * @param node              Node to be evaluated
+     * @param defaultValue      Default value if eval fails
+     * @return Evaluated value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static boolean boolValue(
+            Evaluator.EvaluationContext evaluationContext,
+            TreeNode node,
+            boolean defaultValue) {
+        if (node instanceof BooleanValue booleanValue) {
+            final Boolean value = booleanValue.getValue();
+            if (null != value) {
+                return value;
+            }
+            if (null != booleanValue.getPathValue()) {
+                return extractBoolean(booleanValue.getPathValue(), evaluationContext, defaultValue);
+            }
+            if (null != booleanValue.getPointerValue()) {
+                return extractBoolean(booleanValue.getPointerValue(), evaluationContext, defaultValue);
+            }
+            if (null != booleanValue.getFunction()) {
+                return boolValue(evaluationContext,
+                                 function(booleanValue.getFunction()).apply(evaluationContext),
+                                 defaultValue);
+            }
+        }
+        else if (node instanceof JsonPathValue jsonPathValue) {
+            return extractBoolean(jsonPathValue, evaluationContext, defaultValue);
+        }
+        else if (node instanceof JsonPointerValue jsonPointerValue) {
+            return extractBoolean(jsonPointerValue, evaluationContext, defaultValue);
+        }
+        else if (node instanceof FunctionValue functionValue) {
+            return boolValue(evaluationContext, function(functionValue).apply(evaluationContext), defaultValue);
+        }
+        return booleanValue(evaluationContext, node, defaultValue);
+    }
 
     /**
      * Evaluates a {@link TreeNode} to find eventual boolean value.
@@ -291,8 +376,7 @@ public class Converters {
 
             @Override
             public List<Value> visit(JsonPointerValue jsonPointerValue) {
-                final JsonNode value = evaluationContext.getRootNode()
-                        .at(jsonPointerValue.getJsonPointer());
+                final JsonNode value = nodeForJsonPointer(jsonPointerValue, evaluationContext);
                 if (null == value || value.isNull() || value.isMissingNode()) {
                     return errorHandlingStrategy.handleMissingValue(
                             jsonPointerValue.getPointer(),
@@ -445,36 +529,18 @@ public class Converters {
                                                                                               defaultValue)) {
             @Override
             public Object visit(JsonPathValue jsonPathValue) {
-                final JsonNode value = nodeForJsonPath(jsonPathValue, evaluationContext);
-                if (null != value && !value.isNull() && !value.isMissingNode()) {
-                    if (value.isTextual()) {
-                        return value.asText();
-                    }
-                    if (value.isBoolean()) {
-                        return value.asBoolean();
-                    }
-                    if (value.isNumber()) {
-                        return value.asDouble();
-                    }
-                }
-                return errorHandlingStrategy.handleMissingValue(jsonPathValue.getPath(), defaultValue);
+                return scalarValue(evaluationContext,
+                                   nodeForJsonPath(jsonPathValue, evaluationContext),
+                                   jsonPathValue.getPath(),
+                                   defaultValue);
             }
 
             @Override
             public Object visit(JsonPointerValue jsonPointerValue) {
-                final JsonNode value = nodeForJsonPointer(jsonPointerValue, evaluationContext);
-                if (null != value && !value.isNull() && !value.isMissingNode()) {
-                    if (value.isTextual()) {
-                        return value.asText();
-                    }
-                    if (value.isBoolean()) {
-                        return value.asBoolean();
-                    }
-                    if (value.isNumber()) {
-                        return value.asDouble();
-                    }
-                }
-                return errorHandlingStrategy.handleMissingValue(jsonPointerValue.getPointer(), defaultValue);
+                return scalarValue(evaluationContext,
+                                   nodeForJsonPointer(jsonPointerValue, evaluationContext),
+                                   jsonPointerValue.getPointer(),
+                                   defaultValue);
             }
 
             @Override
@@ -579,16 +645,67 @@ public class Converters {
                 });
     }
 
+    /**
+     * Converts a node extracted from the payload to it's native scalar representation.
+     *
+     * @param evaluationContext Current eval context
+     * @param value             Node extracted from the payload
+     * @param path              Path or pointer the node was extracted from
+     * @param defaultValue      Default value if node is missing or not a scalar
+     * @return String, Boolean or Double on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static Object scalarValue(
+            Evaluator.EvaluationContext evaluationContext,
+            JsonNode value,
+            String path,
+            Object defaultValue) {
+        if (null != value && !value.isNull() && !value.isMissingNode()) {
+            if (value.isTextual()) {
+                return value.asText();
+            }
+            if (value.isBoolean()) {
+                return value.asBoolean();
+            }
+            if (value.isNumber()) {
+                return value.asDouble();
+            }
+        }
+        return evaluationContext.getEvaluator()
+                .getErrorHandlingStrategy()
+                .handleMissingValue(path, defaultValue);
+    }
+
+    /**
+     * Returns the instance of the {@link HopeFunction} selected for a function call. Calls to a
+     * {@link io.appform.hope.core.functions.StatelessHopeFunction} return the instance bound when the call was parsed,
+     * a new instance is created for other functions.
+     *
+     * @param functionValue Function call
+     * @return A function instance with the parameters of the call
+     */
     @SuppressWarnings("java:S3740")
-    private static HopeFunction function(FunctionValue functionValue) {
-        final List<Value> parameters = functionValue.getParameters();
-        return createFunction(functionValue.getName(),
-                              functionValue.getSelectedConstructor(),
-                              parameters);
+    public static HopeFunction function(FunctionValue functionValue) {
+        final HopeFunction<?> boundFunction = functionValue.getBoundFunction();
+        if (null != boundFunction) {
+            return boundFunction;
+        }
+        return function(functionValue.getName(),
+                        functionValue.getSelectedConstructor(),
+                        functionValue.getParameters());
     }
 
+    /**
+     * Creates a new instance of the {@link HopeFunction} selected for a function call.
+     *
+     * @param name                Name of the function, used in the error message
+     * @param selectedConstructor Selected overload of the function
+     * @param parameters          Parameters to be passed to the function
+     * @return A new function instance with the parameters of the call
+     * @throws IllegalArgumentException if the instance cannot be created for any reason
+     */
     @SuppressWarnings({"java:S3740", "java:S3878", "java:S3776"})
-    private static HopeFunction createFunction(
+    public static HopeFunction function(
             String name,
             FunctionRegistry.ConstructorMeta selectedConstructor,
             List<Value> parameters) {
@@ -634,41 +751,75 @@ public class Converters {
                                                         .name() + " is not supported");
     }
 
-    private static JsonNode nodeForJsonPath(
+    /**
+     * Resolves a {@link JsonPathValue} against the payload. Results are cached in the evaluation context.
+     *
+     * @param jsonPathValue     Path to be resolved
+     * @param evaluationContext Current eval context
+     * @return Resolved node or {@link NullNode} if nothing was found
+     */
+    public static JsonNode nodeForJsonPath(
             JsonPathValue jsonPathValue,
             Evaluator.EvaluationContext evaluationContext) {
-        final String path = jsonPathValue.getPath();
-        final Map<String, JsonNode> jsonPathEvalCache = evaluationContext.getJsonPathEvalCache();
-        return jsonPathEvalCache
-                .computeIfAbsent(path, key -> {
-                    final JsonNode value = evaluationContext.getJsonContext().read(jsonPathValue.getJsonPath());
-                    return null == value
-                           ? NullNode.getInstance()
-                           : value;
-                });
+        final int slot = jsonPathValue.getSlot();
+        final Evaluator.NodeCache jsonPathEvalCache = evaluationContext.getJsonPathNodes();
+        JsonNode node = slot < 0 ? null : jsonPathEvalCache.get(slot, jsonPathValue.getPath());
+        if (null == node) {
+            final JsonNode value = evaluationContext.getJsonContext().read(jsonPathValue.getJsonPath());
+            node = null == value
+                   ? NullNode.getInstance()
+                   : value;
+            if (slot >= 0) {
+                jsonPathEvalCache.put(slot, jsonPathValue.getPath(), node);
+            }
+        }
+        return node;
     }
 
-    private static JsonNode nodeForJsonPointer(
+    /**
+     * Resolves a {@link JsonPointerValue} against the payload. Results are cached in the evaluation context.
+     *
+     * @param jsonPointerValue  Pointer to be resolved
+     * @param evaluationContext Current eval context
+     * @return Resolved node or {@link NullNode} if nothing was found
+     */
+    public static JsonNode nodeForJsonPointer(
             JsonPointerValue jsonPointerValue,
             Evaluator.EvaluationContext evaluationContext) {
-        final String pointer = jsonPointerValue.getPointer();
-        final Map<String, JsonNode> jsonPointerEvalCache = evaluationContext.getJsonPointerEvalCache();
-        return jsonPointerEvalCache
-                .computeIfAbsent(pointer, key -> {
-                    final JsonNode value = evaluationContext.getRootNode().at(jsonPointerValue.getJsonPointer());
-                    return null == value
-                           ? NullNode.getInstance()
-                           : value;
-                });
+        final int slot = jsonPointerValue.getSlot();
+        final Evaluator.NodeCache jsonPointerEvalCache = evaluationContext.getJsonPointerNodes();
+        JsonNode node = slot < 0 ? null : jsonPointerEvalCache.get(slot, jsonPointerValue.getPointer());
+        if (null == node) {
+            final JsonNode value = evaluationContext.at(jsonPointerValue.getJsonPointer());
+            node = null == value
+                   ? NullNode.getInstance()
+                   : value;
+            if (slot >= 0) {
+                jsonPointerEvalCache.put(slot, jsonPointerValue.getPointer(), node);
+            }
+        }
+        return node;
     }
 
-    private static <T> T extractNodeValue(
+    /**
+     * Resolves a {@link JsonPathValue} and extracts a value of expected type from it.
+     *
+     * @param jsonPathValue     Path to be resolved
+     * @param evaluationContext Current eval context
+     * @param expectedType      Type of node expected at path
+     * @param extractor         Extracts the value from the node
+     * @param defaultValue      Default value if eval fails
+     * @param <T>               Type of extracted value
+     * @return Extracted value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static <T> T extractNodeValue(
             JsonPathValue jsonPathValue,
             Evaluator.EvaluationContext evaluationContext,
             JsonNodeType expectedType,
             Function<JsonNode, T> extractor,
             T defaultValue) {
-        return extractNodeValue(() -> nodeForJsonPath(jsonPathValue, evaluationContext),
+        return extractNodeValue(nodeForJsonPath(jsonPathValue, evaluationContext),
                                 jsonPathValue.getPath(),
                                 evaluationContext,
                                 expectedType,
@@ -676,13 +827,25 @@ public class Converters {
                                 defaultValue);
     }
 
-    private static <T> T extractNodeValue(
+    /**
+     * Resolves a {@link JsonPointerValue} and extracts a value of expected type from it.
+     *
+     * @param jsonPointerValue  Pointer to be resolved
+     * @param evaluationContext Current eval context
+     * @param expectedType      Type of node expected at pointer
+     * @param extractor         Extracts the value from the node
+     * @param defaultValue      Default value if eval fails
+     * @param <T>               Type of extracted value
+     * @return Extracted value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static <T> T extractNodeValue(
             JsonPointerValue jsonPointerValue,
             Evaluator.EvaluationContext evaluationContext,
             JsonNodeType expectedType,
             Function<JsonNode, T> extractor,
             T defaultValue) {
-        return extractNodeValue(() -> nodeForJsonPointer(jsonPointerValue, evaluationContext),
+        return extractNodeValue(nodeForJsonPointer(jsonPointerValue, evaluationContext),
                                 jsonPointerValue.getPointer(),
                                 evaluationContext,
                                 expectedType,
@@ -690,14 +853,99 @@ public class Converters {
                                 defaultValue);
     }
 
+    /**
+     * Resolves a {@link JsonPathValue} and extracts a double from it without boxing on success.
+     *
+     * @param jsonPathValue     Path to be resolved
+     * @param evaluationContext Current eval context
+     * @param defaultValue      Default value if eval fails
+     * @return Extracted value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static double extractDouble(
+            JsonPathValue jsonPathValue,
+            Evaluator.EvaluationContext evaluationContext,
+            Number defaultValue) {
+        final JsonNode value = nodeForJsonPath(jsonPathValue, evaluationContext);
+        if (null != value && value.getNodeType() == JsonNodeType.NUMBER) {
+            return value.asDouble();
+        }
+        return extractNodeValue(value, jsonPathValue.getPath(), evaluationContext, JsonNodeType.NUMBER,
+                                JsonNode::asDouble, defaultValue)
+                .doubleValue();
+    }
+
+    /**
+     * Resolves a {@link JsonPointerValue} and extracts a double from it without boxing on success.
+     *
+     * @param jsonPointerValue  Pointer to be resolved
+     * @param evaluationContext Current eval context
+     * @param defaultValue      Default value if eval fails
+     * @return Extracted value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static double extractDouble(
+            JsonPointerValue jsonPointerValue,
+            Evaluator.EvaluationContext evaluationContext,
+            Number defaultValue) {
+        final JsonNode value = nodeForJsonPointer(jsonPointerValue, evaluationContext);
+        if (null != value && value.getNodeType() == JsonNodeType.NUMBER) {
+            return value.asDouble();
+        }
+        return extractNodeValue(value, jsonPointerValue.getPointer(), evaluationContext, JsonNodeType.NUMBER,
+                                JsonNode::asDouble, defaultValue)
+                .doubleValue();
+    }
+
+    /**
+     * Resolves a {@link JsonPathValue} and extracts a boolean from it without boxing on success.
+     *
+     * @param jsonPathValue     Path to be resolved
+     * @param evaluationContext Current eval context
+     * @param defaultValue      Default value if eval fails
+     * @return Extracted value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static boolean extractBoolean(
+            JsonPathValue jsonPathValue,
+            Evaluator.EvaluationContext evaluationContext,
+            boolean defaultValue) {
+        final JsonNode value = nodeForJsonPath(jsonPathValue, evaluationContext);
+        if (null != value && value.getNodeType() == JsonNodeType.BOOLEAN) {
+            return value.asBoolean();
+        }
+        return extractNodeValue(value, jsonPathValue.getPath(), evaluationContext, JsonNodeType.BOOLEAN,
+                                JsonNode::asBoolean, defaultValue);
+    }
+
+    /**
+     * Resolves a {@link JsonPointerValue} and extracts a boolean from it without boxing on success.
+     *
+     * @param jsonPointerValue  Pointer to be resolved
+     * @param evaluationContext Current eval context
+     * @param defaultValue      Default value if eval fails
+     * @return Extracted value on success, defaultValue or exception in case of failure depending on
+     * {@link ErrorHandlingStrategy}
+     */
+    public static boolean extractBoolean(
+            JsonPointerValue jsonPointerValue,
+            Evaluator.EvaluationContext evaluationContext,
+            boolean defaultValue) {
+        final JsonNode value = nodeForJsonPointer(jsonPointerValue, evaluationContext);
+        if (null != value && value.getNodeType() == JsonNodeType.BOOLEAN) {
+            return value.asBoolean();
+        }
+        return extractNodeValue(value, jsonPointerValue.getPointer(), evaluationContext, JsonNodeType.BOOLEAN,
+                                JsonNode::asBoolean, defaultValue);
+    }
+
     private static <T> T extractNodeValue(
-            Supplier<JsonNode> jsonNodeSupplier,
+            JsonNode value,
             String path,
             Evaluator.EvaluationContext evaluationContext,
             JsonNodeType expectedType,
             Function<JsonNode, T> extractor,
             T defaultValue) {
-        final JsonNode value = jsonNodeSupplier.get();
         final ErrorHandlingStrategy errorHandlingStrategy = evaluationContext.getEvaluator()
                 .getErrorHandlingStrategy();
         if (null == value || value.isNull() || value.isMissingNode()) {
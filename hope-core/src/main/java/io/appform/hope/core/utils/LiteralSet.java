@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.utils;
+
+import io.appform.hope.core.Value;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.StringValue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable lookup structure for an array literal in a rule, built once when the rule is parsed. Members are
+ * matched the same way as in a {@link java.util.HashSet} of the values produced by
+ * {@link Converters#flattenArray(io.appform.hope.core.visitors.Evaluator.EvaluationContext, Value, Object)}: numbers
+ * as {@link Double}, text as {@link String} and booleans as {@link Boolean}. Numbers are kept in a primitive
+ * open-addressing table, so lookups do not allocate.
+ * Every distinct member gets a dense index, which can be used to track members that have been seen.
+ */
+public final class LiteralSet {
+    private final DoubleTable numbers;
+    private final Map<String, Integer> strings;
+    private final int trueIndex;
+    private final int falseIndex;
+    private final int size;
+
+    private LiteralSet(DoubleTable numbers, Map<String, Integer> strings, int trueIndex, int falseIndex, int size) {
+        this.numbers = numbers;
+        this.strings = strings;
+        this.trueIndex = trueIndex;
+        this.falseIndex = falseIndex;
+        this.size = size;
+    }
+
+    /**
+     * Builds a set from an array literal.
+     *
+     * @param value Parameter of a function
+     * @return Lookup set, or null if the value is not an array whose elements are all number, string or boolean literals
+     */
+    public static LiteralSet of(Value value) {
+        if (!(value instanceof ArrayValue arrayValue) || null == arrayValue.getValue()) {
+            return null;
+        }
+        final List<Value> elements = arrayValue.getValue();
+        final DoubleTable numbers = new DoubleTable(elements.size());
+        final Map<String, Integer> strings = new HashMap<>();
+        int trueIndex = -1;
+        int falseIndex = -1;
+        int size = 0;
+        for (final Value element : elements) {
+            if (element instanceof NumericValue numericValue && null != numericValue.getValue()) {
+                if (numbers.add(numericValue.getValue().doubleValue(), size)) {
+                    size++;
+                }
+            }
+            else if (element instanceof StringValue stringValue && null != stringValue.getValue()) {
+                if (null == strings.putIfAbsent(stringValue.getValue(), size)) {
+                    size++;
+                }
+            }
+            else if (element instanceof BooleanValue booleanValue && null != booleanValue.getValue()) {
+                if (booleanValue.getValue() && trueIndex < 0) {
+                    trueIndex = size++;
+                }
+                else if (!booleanValue.getValue() && falseIndex < 0) {
+                    falseIndex = size++;
+                }
+            }
+            else {
+                return null;
+            }
+        }
+        return new LiteralSet(numbers, Map.copyOf(strings), trueIndex, falseIndex, size);
+    }
+
+    /**
+     * @return Number of distinct members
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param value Value produced by {@link Converters#objectValue}
+     * @return true if the value is a member of the set
+     */
+    public boolean contains(Object value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @param value Value produced by {@link Converters#objectValue}
+     * @return Index of the member equal to the value in [0, size), -1 if there is none
+     */
+    public int indexOf(Object value) {
+        if (value instanceof String string) {
+            final Integer index = strings.get(string);
+            return null == index ? -1 : index;
+        }
+        if (value instanceof Double number) {
+            return numbers.indexOf(number);
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? trueIndex : falseIndex;
+        }
+        return -1;
+    }
+
+    /**
+     * Linear probing hash table keyed on the bits of a double, so that keys compare like {@link Double#equals(Object)}.
+     * The bits of +0.0 are zero and are used to mark empty slots, so that key is kept separately.
+     */
+    private static final class DoubleTable {
+        private final long[] keys;
+        private final int[] indices;
+        private final int mask;
+        private int zeroIndex = -1;
+
+        DoubleTable(int expectedSize) {
+            final int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+            this.keys = new long[capacity];
+            this.indices = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        boolean add(double key, int index) {
+            final long bits = Double.doubleToLongBits(key);
+            if (0L == bits) {
+                if (zeroIndex >= 0) {
+                    return false;
+                }
+                zeroIndex = index;
+                return true;
+            }
+            int slot = slot(bits);
+            while (0L != keys[slot]) {
+                if (keys[slot] == bits) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = bits;
+            indices[slot] = index;
+            return true;
+        }
+
+        int indexOf(double key) {
+            final long bits = Double.doubleToLongBits(key);
+            if (0L == bits) {
+                return zeroIndex;
+            }
+            int slot = slot(bits);
+            while (0L != keys[slot]) {
+                if (keys[slot] == bits) {
+                    return indices[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(long bits) {
+            final long hash = bits * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.utils;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * A bounded cache of compiled regular expressions, for regexes that are known only during evaluation. Safe to use
+ * from multiple threads. Once the cache is full, an arbitrary entry is evicted for every newly compiled pattern.
+ */
+public class PatternCache {
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, Pattern> patterns;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PatternCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize Maximum number of patterns kept. Patterns are not cached if this is zero.
+     */
+    public PatternCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Pattern cache size cannot be negative");
+        }
+        this.maxSize = maxSize;
+        this.patterns = new ConcurrentHashMap<>(Math.min(maxSize, 64));
+    }
+
+    /**
+     * Returns the compiled pattern for a regex, compiling it if it is not cached.
+     *
+     * @param regex Regular expression
+     * @return Compiled pattern
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid
+     */
+    public Pattern get(String regex) {
+        final Pattern cached = patterns.get(regex);
+        if (null != cached) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        final Pattern pattern = Pattern.compile(regex);
+        if (maxSize > 0) {
+            while (patterns.size() >= maxSize && evictOne()) {
+                evictions.increment();
+            }
+            patterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * @return Number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of lookups that had to compile the regex
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of patterns removed to keep the cache within its size
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of patterns currently cached
+     */
+    public int size() {
+        return patterns.size();
+    }
+
+    private boolean evictOne() {
+        final Iterator<String> keys = patterns.keySet().iterator();
+        return keys.hasNext() && null != patterns.remove(keys.next());
+    }
+}
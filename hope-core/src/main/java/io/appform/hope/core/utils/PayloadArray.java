@@ -0,0 +1,228 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.visitors.Evaluator;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Elements of an array in the payload, read directly from the {@link JsonNode} without converting them to
+ * {@link Value}s. Elements are kept as the objects {@link Converters#flattenArray} would produce for them
+ * ({@link String}, {@link Boolean} or {@link Double}), so set operations give the same results.
+ * Arrays are resolved once per {@link Evaluator.EvaluationContext} and reused by all rules evaluated with the context.
+ * A hash set of the elements is built only when an operation needs it.
+ */
+public final class PayloadArray {
+    private static final int LINEAR_SCAN_SIZE = 8;
+    private static final PayloadArray UNSUPPORTED = new PayloadArray(new Object[0]);
+
+    private final Object[] elements;
+    private Set<Object> elementSet;
+
+    private PayloadArray(Object[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Resolves a function parameter that reads an array from the payload.
+     *
+     * @param evaluationContext Current eval context
+     * @param value             Function parameter
+     * @return Elements of the array, or null if the value is not a path or pointer, the array is missing or it has
+     * elements that are not strings, booleans or numbers. Callers should fall back to
+     * {@link Converters#flattenArray} in that case, which handles those cases as per the error handling strategy.
+     */
+    public static PayloadArray resolve(Evaluator.EvaluationContext evaluationContext, Value value) {
+        final JsonNode node = node(evaluationContext, value);
+        if (null == node || !node.isArray()) {
+            return null;
+        }
+        final Map<JsonNode, PayloadArray> payloadArrays = evaluationContext.getPayloadArrays();
+        PayloadArray payloadArray = payloadArrays.get(node);
+        if (null == payloadArray) {
+            payloadArray = explode(node);
+            payloadArrays.put(node, payloadArray);
+        }
+        return payloadArray == UNSUPPORTED ? null : payloadArray;
+    }
+
+    /**
+     * @return Number of elements, including duplicates
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * @param value Value produced by {@link Converters#objectValue}
+     * @return true if the array has an element equal to the value
+     */
+    public boolean contains(Object value) {
+        if (elements.length <= LINEAR_SCAN_SIZE && null == elementSet) {
+            for (final Object element : elements) {
+                if (element.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return elementSet().contains(value);
+    }
+
+    /**
+     * @param other Another payload array
+     * @return true if any element is present in both arrays
+     */
+    public boolean containsAny(PayloadArray other) {
+        //Probe an existing set if there is one, else hash the smaller side and scan the larger one
+        final PayloadArray probed;
+        final PayloadArray scanned;
+        if (null != elementSet || (null == other.elementSet && elements.length <= other.elements.length)) {
+            probed = this;
+            scanned = other;
+        }
+        else {
+            probed = other;
+            scanned = this;
+        }
+        for (final Object element : scanned.elements) {
+            if (probed.contains(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param other Another payload array
+     * @return true if every element of the other array is present in this array
+     */
+    public boolean containsAll(PayloadArray other) {
+        for (final Object element : other.elements) {
+            if (!contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param literalSet Literal array of the rule
+     * @return true if any element is a member of the literal set
+     */
+    public boolean containsAny(LiteralSet literalSet) {
+        for (final Object element : elements) {
+            if (literalSet.contains(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param literalSet Literal array of the rule
+     * @return true if every member of the literal set is present in the array
+     */
+    public boolean containsAll(LiteralSet literalSet) {
+        final int size = literalSet.size();
+        if (0 == size) {
+            return true;
+        }
+        final BitSet seen = new BitSet(size);
+        int found = 0;
+        for (final Object element : elements) {
+            final int index = literalSet.indexOf(element);
+            if (index >= 0 && !seen.get(index)) {
+                seen.set(index);
+                if (++found == size) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param literalSet Literal array of the rule
+     * @return true if every element is a member of the literal set
+     */
+    public boolean isSubsetOf(LiteralSet literalSet) {
+        for (final Object element : elements) {
+            if (!literalSet.contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<Object> elementSet() {
+        if (null == elementSet) {
+            final Set<Object> set = new HashSet<>(Math.max(16, elements.length * 2));
+            for (final Object element : elements) {
+                set.add(element);
+            }
+            elementSet = set;
+        }
+        return elementSet;
+    }
+
+    private static JsonNode node(Evaluator.EvaluationContext evaluationContext, Value value) {
+        if (value instanceof JsonPointerValue jsonPointerValue) {
+            return Converters.nodeForJsonPointer(jsonPointerValue, evaluationContext);
+        }
+        if (value instanceof JsonPathValue jsonPathValue) {
+            return Converters.nodeForJsonPath(jsonPathValue, evaluationContext);
+        }
+        if (value instanceof ArrayValue arrayValue && null == arrayValue.getValue()) {
+            if (null != arrayValue.getPointerValue()) {
+                return Converters.nodeForJsonPointer(arrayValue.getPointerValue(), evaluationContext);
+            }
+            if (null != arrayValue.getPathValue()) {
+                return Converters.nodeForJsonPath(arrayValue.getPathValue(), evaluationContext);
+            }
+        }
+        return null;
+    }
+
+    private static PayloadArray explode(JsonNode node) {
+        final Object[] elements = new Object[node.size()];
+        for (int i = 0; i < elements.length; i++) {
+            final JsonNode element = node.get(i);
+            if (element.isTextual()) {
+                elements[i] = element.asText();
+            }
+            else if (element.isBoolean()) {
+                elements[i] = element.asBoolean();
+            }
+            else if (element.isNumber()) {
+                elements[i] = element.doubleValue();
+            }
+            else {
+                return UNSUPPORTED;
+            }
+        }
+        return new PayloadArray(elements);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.core.utils;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.TreeNode;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.VisitorAdapter;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.operators.And;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.operators.GreaterEquals;
+import io.appform.hope.core.operators.Lesser;
+import io.appform.hope.core.operators.LesserEquals;
+import io.appform.hope.core.operators.Not;
+import io.appform.hope.core.operators.NotEquals;
+import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.FunctionEvaluatableValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.ObjectValue;
+import io.appform.hope.core.values.StringValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense integer slots to the paths and pointers of a rule or a list of rules. The same path or pointer always
+ * gets the same slot within the rules, so values read for it can be cached in a flat array indexed by slot. Slots
+ * start from 0 for every rule or list, so caches are only as large as the rules being evaluated need.
+ * <p>
+ * A rule that is part of several lists keeps the slots of the list it was added to last. Caches check the path or
+ * pointer stored in a slot, so a slot used for different paths or pointers only costs another read.
+ */
+public final class SlotRegistry {
+    private final Map<String, Integer> pointerSlots = new HashMap<>();
+    private final Map<String, Integer> pathSlots = new HashMap<>();
+
+    private SlotRegistry() {
+    }
+
+    /**
+     * Assigns slots to the paths and pointers of rules that are evaluated together.
+     *
+     * @param rules Parsed rules
+     * @return Registry with the slots assigned to the rules
+     */
+    public static SlotRegistry assign(Collection<? extends Evaluatable> rules) {
+        final SlotRegistry registry = new SlotRegistry();
+        final Assigner assigner = new Assigner(registry);
+        rules.forEach(assigner::assign);
+        return registry;
+    }
+
+    /**
+     * @return Number of slots assigned to pointers
+     */
+    public int pointerSlots() {
+        return pointerSlots.size();
+    }
+
+    /**
+     * @return Number of slots assigned to paths
+     */
+    public int pathSlots() {
+        return pathSlots.size();
+    }
+
+    private static int slot(Map<String, Integer> slots, String key) {
+        return slots.computeIfAbsent(key, k -> slots.size());
+    }
+
+    private static final class Assigner extends VisitorAdapter<Void> {
+        private final SlotRegistry registry;
+
+        private Assigner(SlotRegistry registry) {
+            super(() -> null);
+            this.registry = registry;
+        }
+
+        private void assign(TreeNode node) {
+            if (null != node) {
+                node.accept(this);
+            }
+        }
+
+        @Override
+        public Void visit(AndCombiner andCombiner) {
+            andCombiner.getExpressions().forEach(this::assign);
+            return null;
+        }
+
+        @Override
+        public Void visit(OrCombiner orCombiner) {
+            orCombiner.getExpressions().forEach(this::assign);
+            return null;
+        }
+
+        @Override
+        public Void visit(And and) {
+            return operands(and.getLhs(), and.getRhs());
+        }
+
+        @Override
+        public Void visit(Equals equals) {
+            return operands(equals.getLhs(), equals.getRhs());
+        }
+
+        @Override
+        public Void visit(Greater greater) {
+            return operands(greater.getLhs(), greater.getRhs());
+        }
+
+        @Override
+        public Void visit(GreaterEquals greaterEquals) {
+            return operands(greaterEquals.getLhs(), greaterEquals.getRhs());
+        }
+
+        @Override
+        public Void visit(Lesser lesser) {
+            return operands(lesser.getLhs(), lesser.getRhs());
+        }
+
+        @Override
+        public Void visit(LesserEquals lesserEquals) {
+            return operands(lesserEquals.getLhs(), lesserEquals.getRhs());
+        }
+
+        @Override
+        public Void visit(NotEquals notEquals) {
+            return operands(notEquals.getLhs(), notEquals.getRhs());
+        }
+
+        @Override
+        public Void visit(Or or) {
+            return operands(or.getLhs(), or.getRhs());
+        }
+
+        @Override
+        public Void visit(Not not) {
+            assign(not.getOperand());
+            return null;
+        }
+
+        @Override
+        public Void visit(JsonPathValue jsonPathValue) {
+            if (null != jsonPathValue.getPath()) {
+                jsonPathValue.setSlot(slot(registry.pathSlots, jsonPathValue.getPath()));
+            }
+            return function(jsonPathValue);
+        }
+
+        @Override
+        public Void visit(JsonPointerValue jsonPointerValue) {
+            if (null != jsonPointerValue.getPointer()) {
+                jsonPointerValue.setSlot(slot(registry.pointerSlots, jsonPointerValue.getPointer()));
+            }
+            return function(jsonPointerValue);
+        }
+
+        @Override
+        public Void visit(ObjectValue objectValue) {
+            return evaluatable(objectValue);
+        }
+
+        @Override
+        public Void visit(NumericValue numericValue) {
+            return evaluatable(numericValue);
+        }
+
+        @Override
+        public Void visit(StringValue stringValue) {
+            return evaluatable(stringValue);
+        }
+
+        @Override
+        public Void visit(BooleanValue booleanValue) {
+            return evaluatable(booleanValue);
+        }
+
+        @Override
+        public Void visit(ArrayValue arrayValue) {
+            if (null != arrayValue.getValue()) {
+                arrayValue.getValue().forEach(this::assign);
+            }
+            return evaluatable(arrayValue);
+        }
+
+        @Override
+        public Void visit(FunctionValue functionValue) {
+            functionValue.getParameters().forEach(this::assign);
+            return null;
+        }
+
+        private Void operands(Value lhs, Value rhs) {
+            assign(lhs);
+            assign(rhs);
+            return null;
+        }
+
+        private Void evaluatable(EvaluatableValue<?> value) {
+            assign(value.getPathValue());
+            assign(value.getPointerValue());
+            return function(value);
+        }
+
+        private Void function(FunctionEvaluatableValue value) {
+            assign(value.getFunction());
+            return null;
+        }
+    }
+}
@@ -17,6 +17,9 @@ package io.appform.hope.core.values;
 import io.appform.hope.core.Value;
 import io.appform.hope.core.Visitor;
 import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
+import io.appform.hope.core.utils.Converters;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -33,6 +36,9 @@ public class FunctionValue extends Value {
     private final String name;
     private final List<Value> parameters;
     private final FunctionRegistry.ConstructorMeta selectedConstructor;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final HopeFunction<?> boundFunction;
 
     /**
      * @param name                Name of the function as provided to {@link io.appform.hope.core.functions.FunctionImplementation}
@@ -43,6 +49,28 @@ public class FunctionValue extends Value {
         this.name = name;
         this.parameters = parameters;
         this.selectedConstructor = selectedConstructor;
+        this.boundFunction = bind(name, parameters, selectedConstructor);
+    }
+
+    /**
+     * Creates the single instance used for all evaluations of a {@link StatelessHopeFunction}. Returns null for other
+     * functions, and if the instance cannot be created, in which case the error is reported when the call is evaluated.
+     */
+    private static HopeFunction<?> bind(
+            String name,
+            List<Value> parameters,
+            FunctionRegistry.ConstructorMeta selectedConstructor) {
+        if (null == selectedConstructor
+                || null == selectedConstructor.getConstructor()
+                || !StatelessHopeFunction.class.isAssignableFrom(selectedConstructor.getConstructor().getDeclaringClass())) {
+            return null;
+        }
+        try {
+            return Converters.function(name, selectedConstructor, parameters);
+        }
+        catch (RuntimeException e) {
+            return null;
+        }
     }
 
     @Override
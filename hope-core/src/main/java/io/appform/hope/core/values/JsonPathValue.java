@@ -28,9 +28,15 @@ import java.util.Objects;
 @Data
 @ToString(callSuper = true)
 public class JsonPathValue extends FunctionEvaluatableValue {
-
     private final String path;
     private final JsonPath jsonPath;
+    /**
+     * Slot of the path in the node cache of {@link io.appform.hope.core.visitors.Evaluator.EvaluationContext},
+     * assigned by {@link io.appform.hope.core.utils.SlotRegistry#assign(java.util.Collection)} for the rule or rule
+     * list the path belongs to. -1 if no slot was assigned or the path is computed by a function.
+     */
+    @ToString.Exclude
+    private int slot = -1;
 
     /**
      * @param path Json path value
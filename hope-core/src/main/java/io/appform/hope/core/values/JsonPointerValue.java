@@ -27,9 +27,16 @@ import lombok.ToString;
 @EqualsAndHashCode(callSuper = true)
 @ToString(callSuper = true)
 public class JsonPointerValue extends FunctionEvaluatableValue {
-
     private final String pointer;
     private final JsonPointer jsonPointer;
+    /**
+     * Slot of the pointer in the node cache of {@link io.appform.hope.core.visitors.Evaluator.EvaluationContext},
+     * assigned by {@link io.appform.hope.core.utils.SlotRegistry#assign(java.util.Collection)} for the rule or rule
+     * list the pointer belongs to. -1 if no slot was assigned or the pointer is computed by a function.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int slot = -1;
 
     /**
      * @param pointer Json path value
@@ -15,8 +15,12 @@
 package io.appform.hope.core.visitors;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.google.common.base.Preconditions;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
@@ -24,9 +28,15 @@ import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.ParseContext;
 import com.jayway.jsonpath.spi.json.JacksonJsonNodeJsonProvider;
 import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.accessors.DocumentAccessor;
+import io.appform.hope.core.batch.BatchEvaluator;
+import io.appform.hope.core.batch.MatchMatrix;
+import io.appform.hope.core.batch.ParallelEvaluator;
 import io.appform.hope.core.VisitorAdapter;
 import io.appform.hope.core.combiners.AndCombiner;
 import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.CompiledRuleList;
 import io.appform.hope.core.exceptions.errorstrategy.DefaultErrorHandlingStrategy;
 import io.appform.hope.core.exceptions.errorstrategy.ErrorHandlingStrategy;
 import io.appform.hope.core.operators.And;
@@ -38,24 +48,47 @@ import io.appform.hope.core.operators.LesserEquals;
 import io.appform.hope.core.operators.Not;
 import io.appform.hope.core.operators.NotEquals;
 import io.appform.hope.core.operators.Or;
+import io.appform.hope.core.ruleset.RuleSet;
+import io.appform.hope.core.streaming.DocumentReferences;
+import io.appform.hope.core.streaming.PointerExtractor;
 import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.utils.PatternCache;
+import io.appform.hope.core.utils.PayloadArray;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.val;
 
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Evaluates a hope expression
  */
 public class Evaluator {
     private static final ObjectMapper mapper = new ObjectMapper();
+    /**
+     * One context per thread shared by all evaluators, so that evaluators are not kept alive by the threads that used
+     * them. The context is bound to an evaluator while it is in use.
+     */
+    private static final ThreadLocal<EvaluationContext> POOLED_CONTEXTS = ThreadLocal.withInitial(
+            () -> EvaluationContext.builder().build());
 
     static {
         mapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
@@ -65,13 +98,24 @@ public class Evaluator {
     private final ParseContext parseContext;
     @Getter
     private final ErrorHandlingStrategy errorHandlingStrategy;
+    @Getter
+    private final PatternCache patternCache;
 
     public Evaluator() {
         this(new DefaultErrorHandlingStrategy());
     }
 
     public Evaluator(ErrorHandlingStrategy errorHandlingStrategy) {
+        this(errorHandlingStrategy, new PatternCache());
+    }
+
+    /**
+     * @param errorHandlingStrategy Strategy for missing values and type mismatches
+     * @param patternCache          Cache for regexes compiled during evaluation, can be shared between evaluators
+     */
+    public Evaluator(ErrorHandlingStrategy errorHandlingStrategy, PatternCache patternCache) {
         this.errorHandlingStrategy = errorHandlingStrategy;
+        this.patternCache = patternCache;
         parseContext = JsonPath.using(Configuration.builder()
                 .jsonProvider(new JacksonJsonNodeJsonProvider())
                 .options(Option.SUPPRESS_EXCEPTIONS)
@@ -80,42 +124,793 @@ public class Evaluator {
     }
 
     public boolean evaluate(Evaluatable evaluatable, JsonNode node) {
-        return evaluatable.accept(new LogicEvaluator(new EvaluationContext(parseContext.parse(node), node, this)));
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            return evaluatable.accept(new LogicEvaluator(evaluationContext));
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public boolean evaluate(CompiledRule compiledRule, JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            return compiledRule.evaluate(evaluationContext);
+        }
+        finally {
+            release(evaluationContext);
+        }
     }
 
     public List<Boolean> evaluate(
             final List<Evaluatable> evaluatables,
             final JsonNode node) {
-        val logicEvaluator = new LogicEvaluator(new EvaluationContext(parseContext.parse(node), node, this));
-        val list = new ArrayList<Boolean>(evaluatables.size());
-        for (final Evaluatable evaluatable : evaluatables) {
-            Boolean accept = evaluatable.accept(logicEvaluator);
-            list.add(accept);
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val logicEvaluator = new LogicEvaluator(evaluationContext);
+            val list = new ArrayList<Boolean>(evaluatables.size());
+            for (final Evaluatable evaluatable : evaluatables) {
+                Boolean accept = evaluatable.accept(logicEvaluator);
+                list.add(accept);
+            }
+            return list;
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    /**
+     * Evaluates rules against a batch of documents using {@link BatchEvaluator}. Results are the same as evaluating
+     * the rules against every document separately. If evaluation raises an error for more than one document, the
+     * error raised for any of them may be thrown.
+     *
+     * @param evaluatables Rules to be evaluated
+     * @param nodes        Documents of the batch
+     * @return Result of every rule for every document, in order of documents and rules
+     */
+    public List<List<Boolean>> evaluateBatch(
+            final List<Evaluatable> evaluatables,
+            final List<JsonNode> nodes) {
+        return new BatchEvaluator(newContext(), nodes).evaluate(evaluatables);
+    }
+
+    /**
+     * Evaluates rules against a list of documents in parallel on an executor, see {@link ParallelEvaluator}.
+     *
+     * @param rules    Rules to be evaluated
+     * @param nodes    Documents, must support fast random access
+     * @param executor Executor to evaluate chunks of documents on
+     * @return Results in order of documents and rules
+     */
+    public MatchMatrix evaluateAll(
+            final List<Evaluatable> rules,
+            final List<JsonNode> nodes,
+            final Executor executor) {
+        return new ParallelEvaluator(executor)
+                .evaluate(rules.size(), nodes, (node, consumer) -> forEachMatch(rules, node, consumer));
+    }
+
+    public MatchMatrix evaluateAll(
+            final CompiledRuleList rules,
+            final List<JsonNode> nodes,
+            final Executor executor) {
+        return new ParallelEvaluator(executor)
+                .evaluate(rules.size(), nodes, (node, consumer) -> forEachMatch(rules, node, consumer));
+    }
+
+    public MatchMatrix evaluateAll(
+            final RuleSet ruleSet,
+            final List<JsonNode> nodes,
+            final Executor executor) {
+        return new ParallelEvaluator(executor)
+                .evaluate(ruleSet.size(), nodes, (node, consumer) -> forEachMatch(ruleSet, node, consumer));
+    }
+
+    public OptionalInt evaluateFirst(
+            final List<Evaluatable> rules,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val logicEvaluator = new LogicEvaluator(evaluationContext);
+            val bound = rules.size();
+            for (int index = 0; index < bound; index++) {
+                if (rules.get(index).accept(logicEvaluator)) {
+                    return OptionalInt.of(index);
+                }
+            }
+            return OptionalInt.empty();
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public List<Boolean> evaluate(
+            final CompiledRuleList rules,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val list = new ArrayList<Boolean>(rules.size());
+            for (final CompiledRule rule : rules.getRules()) {
+                list.add(rule.evaluate(evaluationContext));
+            }
+            return list;
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public OptionalInt evaluateFirst(
+            final CompiledRuleList rules,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val bound = rules.size();
+            for (int index = 0; index < bound; index++) {
+                if (rules.get(index).evaluate(evaluationContext)) {
+                    return OptionalInt.of(index);
+                }
+            }
+            return OptionalInt.empty();
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public List<Boolean> evaluate(
+            final RuleSet ruleSet,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            return ruleSet.evaluate(evaluationContext);
+        }
+        finally {
+            release(evaluationContext);
         }
-        return list;
     }
 
     public OptionalInt evaluateFirst(
+            final RuleSet ruleSet,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            return ruleSet.evaluateFirst(evaluationContext);
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    /**
+     * Evaluates all rules and calls the consumer with the index of every matching rule, in order.
+     *
+     * @param rules    Rules to be evaluated
+     * @param node     Document to evaluate the rules against
+     * @param consumer Called with the index of every matching rule
+     */
+    public void forEachMatch(
+            final List<Evaluatable> rules,
+            final JsonNode node,
+            final IntConsumer consumer) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val logicEvaluator = new LogicEvaluator(evaluationContext);
+            val bound = rules.size();
+            for (int index = 0; index < bound; index++) {
+                if (rules.get(index).accept(logicEvaluator)) {
+                    consumer.accept(index);
+                }
+            }
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public void forEachMatch(
+            final CompiledRuleList rules,
+            final JsonNode node,
+            final IntConsumer consumer) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val bound = rules.size();
+            for (int index = 0; index < bound; index++) {
+                if (rules.get(index).evaluate(evaluationContext)) {
+                    consumer.accept(index);
+                }
+            }
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public void forEachMatch(
+            final RuleSet ruleSet,
+            final JsonNode node,
+            final IntConsumer consumer) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            ruleSet.forEachMatch(evaluationContext, consumer);
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    /**
+     * Evaluates all rules and sets the bits of matching rules in the provided set. The set is cleared first, so it
+     * can be reused across documents.
+     *
+     * @param rules   Rules to be evaluated
+     * @param node    Document to evaluate the rules against
+     * @param matches Set to store the result in
+     */
+    public void evaluate(
+            final List<Evaluatable> rules,
+            final JsonNode node,
+            final BitSet matches) {
+        matches.clear();
+        forEachMatch(rules, node, matches::set);
+    }
+
+    public void evaluate(
+            final CompiledRuleList rules,
+            final JsonNode node,
+            final BitSet matches) {
+        matches.clear();
+        forEachMatch(rules, node, matches::set);
+    }
+
+    public void evaluate(
+            final RuleSet ruleSet,
+            final JsonNode node,
+            final BitSet matches) {
+        matches.clear();
+        forEachMatch(ruleSet, node, matches::set);
+    }
+
+    /**
+     * Evaluates all rules and sets the bits of matching rules in the provided words. Rule {@code i} is stored in bit
+     * {@code i % 64} of word {@code i / 64}, like {@link BitSet#toLongArray()}. Words used by the rules are cleared
+     * first, so the array can be reused across documents.
+     *
+     * @param rules   Rules to be evaluated
+     * @param node    Document to evaluate the rules against
+     * @param matches Words to store the result in, at least {@code (rules.size() + 63) / 64} long
+     */
+    public void evaluate(
+            final List<Evaluatable> rules,
+            final JsonNode node,
+            final long[] matches) {
+        forEachMatch(rules, node, bitSetter(matches, rules.size()));
+    }
+
+    public void evaluate(
+            final CompiledRuleList rules,
+            final JsonNode node,
+            final long[] matches) {
+        forEachMatch(rules, node, bitSetter(matches, rules.size()));
+    }
+
+    public void evaluate(
+            final RuleSet ruleSet,
+            final JsonNode node,
+            final long[] matches) {
+        forEachMatch(ruleSet, node, bitSetter(matches, ruleSet.size()));
+    }
+
+    /**
+     * Evaluates all rules and counts the matching ones.
+     *
+     * @param rules Rules to be evaluated
+     * @param node  Document to evaluate the rules against
+     * @return Number of matching rules
+     */
+    public int countMatches(
             final List<Evaluatable> rules,
             final JsonNode node) {
-        val logicEvaluator = new LogicEvaluator(new EvaluationContext(parseContext.parse(node), node, this));
-        val bound = rules.size();
-        for (int index = 0; index < bound; index++) {
-            if (rules.get(index).accept(logicEvaluator)) {
-                return OptionalInt.of(index);
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            val logicEvaluator = new LogicEvaluator(evaluationContext);
+            int count = 0;
+            for (final Evaluatable rule : rules) {
+                if (rule.accept(logicEvaluator)) {
+                    count++;
+                }
             }
+            return count;
+        }
+        finally {
+            release(evaluationContext);
         }
-        return OptionalInt.empty();
     }
 
+    public int countMatches(
+            final CompiledRuleList rules,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            int count = 0;
+            for (final CompiledRule rule : rules.getRules()) {
+                if (rule.evaluate(evaluationContext)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public int countMatches(
+            final RuleSet ruleSet,
+            final JsonNode node) {
+        final EvaluationContext evaluationContext = acquire(node);
+        try {
+            return ruleSet.countMatches(evaluationContext);
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    /**
+     * Evaluates a rule against values read from a document by a {@link PointerExtractor}. The document is not turned
+     * into a tree, so the rule must only read pointers handled by the extractor, see {@link DocumentReferences}.
+     *
+     * @param evaluatable Rule to be evaluated
+     * @param extractor   Extractor for the pointers read by the rule
+     * @param parser      Parser positioned before the document
+     * @return true in case of match
+     * @throws IOException if the document cannot be read
+     */
+    public boolean evaluate(
+            final Evaluatable evaluatable,
+            final PointerExtractor extractor,
+            final JsonParser parser) throws IOException {
+        final EvaluationContext evaluationContext = acquire(extractor, parser);
+        try {
+            return evaluatable.accept(new LogicEvaluator(evaluationContext));
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public List<Boolean> evaluate(
+            final List<Evaluatable> evaluatables,
+            final PointerExtractor extractor,
+            final JsonParser parser) throws IOException {
+        final EvaluationContext evaluationContext = acquire(extractor, parser);
+        try {
+            val logicEvaluator = new LogicEvaluator(evaluationContext);
+            val list = new ArrayList<Boolean>(evaluatables.size());
+            for (final Evaluatable evaluatable : evaluatables) {
+                list.add(evaluatable.accept(logicEvaluator));
+            }
+            return list;
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public List<Boolean> evaluate(
+            final CompiledRuleList rules,
+            final PointerExtractor extractor,
+            final JsonParser parser) throws IOException {
+        final EvaluationContext evaluationContext = acquire(extractor, parser);
+        try {
+            val list = new ArrayList<Boolean>(rules.size());
+            for (final CompiledRule rule : rules.getRules()) {
+                list.add(rule.evaluate(evaluationContext));
+            }
+            return list;
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    /**
+     * Evaluates a rule against a document read through an accessor.
+     *
+     * @param evaluatable Rule to be evaluated
+     * @param document    Document to evaluate the rule against
+     * @param accessor    Accessor for the document
+     * @param <T>         Type of the document
+     * @return true in case of match
+     */
+    public <T> boolean evaluate(
+            final Evaluatable evaluatable,
+            final T document,
+            final DocumentAccessor<? super T> accessor) {
+        final EvaluationContext evaluationContext = acquire(document, accessor);
+        try {
+            return evaluatable.accept(new LogicEvaluator(evaluationContext));
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public <T> boolean evaluate(
+            final CompiledRule compiledRule,
+            final T document,
+            final DocumentAccessor<? super T> accessor) {
+        final EvaluationContext evaluationContext = acquire(document, accessor);
+        try {
+            return compiledRule.evaluate(evaluationContext);
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public <T> List<Boolean> evaluate(
+            final CompiledRuleList rules,
+            final T document,
+            final DocumentAccessor<? super T> accessor) {
+        final EvaluationContext evaluationContext = acquire(document, accessor);
+        try {
+            val list = new ArrayList<Boolean>(rules.size());
+            for (final CompiledRule rule : rules.getRules()) {
+                list.add(rule.evaluate(evaluationContext));
+            }
+            return list;
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    public <T> List<Boolean> evaluate(
+            final RuleSet ruleSet,
+            final T document,
+            final DocumentAccessor<? super T> accessor) {
+        final EvaluationContext evaluationContext = acquire(document, accessor);
+        try {
+            return ruleSet.evaluate(evaluationContext);
+        }
+        finally {
+            release(evaluationContext);
+        }
+    }
+
+    /**
+     * Creates an empty context owned by the caller. The context needs to be {@link EvaluationContext#reset(JsonNode)
+     * reset} to a document before rules are evaluated with it and can be reset again for every following document.
+     * A context must not be used by multiple threads at the same time.
+     *
+     * @return New evaluation context for this evaluator
+     */
+    public EvaluationContext newContext() {
+        return EvaluationContext.builder()
+                .evaluator(this)
+                .build();
+    }
+
+    /**
+     * Returns the context kept for the current thread bound to this evaluator and reset to the document. A new context
+     * is created instead if the thread is already using its context, which happens when rules get evaluated from
+     * inside a function.
+     */
+    private EvaluationContext acquire(JsonNode node) {
+        return available().reset(node);
+    }
+
+    private <T> EvaluationContext acquire(T document, DocumentAccessor<? super T> accessor) {
+        return available().reset(document, accessor);
+    }
+
+    private EvaluationContext available() {
+        final EvaluationContext pooled = POOLED_CONTEXTS.get();
+        if (pooled.isInUse()) {
+            return newContext();
+        }
+        pooled.evaluator = this;
+        return pooled;
+    }
+
+    private EvaluationContext acquire(PointerExtractor extractor, JsonParser parser) throws IOException {
+        final EvaluationContext evaluationContext = acquire(MissingNode.getInstance());
+        try {
+            extractor.extract(parser, evaluationContext);
+        }
+        catch (IOException | RuntimeException e) {
+            release(evaluationContext);
+            throw e;
+        }
+        return evaluationContext;
+    }
+
+    /**
+     * Drops the document, the values cached for it and the evaluator, so that a pooled context does not keep them
+     * alive.
+     */
+    private static void release(EvaluationContext evaluationContext) {
+        evaluationContext.clear();
+        evaluationContext.evaluator = null;
+        evaluationContext.sharedResults.release();
+    }
+
+    private static IntConsumer bitSetter(long[] words, int size) {
+        final int used = (size + Long.SIZE - 1) / Long.SIZE;
+        if (words.length < used) {
+            throw new IllegalArgumentException("Results of " + size + " rules need " + used + " words, got "
+                                                       + words.length);
+        }
+        Arrays.fill(words, 0, used, 0L);
+        return index -> words[index / Long.SIZE] |= 1L << index;
+    }
+
+    /**
+     * State for evaluating rules against one document. A context can be reused for another document by
+     * {@link #reset(JsonNode) resetting} it, which keeps the allocated caches. Not thread safe.
+     */
     @Data
     @Builder
     public static class EvaluationContext {
-        private final DocumentContext jsonContext;
-        private final JsonNode rootNode;
-        private final Evaluator evaluator;
-        private final Map<String, JsonNode> jsonPathEvalCache = new HashMap<>(128);
-        private final Map<String, JsonNode> jsonPointerEvalCache = new HashMap<>(128);
+        @Setter(AccessLevel.NONE)
+        private DocumentContext jsonContext;
+        @Setter(AccessLevel.NONE)
+        private JsonNode rootNode;
+        @Setter(AccessLevel.NONE)
+        private Object document;
+        @Setter(AccessLevel.NONE)
+        private DocumentAccessor<Object> accessor;
+        @Setter(AccessLevel.NONE)
+        private Evaluator evaluator;
+        private final NodeCache jsonPathNodes = new NodeCache();
+        private final NodeCache jsonPointerNodes = new NodeCache();
+        private final SharedResults sharedResults = new SharedResults();
+        private final Map<JsonNode, PayloadArray> payloadArrays = new IdentityHashMap<>(4);
+
+        /**
+         * Prepares the context for evaluating rules against a document. Values cached for the previous document are
+         * discarded.
+         *
+         * @param node Document to evaluate rules against
+         * @return this context
+         */
+        public EvaluationContext reset(JsonNode node) {
+            Preconditions.checkArgument(null != node, "json can not be null");
+            clear();
+            this.rootNode = node;
+            return this;
+        }
+
+        /**
+         * Prepares the context for evaluating rules against a document that is read through an accessor. Pointers are
+         * resolved by the accessor. A tree for the document is only built if a rule needs it.
+         *
+         * @param document Document to evaluate rules against
+         * @param accessor Accessor for the document
+         * @param <T>      Type of the document
+         * @return this context
+         */
+        @SuppressWarnings("unchecked")
+        public <T> EvaluationContext reset(T document, DocumentAccessor<? super T> accessor) {
+            Preconditions.checkArgument(null != document, "document can not be null");
+            Preconditions.checkArgument(null != accessor, "accessor can not be null");
+            clear();
+            this.document = document;
+            this.accessor = (DocumentAccessor<Object>) accessor;
+            return this;
+        }
+
+        /**
+         * For documents read through an accessor, the tree is built on first use.
+         *
+         * @return Tree for the document
+         */
+        public JsonNode getRootNode() {
+            if (null == rootNode && null != accessor) {
+                rootNode = accessor.toTree(document);
+            }
+            return rootNode;
+        }
+
+        /**
+         * Resolves a pointer against the document
+         *
+         * @param pointer Pointer to resolve
+         * @return Node at the pointer, {@link MissingNode} if there is none
+         */
+        public JsonNode at(JsonPointer pointer) {
+            return null == accessor
+                   ? rootNode.at(pointer)
+                   : accessor.at(document, pointer);
+        }
+
+        /**
+         * The JsonPath context for the document is created on first use, so rules that only use json pointers never
+         * pay for it.
+         *
+         * @return JsonPath context for the document
+         */
+        public DocumentContext getJsonContext() {
+            if (null == jsonContext) {
+                jsonContext = evaluator.parseContext.parse(getRootNode());
+            }
+            return jsonContext;
+        }
+
+        /**
+         * @return Nodes read for json paths from the current document, keyed by path. Read only view of
+         * {@link #getJsonPathNodes()}.
+         */
+        public Map<String, JsonNode> getJsonPathEvalCache() {
+            return jsonPathNodes.asMap();
+        }
+
+        /**
+         * @return Nodes read for json pointers from the current document, keyed by pointer. Read only view of
+         * {@link #getJsonPointerNodes()}.
+         */
+        public Map<String, JsonNode> getJsonPointerEvalCache() {
+            return jsonPointerNodes.asMap();
+        }
+
+        /**
+         * @return true if the JsonPath context was created for the current document
+         */
+        public boolean hasJsonContext() {
+            return null != jsonContext;
+        }
+
+        private boolean isInUse() {
+            return null != rootNode || null != document;
+        }
+
+        private void clear() {
+            jsonContext = null;
+            rootNode = null;
+            document = null;
+            accessor = null;
+            jsonPathNodes.clear();
+            jsonPointerNodes.clear();
+            if (!payloadArrays.isEmpty()) {
+                payloadArrays.clear();
+            }
+            sharedResults.clear();
+        }
+    }
+
+    /**
+     * Nodes read from the document of a context, held in slots assigned to paths and pointers by
+     * {@link io.appform.hope.core.utils.SlotRegistry}. The path or pointer is kept with the node, so a slot that is
+     * used for another path or pointer by a different rule list is a miss, not a wrong value. Only the slots used for a
+     * document are cleared when the context moves on to the next one.
+     */
+    public static final class NodeCache {
+        private JsonNode[] nodes = new JsonNode[16];
+        private String[] keys = new String[16];
+        private int[] used = new int[16];
+        private int usedCount;
+
+        /**
+         * @param slot Slot of the path or pointer
+         * @param key  The path or pointer
+         * @return Cached node, null if the path or pointer was not read for the current document
+         */
+        public JsonNode get(int slot, String key) {
+            if (slot >= nodes.length) {
+                return null;
+            }
+            final String cached = keys[slot];
+            return cached == key || (null != cached && cached.equals(key))
+                   ? nodes[slot]
+                   : null;
+        }
+
+        /**
+         * @param slot Slot of the path or pointer
+         * @param key  The path or pointer
+         * @param node Node read from the document
+         */
+        public void put(int slot, String key, JsonNode node) {
+            if (slot >= nodes.length) {
+                final int length = Math.max(slot + 1, nodes.length * 2);
+                nodes = Arrays.copyOf(nodes, length);
+                keys = Arrays.copyOf(keys, length);
+            }
+            if (null == nodes[slot]) {
+                if (usedCount == used.length) {
+                    used = Arrays.copyOf(used, usedCount * 2);
+                }
+                used[usedCount++] = slot;
+            }
+            nodes[slot] = node;
+            keys[slot] = key;
+        }
+
+        /**
+         * @return Number of nodes cached for the current document
+         */
+        public int size() {
+            return usedCount;
+        }
+
+        /**
+         * @return Read only view of the cached nodes keyed by path or pointer
+         */
+        public Map<String, JsonNode> asMap() {
+            return new AbstractMap<>() {
+                @Override
+                public Set<Entry<String, JsonNode>> entrySet() {
+                    return new AbstractSet<>() {
+                        @Override
+                        public Iterator<Entry<String, JsonNode>> iterator() {
+                            return IntStream.range(0, usedCount)
+                                    .map(index -> used[index])
+                                    .mapToObj(slot -> Map.entry(keys[slot], nodes[slot]))
+                                    .iterator();
+                        }
+
+                        @Override
+                        public int size() {
+                            return usedCount;
+                        }
+                    };
+                }
+            };
+        }
+
+        private void clear() {
+            for (int i = 0; i < usedCount; i++) {
+                nodes[used[i]] = null;
+                keys[used[i]] = null;
+            }
+            usedCount = 0;
+        }
+    }
+
+    /**
+     * Results of sub-expressions shared by the rules of a {@link CompiledRuleList}, held in slots assigned when the
+     * list was compiled. Slots are kept for one rule list at a time and are reset when a different list uses the
+     * context. The rule list is dropped when the context is released, so that a pooled context does not keep it alive.
+     */
+    public static final class SharedResults {
+        private Object owner;
+        private Object[] slots;
+
+        /**
+         * @param owner Rule list the slots are assigned by
+         * @param size  Number of slots used by the rule list
+         * @return Slots for the rule list
+         */
+        public Object[] slots(Object owner, int size) {
+            if (this.owner != owner) {
+                this.owner = owner;
+                this.slots = new Object[size];
+            }
+            return slots;
+        }
+
+        /**
+         * @return true if slots are currently held for a rule list
+         */
+        public boolean isOwned() {
+            return null != owner;
+        }
+
+        private void clear() {
+            if (null != slots) {
+                Arrays.fill(slots, null);
+            }
+        }
+
+        private void release() {
+            owner = null;
+            slots = null;
+        }
     }
 
     @SuppressWarnings("java:S5411")
@@ -171,51 +966,51 @@ public class Evaluator {
 
         @Override
         public Boolean visit(Greater greater) {
-            final Number lhs = Converters.numericValue(evaluationContext, greater.getLhs(), 0);
-            final Number rhs = Converters.numericValue(evaluationContext, greater.getRhs(), 0);
-            return lhs.doubleValue() > rhs.doubleValue();
+            final double lhs = Converters.doubleValue(evaluationContext, greater.getLhs(), 0);
+            final double rhs = Converters.doubleValue(evaluationContext, greater.getRhs(), 0);
+            return lhs > rhs;
         }
 
         @Override
         public Boolean visit(GreaterEquals greaterEquals) {
-            final Number lhs = Converters.numericValue(evaluationContext, greaterEquals.getLhs(), 0);
-            final Number rhs = Converters.numericValue(evaluationContext, greaterEquals.getRhs(), 0);
-            return lhs.doubleValue() >= rhs.doubleValue();
+            final double lhs = Converters.doubleValue(evaluationContext, greaterEquals.getLhs(), 0);
+            final double rhs = Converters.doubleValue(evaluationContext, greaterEquals.getRhs(), 0);
+            return lhs >= rhs;
         }
 
         @Override
         public Boolean visit(Lesser lesser) {
-            final Number lhs = Converters.numericValue(evaluationContext, lesser.getLhs(), 0);
-            final Number rhs = Converters.numericValue(evaluationContext, lesser.getRhs(), 0);
-            return lhs.doubleValue() < rhs.doubleValue();
+            final double lhs = Converters.doubleValue(evaluationContext, lesser.getLhs(), 0);
+            final double rhs = Converters.doubleValue(evaluationContext, lesser.getRhs(), 0);
+            return lhs < rhs;
         }
 
         @Override
         public Boolean visit(LesserEquals lesserEquals) {
-            final Number lhs = Converters.numericValue(evaluationContext, lesserEquals.getLhs(), 0);
-            final Number rhs = Converters.numericValue(evaluationContext, lesserEquals.getRhs(), 0);
-            return lhs.doubleValue() <= rhs.doubleValue();
+            final double lhs = Converters.doubleValue(evaluationContext, lesserEquals.getLhs(), 0);
+            final double rhs = Converters.doubleValue(evaluationContext, lesserEquals.getRhs(), 0);
+            return lhs <= rhs;
         }
 
         @Override
         public Boolean visit(And and) {
-            boolean lhs = Converters.booleanValue(evaluationContext, and.getLhs(), false);
-            boolean rhs = Converters.booleanValue(evaluationContext, and.getRhs(), false);
+            boolean lhs = Converters.boolValue(evaluationContext, and.getLhs(), false);
+            boolean rhs = Converters.boolValue(evaluationContext, and.getRhs(), false);
 
             return lhs && rhs;
         }
 
         @Override
         public Boolean visit(Or or) {
-            boolean lhs = Converters.booleanValue(evaluationContext, or.getLhs(), false);
-            boolean rhs = Converters.booleanValue(evaluationContext, or.getRhs(), false);
+            boolean lhs = Converters.boolValue(evaluationContext, or.getLhs(), false);
+            boolean rhs = Converters.boolValue(evaluationContext, or.getRhs(), false);
 
             return lhs || rhs;
         }
 
         @Override
         public Boolean visit(Not not) {
-            boolean operand = Converters.booleanValue(evaluationContext, not.getOperand(), false);
+            boolean operand = Converters.boolValue(evaluationContext, not.getOperand(), false);
             return !operand;
         }
 
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.core.compiler;
+
+import io.appform.hope.core.Value;
+import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.StringValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests {@link TypeInference}
+ */
+class TypeInferenceTest {
+
+    private final FunctionRegistry functionRegistry = new FunctionRegistry();
+
+    TypeInferenceTest() {
+        functionRegistry.discover(Collections.emptyList());
+    }
+
+    @Test
+    void testValues() {
+        assertEquals(ValueType.NUMBER, TypeInference.typeOf(new NumericValue(1)));
+        assertEquals(ValueType.NUMBER, TypeInference.typeOf(new NumericValue(new JsonPointerValue("/a"))));
+        assertEquals(ValueType.STRING, TypeInference.typeOf(new StringValue("a")));
+        assertEquals(ValueType.BOOLEAN, TypeInference.typeOf(new BooleanValue(new JsonPathValue("$.a"))));
+        assertEquals(ValueType.ARRAY, TypeInference.typeOf(new ArrayValue(List.of())));
+        assertEquals(ValueType.ANY, TypeInference.typeOf(new JsonPathValue("$.a")));
+        assertEquals(ValueType.ANY, TypeInference.typeOf(new JsonPointerValue("/a")));
+    }
+
+    @Test
+    void testFunctions() {
+        assertEquals(ValueType.NUMBER, TypeInference.typeOf(function("math.add", new NumericValue(1))));
+        assertEquals(ValueType.STRING, TypeInference.typeOf(function("str.lower", new StringValue("A"))));
+        assertEquals(ValueType.BOOLEAN,
+                     TypeInference.typeOf(function("str.match", new StringValue("a"), new StringValue("a"))));
+    }
+
+    private FunctionValue function(String name, Value... parameters) {
+        return new FunctionValue(name,
+                                 List.of(parameters),
+                                 functionRegistry.find(name)
+                                         .orElseThrow()
+                                         .getConstructors()
+                                         .stream()
+                                         .filter(constructor -> constructor.isHasVariableArgs()
+                                                 || constructor.getParamTypes().size() == parameters.length)
+                                         .findFirst()
+                                         .orElseThrow());
+    }
+}
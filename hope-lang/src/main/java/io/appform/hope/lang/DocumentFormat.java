@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Encodings of serialized documents accepted by the evaluation methods of {@link HopeLangEngine}. Smile and CBOR
+ * need jackson-dataformat-smile and jackson-dataformat-cbor respectively on the classpath. They are optional
+ * dependencies of hope and are only loaded when the format is used.
+ */
+public enum DocumentFormat {
+    /**
+     * Json text
+     */
+    JSON {
+        @Override
+        JsonFactory factory(ObjectMapper objectMapper) {
+            return objectMapper.getFactory();
+        }
+    },
+    /**
+     * Binary json as per the Smile format specification
+     */
+    SMILE {
+        @Override
+        JsonFactory factory(ObjectMapper objectMapper) {
+            return Smile.FACTORY;
+        }
+    },
+    /**
+     * Concise binary object representation, RFC 8949
+     */
+    CBOR {
+        @Override
+        JsonFactory factory(ObjectMapper objectMapper) {
+            return Cbor.FACTORY;
+        }
+    };
+
+    /**
+     * @param objectMapper Mapper of the engine
+     * @return Factory for parsers of the format. Factories are thread safe and shared.
+     */
+    abstract JsonFactory factory(ObjectMapper objectMapper);
+
+    //Holders so that the optional format modules are only loaded when the format is used
+    private static final class Smile {
+        private static final JsonFactory FACTORY = new SmileFactory();
+    }
+
+    private static final class Cbor {
+        private static final JsonFactory FACTORY = new CBORFactory();
+    }
+}
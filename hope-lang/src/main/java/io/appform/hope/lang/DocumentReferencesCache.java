@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.streaming.DocumentReferences;
+
+import java.util.List;
+
+/**
+ * Caches the {@link DocumentReferences} of parsed rules and rule lists evaluated against serialized documents, like
+ * {@link io.appform.hope.core.compiler.CompiledRuleList#getDocumentReferences()} does for compiled lists. Entries are
+ * keyed on the identity of the rule or list and are dropped once it is no longer referenced. The rules of a list are
+ * checked on every lookup, so a list that was changed after it was cached is collected again. Safe to use from
+ * multiple threads.
+ */
+final class DocumentReferencesCache {
+    static final int MAX_SIZE = 1024;
+
+    //Weak keys are compared by identity
+    private final Cache<Object, Entry> entries = CacheBuilder.newBuilder()
+            .weakKeys()
+            .maximumSize(MAX_SIZE)
+            .build();
+
+    /**
+     * @param rule Parsed rule
+     * @return Parts of the document read by the rule
+     */
+    DocumentReferences get(Evaluatable rule) {
+        final Entry cached = entries.getIfPresent(rule);
+        if (null != cached) {
+            return cached.references;
+        }
+        //The entry must not refer to the rule, or the rule would never be dropped
+        final Entry entry = new Entry(null, DocumentReferences.of(List.of(rule)));
+        entries.put(rule, entry);
+        return entry.references;
+    }
+
+    /**
+     * @param rules Parsed rules
+     * @return Parts of the document read by the rules
+     */
+    DocumentReferences get(List<Evaluatable> rules) {
+        final Entry cached = entries.getIfPresent(rules);
+        if (null != cached && cached.isFor(rules)) {
+            return cached.references;
+        }
+        final Entry entry = new Entry(List.copyOf(rules), DocumentReferences.of(rules));
+        entries.put(rules, entry);
+        return entry.references;
+    }
+
+    private record Entry(List<Evaluatable> rules, DocumentReferences references) {
+        private boolean isFor(List<Evaluatable> current) {
+            if (rules.size() != current.size()) {
+                return false;
+            }
+            for (int i = 0; i < rules.size(); i++) {
+                if (rules.get(i) != current.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
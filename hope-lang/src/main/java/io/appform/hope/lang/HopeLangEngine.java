@@ -14,25 +14,58 @@
 
 package io.appform.hope.lang;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.jayway.jsonpath.JsonPathException;
 import com.jayway.jsonpath.spi.cache.CacheProvider;
 import com.jayway.jsonpath.spi.cache.NOOPCache;
 import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.accessors.DocumentAccessor;
+import io.appform.hope.core.accessors.ObjectAccessor;
+import io.appform.hope.core.batch.MatchMatrix;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.core.compiler.InterpretedRule;
+import io.appform.hope.core.compiler.RuleCompiler;
+import io.appform.hope.core.compiler.bytecode.BytecodeCompiler;
+import io.appform.hope.core.compiler.closure.AdaptiveCompiler;
+import io.appform.hope.core.compiler.closure.ClosureCompiler;
 import io.appform.hope.core.exceptions.errorstrategy.DefaultErrorHandlingStrategy;
 import io.appform.hope.core.exceptions.errorstrategy.ErrorHandlingStrategy;
 import io.appform.hope.core.exceptions.impl.HopeExpressionParserError;
+import io.appform.hope.core.flow.Match;
+import io.appform.hope.core.flow.RuleProcessor;
 import io.appform.hope.core.functions.FunctionRegistry;
 import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.optimizer.Optimizer;
+import io.appform.hope.core.ruleset.RuleSet;
+import io.appform.hope.core.streaming.DocumentProjection;
+import io.appform.hope.core.streaming.DocumentReferences;
+import io.appform.hope.core.utils.PatternCache;
+import io.appform.hope.core.utils.SlotRegistry;
 import io.appform.hope.core.visitors.Evaluator;
 import io.appform.hope.lang.parser.HopeParser;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.OptionalInt;
+import java.util.RandomAccess;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 
 /**
  * Top level accessor for hope. Creation is expensive. Create and reuse.
@@ -40,40 +73,85 @@ import java.util.OptionalInt;
 @Slf4j
 public class HopeLangEngine {
     private final FunctionRegistry functionRegistry;
-    private final ErrorHandlingStrategy errorHandlingStrategy;
+    private final RuleCompiler ruleCompiler;
+    private final Optimizer optimizer;
+    /**
+     * Parsers are not thread safe and are expensive to create, one is reused by every thread that parses rules
+     */
+    private final ThreadLocal<HopeParser> parsers = ThreadLocal.withInitial(() -> new HopeParser(new StringReader("")));
+    /**
+     * Cache of regexes compiled during evaluation by all rules of this engine. Exposes hit and miss counts.
+     */
+    @Getter
+    private final PatternCache patternCache;
+    /**
+     * Cache of rules parsed by {@link #evaluate(String, JsonNode)}. Exposes hit, miss and eviction counts.
+     */
+    @Getter
+    private final ParseCache parseCache;
+    private final DocumentReferencesCache documentReferences = new DocumentReferencesCache();
+    private final Evaluator evaluator;
+    private final ObjectMapper objectMapper;
+    /**
+     * Accessor for maps, lists, beans and records, using the object mapper of the engine
+     */
+    @Getter
+    private final ObjectAccessor objectAccessor;
 
     private HopeLangEngine(
             FunctionRegistry functionRegistry,
-            ErrorHandlingStrategy errorHandlingStrategy) {
+            ErrorHandlingStrategy errorHandlingStrategy,
+            CompilationMode compilationMode,
+            boolean optimizationEnabled,
+            int patternCacheSize,
+            int parseCacheSize,
+            ObjectMapper objectMapper) {
         this.functionRegistry = functionRegistry;
-        this.errorHandlingStrategy = errorHandlingStrategy;
+        this.ruleCompiler = ruleCompiler(compilationMode, errorHandlingStrategy);
+        this.optimizer = optimizationEnabled ? new Optimizer() : null;
+        this.patternCache = new PatternCache(patternCacheSize);
+        this.parseCache = new ParseCache(parseCacheSize);
+        this.evaluator = new Evaluator(errorHandlingStrategy, patternCache);
+        this.objectMapper = objectMapper;
+        this.objectAccessor = new ObjectAccessor(objectMapper);
         setupCacheProviderForJsonPath();
     }
 
     /**
-     * Evaluates a hope expression using the provided json to return true or false.
+     * Evaluates a hope expression using the provided json to return true or false. Parsed expressions are kept in a
+     * bounded cache, see {@link Builder#parseCacheSize(int)}.
      * @param hopeLangExpression A hope language expression
      * @param root The json node to be evaluated
      * @return true in  case of match
      */
     public boolean evaluate(final String hopeLangExpression, JsonNode root) {
-        final Evaluatable evaluatable = parse(hopeLangExpression);
+        final Evaluatable evaluatable = parseCache.get(hopeLangExpression, this::parse);
         return evaluate(evaluatable, root);
     }
 
     /**
      * Parse a hope lang string. The resultant parsed rule can be reused for multiple evaluations.
+     * If optimization is enabled on the engine, the parsed rule is simplified using {@link Optimizer}.
+     * Paths and pointers of the rule get cache slots of their own, see {@link SlotRegistry}.
      * @param hopeLangExpression Parse a string
      * @return An evaluatable expression tree
      * @throws HopeExpressionParserError
      */
     public Evaluatable parse(final String hopeLangExpression) throws HopeExpressionParserError {
+        final Evaluatable parsed;
         try {
-            return new HopeParser(new StringReader(hopeLangExpression)).parse(functionRegistry);
+            final HopeParser parser = parsers.get();
+            parser.ReInit(new StringReader(hopeLangExpression));
+            parsed = parser.parse(functionRegistry);
         }
         catch (Exception e) {
             throw new HopeExpressionParserError(e.getMessage());
         }
+        final Evaluatable rule = null == optimizer
+                                 ? parsed
+                                 : optimizer.optimize(parsed);
+        SlotRegistry.assign(List.of(rule));
+        return rule;
     }
 
     /**
@@ -83,15 +161,512 @@ public class HopeLangEngine {
      * @return true in case of match
      */
     public boolean evaluate(Evaluatable rule, JsonNode node) {
-        return new Evaluator(errorHandlingStrategy).evaluate(rule, node);
+        return evaluator.evaluate(rule, node);
+    }
+
+    /**
+     * Create an evaluation context owned by the caller, for evaluating compiled rules and rule sets against a stream
+     * of documents without allocating a new context per document. Reset the context to every document before
+     * evaluating rules with it, see {@link Evaluator.EvaluationContext#reset(JsonNode)}. Contexts are not thread safe,
+     * use one per thread. Evaluation methods of the engine that take a {@link JsonNode} reuse a context kept per thread
+     * and do not need this.
+     * @return A new evaluation context
+     */
+    public Evaluator.EvaluationContext newContext() {
+        return evaluator.newContext();
+    }
+
+    /**
+     * Compile a parsed rule as per the {@link CompilationMode} configured on the engine. Compiled rules are immutable
+     * and can be shared across threads. Compilation is expensive, compile once and reuse.
+     * @param rule Parsed rule
+     * @return A compiled rule
+     */
+    public CompiledRule compile(Evaluatable rule) {
+        return ruleCompiler.compile(rule);
+    }
+
+    /**
+     * Parse and compile a hope lang string.
+     * @param hopeLangExpression A hope language expression
+     * @return A compiled rule
+     * @throws HopeExpressionParserError
+     */
+    public CompiledRule compile(final String hopeLangExpression) throws HopeExpressionParserError {
+        return compile(parse(hopeLangExpression));
+    }
+
+    /**
+     * Evaluate a compiled rule
+     * @param rule Compiled rule
+     * @param node JsonNode for which the match rule is to be evaluated
+     * @return true in case of match
+     */
+    public boolean evaluate(CompiledRule rule, JsonNode node) {
+        return evaluator.evaluate(rule, node);
+    }
+
+    /**
+     * Compile a list of parsed rules that will be evaluated together. With {@link CompilationMode#CLOSURE},
+     * sub-expressions and deterministic function calls repeated across the rules are evaluated at most once per
+     * document. Other modes compile every rule separately.
+     * @param rules Parsed rules
+     * @return Compiled rules in the same order
+     */
+    public CompiledRuleList compile(List<Evaluatable> rules) {
+        return ruleCompiler.compileAll(rules);
+    }
+
+    /**
+     * Evaluate a list of compiled rules
+     * @param rules Compiled rules
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Result of every rule in the list, in order
+     */
+    public List<Boolean> evaluate(CompiledRuleList rules, JsonNode node) {
+        return evaluator.evaluate(rules, node);
+    }
+
+    /**
+     * Find the first matching rule in a list of compiled rules
+     * @param rules Compiled rules
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Index of the first matching rule, empty if none match
+     */
+    public OptionalInt evaluateFirst(CompiledRuleList rules, JsonNode node) {
+        return evaluator.evaluateFirst(rules, node);
+    }
+
+    /**
+     * Build an indexed {@link RuleSet} from parsed rules. Rules are compiled as per the {@link CompilationMode}
+     * configured on the engine. Only rules that can match a document get evaluated, use this for large rule lists.
+     * @param rules Parsed rules
+     * @return A rule set that can be shared across threads
+     */
+    public RuleSet ruleSet(List<Evaluatable> rules) {
+        return new RuleSet(rules, ruleCompiler);
+    }
+
+    /**
+     * Evaluate all rules in a rule set
+     * @param ruleSet Rule set
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Result of every rule in the set, in order
+     */
+    public List<Boolean> evaluate(RuleSet ruleSet, JsonNode node) {
+        return evaluator.evaluate(ruleSet, node);
+    }
+
+    /**
+     * Find the first matching rule in a rule set
+     * @param ruleSet Rule set
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Lowest index of a matching rule, empty if none match
+     */
+    public OptionalInt evaluateFirst(RuleSet ruleSet, JsonNode node) {
+        return evaluator.evaluateFirst(ruleSet, node);
+    }
+
+    /**
+     * Evaluate a parsed rule against a serialized json document. If the rule only reads json pointers, the values at
+     * the pointers are extracted in a single pass over the document without building a tree for it. Rules that use
+     * json paths, pointers computed by functions or functions from outside the standard library are evaluated
+     * against a tree of the whole document.
+     * @param rule Parsed rule
+     * @param json Serialized json document
+     * @return true in case of match
+     * @throws IOException if the document cannot be read
+     */
+    public boolean evaluate(Evaluatable rule, byte[] json) throws IOException {
+        return evaluate(rule, objectMapper.createParser(json));
+    }
+
+    /**
+     * Evaluate a parsed rule against a json document read from a stream, see {@link #evaluate(Evaluatable, byte[])}
+     * @param rule Parsed rule
+     * @param json Stream to read the json document from
+     * @return true in case of match
+     * @throws IOException if the document cannot be read
+     */
+    public boolean evaluate(Evaluatable rule, InputStream json) throws IOException {
+        return evaluate(rule, objectMapper.createParser(json));
+    }
+
+    /**
+     * Evaluate parsed rules against a serialized json document. The document is read once for all rules, see
+     * {@link #evaluate(Evaluatable, byte[])}.
+     * @param rules Parsed rules
+     * @param json Serialized json document
+     * @return Result of every rule in the list, in order
+     * @throws IOException if the document cannot be read
+     */
+    public List<Boolean> evaluate(List<Evaluatable> rules, byte[] json) throws IOException {
+        return evaluate(rules, objectMapper.createParser(json));
+    }
+
+    public List<Boolean> evaluate(List<Evaluatable> rules, InputStream json) throws IOException {
+        return evaluate(rules, objectMapper.createParser(json));
+    }
+
+    /**
+     * Evaluate a list of compiled rules against a serialized json document, see {@link #evaluate(Evaluatable, byte[])}.
+     * The pointers read by the rules are only collected once per list, use this for evaluating the same rules against
+     * many documents.
+     * @param rules Compiled rules
+     * @param json Serialized json document
+     * @return Result of every rule in the list, in order
+     * @throws IOException if the document cannot be read
+     */
+    public List<Boolean> evaluate(CompiledRuleList rules, byte[] json) throws IOException {
+        return evaluate(rules, objectMapper.createParser(json));
+    }
+
+    public List<Boolean> evaluate(CompiledRuleList rules, InputStream json) throws IOException {
+        return evaluate(rules, objectMapper.createParser(json));
+    }
+
+    /**
+     * Evaluate a parsed rule against a document serialized in the given format, see
+     * {@link #evaluate(Evaluatable, byte[])}. Values at the pointers read by the rule are decoded in a single pass over
+     * the document, the rest of the document is skipped without being decoded.
+     * @param rule Parsed rule
+     * @param document Serialized document
+     * @param format Format of the document
+     * @return true in case of match
+     * @throws IOException if the document cannot be read
+     */
+    public boolean evaluate(Evaluatable rule, byte[] document, DocumentFormat format) throws IOException {
+        return evaluate(rule, parser(document, format));
+    }
+
+    /**
+     * Evaluate a parsed rule against a document serialized in the given format, see
+     * {@link #evaluate(Evaluatable, byte[], DocumentFormat)}. The document is read from the position to the limit of
+     * the buffer. The position of the buffer is not changed.
+     * @param rule Parsed rule
+     * @param document Buffer with the serialized document
+     * @param format Format of the document
+     * @return true in case of match
+     * @throws IOException if the document cannot be read
+     */
+    public boolean evaluate(Evaluatable rule, ByteBuffer document, DocumentFormat format) throws IOException {
+        return evaluate(rule, parser(document, format));
+    }
+
+    public List<Boolean> evaluate(List<Evaluatable> rules, byte[] document, DocumentFormat format) throws IOException {
+        return evaluate(rules, parser(document, format));
+    }
+
+    public List<Boolean> evaluate(List<Evaluatable> rules, ByteBuffer document, DocumentFormat format)
+            throws IOException {
+        return evaluate(rules, parser(document, format));
+    }
+
+    /**
+     * Evaluate a list of compiled rules against a document serialized in the given format, see
+     * {@link #evaluate(CompiledRuleList, byte[])}
+     * @param rules Compiled rules
+     * @param document Serialized document
+     * @param format Format of the document
+     * @return Result of every rule in the list, in order
+     * @throws IOException if the document cannot be read
+     */
+    public List<Boolean> evaluate(CompiledRuleList rules, byte[] document, DocumentFormat format) throws IOException {
+        return evaluate(rules, parser(document, format));
+    }
+
+    public List<Boolean> evaluate(CompiledRuleList rules, ByteBuffer document, DocumentFormat format)
+            throws IOException {
+        return evaluate(rules, parser(document, format));
+    }
+
+    /**
+     * Read a tree for a serialized json document that only contains the parts of the document read by the rules.
+     * Everything else is skipped while parsing. Rules of the list evaluate to the same results against this tree as
+     * against the tree of the whole document. The whole document is read if the rules use pointers or paths computed
+     * by functions, paths that search the whole document or functions from outside the standard library.
+     * @param rules Compiled rules
+     * @param json Serialized json document
+     * @return Tree with the parts of the document read by the rules
+     * @throws IOException if the document cannot be read
+     */
+    public JsonNode readTree(CompiledRuleList rules, byte[] json) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            return readTree(rules.getDocumentReferences(), parser);
+        }
+    }
+
+    public JsonNode readTree(CompiledRuleList rules, InputStream json) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            return readTree(rules.getDocumentReferences(), parser);
+        }
+    }
+
+    /**
+     * Read a tree for a serialized json document that only contains the parts of the document read by the rules, see
+     * {@link #readTree(CompiledRuleList, byte[])}
+     * @param rules Parsed rules
+     * @param json Serialized json document
+     * @return Tree with the parts of the document read by the rules
+     * @throws IOException if the document cannot be read
+     */
+    public JsonNode readTree(List<Evaluatable> rules, byte[] json) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            return readTree(documentReferences.get(rules), parser);
+        }
+    }
+
+    public JsonNode readTree(List<Evaluatable> rules, InputStream json) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            return readTree(documentReferences.get(rules), parser);
+        }
+    }
+
+    /**
+     * Evaluate parsed rules against a batch of documents. Pointers compared by the rules are resolved once per
+     * document into columns, and every rule is evaluated across the whole batch at once, see
+     * {@link io.appform.hope.core.batch.BatchEvaluator}. Results are the same as calling
+     * {@link #evaluate(List, JsonNode)} for every document. Use this for batches of hundreds of documents or more.
+     * @param rules Parsed rules
+     * @param nodes Documents of the batch
+     * @return Result of every rule for every document, in order of documents and rules
+     */
+    public List<List<Boolean>> evaluateBatch(List<Evaluatable> rules, List<JsonNode> nodes) {
+        return evaluator.evaluateBatch(rules, nodes);
+    }
+
+    /**
+     * Evaluate parsed rules against a collection of documents in parallel. Documents are split into chunks evaluated
+     * on the executor. On a {@link java.util.concurrent.ForkJoinPool} (for example
+     * {@link java.util.concurrent.ForkJoinPool#commonPool()}) chunks are split recursively and balanced by work
+     * stealing, any other executor (for example one that runs every task on a new virtual thread) gets one task per
+     * chunk. Every worker thread reuses its own evaluation context.
+     * @param rules Parsed rules
+     * @param nodes Documents, in order
+     * @param executor Executor to evaluate chunks of documents on
+     * @return Result of every rule for every document, in input order
+     */
+    public MatchMatrix evaluateAll(List<Evaluatable> rules, Collection<JsonNode> nodes, Executor executor) {
+        return evaluator.evaluateAll(rules, randomAccess(nodes), executor);
+    }
+
+    /**
+     * Evaluate parsed rules against a stream of documents in parallel, see
+     * {@link #evaluateAll(List, Collection, Executor)}. The stream is collected before evaluation starts.
+     * @param rules Parsed rules
+     * @param nodes Documents, in order
+     * @param executor Executor to evaluate chunks of documents on
+     * @return Result of every rule for every document, in encounter order of the stream
+     */
+    public MatchMatrix evaluateAll(List<Evaluatable> rules, Stream<JsonNode> nodes, Executor executor) {
+        return evaluator.evaluateAll(rules, nodes.toList(), executor);
+    }
+
+    public MatchMatrix evaluateAll(CompiledRuleList rules, Collection<JsonNode> nodes, Executor executor) {
+        return evaluator.evaluateAll(rules, randomAccess(nodes), executor);
+    }
+
+    public MatchMatrix evaluateAll(CompiledRuleList rules, Stream<JsonNode> nodes, Executor executor) {
+        return evaluator.evaluateAll(rules, nodes.toList(), executor);
+    }
+
+    public MatchMatrix evaluateAll(RuleSet ruleSet, Collection<JsonNode> nodes, Executor executor) {
+        return evaluator.evaluateAll(ruleSet, randomAccess(nodes), executor);
+    }
+
+    public MatchMatrix evaluateAll(RuleSet ruleSet, Stream<JsonNode> nodes, Executor executor) {
+        return evaluator.evaluateAll(ruleSet, nodes.toList(), executor);
+    }
+
+    /**
+     * Create a {@link java.util.concurrent.Flow.Processor} stage that evaluates parsed rules against every document
+     * it receives and emits a {@link Match} with the indices of the matched rules for every document that matches at
+     * least one rule. Evaluation and emission run on the executor, documents are requested from upstream only as
+     * fast as the subscriber requests matches. Documents are evaluated in batches of
+     * {@value RuleProcessor#DEFAULT_BATCH_SIZE}.
+     * @param rules Parsed rules
+     * @param executor Executor to evaluate documents on
+     * @return A processor with a single subscriber
+     */
+    public RuleProcessor processor(List<Evaluatable> rules, Executor executor) {
+        return processor(rules, executor, RuleProcessor.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create a processor stage evaluating parsed rules, see {@link #processor(List, Executor)}
+     * @param rules Parsed rules
+     * @param executor Executor to evaluate documents on
+     * @param batchSize Maximum number of documents evaluated together
+     * @return A processor with a single subscriber
+     */
+    public RuleProcessor processor(List<Evaluatable> rules, Executor executor, int batchSize) {
+        return new RuleProcessor(evaluator, rules, executor, batchSize);
+    }
+
+    /**
+     * Evaluate a parsed rule against a document that is not a {@link JsonNode}. Pointers are resolved directly on the
+     * document by the accessor, a tree for the document is only built for rules that need one (for example rules with
+     * json paths). Use {@code getObjectAccessor()} for maps, lists, beans and records.
+     * @param rule Parsed rule
+     * @param document Document to evaluate the rule against
+     * @param accessor Accessor for the document
+     * @param <T> Type of the document
+     * @return true in case of match
+     */
+    public <T> boolean evaluate(Evaluatable rule, T document, DocumentAccessor<? super T> accessor) {
+        return evaluator.evaluate(rule, document, accessor);
+    }
+
+    /**
+     * Evaluate a compiled rule against a document read through an accessor, see
+     * {@link #evaluate(Evaluatable, Object, DocumentAccessor)}
+     * @param rule Compiled rule
+     * @param document Document to evaluate the rule against
+     * @param accessor Accessor for the document
+     * @param <T> Type of the document
+     * @return true in case of match
+     */
+    public <T> boolean evaluate(CompiledRule rule, T document, DocumentAccessor<? super T> accessor) {
+        return evaluator.evaluate(rule, document, accessor);
+    }
+
+    public <T> List<Boolean> evaluate(CompiledRuleList rules, T document, DocumentAccessor<? super T> accessor) {
+        return evaluator.evaluate(rules, document, accessor);
+    }
+
+    public <T> List<Boolean> evaluate(RuleSet ruleSet, T document, DocumentAccessor<? super T> accessor) {
+        return evaluator.evaluate(ruleSet, document, accessor);
     }
 
     public List<Boolean> evaluate(List<Evaluatable> rules, JsonNode node) {
-        return new Evaluator(errorHandlingStrategy).evaluate(rules, node);
+        return evaluator.evaluate(rules, node);
     }
 
     public OptionalInt evaluateFirst(List<Evaluatable> rules, JsonNode node) {
-        return new Evaluator(errorHandlingStrategy).evaluateFirst(rules, node);
+        return evaluator.evaluateFirst(rules, node);
+    }
+
+    /**
+     * Evaluate all rules and call the consumer with the index of every matching rule, in order
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param consumer Called with the index of every matching rule
+     */
+    public void forEachMatch(List<Evaluatable> rules, JsonNode node, IntConsumer consumer) {
+        evaluator.forEachMatch(rules, node, consumer);
+    }
+
+    /**
+     * Evaluate all rules and store the result in a reusable bit set. The set is cleared before evaluation.
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param matches Set in which bits of matching rules are set
+     */
+    public void evaluate(List<Evaluatable> rules, JsonNode node, BitSet matches) {
+        evaluator.evaluate(rules, node, matches);
+    }
+
+    /**
+     * Evaluate all rules and store the result in reusable words, laid out like {@link BitSet#toLongArray()}.
+     * Words used by the rules are cleared before evaluation.
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param matches Words in which bits of matching rules are set
+     */
+    public void evaluate(List<Evaluatable> rules, JsonNode node, long[] matches) {
+        evaluator.evaluate(rules, node, matches);
+    }
+
+    /**
+     * Count the rules matching a document
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Number of matching rules
+     */
+    public int countMatches(List<Evaluatable> rules, JsonNode node) {
+        return evaluator.countMatches(rules, node);
+    }
+
+    /**
+     * Evaluate all rules and call the consumer with the index of every matching rule, in order
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param consumer Called with the index of every matching rule
+     */
+    public void forEachMatch(CompiledRuleList rules, JsonNode node, IntConsumer consumer) {
+        evaluator.forEachMatch(rules, node, consumer);
+    }
+
+    /**
+     * Evaluate all rules and store the result in a reusable bit set. The set is cleared before evaluation.
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param matches Set in which bits of matching rules are set
+     */
+    public void evaluate(CompiledRuleList rules, JsonNode node, BitSet matches) {
+        evaluator.evaluate(rules, node, matches);
+    }
+
+    /**
+     * Evaluate all rules and store the result in reusable words, laid out like {@link BitSet#toLongArray()}.
+     * Words used by the rules are cleared before evaluation.
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param matches Words in which bits of matching rules are set
+     */
+    public void evaluate(CompiledRuleList rules, JsonNode node, long[] matches) {
+        evaluator.evaluate(rules, node, matches);
+    }
+
+    /**
+     * Count the rules matching a document
+     * @param rules Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Number of matching rules
+     */
+    public int countMatches(CompiledRuleList rules, JsonNode node) {
+        return evaluator.countMatches(rules, node);
+    }
+
+    /**
+     * Evaluate all rules and call the consumer with the index of every matching rule, in order
+     * @param ruleSet Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param consumer Called with the index of every matching rule
+     */
+    public void forEachMatch(RuleSet ruleSet, JsonNode node, IntConsumer consumer) {
+        evaluator.forEachMatch(ruleSet, node, consumer);
+    }
+
+    /**
+     * Evaluate all rules and store the result in a reusable bit set. The set is cleared before evaluation.
+     * @param ruleSet Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param matches Set in which bits of matching rules are set
+     */
+    public void evaluate(RuleSet ruleSet, JsonNode node, BitSet matches) {
+        evaluator.evaluate(ruleSet, node, matches);
+    }
+
+    /**
+     * Evaluate all rules and store the result in reusable words, laid out like {@link BitSet#toLongArray()}.
+     * Words used by the rules are cleared before evaluation.
+     * @param ruleSet Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @param matches Words in which bits of matching rules are set
+     */
+    public void evaluate(RuleSet ruleSet, JsonNode node, long[] matches) {
+        evaluator.evaluate(ruleSet, node, matches);
+    }
+
+    /**
+     * Count the rules matching a document
+     * @param ruleSet Rules to be evaluated
+     * @param node JsonNode for which the rules are to be evaluated
+     * @return Number of matching rules
+     */
+    public int countMatches(RuleSet ruleSet, JsonNode node) {
+        return evaluator.countMatches(ruleSet, node);
     }
 
     public static class Builder {
@@ -99,6 +674,11 @@ public class HopeLangEngine {
         private final FunctionRegistry functionRegistry = new FunctionRegistry();
         private ErrorHandlingStrategy errorHandlingStrategy = new DefaultErrorHandlingStrategy();
         private boolean autoFunctionDiscoveryEnabled = true;
+        private CompilationMode compilationMode = CompilationMode.BYTECODE;
+        private boolean optimizationEnabled = false;
+        private int patternCacheSize = PatternCache.DEFAULT_MAX_SIZE;
+        private int parseCacheSize = ParseCache.DEFAULT_MAX_SIZE;
+        private ObjectMapper objectMapper = new ObjectMapper();
 
         private Builder() {}
 
@@ -148,13 +728,73 @@ public class HopeLangEngine {
             return this;
         }
 
+        /**
+         * Override the way rules get compiled by {@link HopeLangEngine#compile(Evaluatable)}.
+         * Default is {@link CompilationMode#BYTECODE}.
+         * @param compilationMode Compilation mode
+         * @return builder
+         */
+        public Builder compilationMode(CompilationMode compilationMode) {
+            this.compilationMode = compilationMode;
+            return this;
+        }
+
+        /**
+         * Enable or disable simplification of parsed rules using {@link Optimizer}. Disabled by default, so that
+         * {@link HopeLangEngine#parse(String)} returns the tree exactly as written.
+         * @param optimizationEnabled Set to true to get simplified trees from {@link HopeLangEngine#parse(String)}
+         * @return builder
+         */
+        public Builder optimizationEnabled(boolean optimizationEnabled) {
+            this.optimizationEnabled = optimizationEnabled;
+            return this;
+        }
+
+        /**
+         * Override the number of compiled regexes kept for regexes that are not literals in the rule. Default is
+         * {@link PatternCache#DEFAULT_MAX_SIZE}.
+         * @param patternCacheSize Maximum number of cached patterns, 0 to disable caching
+         * @return builder
+         */
+        public Builder patternCacheSize(int patternCacheSize) {
+            this.patternCacheSize = patternCacheSize;
+            return this;
+        }
+
+        /**
+         * Override the number of parsed rules kept for {@link HopeLangEngine#evaluate(String, JsonNode)}. Default is
+         * {@link ParseCache#DEFAULT_MAX_SIZE}.
+         * @param parseCacheSize Maximum number of cached parsed rules, 0 to disable caching
+         * @return builder
+         */
+        public Builder parseCacheSize(int parseCacheSize) {
+            this.parseCacheSize = parseCacheSize;
+            return this;
+        }
+
+        /**
+         * Override the mapper used to read serialized documents passed to the engine
+         * @param objectMapper Mapper to read documents with
+         * @return builder
+         */
+        public Builder objectMapper(ObjectMapper objectMapper) {
+            this.objectMapper = Objects.requireNonNull(objectMapper, "Object mapper can not be null");
+            return this;
+        }
+
         /**
          * Build a Hope language parser
          * @return a fully initialized immutable parser
          */
         public HopeLangEngine build() {
             functionRegistry.discover(userPackages, autoFunctionDiscoveryEnabled);
-            return new HopeLangEngine(functionRegistry, errorHandlingStrategy);
+            return new HopeLangEngine(functionRegistry,
+                                      errorHandlingStrategy,
+                                      compilationMode,
+                                      optimizationEnabled,
+                                      patternCacheSize,
+                                      parseCacheSize,
+                                      objectMapper);
         }
     }
 
@@ -166,6 +806,81 @@ public class HopeLangEngine {
         return new Builder();
     }
 
+    private boolean evaluate(Evaluatable rule, JsonParser parser) throws IOException {
+        try (parser) {
+            final DocumentReferences references = documentReferences.get(rule);
+            return references.isTreeRequired()
+                   ? evaluator.evaluate(rule, readTree(references, parser))
+                   : evaluator.evaluate(rule, references.getExtractor(), parser);
+        }
+    }
+
+    private List<Boolean> evaluate(List<Evaluatable> rules, JsonParser parser) throws IOException {
+        try (parser) {
+            final DocumentReferences references = documentReferences.get(rules);
+            return references.isTreeRequired()
+                   ? evaluator.evaluate(rules, readTree(references, parser))
+                   : evaluator.evaluate(rules, references.getExtractor(), parser);
+        }
+    }
+
+    private List<Boolean> evaluate(CompiledRuleList rules, JsonParser parser) throws IOException {
+        try (parser) {
+            final DocumentReferences references = rules.getDocumentReferences();
+            return references.isTreeRequired()
+                   ? evaluator.evaluate(rules, readTree(references, parser))
+                   : evaluator.evaluate(rules, references.getExtractor(), parser);
+        }
+    }
+
+    private static List<JsonNode> randomAccess(Collection<JsonNode> nodes) {
+        return nodes instanceof List<JsonNode> list && nodes instanceof RandomAccess
+               ? list
+               : new ArrayList<>(nodes);
+    }
+
+    private JsonParser parser(byte[] document, DocumentFormat format) throws IOException {
+        return parser(document, 0, document.length, format);
+    }
+
+    private JsonParser parser(ByteBuffer document, DocumentFormat format) throws IOException {
+        if (document.hasArray()) {
+            return parser(document.array(), document.arrayOffset() + document.position(), document.remaining(), format);
+        }
+        final JsonParser parser = format.factory(objectMapper)
+                .createParser(new ByteBufferBackedInputStream(document.duplicate()));
+        parser.setCodec(objectMapper);
+        return parser;
+    }
+
+    private JsonParser parser(byte[] document, int offset, int length, DocumentFormat format) throws IOException {
+        final JsonParser parser = format.factory(objectMapper).createParser(document, offset, length);
+        parser.setCodec(objectMapper);
+        return parser;
+    }
+
+    private JsonNode readTree(DocumentReferences references, JsonParser parser) throws IOException {
+        final DocumentProjection projection = references.getProjection();
+        if (null != projection) {
+            return projection.read(parser);
+        }
+        final JsonNode node = objectMapper.readTree(parser);
+        return null == node
+               ? MissingNode.getInstance()
+               : node;
+    }
+
+    private static RuleCompiler ruleCompiler(
+            CompilationMode compilationMode,
+            ErrorHandlingStrategy errorHandlingStrategy) {
+        return switch (compilationMode) {
+            case INTERPRETED -> InterpretedRule::new;
+            case BYTECODE -> new BytecodeCompiler();
+            case CLOSURE -> new ClosureCompiler();
+            case ADAPTIVE -> new AdaptiveCompiler(errorHandlingStrategy);
+        };
+    }
+
     private void setupCacheProviderForJsonPath() {
         try {
             CacheProvider.setCache(new NOOPCache());
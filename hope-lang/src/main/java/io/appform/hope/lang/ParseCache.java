@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import io.appform.hope.core.Evaluatable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of parsed rules keyed on the expression text, used by
+ * {@link HopeLangEngine#evaluate(String, com.fasterxml.jackson.databind.JsonNode)}. Safe to use from multiple threads.
+ * Entries are split across segments by the hash of the expression, every segment evicts its least recently used
+ * entry once it is full. Expressions that fail to parse are not cached.
+ */
+public class ParseCache {
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    private static final int MAX_SEGMENTS = 16;
+    //Segments are only split off for caches large enough for every segment to hold a useful number of entries
+    private static final int MIN_SEGMENT_SIZE = 32;
+
+    private final int maxSize;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ParseCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize Maximum number of parsed rules kept. Rules are not cached if this is zero.
+     */
+    public ParseCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Parse cache size cannot be negative");
+        }
+        this.maxSize = maxSize;
+        final int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_SEGMENT_SIZE));
+        this.segments = new Segment[segmentCount];
+        for (int index = 0; index < segmentCount; index++) {
+            //Spread the remainder so that segment sizes add up to the maximum size
+            segments[index] = new Segment(maxSize / segmentCount + (index < maxSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the parsed rule for an expression, parsing it if it is not cached.
+     *
+     * @param expression Hope expression
+     * @param parser     Parses the expression on a miss
+     * @return Parsed rule
+     */
+    public Evaluatable get(String expression, Function<String, Evaluatable> parser) {
+        if (0 == maxSize) {
+            misses.increment();
+            return parser.apply(expression);
+        }
+        final Segment segment = segments[Math.floorMod(spread(expression.hashCode()), segments.length)];
+        final Evaluatable cached = segment.get(expression);
+        if (null != cached) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        //Parsed outside the lock, concurrent misses for the same expression may parse it more than once
+        final Evaluatable parsed = parser.apply(expression);
+        segment.put(expression, parsed);
+        return parsed;
+    }
+
+    /**
+     * @return Number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of lookups that had to parse the expression
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of parsed rules removed to keep the cache within its size
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of parsed rules currently cached
+     */
+    public int size() {
+        int size = 0;
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Removes all cached rules. Counters are kept.
+     */
+    public void clear() {
+        for (final Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<String, Evaluatable> entries;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Evaluatable> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized Evaluatable get(String expression) {
+            return entries.get(expression);
+        }
+
+        private synchronized void put(String expression, Evaluatable parsed) {
+            entries.putIfAbsent(expression, parsed);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+    }
+}
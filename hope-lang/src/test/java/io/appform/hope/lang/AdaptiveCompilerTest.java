@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.closure.AdaptiveRule;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.exceptions.impl.HopeParameterValidationFailureError;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that adaptively reordered rules behave exactly like interpreted rules
+ */
+class AdaptiveCompilerTest {
+    private static final int EVALUATIONS = 4096;
+    //Enough evaluations to hit the sampled path at least once
+    private static final int SAMPLED = 65;
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .registerFunction(Slow.class)
+            .compilationMode(CompilationMode.ADAPTIVE)
+            .build();
+
+    final HopeLangEngine lenientEngine = HopeLangEngine.builder()
+            .registerFunction(Slow.class)
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .compilationMode(CompilationMode.ADAPTIVE)
+            .build();
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val node = mapper.readTree(json);
+        val compiled = compile(engine, rule);
+        for (int i = 0; i < SAMPLED; i++) {
+            assertEquals(expectation, engine.evaluate(compiled, node));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rules")
+    @SneakyThrows
+    void testLibraryRules(final String json, final String rule, boolean ignored) {
+        val node = mapper.readTree(json);
+        val compiled = compile(lenientEngine, rule);
+        //Date based expectations are computed when the arguments are generated, so compare against the interpreter
+        for (int i = 0; i < SAMPLED; i++) {
+            assertEquals(lenientEngine.evaluate(compiled.getRule(), node), lenientEngine.evaluate(compiled, node));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testCheapSelectiveChildrenMoveFirst() {
+        val compiled = (AdaptiveRule) compile(lenientEngine, "test.slow() == true && '/type' == 'A'");
+        val matching = mapper.readTree("{ \"flag\" : true, \"type\" : \"A\" }");
+        val other = mapper.readTree("{ \"flag\" : true, \"type\" : \"B\" }");
+        assertEquals(compiled.getRule(), compiled.getLearnedRule());
+        for (int i = 0; i < EVALUATIONS; i++) {
+            val matches = i % 16 == 0;
+            assertEquals(matches, lenientEngine.evaluate(compiled, matches ? matching : other));
+        }
+        assertEquals(lenientEngine.parse("'/type' == 'A' && test.slow() == true"), compiled.getLearnedRule());
+    }
+
+    @Test
+    @SneakyThrows
+    void testLiteralRegexMatchIsReordered() {
+        //Backtracks a lot before rejecting the name
+        val regex = "'^(a+)+$'";
+        val compiled = (AdaptiveRule) compile(lenientEngine, "str.match(" + regex + ", '/name') == false && '/type' == 'A'");
+        val matching = mapper.readTree("{ \"name\" : \"aaaaaaaaaaaaaaaaaab\", \"type\" : \"A\" }");
+        val other = mapper.readTree("{ \"name\" : \"aaaaaaaaaaaaaaaaaab\", \"type\" : \"B\" }");
+        for (int i = 0; i < EVALUATIONS; i++) {
+            val matches = i % 16 == 0;
+            assertEquals(matches, lenientEngine.evaluate(compiled, matches ? matching : other));
+        }
+        assertEquals(lenientEngine.parse("'/type' == 'A' && str.match(" + regex + ", '/name') == false"),
+                     compiled.getLearnedRule());
+        //A regex read from the document may be empty, which fails even when values are injected for errors
+        val dynamic = (AdaptiveRule) compile(lenientEngine, "str.match('/regex', '/name') == false && '/type' == 'A'");
+        val noRegex = mapper.readTree("{ \"name\" : \"a\", \"type\" : \"B\" }");
+        assertThrows(HopeParameterValidationFailureError.class, () -> lenientEngine.evaluate(dynamic, noRegex));
+        assertEquals(dynamic.getRule(), dynamic.getLearnedRule());
+    }
+
+    @Test
+    @SneakyThrows
+    void testErrorsSkippedByLearnedOrderAreRaised() {
+        val compiled = (AdaptiveRule) compile(engine, "test.slow() == '/flag' && '/type' == 'A'");
+        val node = mapper.readTree("{ \"flag\" : true, \"type\" : \"B\" }");
+        for (int i = 0; i < EVALUATIONS; i++) {
+            assertFalse(engine.evaluate(compiled, node));
+        }
+        //Running the type check first would reject without reading the missing flag
+        assertEquals(compiled.getRule(), compiled.getLearnedRule());
+        val missingFlag = mapper.readTree("{ \"type\" : \"B\" }");
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluate(compiled.getRule(), missingFlag));
+        for (int i = 0; i < SAMPLED; i++) {
+            assertThrows(HopeMissingValueError.class, () -> engine.evaluate(compiled, missingFlag));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testChildrenAreNotMovedAheadOfFunctions() {
+        val compiled = (AdaptiveRule) compile(lenientEngine,
+                                              "math.div(1, '/divisor') > 0 && '/flag' == true && '/type' == 'A'");
+        val node = mapper.readTree("{ \"divisor\" : 1, \"flag\" : true, \"type\" : \"B\" }");
+        for (int i = 0; i < EVALUATIONS; i++) {
+            assertFalse(lenientEngine.evaluate(compiled, node));
+        }
+        assertEquals(lenientEngine.parse("math.div(1, '/divisor') > 0 && '/type' == 'A' && '/flag' == true"),
+                     compiled.getLearnedRule());
+        //Division by zero fails even when values are injected for errors
+        val zeroDivisor = mapper.readTree("{ \"divisor\" : 0, \"flag\" : true, \"type\" : \"B\" }");
+        assertThrows(HopeParameterValidationFailureError.class,
+                     () -> lenientEngine.evaluate(compiled.getRule(), zeroDivisor));
+        for (int i = 0; i < SAMPLED; i++) {
+            assertThrows(HopeParameterValidationFailureError.class,
+                         () -> lenientEngine.evaluate(compiled, zeroDivisor));
+        }
+    }
+
+    private static CompiledRule compile(HopeLangEngine engine, String rule) {
+        val compiled = engine.compile(rule);
+        assertInstanceOf(AdaptiveRule.class, compiled, "Rule was not compiled: " + rule);
+        return compiled;
+    }
+
+    @FunctionImplementation(value = "test.slow", infallible = true)
+    public static class Slow extends HopeFunction<BooleanValue> {
+        @Override
+        public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
+            final long end = System.nanoTime() + 20_000;
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+            return new BooleanValue(true);
+        }
+    }
+}
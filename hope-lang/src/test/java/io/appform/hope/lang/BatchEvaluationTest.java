@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.exceptions.impl.HopeTypeMismatchError;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that batch evaluation returns the same results as evaluating every document on its own
+ */
+class BatchEvaluationTest {
+    private static final List<String> RULES = List.of(
+            "'/type' == 'A' && '/amount' > 100",
+            "'/type' == 'B' || '/amount' <= 20 || '/flag' == true",
+            "'/type' != 'C' && ('/code' == 3 || '/code' >= 7) && '/flag' != false",
+            "100 > '/amount' && '/amount' >= '/code'",
+            "'/type' == '/other' || '/code' == '/amount'",
+            "'/nested/value' < 5.5 && str.upper('/type') == 'A'",
+            "arr.in('/type', ['A', 'C']) == true && '/amount' > 50",
+            "\"$.amount\" > 10 && '/type' == \"A\"",
+            "('/flag' == true) || ('/nested/value' == 1 && '/type' == 'B')",
+            "'/amount' == 25.5 || '/type' == 25.5 || '/flag' == 'true'");
+
+    private static final List<String> TYPES = List.of("A", "B", "C");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testParityWithRowEvaluation() {
+        val engine = HopeLangEngine.builder()
+                .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+                .build();
+        val rules = RULES.stream().map(engine::parse).toList();
+        val documents = documents(2000, new Random(42));
+        val results = engine.evaluateBatch(rules, documents);
+        assertEquals(documents.size(), results.size());
+        for (int row = 0; row < documents.size(); row++) {
+            assertEquals(engine.evaluate(rules, documents.get(row)), results.get(row), documents.get(row).toString());
+        }
+        assertEquals(List.of(), engine.evaluateBatch(rules, List.of()));
+        assertEquals(List.of(List.of(), List.of()), engine.evaluateBatch(List.of(), documents.subList(0, 2)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val engine = HopeLangEngine.builder().build();
+        val node = mapper.readTree(json);
+        assertEquals(List.of(List.of(expectation), List.of(expectation)),
+                     engine.evaluateBatch(List.of(engine.parse(rule)), List.of(node, node)));
+    }
+
+    @Test
+    @SneakyThrows
+    void testErrorsMatchRowEvaluation() {
+        val engine = HopeLangEngine.builder().build();
+        val rules = List.of(engine.parse("'/type' == 'A' && '/amount' > 10"));
+        //Rejected by the type before the missing amount is read
+        val rejected = List.of(mapper.readTree("{ \"type\" : \"A\", \"amount\" : 20 }"),
+                               mapper.readTree("{ \"type\" : \"B\" }"));
+        assertEquals(List.of(List.of(true), List.of(false)), engine.evaluateBatch(rules, rejected));
+        assertThrows(HopeMissingValueError.class,
+                     () -> engine.evaluateBatch(rules, List.of(mapper.readTree("{ \"type\" : \"B\" }"),
+                                                               mapper.readTree("{ \"type\" : \"A\" }"))));
+        assertThrows(HopeTypeMismatchError.class,
+                     () -> engine.evaluateBatch(rules, List.of(mapper.readTree("{ \"type\" : \"A\", \"amount\" : \"5\" }"))));
+        val nodes = new ArrayList<JsonNode>();
+        nodes.add(null);
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluateBatch(rules, nodes));
+    }
+
+    private List<JsonNode> documents(int count, Random random) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> {
+                    val node = mapper.createObjectNode();
+                    switch (random.nextInt(8)) {
+                        case 0 -> node.putNull("type");
+                        case 1 -> node.put("type", random.nextInt(3));
+                        case 2 -> { }
+                        default -> node.put("type", TYPES.get(random.nextInt(TYPES.size())));
+                    }
+                    switch (random.nextInt(6)) {
+                        case 0 -> node.put("amount", "25");
+                        case 1 -> node.put("amount", 25.5);
+                        default -> node.put("amount", random.nextInt(200));
+                    }
+                    if (random.nextBoolean()) {
+                        node.put("code", random.nextInt(10));
+                    }
+                    if (random.nextInt(4) > 0) {
+                        node.put("flag", random.nextBoolean());
+                    }
+                    else {
+                        node.put("flag", "true");
+                    }
+                    node.put("other", TYPES.get(random.nextInt(TYPES.size())));
+                    node.putObject("nested").put("value", random.nextDouble() * 10);
+                    return (JsonNode) node;
+                })
+                .toList();
+    }
+}
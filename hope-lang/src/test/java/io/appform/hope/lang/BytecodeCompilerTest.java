@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.InterpretedRule;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.exceptions.impl.HopeTypeMismatchError;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that rules compiled to bytecode behave exactly like interpreted rules
+ */
+class BytecodeCompilerTest {
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .registerFunction(Blah.class)
+            .build();
+
+    final HopeLangEngine lenientEngine = HopeLangEngine.builder()
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .build();
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val node = mapper.readTree(json);
+        val compiled = compile(engine, rule);
+        assertEquals(expectation, engine.evaluate(compiled, node));
+        assertEquals(engine.evaluate(compiled.getRule(), node), engine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rules")
+    @SneakyThrows
+    void testLibraryRules(final String json, final String rule, boolean ignored) {
+        val node = mapper.readTree(json);
+        val compiled = compile(lenientEngine, rule);
+        //Date based expectations are computed when the arguments are generated, so compare against the interpreter
+        assertEquals(lenientEngine.evaluate(compiled.getRule(), node), lenientEngine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rulesNonExistentItems")
+    @SneakyThrows
+    void testMissingValue(final String json, final String rule) {
+        val node = mapper.readTree(json);
+        assertFalse(lenientEngine.evaluate(compile(lenientEngine, rule), node));
+        val compiled = compile(engine, rule);
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rulesWrongTypes")
+    @SneakyThrows
+    void testWrongType(final String json, final String rule) {
+        val node = mapper.readTree(json);
+        val compiled = compile(engine, rule);
+        assertThrows(HopeTypeMismatchError.class, () -> engine.evaluate(compiled, node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testUserFunction() {
+        val node = mapper.readTree("{}");
+        assertTrue(engine.evaluate(compile(engine, "ss.blah() == \"blah\""), node));
+        assertFalse(engine.evaluate(compile(engine, "ss.blah() == \"bleh\""), node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testLargeCombiners() {
+        val orRule = IntStream.range(0, 5000)
+                .mapToObj(i -> "\"/value\" == " + i)
+                .collect(Collectors.joining(" || "));
+        val andRule = IntStream.range(0, 5000)
+                .mapToObj(i -> "\"/value\" >= " + i)
+                .collect(Collectors.joining(" && "));
+        val compiledOr = compile(engine, orRule);
+        val compiledAnd = compile(engine, andRule);
+        assertTrue(engine.evaluate(compiledOr, mapper.readTree("{ \"value\" : 4999 }")));
+        assertFalse(engine.evaluate(compiledOr, mapper.readTree("{ \"value\" : 5000 }")));
+        assertTrue(engine.evaluate(compiledAnd, mapper.readTree("{ \"value\" : 4999 }")));
+        assertFalse(engine.evaluate(compiledAnd, mapper.readTree("{ \"value\" : 4998 }")));
+    }
+
+    @Test
+    @SneakyThrows
+    void testInterpretedMode() {
+        val interpreted = HopeLangEngine.builder()
+                .compilationMode(CompilationMode.INTERPRETED)
+                .build();
+        val compiled = interpreted.compile("\"/value\" > 10");
+        assertInstanceOf(InterpretedRule.class, compiled);
+        assertTrue(interpreted.evaluate(compiled, mapper.readTree("{ \"value\" : 11 }")));
+    }
+
+    private static CompiledRule compile(HopeLangEngine engine, String rule) {
+        val compiled = engine.compile(rule);
+        assertFalse(compiled instanceof InterpretedRule, "Rule was not compiled: " + rule);
+        return compiled;
+    }
+}
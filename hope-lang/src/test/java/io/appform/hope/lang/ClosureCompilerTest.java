@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.compiler.CompiledRule;
+import io.appform.hope.core.compiler.closure.ClosureRule;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.exceptions.impl.HopeTypeMismatchError;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that rules compiled to closures behave exactly like interpreted rules
+ */
+class ClosureCompilerTest {
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .registerFunction(Blah.class)
+            .compilationMode(CompilationMode.CLOSURE)
+            .build();
+
+    final HopeLangEngine lenientEngine = HopeLangEngine.builder()
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .compilationMode(CompilationMode.CLOSURE)
+            .build();
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val node = mapper.readTree(json);
+        val compiled = compile(engine, rule);
+        assertEquals(expectation, engine.evaluate(compiled, node));
+        assertEquals(engine.evaluate(compiled.getRule(), node), engine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rules")
+    @SneakyThrows
+    void testLibraryRules(final String json, final String rule, boolean ignored) {
+        val node = mapper.readTree(json);
+        val compiled = compile(lenientEngine, rule);
+        //Date based expectations are computed when the arguments are generated, so compare against the interpreter
+        assertEquals(lenientEngine.evaluate(compiled.getRule(), node), lenientEngine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rulesNonExistentItems")
+    @SneakyThrows
+    void testMissingValue(final String json, final String rule) {
+        val node = mapper.readTree(json);
+        assertFalse(lenientEngine.evaluate(compile(lenientEngine, rule), node));
+        val compiled = compile(engine, rule);
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rulesWrongTypes")
+    @SneakyThrows
+    void testWrongType(final String json, final String rule) {
+        val node = mapper.readTree(json);
+        val compiled = compile(engine, rule);
+        assertThrows(HopeTypeMismatchError.class, () -> engine.evaluate(compiled, node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testUserFunction() {
+        val node = mapper.readTree("{}");
+        assertTrue(engine.evaluate(compile(engine, "ss.blah() == \"blah\""), node));
+        assertFalse(engine.evaluate(compile(engine, "ss.blah() == \"bleh\""), node));
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+            delimiter = '|',
+            value = {
+                    "{ \"x\" : 0 }|'/x' == 0",
+                    "{ \"x\" : -0.0 }|'/x' == 0",
+                    "{ \"x\" : \"0\" }|'/x' == 0",
+                    "{ \"x\" : true }|'/x' == 0",
+                    "{ \"x\" : [0] }|'/x' == 0",
+                    "{ \"x\" : null }|'/x' == 0",
+                    "{}|'/x' == 0",
+                    "{}|'/x' != 0",
+                    "{}|'$.x' == 0",
+                    "{ \"x\" : 3 }|'$.x' == 3",
+                    "{ \"x\" : 3 }|3 == '$.x'",
+                    "{ \"x\" : 3 }|math.add('/x', 1) == 4",
+                    "{ \"x\" : 3 }|math.add('/x', 1) > 3.5",
+                    "{ \"x\" : \"A\" }|str.lower('/x') == 'a'",
+                    "{}|math.add('/x', 1) == 1",
+            })
+    @SneakyThrows
+    void testEqualityParity(final String json, final String rule) {
+        val node = mapper.readTree(json);
+        val compiled = compile(lenientEngine, rule);
+        assertEquals(lenientEngine.evaluate(compiled.getRule(), node), lenientEngine.evaluate(compiled, node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testLargeCombiners() {
+        val orRule = IntStream.range(0, 5000)
+                .mapToObj(i -> "\"/value\" == " + i)
+                .collect(Collectors.joining(" || "));
+        val andRule = IntStream.range(0, 5000)
+                .mapToObj(i -> "\"/value\" >= " + i)
+                .collect(Collectors.joining(" && "));
+        val compiledOr = compile(engine, orRule);
+        val compiledAnd = compile(engine, andRule);
+        assertTrue(engine.evaluate(compiledOr, mapper.readTree("{ \"value\" : 4999 }")));
+        assertFalse(engine.evaluate(compiledOr, mapper.readTree("{ \"value\" : 5000 }")));
+        assertTrue(engine.evaluate(compiledAnd, mapper.readTree("{ \"value\" : 4999 }")));
+        assertFalse(engine.evaluate(compiledAnd, mapper.readTree("{ \"value\" : 4998 }")));
+    }
+
+    private static CompiledRule compile(HopeLangEngine engine, String rule) {
+        val compiled = engine.compile(rule);
+        assertInstanceOf(ClosureRule.class, compiled, "Rule was not compiled: " + rule);
+        return compiled;
+    }
+}
@@ -113,7 +113,7 @@ class CoreEvalTest {
         assertEquals(expectation, new Evaluator().evaluate(operator, node));
     }
 
-    private static Stream<Arguments> rules() {
+    static Stream<Arguments> rules() {
         return Stream.of(
                 Arguments.of("{ \"first name\" : \"santanu\" }", "\"/first name\" == \"santanu\"", true),
                 Arguments.of("{ \"first name\" : \"santanu\" }", "'/first name' == \"santanu\"", true),
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import io.appform.hope.core.accessors.DocumentAccessor;
+import io.appform.hope.core.accessors.JsonNodeAccessor;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests evaluation of rules against documents read through {@link DocumentAccessor}s
+ */
+class DocumentAccessorTest {
+    private static final List<String> RULES = List.of(
+            "'/type' == 'A' && '/amount' > 10",
+            "'/nested/value' == 7 || '/nested/flag' == true",
+            "'/items/1/id' == 'b'",
+            "arr.contains_any('/tags', ['x', 'y']) == true",
+            "arr.len('/tags') == 2",
+            "pointer.exists('/nested/flag') == true",
+            "pointer.exists('/nested/missing') == true",
+            "\"$.nested.value\" == 7",
+            "path.exists(\"$.items[1].id\") == true",
+            "'/id_code' == 42 && '/scores/1' == 2.5",
+            "'/nested' == '/nested'");
+
+    @Data
+    @AllArgsConstructor
+    public static class Nested {
+        private int value;
+        private Boolean flag;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Item {
+        private String id;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Payment {
+        private String type;
+        private double amount;
+        private Nested nested;
+        private List<String> tags;
+        private Item[] items;
+        @JsonProperty("id_code")
+        private long code;
+        private double[] scores;
+    }
+
+    public record Order(String type, long amount, Nested nested, List<String> tags, List<Item> items,
+                        @JsonProperty("id_code") Integer code, float[] scores) {
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Formatted {
+        @JsonSerialize(using = ToStringSerializer.class)
+        private long amount;
+        private String type;
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HopeLangEngine engine = HopeLangEngine.builder()
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .build();
+
+    @Test
+    void testParityWithTrees() {
+        val documents = new ArrayList<Object>();
+        documents.add(new Payment("A", 20, new Nested(7, null), List.of("x", "z"),
+                                  new Item[]{new Item("a"), new Item("b")}, 42, new double[]{1, 2.5}));
+        documents.add(new Payment("B", 5, null, List.of(), new Item[0], 41, null));
+        documents.add(new Order("A", 11, new Nested(6, true), List.of("q", "y"), List.of(new Item("b")), 42,
+                                new float[]{0.5f, 2.5f}));
+        documents.add(new Order(null, 0, null, null, null, null, null));
+        val map = new LinkedHashMap<String, Object>();
+        map.put("type", "A");
+        map.put("amount", 15);
+        map.put("nested", Map.of("value", 7, "flag", false));
+        map.put("tags", Arrays.asList("y", null));
+        map.put("items", List.of(Map.of("id", "a"), new Item("b")));
+        map.put("id_code", 42L);
+        map.put("scores", new int[]{1, 2});
+        documents.add(map);
+        documents.add(Map.of(1, "one", "type", "A"));
+        documents.add(List.of("A", 1));
+        documents.add("text");
+        documents.add(new Formatted(20, "A"));
+        val accessor = engine.getObjectAccessor();
+        for (final String rule : RULES) {
+            val parsed = engine.parse(rule);
+            for (final Object document : documents) {
+                val tree = mapper.valueToTree(document);
+                val expected = outcome(() -> engine.evaluate(parsed, (JsonNode) tree));
+                assertEquals(expected, outcome(() -> engine.evaluate(parsed, document, accessor)), rule + " : " + tree);
+                assertEquals(expected, outcome(() -> engine.evaluate(engine.compile(parsed), document, accessor)), rule);
+            }
+        }
+    }
+
+    @Test
+    void testPointersAreResolvedOnDocument() {
+        val accessor = engine.getObjectAccessor();
+        val payment = new Payment("A", 20, new Nested(7, true), List.of("x"), new Item[]{new Item("a")}, 42,
+                                  new double[]{1.5});
+        assertEquals(mapper.valueToTree(payment), accessor.toTree(payment));
+        for (final String pointer : List.of("", "/type", "/amount", "/nested", "/nested/flag", "/tags/0", "/tags/1",
+                                            "/items/0/id", "/id_code", "/code", "/scores/0", "/scores/-1",
+                                            "/type/0", "/missing")) {
+            val compiled = JsonPointer.compile(pointer);
+            assertEquals(mapper.valueToTree(payment).at(compiled), accessor.at(payment, compiled), pointer);
+        }
+        val formatted = new Formatted(20, "A");
+        assertEquals("20", accessor.at(formatted, JsonPointer.compile("/amount")).asText());
+        assertTrue(accessor.at(formatted, JsonPointer.compile("/amount")).isTextual());
+    }
+
+    @Test
+    void testTreeIsBuiltOnlyWhenNeeded() {
+        val trees = new AtomicInteger();
+        val counting = new DocumentAccessor<Object>() {
+            @Override
+            public JsonNode at(Object document, JsonPointer pointer) {
+                return engine.getObjectAccessor().at(document, pointer);
+            }
+
+            @Override
+            public JsonNode toTree(Object document) {
+                trees.incrementAndGet();
+                return engine.getObjectAccessor().toTree(document);
+            }
+        };
+        val document = new HashMap<String, Object>();
+        document.put("type", "A");
+        document.put("amount", 20);
+        document.put("nested", Map.of("value", 7));
+        val pointerRules = engine.compile(List.of(engine.parse("'/type' == 'A' && '/amount' > 10"),
+                                                     engine.parse("pointer.exists('/nested/value') == true")));
+        assertEquals(List.of(true, true), engine.evaluate(pointerRules, document, counting));
+        assertEquals(0, trees.get());
+        assertTrue(engine.evaluate(engine.parse("\"$.nested.value\" == 7 && \"$.type\" == 'A'"), document, counting));
+        assertEquals(1, trees.get());
+    }
+
+    private static Object outcome(Supplier<Boolean> evaluation) {
+        try {
+            return evaluation.get();
+        }
+        catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    @Test
+    void testJsonNodeAccessor() {
+        val node = mapper.valueToTree(Map.of("type", "A", "amount", 20));
+        val rule = engine.parse("'/type' == 'A' && \"$.amount\" > 10");
+        assertTrue(engine.evaluate(rule, (JsonNode) node, JsonNodeAccessor.INSTANCE));
+        assertTrue(engine.evaluate(engine.ruleSet(List.of(rule)), (JsonNode) node, JsonNodeAccessor.INSTANCE).get(0));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.stream.IntStream;
+
+/**
+ * Compares evaluation of the sample rules against documents serialized as json text, Smile and CBOR
+ */
+public class DocumentFormatPerfTest extends BenchmarkTest {
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+        @Param({"jsonpointer.txt", "jsonpath.txt"})
+        private String rulesFile;
+
+        @Param({"JSON", "SMILE", "CBOR"})
+        private DocumentFormat format;
+
+        private HopeLangEngine hopeLangEngine;
+        private CompiledRuleList rules;
+        private ObjectMapper formatMapper;
+        private byte[] document;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            hopeLangEngine = HopeLangEngine.builder()
+                    .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+                    .build();
+            rules = hopeLangEngine.compile(Files.readAllLines(Paths.get("src/test/resources/samples/" + rulesFile))
+                                                   .stream()
+                                                   .map(hopeLangEngine::parse)
+                                                   .toList());
+            formatMapper = switch (format) {
+                case JSON -> mapper;
+                case SMILE -> new ObjectMapper(new SmileFactory());
+                case CBOR -> new ObjectMapper(new CBORFactory());
+            };
+            //Fields read by the sample rules, along with a payload the rules do not read
+            final var node = mapper.createObjectNode()
+                    .put("AAAAAAAAA", "UUUUUUU")
+                    .put("BBBBBBBBB", "NNNNN")
+                    .put("CCCCCCCC", "MMMMMMM")
+                    .put("DDDDDDDDDDD", "PPPPPPPPPPPP")
+                    .put("EEEEEEEEEE", "IPO")
+                    .put("FFFFFFFFF", "APGV")
+                    .put("GGGGGGGG", "FFF")
+                    .put("HHHHHHHHHHHHH", "IPO")
+                    .put("PPPPPPPPPP", "UUUUUUU")
+                    .put("OOOOOOOO", "NNNNN")
+                    .put("HHHHHHHH", "MMMMMMM")
+                    .put("YYYYYYYYYYYY", "PPPPPPPPPPPP")
+                    .put("TTTTTTTT", "IPO")
+                    .put("LLLLLLLLL", "APGV")
+                    .put("SSSSSSSS", "FFF")
+                    .put("ZZZZZZZZZZZZZZ", "IPO");
+            final var payload = node.putArray("payload");
+            IntStream.range(0, 50)
+                    .forEach(i -> payload.addObject()
+                            .put("id", i)
+                            .put("name", "item-" + i)
+                            .put("price", i * 1.5)
+                            .put("available", i % 2 == 0));
+            document = formatMapper.writeValueAsBytes(node);
+        }
+    }
+
+    @SneakyThrows
+    @Benchmark
+    public void testPerfStreamingEval(Blackhole blackhole, BenchmarkState state) {
+        blackhole.consume(state.hopeLangEngine.evaluate(state.rules, state.document, state.format));
+    }
+
+    @SneakyThrows
+    @Benchmark
+    public void testPerfTreeEval(Blackhole blackhole, BenchmarkState state) {
+        blackhole.consume(state.hopeLangEngine.evaluate(state.rules, state.formatMapper.readTree(state.document)));
+    }
+}
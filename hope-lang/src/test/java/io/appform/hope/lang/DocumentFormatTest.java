@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests evaluation of rules against documents serialized in binary formats
+ */
+class DocumentFormatTest {
+    private static final List<String> RULES = List.of(
+            "'/type' == 'A' && '/amount' > 10",
+            "'/nested/value' == 7 || '/nested/flag' == true",
+            "'/items/1/id' == 'b'",
+            "arr.contains_any('/tags', ['x', 'y']) == true",
+            "arr.len('/tags') == 2",
+            "pointer.exists('/nested/flag') == true",
+            "'/ratio' > 0.25 && '/big' > 10000000000",
+            "\"$.nested.value\" == 7 && \"$.type\" == 'A'",
+            "path.exists(\"$.items[1].id\") == true");
+
+    private static final List<String> DOCUMENTS = List.of(
+            "{ \"type\" : \"A\", \"amount\" : 20, \"nested\" : { \"value\" : 7, \"flag\" : false }, \"tags\" : [\"x\", \"z\"], "
+                    + "\"items\" : [ { \"id\" : \"a\" }, { \"id\" : \"b\" } ], \"ratio\" : 0.5, \"big\" : 20000000000 }",
+            "{ \"type\" : \"b\", \"amount\" : 5, \"nested\" : { \"value\" : 6, \"flag\" : true, \"x\" : [1, 2] }, "
+                    + "\"tags\" : [\"q\"], \"items\" : [ { \"id\" : \"b\" } ], \"ratio\" : 0.125, \"big\" : 5 }",
+            "{ \"type\" : null, \"amount\" : \"20\", \"nested\" : null, \"tags\" : null, \"items\" : {} }",
+            "[ \"zero\", 1 ]",
+            "{}");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HopeLangEngine engine = HopeLangEngine.builder()
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .build();
+
+    @ParameterizedTest
+    @EnumSource(DocumentFormat.class)
+    @SneakyThrows
+    void testParityWithTrees(DocumentFormat format) {
+        val parsed = RULES.stream().map(engine::parse).toList();
+        val compiled = engine.compile(parsed);
+        for (final String json : DOCUMENTS) {
+            val tree = mapper.readTree(json);
+            val document = encode(tree, format);
+            val expected = engine.evaluate(parsed, tree);
+            assertEquals(expected, engine.evaluate(parsed, document, format), json);
+            assertEquals(expected, engine.evaluate(compiled, document, format), json);
+            assertEquals(expected, engine.evaluate(compiled, ByteBuffer.wrap(document), format), json);
+            for (int i = 0; i < parsed.size(); i++) {
+                assertEquals(expected.get(i), engine.evaluate(parsed.get(i), document, format), RULES.get(i));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DocumentFormat.class)
+    @SneakyThrows
+    void testByteBuffers(DocumentFormat format) {
+        val rules = engine.compile(List.of(engine.parse("'/type' == 'A' && '/amount' > 10")));
+        val document = encode(mapper.valueToTree(Map.of("type", "A", "amount", 20)), format);
+
+        val sliced = ByteBuffer.allocate(document.length + 8);
+        sliced.position(3);
+        sliced.put(document);
+        sliced.flip().position(3);
+        assertEquals(List.of(true), engine.evaluate(rules, sliced.slice(), format));
+        assertEquals(List.of(true), engine.evaluate(rules, sliced, format));
+        assertEquals(3, sliced.position());
+
+        val direct = ByteBuffer.allocateDirect(document.length);
+        direct.put(document).flip();
+        assertEquals(List.of(true), engine.evaluate(rules, direct, format));
+        assertEquals(0, direct.position());
+        assertEquals(List.of(true), engine.evaluate(rules, direct, format));
+    }
+
+    @Test
+    @SneakyThrows
+    void testBinaryValues() {
+        val rule = engine.parse("pointer.exists('/data') == true && '/type' == 'A'");
+        val document = new ObjectMapper(new SmileFactory())
+                .writeValueAsBytes(Map.of("data", new byte[]{1, 2, 3}, "type", "A"));
+        assertTrue(engine.evaluate(rule, document, DocumentFormat.SMILE));
+    }
+
+    @SneakyThrows
+    static byte[] encode(JsonNode tree, DocumentFormat format) {
+        return switch (format) {
+            case JSON -> new ObjectMapper().writeValueAsBytes(tree);
+            case SMILE -> new ObjectMapper(new SmileFactory()).writeValueAsBytes(tree);
+            case CBOR -> new ObjectMapper(new CBORFactory()).writeValueAsBytes(tree);
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.streaming.DocumentProjection;
+import io.appform.hope.core.streaming.DocumentReferences;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests trees projected to the parts of documents read by rules
+ */
+class DocumentProjectionTest {
+    private static final List<String> RULES = List.of(
+            "\"$.store.book[*].price\" == \"$.store.book[*].price\"",
+            "arr.contains_any(\"$.store.book[*].author\", ['A', 'C']) == true",
+            "\"$.store.bicycle.color\" == 'red' && '/store/bicycle/price' > 10",
+            "'/items/2/id' == 'c' || \"$.items[1].id\" == 'b'",
+            "path.exists(\"$.flags.enabled\") == true",
+            "pointer.exists(\"/flags/disabled\") == true",
+            "arr.len(\"$.store.book[*].price\") == 3",
+            "'/matrix/1/cells/2/v' == 3 && '/matrix/2/cells/0/v' == 1",
+            "\"$.store.book[?(@.price > 10)].author\" == \"$.store.book[?(@.price > 10)].author\"");
+
+    private static final List<String> DOCUMENTS = List.of(
+            "{ \"store\" : { \"book\" : [ { \"author\" : \"A\", \"price\" : 8.95 }, { \"author\" : \"B\", \"price\" : 12.99 },"
+                    + " { \"author\" : \"C\", \"price\" : 22.99 } ], \"bicycle\" : { \"color\" : \"red\", \"price\" : 19.95 } },"
+                    + " \"items\" : [ { \"id\" : \"a\" }, { \"id\" : \"b\" }, { \"id\" : \"c\" }, { \"id\" : \"d\" } ],"
+                    + " \"flags\" : { \"enabled\" : true }, \"other\" : { \"big\" : [1, 2, 3, 4, 5] },"
+                    + " \"matrix\" : [ { \"cells\" : [] }, { \"cells\" : [ {}, { \"v\" : 2 }, { \"v\" : 3 } ] }, { \"cells\" : [ { \"v\" : 1 } ] } ] }",
+            "{ \"store\" : { \"book\" : [ { \"author\" : \"B\", \"price\" : 2 } ], \"bicycle\" : { \"color\" : \"blue\" } },"
+                    + " \"items\" : [ 1, [2], { \"id\" : \"c\" } ], \"flags\" : { \"disabled\" : null },"
+                    + " \"matrix\" : [ 1, { \"cells\" : [ { \"w\" : 3 }, { \"v\" : 2 }, { \"v\" : 3 } ] }, { \"x\" : [] } ] }",
+            "{ \"store\" : [ 1, 2 ], \"items\" : { \"2\" : { \"id\" : \"c\" }, \"1\" : { \"id\" : \"b\" } }, \"flags\" : 1 }",
+            "{ \"store\" : { \"book\" : { \"author\" : \"A\" } }, \"items\" : [] }",
+            "{}");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HopeLangEngine engine = HopeLangEngine.builder()
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .build();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "$.a.b[0]|/a/b/0",
+            "$.a[*].b|/a",
+            "$['a b'].c|/a b/c",
+            "$.a['b','c']|/a",
+            "$.a[?(@.x > 1)]|/a",
+            "$.a.length()|/a",
+            "$[2].x|/2/x",
+            "$.a[-1]|/a",
+            "$.a[1:2]|/a",
+    })
+    void testPrefixOf(String path, String prefix) {
+        assertEquals(JsonPointer.compile(prefix), DocumentProjection.prefixOf(path));
+    }
+
+    @Test
+    void testPrefixOfWholeDocument() {
+        assertNull(DocumentProjection.prefixOf("$"));
+        assertNull(DocumentProjection.prefixOf("$..author"));
+        assertNull(DocumentProjection.prefixOf("$[*].author"));
+        assertNull(DocumentProjection.prefixOf("$.a[?(@.x > $.limit)]"));
+        assertNull(DocumentProjection.prefixOf("$.a[?("));
+    }
+
+    @Test
+    @SneakyThrows
+    void testProjectedTree() {
+        val rules = List.of(engine.parse("'/items/2/id' == 'c'"),
+                            engine.parse("arr.len(\"$.store.book[*].author\") == 1"),
+                            engine.parse("'/store/bicycle' == '/store/bicycle'"));
+        val projected = engine.readTree(rules, DOCUMENTS.get(0).getBytes(StandardCharsets.UTF_8));
+        assertEquals(mapper.readTree("{ \"store\" : { \"book\" : [ { \"author\" : \"A\", \"price\" : 8.95 },"
+                                             + " { \"author\" : \"B\", \"price\" : 12.99 },"
+                                             + " { \"author\" : \"C\", \"price\" : 22.99 } ],"
+                                             + " \"bicycle\" : { \"color\" : \"red\", \"price\" : 19.95 } },"
+                                             + " \"items\" : [ {}, {}, { \"id\" : \"c\" } ] }"),
+                     projected);
+    }
+
+    @Test
+    @SneakyThrows
+    void testParityWithWholeDocument() {
+        val rules = RULES.stream()
+                .map(engine::parse)
+                .toList();
+        val compiled = engine.compile(rules);
+        assertNotNull(compiled.getDocumentReferences().getProjection());
+        for (final String json : DOCUMENTS) {
+            val bytes = json.getBytes(StandardCharsets.UTF_8);
+            val node = mapper.readTree(bytes);
+            val expected = engine.evaluate(rules, node);
+            assertEquals(expected, engine.evaluate(rules, engine.readTree(rules, bytes)), json);
+            assertEquals(expected, engine.evaluate(compiled, engine.readTree(compiled, new ByteArrayInputStream(bytes))), json);
+            assertEquals(expected, engine.evaluate(compiled, bytes), json);
+            for (int index = 0; index < rules.size(); index++) {
+                val rule = List.of(rules.get(index));
+                assertEquals(expected.get(index), engine.evaluate(rule, engine.readTree(rule, bytes)).get(0),
+                             RULES.get(index) + " " + json);
+            }
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testWholeDocument() {
+        for (final String rule : List.of("\"$..author\" == 'A'", "path.exists(str.lower('/path')) == true")) {
+            val rules = List.of(engine.parse(rule));
+            assertNull(DocumentReferences.of(rules).getProjection(), rule);
+            val bytes = DOCUMENTS.get(0).getBytes(StandardCharsets.UTF_8);
+            assertEquals(mapper.readTree(bytes), engine.readTree(rules, bytes), rule);
+        }
+    }
+}
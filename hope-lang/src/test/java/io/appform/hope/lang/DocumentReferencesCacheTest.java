@@ -0,0 +1,65 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import io.appform.hope.core.Evaluatable;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests caching of the parts of serialized documents read by parsed rules and rule lists
+ */
+class DocumentReferencesCacheTest {
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .build();
+
+    @Test
+    void testRuleReferencesCollectedOnce() {
+        val cache = new DocumentReferencesCache();
+        val rule = engine.parse("'/a' == 1 && '/b' == 2");
+        val references = cache.get(rule);
+        assertSame(references, cache.get(rule));
+        assertEquals(2, references.getPointers().size());
+        assertNotSame(references, cache.get(engine.parse("'/a' == 1 && '/b' == 2")));
+    }
+
+    @Test
+    void testChangedListCollectedAgain() {
+        val cache = new DocumentReferencesCache();
+        val rules = new ArrayList<Evaluatable>(List.of(engine.parse("'/a' == 1")));
+        val references = cache.get(rules);
+        assertSame(references, cache.get(rules));
+        assertEquals(1, references.getPointers().size());
+        rules.add(engine.parse("'/b' == 2"));
+        assertEquals(2, cache.get(rules).getPointers().size());
+    }
+
+    @Test
+    void testEvaluationWithChangedList() throws Exception {
+        val rules = new ArrayList<Evaluatable>(List.of(engine.parse("'/a' == 1")));
+        val json = "{ \"a\" : 1, \"b\" : 3 }".getBytes(StandardCharsets.UTF_8);
+        assertEquals(List.of(true), engine.evaluate(rules, json));
+        rules.add(engine.parse("'/b' == 3"));
+        assertEquals(List.of(true, true), engine.evaluate(rules, json));
+    }
+}
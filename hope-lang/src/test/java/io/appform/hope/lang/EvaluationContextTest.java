@@ -0,0 +1,193 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.StatelessHopeFunction;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests evaluation with contexts that are reused across documents
+ */
+class EvaluationContextTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final HopeLangEngine NESTING_ENGINE = HopeLangEngine.builder()
+            .registerFunction(NestedRule.class)
+            .build();
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testCallerOwnedContext(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val rules = List.of(engine.parse("str.upper('/name') == 'A' && '/amount' > 10"),
+                            engine.parse("str.upper('/name') == 'A' && \"$.amount\" <= 10"),
+                            engine.parse("arr.contains_any('/tags', '/blocked') == true"));
+        val ruleSet = engine.ruleSet(rules);
+        val context = engine.newContext();
+        for (final String json : List.of(
+                "{ \"name\" : \"a\", \"amount\" : 20, \"tags\" : [1], \"blocked\" : [1] }",
+                "{ \"name\" : \"b\", \"amount\" : 5, \"tags\" : [2], \"blocked\" : [1] }",
+                "{ \"name\" : \"a\", \"amount\" : 5, \"tags\" : [1, 2], \"blocked\" : [2] }",
+                "{ \"name\" : \"A\", \"amount\" : 11, \"tags\" : [], \"blocked\" : [] }")) {
+            val node = MAPPER.readTree(json);
+            assertEquals(engine.evaluate(rules, node), ruleSet.evaluate(context.reset(node)), json);
+            assertSame(node, context.getRootNode());
+        }
+    }
+
+    @Test
+    void testResetRequiresDocument() {
+        val context = NESTING_ENGINE.newContext();
+        assertNull(context.getRootNode());
+        assertThrows(IllegalArgumentException.class, () -> context.reset(null));
+    }
+
+    @Test
+    @SneakyThrows
+    void testNestedEvaluation() {
+        val rule = NESTING_ENGINE.compile("test.nested_rule('/inner') == true && '/outer' == 'yes'");
+        assertTrue(NESTING_ENGINE.evaluate(rule, MAPPER.readTree("{ \"inner\" : \"match\", \"outer\" : \"yes\" }")));
+        assertFalse(NESTING_ENGINE.evaluate(rule, MAPPER.readTree("{ \"inner\" : \"other\", \"outer\" : \"yes\" }")));
+        assertFalse(NESTING_ENGINE.evaluate(rule, MAPPER.readTree("{ \"inner\" : \"match\", \"outer\" : \"no\" }")));
+    }
+
+    @Test
+    @SneakyThrows
+    void testConcurrentEvaluation() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val rule = engine.compile("'/id' >= 1000 && str.lower('/name') == 'x'");
+        val executorService = Executors.newFixedThreadPool(4);
+        try {
+            val tasks = new ArrayList<Callable<Boolean>>();
+            for (int thread = 0; thread < 8; thread++) {
+                tasks.add(() -> {
+                    for (int id = 0; id < 2000; id++) {
+                        val node = MAPPER.readTree("{ \"id\" : " + id + ", \"name\" : \"X\" }");
+                        if (engine.evaluate(rule, node) != (id >= 1000)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+            }
+            for (val result : executorService.invokeAll(tasks)) {
+                assertTrue(result.get());
+            }
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testPooledContextIsNotTiedToEvaluator() {
+        val node = MAPPER.readTree("{}");
+        val seen = new ArrayList<Evaluator.EvaluationContext>();
+        val evaluators = new ArrayList<Evaluator>();
+        for (int i = 0; i < 2; i++) {
+            val engine = HopeLangEngine.builder()
+                    .registerFunction(CaptureContext.class)
+                    .build();
+            assertTrue(engine.evaluate(engine.parse("test.capture_context() == true"), node));
+            seen.add(CaptureContext.CAPTURED.get());
+            evaluators.add(CaptureContext.EVALUATOR.get());
+        }
+        //Both engines used the context pooled for this thread, which does not hold on to them after evaluation
+        assertSame(seen.get(0), seen.get(1));
+        assertNotSame(evaluators.get(0), evaluators.get(1));
+        assertNull(seen.get(0).getEvaluator());
+        assertNull(seen.get(0).getRootNode());
+    }
+
+    @Test
+    @SneakyThrows
+    void testPooledContextIsNotTiedToRuleList() {
+        val engine = HopeLangEngine.builder()
+                .registerFunction(CaptureContext.class)
+                .compilationMode(CompilationMode.CLOSURE)
+                .build();
+        val rules = engine.compile(List.of(
+                engine.parse("str.upper('/name') == 'A'"),
+                engine.parse("str.upper('/name') != 'B' && test.capture_context() == true")));
+        assertEquals(List.of(true, true), engine.evaluate(rules, MAPPER.readTree("{ \"name\" : \"a\" }")));
+        //The shared call to str.upper was held for the rule list during evaluation, but not after
+        assertTrue(CaptureContext.SHARED_RESULTS_OWNED.get());
+        assertFalse(CaptureContext.CAPTURED.get().getSharedResults().isOwned());
+    }
+
+    /**
+     * Records the context the function was evaluated with, and the evaluator and shared results it held at that time
+     */
+    @FunctionImplementation("test.capture_context")
+    public static class CaptureContext extends StatelessHopeFunction<BooleanValue> {
+        private static final ThreadLocal<Evaluator.EvaluationContext> CAPTURED = new ThreadLocal<>();
+        private static final ThreadLocal<Evaluator> EVALUATOR = new ThreadLocal<>();
+        private static final ThreadLocal<Boolean> SHARED_RESULTS_OWNED = new ThreadLocal<>();
+
+        @Override
+        public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
+            CAPTURED.set(evaluationContext);
+            EVALUATOR.set(evaluationContext.getEvaluator());
+            SHARED_RESULTS_OWNED.set(evaluationContext.getSharedResults().isOwned());
+            return new BooleanValue(true);
+        }
+    }
+
+    /**
+     * Evaluates another rule against a document built from its parameter, using the same engine
+     */
+    @FunctionImplementation("test.nested_rule")
+    public static class NestedRule extends StatelessHopeFunction<BooleanValue> {
+        private final Value arg;
+
+        public NestedRule(Value arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        @SneakyThrows
+        public BooleanValue apply(Evaluator.EvaluationContext evaluationContext) {
+            final JsonNode inner = MAPPER.readTree("{ \"value\" : \""
+                                                           + Converters.stringValue(evaluationContext, arg, "")
+                                                           + "\" }");
+            return new BooleanValue(NESTING_ENGINE.evaluate(NESTING_ENGINE.parse("'/value' == 'match'"), inner));
+        }
+    }
+}
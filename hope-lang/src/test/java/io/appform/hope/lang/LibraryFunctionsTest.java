@@ -97,7 +97,7 @@ class LibraryFunctionsTest {
         assertThrows(HopeTypeMismatchError.class, () -> evaluate(operator, node));
     }
 
-    private static Stream<Arguments> rulesWrongTypes() {
+    static Stream<Arguments> rulesWrongTypes() {
         return Stream.of(
                 Arguments.of("{ \"val\" : 29 }", "str.len(\"$.val\") == 3"),
                 Arguments.of("{ \"val\" : 29 }", "str.len('$.val') == 3"),
@@ -110,7 +110,7 @@ class LibraryFunctionsTest {
                         );
     }
 
-    private static Stream<Arguments> rulesNonExistentItems() {
+    static Stream<Arguments> rulesNonExistentItems() {
         return Stream.of(
                 Arguments.of("{\"needle\" : 2 }", "arr.in(\"$.needle\", \"$.haystack\") == true"),
                 Arguments.of("{\"needle\" : 2 }", "arr.in('$.needle', '$.haystack') == true"),
@@ -132,7 +132,7 @@ class LibraryFunctionsTest {
                 );
     }
 
-    private static Stream<Arguments> rules() {
+    static Stream<Arguments> rules() {
         final var dateTime = LocalDateTime.now();
         final long epochMilli = dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
         final long weekOfMonth = dateTime.get(WeekFields.of(Locale.getDefault()).weekOfMonth());
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.utils.LiteralSet;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.BooleanValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.values.NumericValue;
+import io.appform.hope.core.values.StringValue;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that array functions with literal arrays behave like the same arrays read from the payload
+ */
+class LiteralSetTest {
+    private static final List<String> ARRAYS = List.of(
+            "[1, 2, 3.5, 0]",
+            "[\"BANK\", \"UPI\", \"CARD\", \"BANK\"]",
+            "[true, 7, \"7\"]",
+            "[]");
+
+    private static final List<String> DOCUMENTS = List.of(
+            "{ \"one\" : 2, \"many\" : [2, 3.5] }",
+            "{ \"one\" : 0, \"many\" : [0, 1, 2, 3.5, 9] }",
+            "{ \"one\" : -0.0, \"many\" : [-0.0] }",
+            "{ \"one\" : \"UPI\", \"many\" : [\"UPI\", \"BANK\", \"CARD\"] }",
+            "{ \"one\" : \"upi\", \"many\" : [\"UPI\", \"BANK\", \"UPI\"] }",
+            "{ \"one\" : true, \"many\" : [true, \"7\", 7] }",
+            "{ \"one\" : \"7\", \"many\" : [false] }",
+            "{ \"one\" : 7, \"many\" : [] }");
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testLiteralMatchesPayload(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        for (final String array : ARRAYS) {
+            for (final String document : DOCUMENTS) {
+                val node = mapper.readTree(document.replace("}", ", \"list\" : " + array + " }"));
+                for (final String template : List.of("arr.in('/one', %s)",
+                                                     "arr.not_in('/one', %s)",
+                                                     "arr.contains_any('/many', %s)",
+                                                     "arr.contains_any(%s, '/many')",
+                                                     "arr.contains_all('/many', %s)",
+                                                     "arr.contains_all(%s, '/many')")) {
+                    val literalRule = engine.compile(String.format(template, array) + " == true");
+                    val payloadRule = engine.compile(String.format(template, "'/list'") + " == true");
+                    assertEquals(engine.evaluate(payloadRule, node),
+                                 engine.evaluate(literalRule, node),
+                                 template + " " + array + " " + node);
+                }
+            }
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testLargeBlockList() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val array = IntStream.range(0, 500)
+                .mapToObj(i -> "'M" + i + "'")
+                .collect(Collectors.joining(", ", "[", "]"));
+        val rule = engine.compile("arr.in('/merchant', " + array + ") == true");
+        assertTrue(engine.evaluate(rule, mapper.readTree("{ \"merchant\" : \"M499\" }")));
+        assertFalse(engine.evaluate(rule, mapper.readTree("{ \"merchant\" : \"M500\" }")));
+    }
+
+    @Test
+    void testLookup() {
+        val values = new ArrayList<Value>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(new NumericValue(i * 0.5));
+            values.add(new NumericValue(i * 0.5));
+        }
+        values.add(new NumericValue(Double.NaN));
+        values.add(new StringValue("0.0"));
+        values.add(new BooleanValue(false));
+        val literalSet = LiteralSet.of(new ArrayValue(values));
+        assertNotNull(literalSet);
+        assertEquals(1003, literalSet.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, literalSet.indexOf(i * 0.5));
+        }
+        assertTrue(literalSet.contains(0.0));
+        assertFalse(literalSet.contains(-0.0));
+        assertTrue(literalSet.contains(Double.NaN));
+        assertFalse(literalSet.contains(1000.0));
+        assertFalse(literalSet.contains(1));
+        assertTrue(literalSet.contains("0.0"));
+        assertFalse(literalSet.contains("0"));
+        assertTrue(literalSet.contains(false));
+        assertFalse(literalSet.contains(true));
+        assertFalse(literalSet.contains(null));
+    }
+
+    @Test
+    void testNotLiteral() {
+        assertNull(LiteralSet.of(new StringValue("a")));
+        assertNull(LiteralSet.of(new ArrayValue(new JsonPointerValue("/list"))));
+        assertNull(LiteralSet.of(new ArrayValue(List.of(new NumericValue(1),
+                                                        new StringValue(new JsonPointerValue("/a"))))));
+        assertNull(LiteralSet.of(new ArrayValue(List.of(new ArrayValue(List.of())))));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.compiler.CompilationMode;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bitset, word array, consumer and count based result APIs for multiple rules
+ */
+class MatchResultTest {
+    private static final int RULE_COUNT = 150;
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .compilationMode(CompilationMode.CLOSURE)
+            .build();
+
+    final List<Evaluatable> rules = IntStream.range(0, RULE_COUNT)
+            .mapToObj(i -> engine.parse(i % 3 == 0
+                                        ? "'/type' == 'T" + i % 4 + "' && '/value' > " + i
+                                        : "'/value' <= " + i))
+            .toList();
+
+    @Test
+    @SneakyThrows
+    void testResultsMatchBooleanList() {
+        val compiled = engine.compile(rules);
+        val ruleSet = engine.ruleSet(rules);
+        val bitSet = new BitSet();
+        val words = new long[3];
+        for (final JsonNode node : documents()) {
+            val expected = expected(node);
+
+            //Dirty reused results must be cleared
+            bitSet.set(0, 200);
+            engine.evaluate(rules, node, bitSet);
+            assertEquals(expected, bitSet);
+            bitSet.set(0, 200);
+            engine.evaluate(compiled, node, bitSet);
+            assertEquals(expected, bitSet);
+            bitSet.set(0, 200);
+            engine.evaluate(ruleSet, node, bitSet);
+            assertEquals(expected, bitSet);
+
+            Arrays.fill(words, -1L);
+            engine.evaluate(rules, node, words);
+            assertArrayEquals(Arrays.copyOf(expected.toLongArray(), 3), words);
+            Arrays.fill(words, -1L);
+            engine.evaluate(compiled, node, words);
+            assertArrayEquals(Arrays.copyOf(expected.toLongArray(), 3), words);
+            Arrays.fill(words, -1L);
+            engine.evaluate(ruleSet, node, words);
+            assertArrayEquals(Arrays.copyOf(expected.toLongArray(), 3), words);
+
+            val expectedIndices = expected.stream().boxed().toList();
+            assertEquals(expectedIndices, collect(consumer -> engine.forEachMatch(rules, node, consumer::add)));
+            assertEquals(expectedIndices, collect(consumer -> engine.forEachMatch(compiled, node, consumer::add)));
+            assertEquals(expectedIndices, collect(consumer -> engine.forEachMatch(ruleSet, node, consumer::add)));
+
+            assertEquals(expected.cardinality(), engine.countMatches(rules, node));
+            assertEquals(expected.cardinality(), engine.countMatches(compiled, node));
+            assertEquals(expected.cardinality(), engine.countMatches(ruleSet, node));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testWordsTooShort() {
+        val node = mapper.readTree("{ \"value\" : 1 }");
+        val words = new long[2];
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate(rules, node, words));
+        assertThrows(IllegalArgumentException.class, () -> engine.evaluate(engine.ruleSet(rules), node, words));
+    }
+
+    private BitSet expected(JsonNode node) {
+        val results = engine.evaluate(rules, node);
+        val expected = new BitSet();
+        for (int i = 0; i < results.size(); i++) {
+            if (Boolean.TRUE.equals(results.get(i))) {
+                expected.set(i);
+            }
+        }
+        return expected;
+    }
+
+    @SneakyThrows
+    private List<JsonNode> documents() {
+        val documents = new ArrayList<JsonNode>();
+        for (final int value : new int[]{-1, 0, 63, 64, 100, 149, 500}) {
+            documents.add(mapper.readTree("{ \"type\" : \"T" + value % 4 + "\", \"value\" : " + value + " }"));
+        }
+        return documents;
+    }
+
+    private static List<Integer> collect(Consumer<List<Integer>> evaluation) {
+        val indices = new ArrayList<Integer>();
+        evaluation.accept(indices);
+        return indices;
+    }
+}
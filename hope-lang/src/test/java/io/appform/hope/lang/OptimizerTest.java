@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.combiners.OrCombiner;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.functions.FunctionRegistry;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.operators.Greater;
+import io.appform.hope.core.optimizer.Optimizer;
+import io.appform.hope.core.values.FunctionValue;
+import io.appform.hope.core.visitors.Evaluator;
+import io.appform.hope.lang.parser.HopeParser;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.StringReader;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link Optimizer}
+ */
+class OptimizerTest {
+    final ObjectMapper mapper = new ObjectMapper();
+    final FunctionRegistry functionRegistry;
+    final Optimizer optimizer = new Optimizer();
+
+    OptimizerTest() {
+        this.functionRegistry = new FunctionRegistry();
+        functionRegistry.discover(Collections.emptyList());
+    }
+
+    @Test
+    void testFunctionFolding() {
+        assertEquals(parse("5 > '/x'"), optimize("math.add(2, 3) > '/x'"));
+        assertEquals(parse("'/code' == 'abc'"), optimize("'/code' == str.lower(\"ABC\")"));
+        assertEquals(parse("'/x' == 8"), optimize("'/x' == math.add(math.prod(2, 3), 2)"));
+    }
+
+    @Test
+    void testNonDeterministicFunctionsNotFolded() {
+        val optimized = optimize("date.now() > 5");
+        assertInstanceOf(Greater.class, optimized);
+        assertInstanceOf(FunctionValue.class, ((Greater) optimized).getLhs().getFunction());
+    }
+
+    @Test
+    void testFailingFunctionsNotFolded() {
+        assertEquals(parse("str.substr(\"abc\", 5, 7) == \"c\""), optimize("str.substr(\"abc\", 5, 7) == \"c\""));
+        assertEquals(parse("str.len(3) == 1"), optimize("str.len(3) == 1"));
+    }
+
+    @Test
+    void testConstants() {
+        assertTrue(Optimizer.isConstantTrue(optimize("math.add(2, 3) > 4")));
+        assertTrue(Optimizer.isConstantFalse(optimize("math.add(2, 3) > 5")));
+        assertTrue(Optimizer.isConstantTrue(optimize("'abc' == str.lower('ABC')")));
+        assertTrue(Optimizer.isConstantFalse(optimize("1 > 2 && '/x' == 1")));
+        assertTrue(Optimizer.isConstantTrue(optimize("2 > 1 || '/x' == 1")));
+        assertTrue(Optimizer.isConstantFalse(optimize("true & false")));
+    }
+
+    @Test
+    void testBooleanIdentities() {
+        val optimized = optimize("true & '/flag'");
+        assertInstanceOf(Equals.class, optimized);
+        assertEquals(optimized, optimize("false | '/flag'"));
+    }
+
+    @Test
+    void testCombiners() {
+        assertEquals(parse("'/x' == 1"), optimize("2 > 1 && '/x' == 1"));
+        val flattened = optimize("('/a' == 1 && ('/b' == 2 && '/c' == 3)) && '/d' == 4");
+        assertInstanceOf(AndCombiner.class, flattened);
+        assertEquals(4, ((AndCombiner) flattened).getExpressions().size());
+        val truncated = optimize("'/a' == 1 || 2 > 1 || '/b' == 2");
+        assertInstanceOf(OrCombiner.class, truncated);
+        assertEquals(2, ((OrCombiner) truncated).getExpressions().size());
+    }
+
+    @Test
+    void testEngineOptimizesOnlyWhenEnabled() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        assertEquals(parse("3 > 2"), engine.parse("3 > 2"));
+        assertEquals(parse("true & '/x'"), engine.parse("true & '/x'"));
+        val optimizingEngine = HopeLangEngine.builder()
+                .optimizationEnabled(true)
+                .build();
+        assertTrue(Optimizer.isConstantTrue(optimizingEngine.parse("3 > 2")));
+        assertEquals(optimize("true & '/x'"), optimizingEngine.parse("true & '/x'"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rules")
+    @SneakyThrows
+    void testLibraryRules(final String json, final String rule, boolean ignored) {
+        val node = mapper.readTree(json);
+        val evaluator = new Evaluator(new InjectValueErrorHandlingStrategy());
+        assertEquals(evaluator.evaluate(parse(rule), node), evaluator.evaluate(optimize(rule), node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val node = mapper.readTree(json);
+        assertEquals(expectation, new Evaluator().evaluate(optimize(rule), node));
+    }
+
+    @SneakyThrows
+    private Evaluatable parse(String rule) {
+        return new HopeParser(new StringReader(rule)).parse(functionRegistry);
+    }
+
+    private Evaluatable optimize(String rule) {
+        return optimizer.optimize(parse(rule));
+    }
+}
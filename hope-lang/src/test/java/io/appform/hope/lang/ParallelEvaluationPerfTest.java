@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Measures how parallel evaluation of the sample rules scales with the number of worker threads
+ */
+public class ParallelEvaluationPerfTest extends BenchmarkTest {
+    private static final List<String> VALUES = List.of("UUUUUUU", "SSSSSS", "NNNNN", "MMMMMMM", "IPO", "APGV", "FFF");
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+        @Param({"1", "2", "4", "8"})
+        private int workers;
+
+        private HopeLangEngine hopeLangEngine;
+        private CompiledRuleList rules;
+        private List<JsonNode> documents;
+        private ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            hopeLangEngine = HopeLangEngine.builder()
+                    .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+                    .build();
+            rules = hopeLangEngine.compile(Files.readAllLines(Paths.get("src/test/resources/samples/jsonpointer.txt"))
+                                                   .stream()
+                                                   .map(hopeLangEngine::parse)
+                                                   .toList());
+            documents = IntStream.range(0, 10_000)
+                    .mapToObj(i -> (JsonNode) mapper.createObjectNode()
+                            .put("AAAAAAAAA", VALUES.get(i % VALUES.size()))
+                            .put("BBBBBBBBB", VALUES.get((i / 7) % VALUES.size()))
+                            .put("CCCCCCCC", VALUES.get((i / 3) % VALUES.size()))
+                            .put("DDDDDDDDDDD", "PPPPPPPPPPPP")
+                            .put("EEEEEEEEEE", VALUES.get((i / 11) % VALUES.size()))
+                            .put("FFFFFFFFF", VALUES.get((i / 5) % VALUES.size()))
+                            .put("GGGGGGGG", VALUES.get((i / 2) % VALUES.size()))
+                            .put("HHHHHHHHHHHHH", "IPO"))
+                    .toList();
+            pool = new ForkJoinPool(workers);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void testPerfEvaluateAll(Blackhole blackhole, BenchmarkState state) {
+        blackhole.consume(state.hopeLangEngine.evaluateAll(state.rules, state.documents, state.pool));
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.batch.MatchMatrix;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that parallel evaluation returns the same results, in input order, as evaluating every document in turn
+ */
+class ParallelEvaluationTest {
+    private static final int RULE_COUNT = 70;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HopeLangEngine engine = HopeLangEngine.builder()
+            .build();
+
+    private final ExecutorService fixedPool = Executors.newFixedThreadPool(3);
+
+    private final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+
+    private final List<Evaluatable> rules = IntStream.range(0, RULE_COUNT)
+            .mapToObj(i -> engine.parse(i % 3 == 0
+                                        ? "'/type' == 'T" + i % 4 + "' && '/value' > " + i
+                                        : "'/value' <= " + i))
+            .toList();
+
+    private final List<JsonNode> documents = IntStream.range(0, 5000)
+            .mapToObj(i -> (JsonNode) mapper.createObjectNode()
+                    .put("type", "T" + i % 5)
+                    .put("value", i % 97))
+            .toList();
+
+    @AfterEach
+    void tearDown() {
+        fixedPool.shutdown();
+        forkJoinPool.shutdown();
+    }
+
+    @Test
+    void testResultsInInputOrder() {
+        val compiled = engine.compile(rules);
+        val ruleSet = engine.ruleSet(rules);
+        for (final MatchMatrix matrix : List.of(engine.evaluateAll(rules, documents, forkJoinPool),
+                                                engine.evaluateAll(compiled, documents, fixedPool),
+                                                engine.evaluateAll(ruleSet, documents.stream(), ForkJoinPool.commonPool()),
+                                                engine.evaluateAll(compiled, new ArrayDeque<>(documents), Runnable::run))) {
+            assertEquals(documents.size(), matrix.getDocumentCount());
+            assertEquals(RULE_COUNT, matrix.getRuleCount());
+            for (int document = 0; document < documents.size(); document++) {
+                val expected = engine.evaluate(rules, documents.get(document));
+                assertEquals(expected, matrix.results(document));
+                assertEquals(expected.stream().filter(Boolean::booleanValue).count(), matrix.countMatches(document));
+                assertEquals(matrix.matches(document).cardinality(), matrix.countMatches(document));
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> matrix.matches(0, RULE_COUNT));
+            assertThrows(IndexOutOfBoundsException.class, () -> matrix.matches(0, -1));
+        }
+        val empty = engine.evaluateAll(rules, List.of(), fixedPool);
+        assertEquals(0, empty.getDocumentCount());
+        assertThrows(IndexOutOfBoundsException.class, () -> empty.matches(0, 0));
+    }
+
+    @Test
+    void testErrorsArePropagated() {
+        val nodes = new ArrayList<>(documents);
+        nodes.set(4321, mapper.createObjectNode().put("type", "T0"));
+        val compiled = engine.compile(rules);
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluateAll(compiled, nodes, forkJoinPool));
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluateAll(compiled, nodes, fixedPool));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.exceptions.impl.HopeExpressionParserError;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests caching of expressions parsed by {@link HopeLangEngine#evaluate(String, com.fasterxml.jackson.databind.JsonNode)}
+ */
+class ParseCacheTest {
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @SneakyThrows
+    void testRepeatedExpressionParsedOnce() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.evaluate("'/amount' > 100", mapper.readTree("{ \"amount\" : 150 }")));
+            assertFalse(engine.evaluate("'/amount' > 100", mapper.readTree("{ \"amount\" : 50 }")));
+        }
+        val parseCache = engine.getParseCache();
+        assertEquals(1, parseCache.getMisses());
+        assertEquals(19, parseCache.getHits());
+        assertEquals(1, parseCache.size());
+    }
+
+    @Test
+    @SneakyThrows
+    void testParseErrorsNotCached() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val node = mapper.readTree("{ \"amount\" : 150 }");
+        assertThrows(HopeExpressionParserError.class, () -> engine.evaluate("'/amount' >", node));
+        assertThrows(HopeExpressionParserError.class, () -> engine.evaluate("'/amount' >", node));
+        assertEquals(0, engine.getParseCache().size());
+        assertEquals(2, engine.getParseCache().getMisses());
+    }
+
+    @Test
+    @SneakyThrows
+    void testDisabled() {
+        val engine = HopeLangEngine.builder()
+                .parseCacheSize(0)
+                .build();
+        val node = mapper.readTree("{ \"amount\" : 150 }");
+        assertTrue(engine.evaluate("'/amount' > 100", node));
+        assertTrue(engine.evaluate("'/amount' > 100", node));
+        assertEquals(0, engine.getParseCache().size());
+        assertEquals(2, engine.getParseCache().getMisses());
+        assertEquals(0, engine.getParseCache().getHits());
+        assertThrows(IllegalArgumentException.class, () -> new ParseCache(-1));
+    }
+
+    @Test
+    void testBoundedSize() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val parseCache = new ParseCache(4);
+        for (int i = 0; i < 10; i++) {
+            parseCache.get("'/amount' > " + i, engine::parse);
+        }
+        assertEquals(4, parseCache.size());
+        assertEquals(6, parseCache.getEvictions());
+        assertEquals(10, parseCache.getMisses());
+        val parsed = parseCache.get("'/amount' > 9", engine::parse);
+        assertEquals(1, parseCache.getHits());
+        assertSame(parsed, parseCache.get("'/amount' > 9", engine::parse));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEvicted() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val parseCache = new ParseCache(2);
+        val first = parseCache.get("'/a' == 1", engine::parse);
+        parseCache.get("'/b' == 1", engine::parse);
+        assertSame(first, parseCache.get("'/a' == 1", engine::parse));
+        parseCache.get("'/c' == 1", engine::parse);
+        assertSame(first, parseCache.get("'/a' == 1", engine::parse));
+        assertEquals(1, parseCache.getEvictions());
+        //'/b' was the least recently used when '/c' was added
+        parseCache.get("'/b' == 1", engine::parse);
+        assertEquals(4, parseCache.getMisses());
+        assertEquals(2, parseCache.getHits());
+        assertEquals(2, parseCache.size());
+    }
+
+    @Test
+    @SneakyThrows
+    void testConcurrentEvaluation() {
+        val engine = HopeLangEngine.builder()
+                .parseCacheSize(64)
+                .build();
+        val executor = Executors.newFixedThreadPool(4);
+        try {
+            val tasks = new ArrayList<Callable<Boolean>>();
+            for (int task = 0; task < 8; task++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        val node = mapper.readTree("{ \"amount\" : " + i + " }");
+                        if ((i >= 100) != engine.evaluate("'/amount' >= 100", node)) {
+                            return false;
+                        }
+                        engine.evaluate("'/amount' >= " + i % 128, node);
+                    }
+                    return true;
+                });
+            }
+            for (final Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertTrue(result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+        val parseCache = engine.getParseCache();
+        assertTrue(parseCache.size() <= 64);
+        assertEquals(16_000, parseCache.getHits() + parseCache.getMisses());
+        assertTrue(parseCache.getEvictions() > 0);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Parse throughput for the sample rules, one rule per operation, so scores are in rules per second. Optimization is
+ * disabled to measure the parser alone.
+ */
+public class ParsePerfTest extends BenchmarkTest {
+
+    @State(Scope.Thread)
+    public static class BenchmarkState {
+        @Param({"jsonpointer.txt", "jsonpath.txt"})
+        private String rulesFile;
+
+        private List<String> rules;
+        private HopeLangEngine hopeLangEngine;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            hopeLangEngine = HopeLangEngine.builder()
+                    .optimizationEnabled(false)
+                    .build();
+            rules = Files.readAllLines(Paths.get("src/test/resources/samples/" + rulesFile));
+        }
+
+        private String nextRule() {
+            final String rule = rules.get(next);
+            next = next + 1 == rules.size() ? 0 : next + 1;
+            return rule;
+        }
+    }
+
+    @SneakyThrows
+    @Benchmark
+    public void testParse(Blackhole blackhole, BenchmarkState state) {
+        blackhole.consume(state.hopeLangEngine.parse(state.nextRule()));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.exceptions.impl.HopeExpressionParserError;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests reuse of parsers across rules and threads
+ */
+class ParserReuseTest {
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .optimizationEnabled(false)
+            .build();
+
+    @Test
+    void testParseAfterError() {
+        val expected = engine.parse("'/a' == 'x' && ('/b' > 2 || '/c' != true)");
+        assertThrows(HopeExpressionParserError.class, () -> engine.parse("'/a' == 'x' && ('/b' > 2"));
+        assertThrows(HopeExpressionParserError.class, () -> engine.parse("'/a' == 'x"));
+        assertEquals(expected, engine.parse("'/a' == 'x' && ('/b' > 2 || '/c' != true)"));
+    }
+
+    @Test
+    void testQuotesStripped() {
+        assertEquals(engine.parse("\"/a\" == \"it's\""), engine.parse("'/a' == \"it's\""));
+        assertEquals(engine.parse("\"$.a\" == 'say \"hi\"'"), engine.parse("'$.a' == 'say \"hi\"'"));
+    }
+
+    @Test
+    void testIncompleteCombinerIgnored() {
+        //Input after a combiner that is not followed by a complete expression has always been ignored
+        assertEquals(engine.parse("'/a' == 1"), engine.parse("'/a' == 1 && '/b' 5"));
+        assertThrows(HopeExpressionParserError.class, () -> engine.parse("('/a' == 1 && '/b' 5)"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testConcurrentParsing() {
+        val rules = new ArrayList<String>();
+        rules.addAll(Files.readAllLines(Paths.get("src/test/resources/samples/jsonpointer.txt")));
+        rules.addAll(Files.readAllLines(Paths.get("src/test/resources/samples/jsonpath.txt")));
+        val expected = rules.stream()
+                .map(engine::parse)
+                .toList();
+        val executor = Executors.newFixedThreadPool(4);
+        try {
+            val tasks = new ArrayList<Callable<List<Evaluatable>>>();
+            for (int task = 0; task < 8; task++) {
+                tasks.add(() -> rules.stream()
+                        .map(engine::parse)
+                        .toList());
+            }
+            for (val result : executor.invokeAll(tasks)) {
+                assertEquals(expected, result.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.appform.hope.core.BinaryOperator;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.combiners.AndCombiner;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.operators.Equals;
+import io.appform.hope.core.values.EvaluatableValue;
+import io.appform.hope.core.values.JsonPathValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests slot based caching of paths and pointers and lazy creation of the JsonPath context
+ */
+class PathSlotTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void testSlotsAreAssignedPerRule() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        assertEquals(-1, new JsonPointerValue("/slot/a").getSlot());
+        assertEquals(-1, new JsonPathValue("$.slot.a").getSlot());
+        assertEquals(new JsonPointerValue("/slot/a"), new JsonPointerValue("/slot/a"));
+        val rule = (AndCombiner) engine.parse("'/slot/a' == 1 && '/slot/b' == 2 && '/slot/a' < 3 && \"$.slot.c\" == 4");
+        assertEquals(List.of(0, 1, 0, 0), rule.getExpressions()
+                .stream()
+                .map(expression -> ((BinaryOperator<?>) expression).getLhs())
+                .map(PathSlotTest::slot)
+                .toList());
+        //Slots of every rule start from the beginning
+        val other = (Equals) engine.parse("'/slot/z' == 1");
+        assertEquals(0, slot(other.getLhs()));
+    }
+
+    @Test
+    void testSlotsAreAssignedAcrossRuleLists() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val first = (Equals) engine.parse("'/list/a' == 1");
+        val second = (Equals) engine.parse("'/list/b' == 1");
+        val third = (Equals) engine.parse("'/list/a' == 2");
+        engine.ruleSet(List.of(first, second, third));
+        assertEquals(List.of(0, 1, 0), Stream.of(first, second, third)
+                .map(rule -> slot(rule.getLhs()))
+                .toList());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testRulesSharedBetweenListsWithDifferentSlots(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val shared = engine.parse("'/b' == 2");
+        val first = engine.compile(List.of(engine.parse("'/a' == 1"), shared));
+        val node = MAPPER.readTree("{ \"a\" : 1, \"b\" : 2, \"c\" : 4 }");
+        val json = MAPPER.writeValueAsBytes(node);
+        assertEquals(List.of(true, true), engine.evaluate(first, json));
+        //Gives the shared rule slot 0, which the first list uses for '/a'
+        val second = engine.ruleSet(List.of(shared, engine.parse("'/c' == 3")));
+        val context = engine.newContext();
+        assertEquals(List.of(true, true), engine.evaluate(first, node));
+        assertEquals(List.of(true, false), second.evaluate(context.reset(node)));
+        assertEquals(List.of(true, true), engine.evaluate(first, json));
+        assertEquals(List.of(true, false), engine.evaluate(second, node));
+    }
+
+    private static int slot(Value value) {
+        if (value instanceof EvaluatableValue<?> evaluatableValue) {
+            return slot(null != evaluatableValue.getPointerValue()
+                        ? evaluatableValue.getPointerValue()
+                        : evaluatableValue.getPathValue());
+        }
+        return value instanceof JsonPointerValue pointer
+               ? pointer.getSlot()
+               : ((JsonPathValue) value).getSlot();
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testPointerOnlyRulesSkipJsonPath(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val rule = engine.compile("'/type' == 'A' && '/amount' > 10 && '/amount' < 100");
+        val context = engine.newContext();
+        assertTrue(rule.evaluate(context.reset(MAPPER.readTree("{ \"type\" : \"A\", \"amount\" : 20 }"))));
+        assertFalse(context.hasJsonContext());
+        assertEquals(0, context.getJsonPathEvalCache().size());
+        assertEquals(2, context.getJsonPointerNodes().size());
+        assertEquals(Map.of("/type", TextNode.valueOf("A"), "/amount", IntNode.valueOf(20)),
+                     context.getJsonPointerEvalCache());
+        assertFalse(rule.evaluate(context.reset(MAPPER.readTree("{ \"type\" : \"A\", \"amount\" : 200 }"))));
+        assertFalse(rule.evaluate(context.reset(MAPPER.readTree("{ \"type\" : \"B\", \"amount\" : 20 }"))));
+        assertFalse(context.hasJsonContext());
+        assertEquals(Map.of("/type", TextNode.valueOf("B")), context.getJsonPointerEvalCache());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testPathRulesCreateJsonContext(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val context = engine.newContext();
+        for (val rule : List.of(engine.compile("\"$.type\" == 'A' && '/amount' > 10"),
+                                engine.compile("path.exists(\"$.type\") == true && '/amount' > 10"))) {
+            assertTrue(rule.evaluate(context.reset(MAPPER.readTree("{ \"type\" : \"A\", \"amount\" : 20 }"))));
+            assertTrue(context.hasJsonContext());
+            assertFalse(rule.evaluate(context.reset(MAPPER.readTree("{ \"type\" : \"B\", \"amount\" : 5 }"))));
+            assertFalse(rule.evaluate(context.reset(MAPPER.readTree("{ \"type\" : \"A\", \"amount\" : 5 }"))));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.utils.PatternCache;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests compilation of regexes used by str.match
+ */
+class PatternCacheTest {
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testLiteralRegexCompiledAtParseTime(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val rule = engine.compile("str.match('^[a-z]+@bank$', '/vpa') == true");
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.evaluate(rule, mapper.readTree("{ \"vpa\" : \"abc@bank\" }")));
+            assertFalse(engine.evaluate(rule, mapper.readTree("{ \"vpa\" : \"abc@bank1\" }")));
+        }
+        assertEquals(0, engine.getPatternCache().getMisses());
+        assertEquals(0, engine.getPatternCache().getHits());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testPayloadRegexCached(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val rule = engine.compile("str.match('/regex', '/vpa') == true");
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.evaluate(rule, mapper.readTree("{ \"regex\" : \"^a.*\", \"vpa\" : \"abc\" }")));
+            assertFalse(engine.evaluate(rule, mapper.readTree("{ \"regex\" : \"^b.*\", \"vpa\" : \"abc\" }")));
+        }
+        val patternCache = engine.getPatternCache();
+        assertEquals(2, patternCache.getMisses());
+        assertEquals(18, patternCache.getHits());
+        assertEquals(2, patternCache.size());
+    }
+
+    @Test
+    @SneakyThrows
+    void testInvalidRegexFailsOnEvaluation() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val literal = engine.parse("str.match('[a-', '/vpa') == true");
+        assertThrows(PatternSyntaxException.class,
+                     () -> engine.evaluate(literal, mapper.readTree("{ \"vpa\" : \"abc\" }")));
+        val payload = engine.parse("str.match('/regex', '/vpa') == true");
+        assertThrows(PatternSyntaxException.class,
+                     () -> engine.evaluate(payload, mapper.readTree("{ \"regex\" : \"[a-\", \"vpa\" : \"abc\" }")));
+        assertEquals(0, engine.getPatternCache().size());
+    }
+
+    @Test
+    void testBoundedSize() {
+        val patternCache = new PatternCache(4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(patternCache.get("a{" + i + "}").matcher("a".repeat(i)).matches());
+        }
+        assertEquals(4, patternCache.size());
+        assertEquals(6, patternCache.getEvictions());
+        assertEquals(10, patternCache.getMisses());
+        patternCache.get("a{9}");
+        assertEquals(1, patternCache.getHits());
+    }
+
+    @Test
+    void testDisabled() {
+        val patternCache = new PatternCache(0);
+        patternCache.get("a+");
+        patternCache.get("a+");
+        assertEquals(0, patternCache.size());
+        assertEquals(2, patternCache.getMisses());
+        assertThrows(IllegalArgumentException.class, () -> new PatternCache(-1));
+    }
+}
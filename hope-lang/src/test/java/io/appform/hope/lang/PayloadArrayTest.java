@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.exceptions.impl.HopeTypeMismatchError;
+import io.appform.hope.core.utils.PayloadArray;
+import io.appform.hope.core.values.ArrayValue;
+import io.appform.hope.core.values.JsonPointerValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests array functions on arrays that are read from the payload on both sides
+ */
+class PayloadArrayTest {
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testSetOperations(CompilationMode compilationMode) {
+        val engine = HopeLangEngine.builder()
+                .compilationMode(compilationMode)
+                .build();
+        val node = mapper.readTree("{ \"tags\" : " + tags(1000) + ", \"some\" : [\"t5\", \"t999\", \"t5\"], "
+                                           + "\"other\" : [\"t5\", \"x\"], \"mixed\" : [1, \"1\", true, 2.5], "
+                                           + "\"numbers\" : [1.0, 2.5], \"empty\" : [], \"tag\" : \"t42\" }");
+        val expectations = List.of(
+                List.of("arr.contains_all('/tags', '/some')", true),
+                List.of("arr.contains_all('/tags', '/other')", false),
+                List.of("arr.contains_all('/some', '/tags')", false),
+                List.of("arr.contains_all('/tags', '/empty')", true),
+                List.of("arr.contains_all('/mixed', '/numbers')", true),
+                List.of("arr.contains_any('/tags', '/other')", true),
+                List.of("arr.contains_any('/other', '/tags')", true),
+                List.of("arr.contains_any('/mixed', '/tags')", false),
+                List.of("arr.contains_any('/empty', '/tags')", false),
+                List.of("arr.contains_any(\"$.numbers\", \"$.mixed\")", true),
+                List.of("arr.in('/tag', '/tags')", true),
+                List.of("arr.in('/tag', '/some')", false),
+                List.of("arr.not_in('/tag', '/tags')", false),
+                List.of("arr.not_in('/tag', '/other')", true));
+        val rules = expectations.stream()
+                .map(expectation -> engine.parse(expectation.get(0) + " == true"))
+                .toList();
+        val expected = expectations.stream()
+                .map(expectation -> (Boolean) expectation.get(1))
+                .toList();
+        assertEquals(expected, engine.evaluate(rules, node));
+        assertEquals(expected, engine.evaluate(engine.compile(rules), node));
+        for (int i = 0; i < rules.size(); i++) {
+            assertEquals(expected.get(i), engine.evaluate(engine.compile(rules.get(i)), node), rules.get(i).toString());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testErrorsUnchanged() {
+        val engine = HopeLangEngine.builder()
+                .build();
+        val node = mapper.readTree("{ \"tags\" : [\"a\"], \"withNull\" : [\"a\", null], \"text\" : \"a\" }");
+        assertThrows(HopeMissingValueError.class,
+                     () -> engine.evaluate("arr.contains_any('/tags', '/missing') == true", node));
+        assertThrows(HopeTypeMismatchError.class,
+                     () -> engine.evaluate("arr.contains_all('/text', '/tags') == true", node));
+        assertThrows(UnsupportedOperationException.class,
+                     () -> engine.evaluate("arr.contains_any('/tags', '/withNull') == true", node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testResolvedOncePerContext() {
+        val node = mapper.readTree("{ \"tags\" : " + tags(20) + " }");
+        val evaluationContext = Evaluator.EvaluationContext.builder()
+                .rootNode(node)
+                .evaluator(new Evaluator())
+                .build();
+        val payloadArray = PayloadArray.resolve(evaluationContext, new JsonPointerValue("/tags"));
+        assertNotNull(payloadArray);
+        assertEquals(20, payloadArray.size());
+        assertSame(payloadArray,
+                   PayloadArray.resolve(evaluationContext, new ArrayValue(new JsonPointerValue("/tags"))));
+        assertEquals(1, evaluationContext.getPayloadArrays().size());
+        assertTrue(payloadArray.contains("t19"));
+        assertFalse(payloadArray.contains("t20"));
+        assertNull(PayloadArray.resolve(evaluationContext, new JsonPointerValue("/missing")));
+    }
+
+    private static String tags(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> "\"t" + i + "\"")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
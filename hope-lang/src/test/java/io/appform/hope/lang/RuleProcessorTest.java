@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.flow.Match;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the reactive processor stage
+ */
+class RuleProcessorTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HopeLangEngine engine = HopeLangEngine.builder()
+            .build();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "hope-eval"));
+
+    private final List<Evaluatable> rules = List.of(
+            engine.parse("'/value' > 50"),
+            engine.parse("'/type' == 'A'"),
+            engine.parse("'/type' == 'B' && '/value' < 10"));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void testMatchesInOrder() {
+        val documents = documents(1000);
+        val processor = engine.processor(rules, executor, 16);
+        val subscriber = new CollectingSubscriber(7);
+        processor.subscribe(subscriber);
+        try (val publisher = new SubmissionPublisher<JsonNode>()) {
+            publisher.subscribe(processor);
+            documents.forEach(publisher::submit);
+        }
+        subscriber.done.get(10, TimeUnit.SECONDS);
+        val expected = new ArrayList<Match>();
+        for (int i = 0; i < documents.size(); i++) {
+            val results = engine.evaluate(rules, documents.get(i));
+            val matched = IntStream.range(0, results.size()).filter(results::get).toArray();
+            if (matched.length > 0) {
+                expected.add(new Match(i, documents.get(i), matched));
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, subscriber.matches);
+        assertTrue(subscriber.threads.stream().allMatch("hope-eval"::equals));
+    }
+
+    @Test
+    @SneakyThrows
+    void testDemandIsHonored() {
+        val upstreamRequested = new AtomicLong();
+        val processor = engine.processor(rules, executor, 8);
+        val subscriber = new CollectingSubscriber(0);
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                upstreamRequested.addAndGet(n);
+            }
+
+            @Override
+            public void cancel() {
+                //Not needed
+            }
+        });
+        awaitExecutor();
+        assertEquals(0, upstreamRequested.get());
+
+        subscriber.subscription.request(1);
+        awaitExecutor();
+        assertEquals(8, upstreamRequested.get());
+        //Matches the second rule
+        processor.onNext(mapper.createObjectNode().put("type", "A").put("value", 1));
+        processor.onNext(mapper.createObjectNode().put("type", "A").put("value", 2));
+        awaitExecutor();
+        assertEquals(1, subscriber.matches.size());
+        //No demand left, nothing more requested from upstream even though the batch is not used up
+        assertEquals(8, upstreamRequested.get());
+
+        subscriber.subscription.request(1);
+        awaitExecutor();
+        assertEquals(2, subscriber.matches.size());
+        assertEquals(1, subscriber.matches.get(1).getSequence());
+        assertArrayEquals(new int[]{1}, subscriber.matches.get(1).getRules());
+        processor.onComplete();
+        subscriber.done.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @SneakyThrows
+    void testEvaluationErrorsCancelUpstream() {
+        val cancelled = new AtomicBoolean();
+        val processor = engine.processor(rules, executor);
+        val subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        processor.subscribe(subscriber);
+        processor.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                //Items are pushed by the test
+            }
+
+            @Override
+            public void cancel() {
+                cancelled.set(true);
+            }
+        });
+        processor.onNext(mapper.createObjectNode().put("type", "A"));
+        val error = assertThrows(Exception.class, () -> subscriber.done.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(HopeMissingValueError.class, error.getCause());
+        assertTrue(cancelled.get());
+
+        val second = new CollectingSubscriber(1);
+        processor.subscribe(second);
+        val rejected = assertThrows(Exception.class, () -> second.done.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, rejected.getCause());
+    }
+
+    @SneakyThrows
+    private void awaitExecutor() {
+        executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+    }
+
+    private List<JsonNode> documents(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> (JsonNode) mapper.createObjectNode()
+                        .put("type", i % 7 == 0 ? "A" : "B")
+                        .put("value", i % 101))
+                .toList();
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<Match> {
+        private final long batch;
+        private final List<Match> matches = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        private long pending;
+
+        private CollectingSubscriber(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (batch > 0) {
+                pending = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onNext(Match item) {
+            matches.add(item);
+            threads.add(Thread.currentThread().getName());
+            if (batch > 0 && batch != Long.MAX_VALUE && 0 == --pending) {
+                pending = batch;
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+}
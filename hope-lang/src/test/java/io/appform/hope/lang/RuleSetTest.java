@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Evaluatable;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.exceptions.impl.HopeMissingValueError;
+import io.appform.hope.core.exceptions.impl.HopeTypeMismatchError;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that indexed rule sets return the same results as evaluating every rule in order
+ */
+class RuleSetTest {
+    private static final List<String> DOCUMENTS = List.of(
+            "{ \"providerType\" : \"P1\", \"instrument\" : \"I3\", \"amount\" : 250, \"code\" : 3, \"flag\" : true }",
+            "{ \"providerType\" : \"P2\", \"instrument\" : \"I2\", \"amount\" : 950, \"code\" : 3.0 }",
+            "{ \"providerType\" : \"P4\", \"instrument\" : \"I0\", \"amount\" : 10, \"flag\" : false }",
+            "{ \"providerType\" : \"P9\", \"instrument\" : \"I3\", \"amount\" : 999 }",
+            "{ \"providerType\" : null, \"instrument\" : \"I3\", \"amount\" : 300 }",
+            "{ \"providerType\" : [\"P1\"], \"instrument\" : \"I1\", \"amount\" : 300 }",
+            "{ \"providerType\" : { \"id\" : \"P1\" }, \"amount\" : 300, \"code\" : \"3\" }",
+            "{ \"instrument\" : \"I4\", \"amount\" : 500 }",
+            "{ \"providerType\" : \"P3\", \"instrument\" : \"I1\", \"amount\" : \"300\", \"code\" : 2 }",
+            "{ \"providerType\" : \"P0\", \"instrument\" : \"I0\", \"amount\" : null, \"code\" : 1.5 }",
+            "{ \"providerType\" : \"P0\", \"instrument\" : \"I0\", \"amount\" : 120.5, \"code\" : 0 }",
+            "{ \"providerType\" : \"P1\", \"instrument\" : \"I2\", \"amount\" : 126, \"code\" : 7 }",
+            "{}");
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .build();
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testCatalogParity(CompilationMode compilationMode) {
+        val lenientEngine = HopeLangEngine.builder()
+                .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+                .compilationMode(compilationMode)
+                .build();
+        val rules = catalog(lenientEngine);
+        val ruleSet = lenientEngine.ruleSet(rules);
+        assertEquals(rules.size(), ruleSet.size());
+        assertTrue(ruleSet.getIndexedRuleCount() > rules.size() / 2);
+        for (final String json : DOCUMENTS) {
+            val node = mapper.readTree(json);
+            val expected = lenientEngine.evaluate(rules, node);
+            assertEquals(expected, lenientEngine.evaluate(ruleSet, node), json);
+            assertEquals(lenientEngine.evaluateFirst(rules, node), lenientEngine.evaluateFirst(ruleSet, node), json);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testEvaluateFirstReturnsLowestIndex() {
+        val rules = List.of(
+                engine.parse("'/type' == 'A' && '/amount' > 100"),
+                engine.parse("'/amount' > 50"),
+                engine.parse("'/type' == 'A'"),
+                engine.parse("'/type' == 'B'"));
+        val ruleSet = engine.ruleSet(rules);
+        assertEquals(OptionalInt.of(1), engine.evaluateFirst(ruleSet, mapper.readTree("{ \"type\" : \"A\", \"amount\" : 60 }")));
+        assertEquals(OptionalInt.of(0), engine.evaluateFirst(ruleSet, mapper.readTree("{ \"type\" : \"A\", \"amount\" : 160 }")));
+        assertEquals(OptionalInt.of(3), engine.evaluateFirst(ruleSet, mapper.readTree("{ \"type\" : \"B\", \"amount\" : 10 }")));
+        assertEquals(OptionalInt.empty(), engine.evaluateFirst(ruleSet, mapper.readTree("{ \"type\" : \"C\", \"amount\" : 10 }")));
+    }
+
+    @Test
+    @SneakyThrows
+    void testErrorsMatchLinearScan() {
+        val rules = IntStream.range(0, 20)
+                .mapToObj(i -> engine.parse("'/providerType' == 'P" + i % 5 + "' && '/instrument' == 'I" + i % 3 + "'"))
+                .toList();
+        val ruleSet = engine.ruleSet(rules);
+        //Every rule is rejected by its first check before the missing instrument is read
+        val otherProvider = mapper.readTree("{ \"providerType\" : \"X\" }");
+        assertEquals(engine.evaluate(rules, otherProvider), engine.evaluate(ruleSet, otherProvider));
+        assertEquals(OptionalInt.empty(), engine.evaluateFirst(ruleSet, otherProvider));
+        val missingInstrument = mapper.readTree("{ \"providerType\" : \"P1\" }");
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluate(rules, missingInstrument));
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluate(ruleSet, missingInstrument));
+        val missingProvider = mapper.readTree("{ \"instrument\" : \"I1\" }");
+        assertThrows(HopeMissingValueError.class, () -> engine.evaluateFirst(ruleSet, missingProvider));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val node = mapper.readTree(json);
+        val ruleSet = engine.ruleSet(List.of(engine.parse(rule)));
+        assertEquals(List.of(expectation), engine.evaluate(ruleSet, node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testRangeTiers() {
+        val rules = IntStream.range(0, 1000)
+                .mapToObj(i -> engine.parse("'/amount' >= " + i * 10 + " && '/amount' < " + (i + 1) * 10
+                                                    + " && '/currency' == 'INR'"))
+                .toList();
+        val ruleSet = engine.ruleSet(rules);
+        assertEquals(1000, ruleSet.getIndexedRuleCount());
+        assertEquals(OptionalInt.of(555), engine.evaluateFirst(ruleSet, amount(5555)));
+        assertEquals(OptionalInt.of(556), engine.evaluateFirst(ruleSet, amount(5560)));
+        assertEquals(OptionalInt.of(0), engine.evaluateFirst(ruleSet, amount(0)));
+        assertEquals(OptionalInt.empty(), engine.evaluateFirst(ruleSet, amount(10000)));
+        assertEquals(OptionalInt.empty(), engine.evaluateFirst(ruleSet, amount(-1)));
+        for (final double amount : new double[]{0, 9.99, 10, 4242.5, 9999, 10000}) {
+            assertEquals(engine.evaluate(rules, amount(amount)), engine.evaluate(ruleSet, amount(amount)));
+        }
+        //Rejected on the amount before the missing currency is read
+        assertEquals(OptionalInt.empty(), engine.evaluateFirst(ruleSet, mapper.readTree("{ \"amount\" : -5 }")));
+        assertThrows(HopeMissingValueError.class,
+                     () -> engine.evaluateFirst(ruleSet, mapper.readTree("{ \"amount\" : 5 }")));
+        assertThrows(HopeMissingValueError.class,
+                     () -> engine.evaluateFirst(ruleSet, mapper.readTree("{ \"currency\" : \"INR\" }")));
+        assertThrows(HopeTypeMismatchError.class,
+                     () -> engine.evaluateFirst(ruleSet, mapper.readTree("{ \"amount\" : \"5\" }")));
+    }
+
+    @SneakyThrows
+    private JsonNode amount(double amount) {
+        return mapper.readTree("{ \"amount\" : " + amount + ", \"currency\" : \"INR\" }");
+    }
+
+    private static List<Evaluatable> catalog(HopeLangEngine engine) {
+        val rules = new ArrayList<Evaluatable>();
+        for (int i = 0; i < 300; i++) {
+            val rule = switch (i % 8) {
+                case 0 -> "'/providerType' == 'P" + i % 5 + "' && '/instrument' == 'I" + i % 4 + "' && '/amount' > " + i * 3;
+                case 1 -> "'/providerType' == 'P" + i % 5 + "' && ('/instrument' == 'I" + i % 4 + "' || '/amount' > " + i * 3 + ")";
+                case 2 -> "\"$.providerType\" == \"P" + i % 5 + "\" && '/code' == " + i % 4;
+                case 3 -> "'P" + i % 5 + "' == '/providerType' && '/flag' == " + (i % 2 == 0);
+                case 4 -> "'/amount' > " + i * 3;
+                case 5 -> "'/amount' >= " + i + " && '/amount' < " + (i + 40) + " && '/providerType' == 'P" + i % 5 + "'";
+                case 6 -> (i * 2) + " >= '/amount' && \"$.code\" > 1 && '/amount' != 15";
+                default -> "'/instrument' == 'I" + i % 4 + "' && '/providerType' != 'P" + i % 5 + "'";
+            };
+            rules.add(engine.parse(rule));
+        }
+        return rules;
+    }
+}
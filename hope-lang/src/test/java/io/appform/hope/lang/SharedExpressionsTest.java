@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.compiler.CompiledRuleList;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that rule lists compiled with shared sub-expressions behave exactly like interpreted rules
+ */
+class SharedExpressionsTest {
+    private static final AtomicInteger deterministicCalls = new AtomicInteger();
+    private static final AtomicInteger volatileCalls = new AtomicInteger();
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    final HopeLangEngine engine = HopeLangEngine.builder()
+            .registerFunction(CountedUpper.class)
+            .registerFunction(VolatileUpper.class)
+            .compilationMode(CompilationMode.CLOSURE)
+            .build();
+
+    final HopeLangEngine lenientEngine = HopeLangEngine.builder()
+            .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+            .compilationMode(CompilationMode.CLOSURE)
+            .build();
+
+    @BeforeEach
+    void resetCounters() {
+        deterministicCalls.set(0);
+        volatileCalls.set(0);
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.CoreEvalTest#rules")
+    @SneakyThrows
+    void testCoreRules(final String json, final String rule, boolean expectation) {
+        val node = mapper.readTree(json);
+        val parsed = engine.parse(rule);
+        val rules = List.of(parsed, parsed, engine.parse(rule + " || '/unknown' == 1"));
+        val compiled = engine.compile(rules);
+        assertEquals(List.of(expectation, expectation, expectation), engine.evaluate(compiled, node));
+        assertEquals(engine.evaluate(rules, node), engine.evaluate(compiled, node));
+    }
+
+    @ParameterizedTest
+    @MethodSource("io.appform.hope.lang.LibraryFunctionsTest#rules")
+    @SneakyThrows
+    void testLibraryRules(final String json, final String rule, boolean ignored) {
+        val node = mapper.readTree(json);
+        val parsed = lenientEngine.parse(rule);
+        val rules = List.of(parsed, lenientEngine.parse(rule), lenientEngine.parse(rule + " || '/unknown' == 1"));
+        val compiled = lenientEngine.compile(rules);
+        //Date based expectations are computed when the arguments are generated, so compare against the interpreter
+        assertEquals(lenientEngine.evaluate(rules, node), lenientEngine.evaluate(compiled, node));
+    }
+
+    @Test
+    @SneakyThrows
+    void testDeterministicCallsAreShared() {
+        val compiled = compile(engine,
+                               "test.counted_upper('/city') == 'BLR'",
+                               "test.counted_upper('/city') == 'DEL'",
+                               "'/count' > 1 && test.counted_upper('/city') != 'BOM'",
+                               "test.counted_upper('/city') == 'DEL'");
+        assertEquals(List.of(false, true, true, true),
+                     engine.evaluate(compiled, mapper.readTree("{ \"city\" : \"del\", \"count\" : 2 }")));
+        assertEquals(1, deterministicCalls.get());
+        assertEquals(List.of(true, false, false, false),
+                     engine.evaluate(compiled, mapper.readTree("{ \"city\" : \"blr\", \"count\" : 0 }")));
+        assertEquals(2, deterministicCalls.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void testSharedCallsAreEvaluatedLazily() {
+        val compiled = compile(engine,
+                               "'/count' > 5",
+                               "'/count' > 1 && test.counted_upper('/city') == 'DEL'",
+                               "test.counted_upper('/city') == 'DEL'");
+        assertEquals(OptionalInt.of(0),
+                     engine.evaluateFirst(compiled, mapper.readTree("{ \"city\" : \"del\", \"count\" : 7 }")));
+        assertEquals(0, deterministicCalls.get());
+        assertEquals(OptionalInt.of(1),
+                     engine.evaluateFirst(compiled, mapper.readTree("{ \"city\" : \"del\", \"count\" : 2 }")));
+        assertEquals(1, deterministicCalls.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void testNonDeterministicCallsAreNotShared() {
+        val compiled = compile(engine,
+                               "test.volatile_upper('/city') == 'BLR'",
+                               "test.volatile_upper('/city') == 'DEL'",
+                               "test.volatile_upper('/city') == 'DEL'");
+        assertEquals(List.of(false, true, true),
+                     engine.evaluate(compiled, mapper.readTree("{ \"city\" : \"del\" }")));
+        assertEquals(3, volatileCalls.get());
+    }
+
+    private static CompiledRuleList compile(HopeLangEngine engine, String... rules) {
+        return engine.compile(Stream.of(rules)
+                                      .map(engine::parse)
+                                      .toList());
+    }
+
+    @FunctionImplementation(value = "test.counted_upper", deterministic = true)
+    public static class CountedUpper extends HopeFunction<StringValue> {
+        private final Value arg;
+
+        public CountedUpper(Value arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        public StringValue apply(Evaluator.EvaluationContext evaluationContext) {
+            deterministicCalls.incrementAndGet();
+            return new StringValue(Converters.stringValue(evaluationContext, arg, "").toUpperCase());
+        }
+    }
+
+    @FunctionImplementation("test.volatile_upper")
+    public static class VolatileUpper extends HopeFunction<StringValue> {
+        private final Value arg;
+
+        public VolatileUpper(Value arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        public StringValue apply(Evaluator.EvaluationContext evaluationContext) {
+            volatileCalls.incrementAndGet();
+            return new StringValue(Converters.stringValue(evaluationContext, arg, "").toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.compiler.CompilationMode;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.functions.StatelessHopeFunction;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that stateless functions are instantiated once per call site and other functions once per call
+ */
+class StatelessFunctionTest {
+    private static final AtomicInteger statelessInstances = new AtomicInteger();
+    private static final AtomicInteger statefulInstances = new AtomicInteger();
+
+    final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    void resetCounters() {
+        statelessInstances.set(0);
+        statefulInstances.set(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testStatelessFunctionCreatedAtParseTime(CompilationMode compilationMode) {
+        val engine = engine(compilationMode);
+        val rule = engine.compile("test.stateless_upper('/name') == 'HOPE' && str.lower('/name') == 'hope'");
+        val created = statelessInstances.get();
+        assertTrue(created >= 1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.evaluate(rule, mapper.readTree("{ \"name\" : \"Hope\" }")));
+            assertFalse(engine.evaluate(rule, mapper.readTree("{ \"name\" : \"Nope\" }")));
+        }
+        assertEquals(created, statelessInstances.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testAnnotatedFunctionCreatedPerCall(CompilationMode compilationMode) {
+        val engine = engine(compilationMode);
+        val rule = engine.compile("test.stateful_upper('/name') == 'HOPE'");
+        statefulInstances.set(0);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(engine.evaluate(rule, mapper.readTree("{ \"name\" : \"Hope\" }")));
+        }
+        assertEquals(10, statefulInstances.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(CompilationMode.class)
+    @SneakyThrows
+    void testConstructionErrorsReportedOnEvaluation(CompilationMode compilationMode) {
+        val engine = engine(compilationMode);
+        val rule = engine.compile("test.stateless_upper('/name') == 'HOPE'");
+        assertTrue(engine.evaluate(rule, mapper.readTree("{ \"name\" : \"Hope\" }")));
+        val failing = engine.compile("test.stateless_upper('fail') == 'FAIL'");
+        val error = assertThrows(
+                IllegalArgumentException.class,
+                () -> engine.evaluate(failing, mapper.readTree("{}")));
+        assertEquals("Could not create instance of function: 'test.stateless_upper'", error.getMessage());
+    }
+
+    private static HopeLangEngine engine(CompilationMode compilationMode) {
+        return HopeLangEngine.builder()
+                .registerFunction(StatelessUpper.class)
+                .registerFunction(StatefulUpper.class)
+                .compilationMode(compilationMode)
+                .build();
+    }
+
+    @FunctionImplementation("test.stateless_upper")
+    public static class StatelessUpper extends StatelessHopeFunction<StringValue> {
+        private final Value arg;
+
+        public StatelessUpper(Value arg) {
+            if (arg instanceof StringValue stringValue && stringValue.getValue().equals("fail")) {
+                throw new IllegalStateException("Unsupported argument");
+            }
+            statelessInstances.incrementAndGet();
+            this.arg = arg;
+        }
+
+        @Override
+        public StringValue apply(Evaluator.EvaluationContext evaluationContext) {
+            return new StringValue(Converters.stringValue(evaluationContext, arg, "").toUpperCase());
+        }
+    }
+
+    @FunctionImplementation("test.stateful_upper")
+    public static class StatefulUpper extends HopeFunction<StringValue> {
+        private final Value arg;
+
+        public StatefulUpper(Value arg) {
+            statefulInstances.incrementAndGet();
+            this.arg = arg;
+        }
+
+        @Override
+        public StringValue apply(Evaluator.EvaluationContext evaluationContext) {
+            return new StringValue(Converters.stringValue(evaluationContext, arg, "").toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019. Santanu Sinha
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is
+ * distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package io.appform.hope.lang;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appform.hope.core.Value;
+import io.appform.hope.core.exceptions.errorstrategy.InjectValueErrorHandlingStrategy;
+import io.appform.hope.core.functions.FunctionImplementation;
+import io.appform.hope.core.functions.HopeFunction;
+import io.appform.hope.core.streaming.DocumentReferences;
+import io.appform.hope.core.utils.Converters;
+import io.appform.hope.core.values.StringValue;
+import io.appform.hope.core.visitors.Evaluator;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests evaluation of rules against serialized documents
+ */
+class StreamingEvaluationTest {
+    private static final List<String> RULES = List.of(
+            "'/type' == 'A' && '/amount' > 10",
+            "'/nested/value' == 7 || '/nested/flag' == true",
+            "'/nested' == '/nested' && '/nested/value' >= 7",
+            "'/items/1/id' == 'b'",
+            "'/items/0' == '/items/0'",
+            "arr.contains_any('/tags', ['x', 'y']) == true",
+            "arr.len('/tags') == 2 && arr.in('/type', ['A', 'B']) == true",
+            "pointer.exists('/nested/flag') == true",
+            "str.upper('/type') == 'A' && '/a~1b' == 1",
+            "'/0' == 'zero'");
+
+    private static final List<String> DOCUMENTS = List.of(
+            "{ \"type\" : \"A\", \"amount\" : 20, \"nested\" : { \"value\" : 7, \"flag\" : false }, \"tags\" : [\"x\", \"z\"], "
+                    + "\"items\" : [ { \"id\" : \"a\" }, { \"id\" : \"b\" } ], \"a/b\" : 1, \"0\" : \"zero\" }",
+            "{ \"type\" : \"b\", \"amount\" : 5, \"nested\" : { \"value\" : 6, \"flag\" : true, \"x\" : [1, 2] }, "
+                    + "\"tags\" : [\"q\"], \"items\" : [ { \"id\" : \"b\" } ], \"a/b\" : 2, \"0\" : 0 }",
+            "{ \"nested\" : { \"value\" : 7 }, \"nested\" : { \"flag\" : true }, \"type\" : \"A\", \"amount\" : 11, "
+                    + "\"tags\" : [\"y\", \"x\"], \"items\" : [1, { \"id\" : \"b\", \"id\" : \"c\" }], \"a/b\" : 1, \"0\" : \"zero\" }",
+            "[ \"zero\", 1 ]",
+            "{ \"type\" : null, \"amount\" : \"20\", \"nested\" : null, \"tags\" : null, \"items\" : {}, \"0\" : [] }",
+            "{}",
+            "42");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HopeLangEngine engine = HopeLangEngine.builder()
+            .registerFunction(EchoFunction.class)
+            .build();
+
+    @Test
+    void testPointerOnlyRulesAreStreamed() {
+        for (final String rule : RULES) {
+            assertFalse(DocumentReferences.of(List.of(engine.parse(rule))).isTreeRequired(), rule);
+        }
+        val references = DocumentReferences.of(List.of(engine.parse("'/type' == 'A' && '/amount' > 10"),
+                                                       engine.parse("'/type' == 'B'")));
+        assertEquals(2, references.getPointers().size());
+        assertEquals(2, references.getExtractor().size());
+    }
+
+    @Test
+    void testTreeRequired() {
+        for (final String rule : List.of("\"$.type\" == 'A'",
+                                         "path.exists(\"$.type\") == true",
+                                         "pointer.exists(str.lower('/path')) == true",
+                                         "test.echo('/type') == 'A'")) {
+            val references = DocumentReferences.of(List.of(engine.parse(rule)));
+            assertTrue(references.isTreeRequired(), rule);
+            assertNull(references.getExtractor(), rule);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testParityWithTree() {
+        val rules = RULES.stream()
+                .map(engine::parse)
+                .toList();
+        val lenientEngine = HopeLangEngine.builder()
+                .errorHandlingStrategy(new InjectValueErrorHandlingStrategy())
+                .build();
+        for (final String json : DOCUMENTS) {
+            val bytes = json.getBytes(StandardCharsets.UTF_8);
+            val node = mapper.readTree(bytes);
+            for (final String rule : RULES) {
+                val parsed = engine.parse(rule);
+                assertSameOutcome(() -> engine.evaluate(parsed, node), () -> engine.evaluate(parsed, bytes), rule + " " + json);
+                assertEquals(lenientEngine.evaluate(parsed, node), lenientEngine.evaluate(parsed, bytes), rule + " " + json);
+            }
+            assertEquals(lenientEngine.evaluate(rules, node), lenientEngine.evaluate(rules, bytes), json);
+            assertEquals(lenientEngine.evaluate(rules, node),
+                         lenientEngine.evaluate(rules, new ByteArrayInputStream(bytes)), json);
+            val compiled = lenientEngine.compile(rules);
+            assertEquals(lenientEngine.evaluate(compiled, node), lenientEngine.evaluate(compiled, bytes), json);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testTreeFallback() {
+        val json = "{ \"type\" : \"A\", \"items\" : [ { \"id\" : \"a\" } ] }".getBytes(StandardCharsets.UTF_8);
+        assertTrue(engine.evaluate(engine.parse("\"$.items[0].id\" == 'a' && '/type' == 'A'"), json));
+        assertTrue(engine.evaluate(engine.parse("test.echo('/type') == 'A'"), new ByteArrayInputStream(json)));
+        assertEquals(List.of(true, false),
+                     engine.evaluate(List.of(engine.parse("path.exists(\"$.items\") == true"),
+                                             engine.parse("'/type' == 'B'")), json));
+    }
+
+    @Test
+    void testMalformedDocument() {
+        val rule = engine.parse("'/type' == 'A'");
+        assertThrows(IOException.class,
+                     () -> engine.evaluate(rule, "{ \"type\" : \"A\", \"x\" : [1, }".getBytes(StandardCharsets.UTF_8)));
+        //The context of the thread is released after a failure
+        assertDoesNotThrow(() -> engine.evaluate(rule, "{ \"type\" : \"A\" }".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void assertSameOutcome(
+            ThrowingSupplier<Boolean> expected,
+            ThrowingSupplier<Boolean> actual,
+            String message) throws Throwable {
+        Boolean expectedResult = null;
+        Class<?> expectedError = null;
+        try {
+            expectedResult = expected.get();
+        }
+        catch (RuntimeException e) {
+            expectedError = e.getClass();
+        }
+        if (null == expectedError) {
+            assertEquals(expectedResult, actual.get(), message);
+        }
+        else {
+            assertThrows(expectedError.asSubclass(Throwable.class), actual::get, message);
+        }
+    }
+
+    /**
+     * Returns its parameter. Functions outside the standard library need the whole document.
+     */
+    @FunctionImplementation("test.echo")
+    public static class EchoFunction extends HopeFunction<StringValue> {
+        private final Value arg;
+
+        public EchoFunction(Value arg) {
+            this.arg = arg;
+        }
+
+        @Override
+        public StringValue apply(Evaluator.EvaluationContext evaluationContext) {
+            return new StringValue(Converters.stringValue(evaluationContext, arg, ""));
+        }
+    }
+}